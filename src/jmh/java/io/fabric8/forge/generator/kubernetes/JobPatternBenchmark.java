@@ -0,0 +1,73 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks merging a repository into the job pattern of organisations with many repositories, both from the
+ * compacted regex stored in the job and into an already parsed {@link JobPattern}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class JobPatternBenchmark {
+    @Param({"10", "1000", "10000"})
+    public int repositories;
+
+    private String pattern;
+    private JobPattern jobPattern;
+    private String[] newRepositories;
+
+    @Setup
+    public void createPattern() {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < repositories; i++) {
+            names.add("my-repository-" + i);
+        }
+        jobPattern = JobPattern.of(names);
+        pattern = jobPattern.toRegex();
+        newRepositories = new String[]{"my-new-repository", "my-repository-" + (repositories / 2)};
+    }
+
+    @Benchmark
+    public String combineNewRepository() {
+        return GitHubOrgJobConfig.addToPattern(pattern, Collections.singletonList(newRepositories[0]));
+    }
+
+    @Benchmark
+    public String combineExistingRepository() {
+        return GitHubOrgJobConfig.addToPattern(pattern, Collections.singletonList(newRepositories[1]));
+    }
+
+    @Benchmark
+    public boolean addExistingRepository() {
+        return jobPattern.add(newRepositories[1]);
+    }
+}
@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.pipeline;
+
+import io.fabric8.utils.Files;
+import io.fabric8.utils.IOHelpers;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link ChoosePipelineStep#updatePomVersions(File, StatusDTO, String, boolean)} over the
+ * <code>src/test/resources/poms</code> fixtures which get restored before each invocation
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PomVersionsBenchmark {
+    @Param({"pom-no-build.xml", "pom-no-fmp.xml", "pom-pluginManagement-and-no-version.xml",
+            "pom-profile-no-version.xml", "pom-profile-version.xml", "pom-property-version.xml"})
+    public String fixture;
+
+    private String fixtureText;
+    private File pom;
+
+    @Setup(Level.Trial)
+    public void loadFixture() throws IOException {
+        String basedir = System.getProperty("basedir", ".");
+        fixtureText = IOHelpers.readFully(new File(basedir, "src/test/resources/poms/" + fixture));
+        File outDir = new File(basedir, "target/benchmark-data/pom-versions");
+        Files.recursiveDelete(outDir);
+        outDir.mkdirs();
+        pom = new File(outDir, "pom.xml");
+    }
+
+    @Setup(Level.Invocation)
+    public void resetPom() throws IOException {
+        IOHelpers.writeFully(pom, fixtureText);
+    }
+
+    @Benchmark
+    public StatusDTO updatePomVersions() {
+        StatusDTO status = new StatusDTO();
+        ChoosePipelineStep.updatePomVersions(pom, status, "my-space", true);
+        return status;
+    }
+}
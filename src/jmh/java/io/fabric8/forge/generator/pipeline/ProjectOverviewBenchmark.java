@@ -0,0 +1,128 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.pipeline;
+
+import io.fabric8.utils.Files;
+import io.fabric8.utils.IOHelpers;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.File;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Benchmarks {@link AbstractProjectOverviewCommand#scanProject} over a generated project tree and
+ * {@link ChoosePipelineStep#getPipelines(UIContext, boolean)} over a generated Jenkinsfile library
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ProjectOverviewBenchmark {
+    private static final String[] BUILDERS = {"maven", "node", "golang", "ruby", "swift", "django", "php", "dotnet", "sbt"};
+    private static final String[] EXTENSIONS = {"txt", "md", "xml", "properties", "yml", "json"};
+
+    /**
+     * The number of folders and files created in each folder of the generated project
+     */
+    @Param({"4", "8"})
+    public int fanout;
+
+    /**
+     * The number of pipelines created for each builder in the generated Jenkinsfile library
+     */
+    @Param({"5", "50"})
+    public int pipelinesPerBuilder;
+
+    private File projectDir;
+    private BenchmarkPipelineStep step;
+
+    @Setup(Level.Trial)
+    public void createFolders() throws IOException {
+        File outDir = new File(System.getProperty("basedir", "."), "target/benchmark-data/project-overview");
+        Files.recursiveDelete(outDir);
+
+        projectDir = new File(outDir, "project");
+        createProjectTree(projectDir, fanout, 0, 3);
+        IOHelpers.writeFully(new File(projectDir, "pom.xml"), "<project>\n  <dependencies>\n    <dependency>\n" +
+                "      <groupId>org.apache.camel</groupId>\n      <artifactId>camel-core</artifactId>\n" +
+                "    </dependency>\n  </dependencies>\n</project>\n");
+
+        File libraryDir = new File(outDir, "jenkinsfiles");
+        for (String builder : BUILDERS) {
+            for (int i = 0; i < pipelinesPerBuilder; i++) {
+                File pipelineDir = new File(libraryDir, builder + "/ReleaseStageAndApprovePromote" + i);
+                pipelineDir.mkdirs();
+                IOHelpers.writeFully(new File(pipelineDir, ChoosePipelineStep.JENKINSFILE), "node {\n  echo 'hello'\n}\n");
+                IOHelpers.writeFully(new File(pipelineDir, "ReadMe.md"), "Releases, stages and promotes " + builder + " projects\n");
+                IOHelpers.writeFully(new File(pipelineDir, "metadata.yml"), "stages:\n- Build Release\n- Rollout to Stage\n" +
+                        "environments:\n- Stage\n- Run\n");
+            }
+        }
+        step = new BenchmarkPipelineStep(libraryDir);
+    }
+
+    @Benchmark
+    public ProjectOverviewDTO scanProject() {
+        ProjectOverviewDTO overview = new ProjectOverviewDTO();
+        step.scanProject(projectDir, step.loadFileMatches(), overview, 0, 3);
+        return overview;
+    }
+
+    @Benchmark
+    public List<PipelineDTO> getPipelines() {
+        return step.getPipelines(null, false);
+    }
+
+    protected static void createProjectTree(File dir, int fanout, int level, int maxLevels) throws IOException {
+        dir.mkdirs();
+        for (int i = 0; i < fanout; i++) {
+            String extension = EXTENSIONS[(level + i) % EXTENSIONS.length];
+            IOHelpers.writeFully(new File(dir, "file" + i + "." + extension), "level " + level + "\n");
+        }
+        if (level < maxLevels) {
+            for (int i = 0; i < fanout; i++) {
+                createProjectTree(new File(dir, "folder" + i), fanout, level + 1, maxLevels);
+            }
+        }
+    }
+
+    /**
+     * Uses a local Jenkinsfile library folder rather than the injected {@link JenkinsPipelineLibrary}
+     */
+    protected static class BenchmarkPipelineStep extends ChoosePipelineStep {
+        private final File workflowFolder;
+
+        public BenchmarkPipelineStep(File workflowFolder) {
+            this.workflowFolder = workflowFolder;
+        }
+
+        @Override
+        protected File getJenkinsWorkflowFolder(UIContext context) {
+            return workflowFolder;
+        }
+    }
+}
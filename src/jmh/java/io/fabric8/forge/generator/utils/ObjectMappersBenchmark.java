@@ -0,0 +1,96 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+import io.fabric8.forge.generator.pipeline.PipelineMetadata;
+import io.fabric8.forge.generator.tenant.TenantResultsDTO;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares parsing the generator's payloads with a new {@link ObjectMapper} per call against the shared
+ * readers of {@link ObjectMappers}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ObjectMappersBenchmark {
+    private static final String TOKEN_JSON = "{\"access_token\":\"abc.def.ghi\",\"token_type\":\"bearer\"," +
+            "\"scope\":\"admin:repo_hook,gist,read:org,repo,user\",\"expires_in\":3600}";
+    private static final String TENANT_JSON = "{\"data\":{\"id\":\"1\",\"type\":\"userservices\",\"attributes\":{" +
+            "\"created-at\":\"2017-06-01T10:00:00Z\",\"namespaces\":[" +
+            "{\"name\":\"foo\",\"type\":\"user\",\"state\":\"created\",\"version\":\"1.0.1\",\"cluster-url\":\"https://api.example.com\"}," +
+            "{\"name\":\"foo-che\",\"type\":\"che\",\"state\":\"created\",\"version\":\"1.0.1\",\"cluster-url\":\"https://api.example.com\"}," +
+            "{\"name\":\"foo-jenkins\",\"type\":\"jenkins\",\"state\":\"created\",\"version\":\"1.0.1\",\"cluster-url\":\"https://api.example.com\"}," +
+            "{\"name\":\"foo-run\",\"type\":\"run\",\"state\":\"created\",\"version\":\"1.0.1\",\"cluster-url\":\"https://api.example.com\"}," +
+            "{\"name\":\"foo-stage\",\"type\":\"stage\",\"state\":\"created\",\"version\":\"1.0.1\",\"cluster-url\":\"https://api.example.com\"}]}}}";
+    private static final String BUILD_JSON = "{\"_class\":\"org.jenkinsci.plugins.workflow.job.WorkflowRun\",\"building\":false," +
+            "\"duration\":123456,\"number\":42,\"result\":\"SUCCESS\",\"actions\":[{},{\"causes\":[{\"shortDescription\":\"Push event\"}]}]}";
+    private static final String PIPELINE_YAML = "stages:\n- Build Release\n- Rollout to Stage\n- Approve\n- Rollout to Run\n" +
+            "environments:\n- Stage\n- Run\n";
+
+    @Benchmark
+    public Map<?, ?> tokenMapNewMapper() throws IOException {
+        return new ObjectMapper().readerFor(Map.class).readValue(TOKEN_JSON);
+    }
+
+    @Benchmark
+    public Map<?, ?> tokenMapSharedReader() throws IOException {
+        return ObjectMappers.jsonReader(Map.class).readValue(TOKEN_JSON);
+    }
+
+    @Benchmark
+    public TenantResultsDTO tenantNewMapper() throws IOException {
+        return new ObjectMapper().readerFor(TenantResultsDTO.class).readValue(TENANT_JSON);
+    }
+
+    @Benchmark
+    public TenantResultsDTO tenantSharedReader() throws IOException {
+        return ObjectMappers.jsonReader(TenantResultsDTO.class).readValue(TENANT_JSON);
+    }
+
+    @Benchmark
+    public JsonNode buildJsonNewMapper() throws IOException {
+        return new ObjectMapper().reader().readTree(BUILD_JSON);
+    }
+
+    @Benchmark
+    public JsonNode buildJsonSharedReader() throws IOException {
+        return ObjectMappers.jsonReader(JsonNode.class).readValue(BUILD_JSON);
+    }
+
+    @Benchmark
+    public PipelineMetadata pipelineMetadataNewMapper() throws IOException {
+        return new ObjectMapper(new YAMLFactory()).readerFor(PipelineMetadata.class).readValue(PIPELINE_YAML);
+    }
+
+    @Benchmark
+    public PipelineMetadata pipelineMetadataSharedReader() throws IOException {
+        return ObjectMappers.yamlReader(PipelineMetadata.class).readValue(PIPELINE_YAML);
+    }
+}
@@ -0,0 +1,150 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.loadtest;
+
+import static io.fabric8.forge.generator.loadtest.StubServer.Response.created;
+import static io.fabric8.forge.generator.loadtest.StubServer.Response.notFound;
+import static io.fabric8.forge.generator.loadtest.StubServer.Response.ok;
+
+/**
+ * Registers the routes of the stand-ins for the GitHub, Keycloak, WIT and OpenShift APIs used by the generator
+ */
+public class GeneratorStubs {
+    public static final String GITHUB = "github";
+    public static final String KEYCLOAK = "keycloak";
+    public static final String WIT = "wit";
+    public static final String OPENSHIFT = "openshift";
+
+    public static final String[] SERVICES = {GITHUB, KEYCLOAK, WIT, OPENSHIFT};
+
+    public static final String USER_NAME = "loadtest";
+    public static final String ORGANISATION = "loadtest-org";
+    public static final String USER_NAMESPACE = "loadtest";
+    public static final String JENKINS_NAMESPACE = "loadtest-jenkins";
+
+    /**
+     * Returns the URL prefix of the given service on the stub server
+     */
+    public static String serviceUrl(String baseUrl, String service) {
+        if (OPENSHIFT.equals(service)) {
+            // the kubernetes client expects the API paths at the root
+            return baseUrl;
+        }
+        return baseUrl + "/" + service;
+    }
+
+    public static void register(StubServer server, String baseUrl, int repositories) {
+        registerKeycloak(server);
+        registerWit(server);
+        registerOpenShift(server);
+        registerGitHub(server, serviceUrl(baseUrl, GITHUB), repositories);
+    }
+
+    protected static void registerKeycloak(StubServer server) {
+        server.addRoute(KEYCLOAK, "GET", "/keycloak/auth/realms/fabric8/broker/([^/]+)/token", (path, body, authorization) ->
+                ok("{\"access_token\":\"" + path.group(1) + "-" + bearerToken(authorization) + "\",\"scope\":\"user\"}"));
+    }
+
+    /**
+     * Returns the token of the authorization header so that exchanged tokens keep the step name of the caller
+     */
+    protected static String bearerToken(String authorization) {
+        if (authorization == null) {
+            return "";
+        }
+        int idx = authorization.indexOf(' ');
+        return authorization.substring(idx + 1).trim();
+    }
+
+    protected static void registerWit(StubServer server) {
+        server.addRoute(WIT, "GET", "/wit/api/user/services", (path, body, authorization) ->
+                ok("{\"data\":{\"attributes\":{\"namespaces\":[" +
+                        "{\"name\":\"" + USER_NAMESPACE + "\",\"type\":\"user\"}," +
+                        "{\"name\":\"" + JENKINS_NAMESPACE + "\",\"type\":\"jenkins\"}," +
+                        "{\"name\":\"" + USER_NAMESPACE + "-stage\",\"type\":\"stage\"}]}}}"));
+        server.addRoute(WIT, "GET", "/wit/api/user", (path, body, authorization) ->
+                ok("{\"data\":{\"attributes\":{\"contextInformation\":{\"boosterCatalog\":" +
+                        "{\"gitRef\":\"master\",\"gitRepo\":\"https://github.com/fabric8-launcher/launcher-booster-catalog.git\"}}}}}"));
+    }
+
+    protected static void registerOpenShift(StubServer server) {
+        server.addRoute(OPENSHIFT, "GET", "/", (path, body, authorization) ->
+                ok("{\"paths\":[\"/api\",\"/api/v1\",\"/apis\",\"/apis/project.openshift.io\",\"/apis/build.openshift.io\",\"/oapi\",\"/oapi/v1\"]}"));
+        server.addRoute(OPENSHIFT, "GET", "/oapi/v1/users/~", (path, body, authorization) ->
+                ok("{\"kind\":\"User\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"" + USER_NAME + "\"}}"));
+        server.addRoute(OPENSHIFT, "GET", "/oapi/v1/namespaces/[^/]+/buildconfigs", (path, body, authorization) ->
+                ok("{\"kind\":\"BuildConfigList\",\"apiVersion\":\"v1\",\"items\":[]}"));
+        server.addRoute(OPENSHIFT, "GET", "/oapi/v1/namespaces/[^/]+/buildconfigs/[^/]+", (path, body, authorization) -> notFound());
+        server.addRoute(OPENSHIFT, "POST", "/oapi/v1/namespaces/[^/]+/buildconfigs", (path, body, authorization) -> created(body));
+        server.addRoute(OPENSHIFT, "POST", "/oapi/v1/namespaces/([^/]+)/buildconfigs/([^/]+)/instantiate", (path, body, authorization) ->
+                created("{\"kind\":\"Build\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"" + path.group(2) + "-1\"," +
+                        "\"namespace\":\"" + path.group(1) + "\"}}"));
+        server.addRoute(OPENSHIFT, "GET", "/api/v1/namespaces/[^/]+/secrets", (path, body, authorization) ->
+                ok("{\"kind\":\"SecretList\",\"apiVersion\":\"v1\",\"items\":[]}"));
+        server.addRoute(OPENSHIFT, "GET", "/api/v1/namespaces/[^/]+/secrets/[^/]+", (path, body, authorization) -> notFound());
+        server.addRoute(OPENSHIFT, "POST", "/api/v1/namespaces/[^/]+/secrets", (path, body, authorization) -> created(body));
+        // the exposed URL annotation spares the generator looking up the route of the jenkins service
+        server.addRoute(OPENSHIFT, "GET", "/api/v1/namespaces/([^/]+)/services/jenkins", (path, body, authorization) ->
+                ok("{\"kind\":\"Service\",\"apiVersion\":\"v1\",\"metadata\":{\"name\":\"jenkins\",\"namespace\":\"" + path.group(1) + "\"," +
+                        "\"annotations\":{\"fabric8.io/exposeUrl\":\"http://jenkins." + path.group(1) + "\"}}}"));
+        server.addRoute(OPENSHIFT, "GET", "/api/v1/namespaces/[^/]+/configmaps/[^/]+", (path, body, authorization) -> notFound());
+        server.addRoute(OPENSHIFT, "POST", "/api/v1/namespaces/[^/]+/configmaps", (path, body, authorization) -> created(body));
+    }
+
+    protected static void registerGitHub(StubServer server, String githubUrl, int repositories) {
+        server.addRoute(GITHUB, "GET", "/github/user", (path, body, authorization) -> ok(user(githubUrl)));
+        server.addRoute(GITHUB, "GET", "/github/user/orgs", (path, body, authorization) -> ok("[" + organisation(githubUrl) + "]"));
+        server.addRoute(GITHUB, "GET", "/github/orgs/[^/]+", (path, body, authorization) -> ok(organisation(githubUrl)));
+        server.addRoute(GITHUB, "GET", "/github/user/repos", (path, body, authorization) -> ok(repositories(githubUrl, USER_NAME, repositories)));
+        server.addRoute(GITHUB, "GET", "/github/orgs/([^/]+)/repos", (path, body, authorization) ->
+                ok(repositories(githubUrl, path.group(1), repositories)));
+        server.addRoute(GITHUB, "GET", "/github/repos/([^/]+)/([^/]+)", (path, body, authorization) ->
+                ok(repository(githubUrl, path.group(1), path.group(2))));
+        server.addRoute(GITHUB, "GET", "/github/repos/[^/]+/[^/]+/hooks", (path, body, authorization) -> ok("[]"));
+        server.addRoute(GITHUB, "POST", "/github/repos/[^/]+/[^/]+/hooks", (path, body, authorization) ->
+                created("{\"id\":1,\"name\":\"web\",\"active\":true,\"events\":[],\"config\":{}}"));
+    }
+
+    protected static String user(String githubUrl) {
+        return "{\"login\":\"" + USER_NAME + "\",\"id\":1,\"type\":\"User\",\"email\":\"" + USER_NAME + "@example.com\"," +
+                "\"url\":\"" + githubUrl + "/users/" + USER_NAME + "\"}";
+    }
+
+    protected static String organisation(String githubUrl) {
+        return "{\"login\":\"" + ORGANISATION + "\",\"id\":2,\"name\":\"" + ORGANISATION + "\"," +
+                "\"url\":\"" + githubUrl + "/orgs/" + ORGANISATION + "\"}";
+    }
+
+    protected static String repositories(String githubUrl, String owner, int count) {
+        StringBuilder builder = new StringBuilder("[");
+        for (int i = 0; i < count; i++) {
+            if (i > 0) {
+                builder.append(",");
+            }
+            builder.append(repository(githubUrl, owner, "repo-" + i));
+        }
+        return builder.append("]").toString();
+    }
+
+    protected static String repository(String githubUrl, String owner, String name) {
+        return "{\"id\":" + Math.abs(name.hashCode()) + ",\"name\":\"" + name + "\",\"full_name\":\"" + owner + "/" + name + "\"," +
+                "\"owner\":{\"login\":\"" + owner + "\"},\"private\":false," +
+                "\"url\":\"" + githubUrl + "/repos/" + owner + "/" + name + "\"," +
+                "\"html_url\":\"https://github.com/" + owner + "/" + name + "\"," +
+                "\"clone_url\":\"https://github.com/" + owner + "/" + name + ".git\"}";
+    }
+}
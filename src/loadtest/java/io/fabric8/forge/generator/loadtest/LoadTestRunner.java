@@ -0,0 +1,440 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.loadtest;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.git.GitOrganisationDTO;
+import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.github.GitHubFacade;
+import io.fabric8.forge.generator.github.GitHubProvider;
+import io.fabric8.forge.generator.github.GithubImportPickRepositoriesStep;
+import io.fabric8.forge.generator.keycloak.KeycloakEndpoint;
+import io.fabric8.forge.generator.keycloak.ProfileSettings;
+import io.fabric8.forge.generator.keycloak.ProfileSettingsDTO;
+import io.fabric8.forge.generator.keycloak.TokenHelper;
+import io.fabric8.forge.generator.kubernetes.BuildTriggers;
+import io.fabric8.forge.generator.kubernetes.CachedBuildConfigNames;
+import io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep;
+import io.fabric8.forge.generator.kubernetes.GitRepoDTO;
+import io.fabric8.forge.generator.kubernetes.JenkinsClients;
+import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.kubernetes.OrganisationJobConfigMaps;
+import io.fabric8.forge.generator.kubernetes.ProvisioningJob;
+import io.fabric8.forge.generator.tenant.NamespaceDTO;
+import io.fabric8.forge.generator.tenant.Tenants;
+import io.fabric8.forge.generator.utils.ObjectMappers;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.utils.Strings;
+import org.jboss.forge.addon.ui.result.Failed;
+import org.jboss.forge.addon.ui.result.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Drives the outbound calls of the <code>NewProjectWizard</code>, <code>ImportGit</code> and
+ * <code>CreateBuildConfigStep</code> wizard flows concurrently against a {@link StubServer} and reports the
+ * throughput, p50/p99 latency and outbound call counts of each step.
+ * <p>
+ * The generator reads its service URLs from environment variables so they must point at the stub server port,
+ * which is what the <code>loadtest</code> maven profile does:
+ * <pre>
+ *     mvn test-compile exec:exec -Ploadtest -Dloadtest.args="-Dloadtest.users=20 -Dloadtest.latency=50 -Dloadtest.failureRate=0.01"
+ * </pre>
+ * Each step uses an authorization header of the form <code>Bearer loadtest-&lt;step&gt;-&lt;user&gt;-&lt;iteration&gt;</code>
+ * which the stub Keycloak carries through to the exchanged tokens so that every outbound call can be attributed
+ * to the step making it.
+ */
+public class LoadTestRunner {
+    private static final transient Logger LOG = LoggerFactory.getLogger(LoadTestRunner.class);
+
+    public static final String TOKEN_PREFIX = "loadtest-";
+
+    public static final String NEW_PROJECT_FLOW = "NewProjectWizard";
+    public static final String IMPORT_GIT_FLOW = "ImportGit";
+
+    private final int port;
+    private final int users;
+    private final int iterations;
+    private final int repositories;
+    private final int importRepositories;
+    private final Map<String, StepStatistics> flowStatistics = new ConcurrentHashMap<>();
+    private final Map<String, StepStatistics> stepStatistics = new ConcurrentHashMap<>();
+    private final CacheFacade cacheManager = new CacheFacade();
+    private final ExecutorFacade executorFacade = new ExecutorFacade();
+    private final BuildTriggers buildTriggers = new BuildTriggers(executorFacade);
+    private final OrganisationJobConfigMaps organisationJobConfigMaps = new OrganisationJobConfigMaps();
+    private final JenkinsClients jenkinsClients = new JenkinsClients(cacheManager);
+
+    public LoadTestRunner(int port, int users, int iterations, int repositories, int importRepositories) {
+        this.port = port;
+        this.users = users;
+        this.iterations = iterations;
+        this.repositories = repositories;
+        this.importRepositories = importRepositories;
+    }
+
+    public static void main(String[] args) {
+        int port = Integer.getInteger("loadtest.port", 18089);
+        LoadTestRunner runner = new LoadTestRunner(port,
+                Integer.getInteger("loadtest.users", 10),
+                Integer.getInteger("loadtest.iterations", 20),
+                Integer.getInteger("loadtest.repositories", 20),
+                Integer.getInteger("loadtest.importRepositories", 3));
+        String baseUrl = "http://localhost:" + port;
+        if (!checkEnvironment(baseUrl)) {
+            System.exit(2);
+        }
+
+        StubServer server = new StubServer(Integer.getInteger("loadtest.serverThreads", 200));
+        for (String service : GeneratorStubs.SERVICES) {
+            server.configureService(service,
+                    Long.getLong("loadtest." + service + ".latency", Long.getLong("loadtest.latency", 20)),
+                    Long.getLong("loadtest." + service + ".jitter", Long.getLong("loadtest.jitter", 10)),
+                    doubleProperty("loadtest." + service + ".failureRate", doubleProperty("loadtest.failureRate", 0)));
+        }
+        GeneratorStubs.register(server, baseUrl, runner.repositories);
+        int exitCode = 0;
+        try {
+            server.start(port);
+            Map<String, Object> report = runner.run(server);
+            File resultFile = new File(System.getProperty("loadtest.result", "target/loadtest-result.json"));
+            resultFile.getParentFile().mkdirs();
+            ObjectMappers.json().writerWithDefaultPrettyPrinter().writeValue(resultFile, report);
+            LOG.info("Wrote load test results to " + resultFile.getAbsolutePath());
+
+            double maxErrorRate = doubleProperty("loadtest.maxErrorRate", 1.0);
+            double errorRate = runner.errorRate();
+            if (errorRate > maxErrorRate) {
+                LOG.error("Flow error rate " + errorRate + " exceeded loadtest.maxErrorRate " + maxErrorRate);
+                exitCode = 1;
+            }
+        } catch (Exception e) {
+            LOG.error("Load test failed: " + e, e);
+            exitCode = 1;
+        } finally {
+            server.stop();
+            runner.destroy();
+        }
+        System.exit(exitCode);
+    }
+
+    protected static boolean checkEnvironment(String baseUrl) {
+        Map<String, String> expected = new LinkedHashMap<>();
+        expected.put(EnvironmentVariables.KEYCLOAK_SAAS, GeneratorStubs.serviceUrl(baseUrl, GeneratorStubs.KEYCLOAK));
+        expected.put(EnvironmentVariables.WIT_URL, GeneratorStubs.serviceUrl(baseUrl, GeneratorStubs.WIT));
+        expected.put(EnvironmentVariables.OPENSHIFT_API_URL, GeneratorStubs.serviceUrl(baseUrl, GeneratorStubs.OPENSHIFT));
+        expected.put(EnvironmentVariables.GITHUB_API_URL, GeneratorStubs.serviceUrl(baseUrl, GeneratorStubs.GITHUB));
+        boolean valid = true;
+        for (Map.Entry<String, String> entry : expected.entrySet()) {
+            String value = System.getenv(entry.getKey());
+            if (!entry.getValue().equals(value)) {
+                LOG.error("Environment variable " + entry.getKey() + " should be " + entry.getValue() + " but was " + value);
+                valid = false;
+            }
+        }
+        return valid;
+    }
+
+    protected static double doubleProperty(String name, double defaultValue) {
+        String value = System.getProperty(name);
+        if (Strings.isNotBlank(value)) {
+            try {
+                return Double.parseDouble(value);
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring invalid value " + value + " for " + name);
+            }
+        }
+        return defaultValue;
+    }
+
+    public void destroy() {
+        executorFacade.destroy();
+        cacheManager.destroy();
+    }
+
+    public Map<String, Object> run(StubServer server) throws Exception {
+        LOG.info("Running " + users + " concurrent users for " + iterations + " iterations each");
+        ExecutorService executor = Executors.newFixedThreadPool(users);
+        long start = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < users; i++) {
+                final int user = i;
+                futures.add(executor.submit(() -> {
+                    for (int iteration = 0; iteration < iterations; iteration++) {
+                        if ((user + iteration) % 2 == 0) {
+                            runNewProjectFlow(user, iteration);
+                        } else {
+                            runImportGitFlow(user, iteration);
+                        }
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+        long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        return createReport(server, durationMillis);
+    }
+
+    protected void runNewProjectFlow(int user, int iteration) {
+        runFlow(NEW_PROJECT_FLOW, () -> {
+            step("profileSettings", user, iteration, this::profileSettings);
+            step("pickGitAccount", user, iteration, this::pickOrganisation);
+            step("choosePipeline", user, iteration, this::choosePipeline);
+            step("createBuildConfig", user, iteration, authHeader -> createBuildConfigs(authHeader, 1));
+        });
+    }
+
+    protected void runImportGitFlow(int user, int iteration) {
+        runFlow(IMPORT_GIT_FLOW, () -> {
+            step("pickOrganisation", user, iteration, this::pickOrganisation);
+            step("pickRepositories", user, iteration, this::pickRepositories);
+            step("choosePipeline", user, iteration, this::choosePipeline);
+            step("createBuildConfig", user, iteration, authHeader -> createBuildConfigs(authHeader, importRepositories));
+        });
+    }
+
+    protected void runFlow(String flow, FlowBlock block) {
+        long start = System.nanoTime();
+        boolean failed = false;
+        try {
+            block.run();
+        } catch (Exception e) {
+            failed = true;
+            LOG.debug("Flow " + flow + " failed: " + e, e);
+        }
+        statistics(flowStatistics, flow).record(System.nanoTime() - start, failed);
+    }
+
+    protected void step(String step, int user, int iteration, StepBlock block) throws Exception {
+        String authHeader = "Bearer " + TOKEN_PREFIX + step + "-" + user + "-" + iteration;
+        long start = System.nanoTime();
+        boolean failed = true;
+        try {
+            block.run(authHeader);
+            failed = false;
+        } finally {
+            statistics(stepStatistics, step).record(System.nanoTime() - start, failed);
+        }
+    }
+
+    // the outbound calls made by each wizard step
+    //-------------------------------------------------------------------------
+
+    protected void profileSettings(String authHeader) {
+        ProfileSettingsDTO settings = ProfileSettings.loadProfileSettings(authHeader);
+        if (settings == null) {
+            throw new IllegalStateException("No profile settings loaded");
+        }
+    }
+
+    protected void pickOrganisation(String authHeader) {
+        GitHubFacade github = createGitHubFacade(authHeader);
+        Collection<GitOrganisationDTO> organisations = github.loadGithubOrganisations();
+        if (organisations.isEmpty()) {
+            throw new IllegalStateException("No github organisations loaded");
+        }
+    }
+
+    protected void pickRepositories(String authHeader) {
+        GitHubFacade github = createGitHubFacade(authHeader);
+        Collection<GitRepositoryDTO> repositories = GithubImportPickRepositoriesStep.loadRepositories(cacheManager, github, GeneratorStubs.ORGANISATION);
+        if (repositories.isEmpty()) {
+            throw new IllegalStateException("No github repositories loaded");
+        }
+        List<GitRepositoryDTO> selected = new ArrayList<>(repositories).subList(0, Math.min(importRepositories, repositories.size()));
+        try (KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClientForSSO(authHeader)) {
+            String namespace = Tenants.findDefaultUserNamespace(loadNamespaces(kubernetesClient, authHeader));
+            CachedBuildConfigNames buildConfigNames = CachedBuildConfigNames.getCached(cacheManager, kubernetesClient,
+                    mandatoryOpenShiftClient(kubernetesClient), namespace);
+            String existing = GithubImportPickRepositoriesStep.findRepositoryWithBuildConfig(buildConfigNames, selected);
+            if (existing != null) {
+                throw new IllegalStateException("The repository " + existing + " already has a BuildConfig");
+            }
+        }
+    }
+
+    protected void choosePipeline(String authHeader) {
+        createGitHubFacade(authHeader);
+        try (KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClientForSSO(authHeader)) {
+            List<NamespaceDTO> namespaces = Tenants.loadNamespaces(authHeader);
+            KubernetesClientHelper.loadSpaces(kubernetesClient, Tenants.findDefaultUserNamespace(namespaces));
+        }
+    }
+
+    protected void createBuildConfigs(String authHeader, int repositoryCount) throws Exception {
+        GitHubFacade github = createGitHubFacade(authHeader);
+        try (KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClientForSSO(authHeader)) {
+            List<NamespaceDTO> namespaces = loadNamespaces(kubernetesClient, authHeader);
+            LoadTestBuildConfigStep step = new LoadTestBuildConfigStep(kubernetesClient, cacheManager, executorFacade, buildTriggers,
+                    organisationJobConfigMaps, jenkinsClients);
+            Result result = step.provisionRepositories(Tenants.findDefaultUserNamespace(namespaces),
+                    Tenants.findDefaultJenkinsNamespace(namespaces), github.getDetails(), repositoryCount, mandatoryOpenShiftClient(kubernetesClient));
+            if (result instanceof Failed) {
+                throw new IllegalStateException(result.getMessage());
+            }
+        }
+    }
+
+    protected List<NamespaceDTO> loadNamespaces(KubernetesClient kubernetesClient, String authHeader) {
+        return cacheManager.computeIfAbsent(CacheNames.USER_NAMESPACES, KubernetesClientHelper.getUserCacheKey(kubernetesClient),
+                k -> Tenants.loadNamespaces(authHeader));
+    }
+
+    protected GitHubFacade createGitHubFacade(String authHeader) {
+        String token = TokenHelper.getMandatoryTokenFor(KeycloakEndpoint.GET_GITHUB_TOKEN, authHeader);
+        GitHubFacade github = new GitHubFacade(new GitAccount(null, token, null, null));
+        if (!github.isDetailsValid()) {
+            throw new IllegalStateException("Could not load the github user");
+        }
+        return github;
+    }
+
+    protected static OpenShiftClient mandatoryOpenShiftClient(KubernetesClient kubernetesClient) {
+        OpenShiftClient answer = KubernetesClientHelper.getOpenShiftClientOrNull(kubernetesClient);
+        if (answer == null) {
+            throw new IllegalStateException("The stub API server is not detected as OpenShift");
+        }
+        return answer;
+    }
+
+    // reporting
+    //-------------------------------------------------------------------------
+
+    protected Map<String, Object> createReport(StubServer server, long durationMillis) {
+        Map<String, Map<String, Long>> callCounts = server.getCallCounts();
+        Map<String, Object> configuration = new LinkedHashMap<>();
+        configuration.put("users", users);
+        configuration.put("iterations", iterations);
+        configuration.put("repositories", repositories);
+        configuration.put("importRepositories", importRepositories);
+
+        Map<String, Object> flows = new TreeMap<>();
+        for (Map.Entry<String, StepStatistics> entry : flowStatistics.entrySet()) {
+            flows.put(entry.getKey(), entry.getValue().toReport(durationMillis));
+        }
+        Map<String, Object> steps = new TreeMap<>();
+        for (Map.Entry<String, StepStatistics> entry : stepStatistics.entrySet()) {
+            Map<String, Object> stepReport = entry.getValue().toReport(durationMillis);
+            stepReport.put("outboundCalls", callCounts.getOrDefault(entry.getKey(), new TreeMap<>()));
+            steps.put(entry.getKey(), stepReport);
+        }
+        Map<String, Long> unattributed = callCounts.get(StubServer.UNKNOWN_STEP);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("configuration", configuration);
+        report.put("durationMillis", durationMillis);
+        report.put("flows", flows);
+        report.put("steps", steps);
+        if (unattributed != null) {
+            report.put("unattributedCalls", unattributed);
+        }
+
+        System.out.println(String.format("%-20s %8s %8s %10s %10s %10s  %s", "step", "count", "errors", "per sec", "p50 ms", "p99 ms", "outbound calls"));
+        printStatistics(flowStatistics, durationMillis, callCounts);
+        printStatistics(stepStatistics, durationMillis, callCounts);
+        return report;
+    }
+
+    private static void printStatistics(Map<String, StepStatistics> statistics, long durationMillis, Map<String, Map<String, Long>> callCounts) {
+        for (Map.Entry<String, StepStatistics> entry : new TreeMap<>(statistics).entrySet()) {
+            StepStatistics stats = entry.getValue();
+            Map<String, Long> calls = callCounts.get(entry.getKey());
+            System.out.println(String.format("%-20s %8d %8d %10.1f %10.1f %10.1f  %s", entry.getKey(), stats.getCount(),
+                    stats.getErrors(), durationMillis > 0 ? stats.getCount() * 1000.0 / durationMillis : 0,
+                    stats.percentileMillis(50), stats.percentileMillis(99), calls != null ? calls : ""));
+        }
+    }
+
+    protected double errorRate() {
+        int count = 0;
+        int errors = 0;
+        for (StepStatistics statistics : flowStatistics.values()) {
+            count += statistics.getCount();
+            errors += statistics.getErrors();
+        }
+        return count > 0 ? errors / (double) count : 0;
+    }
+
+    private static StepStatistics statistics(Map<String, StepStatistics> map, String name) {
+        return map.computeIfAbsent(name, k -> new StepStatistics());
+    }
+
+    /**
+     * Provisions the BuildConfigs, organisation job ConfigMap and webhooks of the selected repositories just as the
+     * <code>CreateBuildConfigStep</code> does once the wizard has collected its attributes
+     */
+    private static class LoadTestBuildConfigStep extends CreateBuildConfigStep {
+        private final CacheFacade cacheManager;
+
+        LoadTestBuildConfigStep(KubernetesClient kubernetesClient, CacheFacade cacheManager, ExecutorFacade executorFacade,
+                                BuildTriggers buildTriggers, OrganisationJobConfigMaps organisationJobConfigMaps, JenkinsClients jenkinsClients) {
+            super(kubernetesClient, cacheManager, executorFacade, buildTriggers, organisationJobConfigMaps, jenkinsClients);
+            this.cacheManager = cacheManager;
+        }
+
+        Result provisionRepositories(String namespace, String jenkinsNamespace, GitAccount details, int repositoryCount,
+                                     OpenShiftClient openShiftClient) throws Exception {
+            String gitOwnerName = GeneratorStubs.ORGANISATION;
+            CachedBuildConfigNames buildConfigNames = CachedBuildConfigNames.reload(cacheManager, getKubernetesClient(), openShiftClient, namespace);
+            List<String> gitRepoNames = new ArrayList<>();
+            List<GitRepoDTO> gitRepos = new ArrayList<>();
+            List<BuildConfigTask> tasks = new ArrayList<>();
+            for (int i = 0; i < repositoryCount; i++) {
+                String name = "repo-" + i;
+                String gitUrl = "https://github.com/" + gitOwnerName + "/" + name + ".git";
+                gitRepoNames.add(name);
+                gitRepos.add(new GitRepoDTO(name, gitUrl));
+                tasks.add(createBuildConfigTask(namespace, name, name, gitUrl, buildConfigAnnotations(true, gitOwnerName, name),
+                        null, gitOwnerName, null, null, buildConfigNames));
+            }
+            String projectName = gitRepoNames.get(gitRepoNames.size() - 1);
+            return provision(new ProvisioningJob(null), namespace, jenkinsNamespace, projectName, details, new GitHubProvider(),
+                    gitOwnerName, null, gitRepoNames, gitRepos, tasks, openShiftClient, true);
+        }
+    }
+
+    private interface FlowBlock {
+        void run() throws Exception;
+    }
+
+    private interface StepBlock {
+        void run(String authHeader) throws Exception;
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.loadtest;
+
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.utils.IOHelpers;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * A local HTTP server standing in for the remote services the generator talks to.
+ * <p>
+ * Each route belongs to a service which has its own latency and failure rate; every call is counted by the
+ * service and by the step name found in the <code>Authorization</code> header.
+ */
+public class StubServer {
+    private static final transient Logger LOG = LoggerFactory.getLogger(StubServer.class);
+
+    public static final String UNKNOWN_STEP = "unknown";
+
+    private static final Pattern STEP_PATTERN = Pattern.compile(LoadTestRunner.TOKEN_PREFIX + "([A-Za-z]+)-");
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, ServiceSettings> services = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, AtomicLong> callCounts = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+    private HttpServer server;
+
+    public StubServer(int threads) {
+        this.executor = Executors.newFixedThreadPool(threads);
+    }
+
+    public void start(int port) throws IOException {
+        server = HttpServer.create(new InetSocketAddress("localhost", port), 200);
+        server.createContext("/", this::handle);
+        server.setExecutor(executor);
+        server.start();
+        LOG.info("Started stub server on port " + server.getAddress().getPort());
+    }
+
+    public void stop() {
+        if (server != null) {
+            server.stop(0);
+        }
+        executor.shutdownNow();
+    }
+
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    public void configureService(String service, long latencyMillis, long jitterMillis, double failureRate) {
+        services.put(service, new ServiceSettings(latencyMillis, jitterMillis, failureRate));
+    }
+
+    /**
+     * Registers a route for the given service, method and path regex
+     */
+    public void addRoute(String service, String method, String pathRegex, Handler handler) {
+        routes.add(new Route(service, method, Pattern.compile(pathRegex), handler));
+    }
+
+    /**
+     * Returns the number of calls received keyed by step and then by service
+     */
+    public Map<String, Map<String, Long>> getCallCounts() {
+        Map<String, Map<String, Long>> answer = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> entry : callCounts.entrySet()) {
+            String[] key = entry.getKey().split("/", 2);
+            answer.computeIfAbsent(key[0], k -> new TreeMap<>()).put(key[1], entry.getValue().get());
+        }
+        return answer;
+    }
+
+    protected void handle(HttpExchange exchange) throws IOException {
+        try {
+            String method = exchange.getRequestMethod();
+            String path = exchange.getRequestURI().getPath();
+            for (Route route : routes) {
+                Matcher matcher = route.pathPattern.matcher(path);
+                if (route.method.equals(method) && matcher.matches()) {
+                    String authorization = exchange.getRequestHeaders().getFirst("Authorization");
+                    countCall(route.service, authorization);
+                    ServiceSettings settings = services.get(route.service);
+                    if (settings != null && settings.delayAndFail()) {
+                        reply(exchange, 503, "{\"message\":\"injected failure\"}");
+                        return;
+                    }
+                    String body = IOHelpers.readFully(exchange.getRequestBody());
+                    Response response = route.handler.handle(matcher, body, authorization);
+                    reply(exchange, response.status, response.body);
+                    return;
+                }
+            }
+            countCall("unmatched", exchange.getRequestHeaders().getFirst("Authorization"));
+            LOG.warn("No stub route for " + method + " " + path);
+            reply(exchange, 404, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\",\"code\":404}");
+        } catch (Exception e) {
+            LOG.warn("Failed to process " + exchange.getRequestURI() + ": " + e, e);
+            reply(exchange, 500, "{\"message\":\"" + e + "\"}");
+        } finally {
+            exchange.close();
+        }
+    }
+
+    protected void countCall(String service, String authorization) {
+        String step = UNKNOWN_STEP;
+        if (authorization != null) {
+            Matcher matcher = STEP_PATTERN.matcher(authorization);
+            if (matcher.find()) {
+                step = matcher.group(1);
+            }
+        }
+        callCounts.computeIfAbsent(step + "/" + service, k -> new AtomicLong()).incrementAndGet();
+    }
+
+    protected static void reply(HttpExchange exchange, int status, String body) throws IOException {
+        byte[] data = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "application/json");
+        exchange.sendResponseHeaders(status, data.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(data);
+        }
+    }
+
+    /**
+     * Creates the response for a request to a route
+     */
+    public interface Handler {
+        Response handle(Matcher path, String requestBody, String authorization);
+    }
+
+    public static class Response {
+        private final int status;
+        private final String body;
+
+        public Response(int status, String body) {
+            this.status = status;
+            this.body = body;
+        }
+
+        public static Response ok(String body) {
+            return new Response(200, body);
+        }
+
+        public static Response created(String body) {
+            return new Response(201, body);
+        }
+
+        public static Response notFound() {
+            return new Response(404, "{\"kind\":\"Status\",\"apiVersion\":\"v1\",\"status\":\"Failure\",\"code\":404}");
+        }
+    }
+
+    private static class Route {
+        private final String service;
+        private final String method;
+        private final Pattern pathPattern;
+        private final Handler handler;
+
+        Route(String service, String method, Pattern pathPattern, Handler handler) {
+            this.service = service;
+            this.method = method;
+            this.pathPattern = pathPattern;
+            this.handler = handler;
+        }
+    }
+
+    private static class ServiceSettings {
+        private final long latencyMillis;
+        private final long jitterMillis;
+        private final double failureRate;
+
+        ServiceSettings(long latencyMillis, long jitterMillis, double failureRate) {
+            this.latencyMillis = latencyMillis;
+            this.jitterMillis = jitterMillis;
+            this.failureRate = failureRate;
+        }
+
+        /**
+         * Sleeps for the configured latency returning true if this call should fail
+         */
+        boolean delayAndFail() throws InterruptedException {
+            Random random = ThreadLocalRandom.current();
+            long delay = latencyMillis;
+            if (jitterMillis > 0) {
+                delay += (long) (random.nextDouble() * jitterMillis);
+            }
+            if (delay > 0) {
+                TimeUnit.MILLISECONDS.sleep(delay);
+            }
+            return failureRate > 0 && random.nextDouble() < failureRate;
+        }
+    }
+}
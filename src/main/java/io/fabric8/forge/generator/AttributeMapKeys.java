@@ -39,5 +39,6 @@ public class AttributeMapKeys {
     public static final Class<GitAccount> GIT_ACCOUNT = GitAccount.class;
     public static final String NAMESPACE = "namespace";
     public static final String SPACE = "labelSpace";
+    public static final String DEADLINE = "deadline";
 
 }
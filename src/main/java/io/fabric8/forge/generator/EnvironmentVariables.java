@@ -28,6 +28,25 @@ public class EnvironmentVariables {
 
     public static final String TESTING_OAUTH_HEADER = "TESTING_OAUTH_HEADER";
     public static final String OPENSHIFT_API_URL = "OPENSHIFT_API_URL";
+    public static final String GITHUB_API_URL = "GITHUB_API_URL";
+
+    public static final String MAX_THREADS = "GENERATOR_MAX_THREADS";
+    public static final String VIRTUAL_THREADS = "GENERATOR_VIRTUAL_THREADS";
+    public static final String CHE_STACK_RULES_FILE = "CHE_STACK_RULES_FILE";
+    public static final String METRICS_PORT = "GENERATOR_METRICS_PORT";
+    public static final String KEYCLOAK_TOKEN_CACHE_TTL = "KEYCLOAK_TOKEN_CACHE_TTL";
+    public static final String KUBERNETES_CLIENT_POOL_SIZE = "KUBERNETES_CLIENT_POOL_SIZE";
+    public static final String KUBERNETES_CLIENT_IDLE_TIMEOUT = "KUBERNETES_CLIENT_IDLE_TIMEOUT";
+    public static final String WEB_CLIENT_POOL_SIZE = "WEB_CLIENT_POOL_SIZE";
+    public static final String WEB_CLIENT_CONNECT_TIMEOUT = "WEB_CLIENT_CONNECT_TIMEOUT";
+    public static final String WEB_CLIENT_READ_TIMEOUT = "WEB_CLIENT_READ_TIMEOUT";
+    public static final String BUILD_CONFIG_CONCURRENCY = "BUILD_CONFIG_CONCURRENCY";
+    public static final String BUILD_TRIGGER_TIMEOUT = "BUILD_TRIGGER_TIMEOUT";
+    public static final String CREATE_BUILD_CONFIG_ASYNC = "CREATE_BUILD_CONFIG_ASYNC";
+    public static final String PROVISIONING_THREADS = "GENERATOR_PROVISIONING_THREADS";
+    public static final String PROVISIONING_QUEUE = "GENERATOR_PROVISIONING_QUEUE";
+    public static final String PROVISIONING_TIMEOUT = "GENERATOR_PROVISIONING_TIMEOUT_SECONDS";
+    public static final String REQUEST_TIMEOUT = "GENERATOR_REQUEST_TIMEOUT_SECONDS";
 
     public static String getWitApiURL() {
         String witAPI = System.getenv(WIT_URL);
@@ -36,4 +55,27 @@ public class EnvironmentVariables {
         }
         return witAPI;
     }
+
+    /**
+     * Returns the integer value of the given environment variable or the default value if its not set or invalid
+     */
+    public static int getIntegerValue(String envVarName, int defaultValue) {
+        String value = System.getenv(envVarName);
+        if (Strings.isNotBlank(value)) {
+            try {
+                return Integer.parseInt(value.trim());
+            } catch (NumberFormatException e) {
+                // ignore invalid values
+            }
+        }
+        return defaultValue;
+    }
+
+    public static boolean getBooleanValue(String envVarName, boolean defaultValue) {
+        String value = System.getenv(envVarName);
+        if (Strings.isNotBlank(value)) {
+            return Boolean.parseBoolean(value.trim());
+        }
+        return defaultValue;
+    }
 }
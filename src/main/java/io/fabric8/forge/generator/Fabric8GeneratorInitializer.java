@@ -15,10 +15,13 @@
  */
 package io.fabric8.forge.generator;
 
+import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.metrics.MetricsServer;
 import io.fabric8.forge.generator.pipeline.JenkinsPipelineLibrary;
 import org.jboss.forge.addon.maven.archetype.ArchetypeCatalogFactoryRegistry;
 import org.jboss.forge.furnace.container.cdi.events.Local;
 import org.jboss.forge.furnace.event.PostStartup;
+import org.jboss.forge.furnace.event.PreShutdown;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -39,8 +42,14 @@ public class Fabric8GeneratorInitializer {
 
         }
         LOG.info("Using Jenkinsfile library at: " + jenkinsPipelineLibrary.getWorkflowFolder());
+        MetricsServer.startIfConfigured();
 
     }
+
+    public void onShutdown(@Observes @Local PreShutdown shutdown) {
+        // the kubernetes client pool is used by static helpers rather than being a bean with a @PreDestroy method
+        KubernetesClientHelper.closeClientPool();
+    }
 /*
     @Produces
     @ApplicationScoped
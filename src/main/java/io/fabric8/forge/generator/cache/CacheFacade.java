@@ -16,6 +16,8 @@
  */
 package io.fabric8.forge.generator.cache;
 
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.DependencyUnavailableException;
 import org.infinispan.Cache;
 import org.infinispan.configuration.cache.Configuration;
 import org.infinispan.configuration.cache.ConfigurationBuilder;
@@ -28,7 +30,14 @@ import org.slf4j.LoggerFactory;
 import javax.annotation.PreDestroy;
 import javax.inject.Inject;
 import javax.inject.Singleton;
+import java.util.Arrays;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
 
 /**
  */
@@ -37,6 +46,8 @@ public class CacheFacade {
     private static final transient Logger LOG = LoggerFactory.getLogger(CacheFacade.class);
 
     private EmbeddedCacheManager manager = new DefaultCacheManager();
+    private final ConcurrentMap<String, CompletableFuture<Object>> loading = new ConcurrentHashMap<>();
+    private final Set<String> staleFallbackCaches = ConcurrentHashMap.newKeySet();
 
     @Inject
     @Singleton
@@ -44,6 +55,14 @@ public class CacheFacade {
         manager.defineConfiguration(CacheNames.USER_NAMESPACES, createCacheConfiguration(1000, 2 * 60));
         manager.defineConfiguration(CacheNames.USER_SPACES, createCacheConfiguration(1000, 2 * 60));
         manager.defineConfiguration(CacheNames.USER_PROFILE_SETTINGS, createCacheConfiguration(1000, 60 * 5));
+        manager.defineConfiguration(CacheNames.USER_BUILD_CONFIG_NAMES, createCacheConfiguration(1000, 30));
+        manager.defineConfiguration(CacheNames.PROVISIONING_JOBS, createCacheConfiguration(10000, 60 * 60));
+
+        manager.defineConfiguration(CacheNames.JENKINS_SERVICE_URLS, createCacheConfiguration(1000, 60 * 10));
+        manager.defineConfiguration(CacheNames.JENKINS_BOT_SECRETS, createCacheConfiguration(1000, 60 * 10));
+        manager.defineConfiguration(CacheNames.JENKINS_RESOLVED_URLS, createCacheConfiguration(1000, 60 * 10));
+        manager.defineConfiguration(CacheNames.JENKINS_CRUMBS, createCacheConfiguration(1000, 60 * 10));
+        manager.defineConfiguration(CacheNames.JENKINS_CREDENTIALS, createCacheConfiguration(1000, 60 * 10));
 
         manager.defineConfiguration(CacheNames.GIT_PROVIDERS, createCacheConfiguration(1000, 2 * 60));
 
@@ -54,6 +73,14 @@ public class CacheFacade {
         manager.defineConfiguration(CacheNames.GOGS_ACCOUNT_FROM_SECRET, createCacheConfiguration(1000, 2 * 60));
         manager.defineConfiguration(CacheNames.GOGS_ORGANISATIONS, createCacheConfiguration(1000, 60 * 5));
 
+        manager.defineConfiguration(CacheNames.STALE_ENTRIES, createCacheConfiguration(10000, 60 * 60 * 6));
+
+        // only caches of values which hold no secrets and are safe to use while out of date
+        allowStaleFallback(CacheNames.USER_NAMESPACES, CacheNames.USER_SPACES, CacheNames.USER_PROFILE_SETTINGS,
+                CacheNames.JENKINS_SERVICE_URLS, CacheNames.JENKINS_RESOLVED_URLS,
+                CacheNames.GITHUB_ORGANISATIONS, CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION,
+                CacheNames.GOGS_ORGANISATIONS);
+
         LOG.info("starting caches");
         manager.start();
     }
@@ -66,6 +93,18 @@ public class CacheFacade {
     }
 
 
+    /**
+     * Allows the values of the given caches to be returned stale while the dependency they are loaded from is
+     * unavailable; caches of secrets or of state which must be current should never be added
+     */
+    public void allowStaleFallback(String... cacheNames) {
+        staleFallbackCaches.addAll(Arrays.asList(cacheNames));
+    }
+
+    public boolean isStaleFallbackAllowed(String cacheName) {
+        return staleFallbackCaches.contains(cacheName);
+    }
+
     /**
      * Returns the cache for the given name, lazily creating it with a warning if its not been explicitly configured
      */
@@ -73,6 +112,84 @@ public class CacheFacade {
         return manager.getCache(name, true);
     }
 
+    /**
+     * Returns the cached value for the key in the given cache, loading and caching it if its missing.
+     * <p>
+     * If the same value is already being loaded (such as by the {@link UserContextPrefetcher}) this waits for that
+     * load rather than starting another one.
+     */
+    public <V> V computeIfAbsent(String cacheName, String key, Function<String, V> loader) {
+        Cache<String, V> cache = getCache(cacheName);
+        V answer = cache.get(key);
+        if (answer != null) {
+            return answer;
+        }
+        String loadingKey = cacheName + "/" + key;
+        CompletableFuture<Object> future = new CompletableFuture<>();
+        CompletableFuture<Object> existing = loading.putIfAbsent(loadingKey, future);
+        if (existing != null) {
+            try {
+                @SuppressWarnings("unchecked")
+                V value = (V) Deadline.join(existing, "waiting for " + loadingKey);
+                if (value != null) {
+                    return value;
+                }
+            } catch (CompletionException e) {
+                LOG.debug("Loading " + loadingKey + " failed so trying again: " + e.getCause(), e.getCause());
+            }
+            return computeIfAbsent(cache, key, loader);
+        }
+        try {
+            answer = computeIfAbsent(cache, key, loader);
+            future.complete(answer);
+            return answer;
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            loading.remove(loadingKey, future);
+        }
+    }
+
+    /**
+     * Loads a missing value; for caches which {@link #allowStaleFallback(String...)} a copy is kept in the
+     * {@link CacheNames#STALE_ENTRIES} cache which is returned instead if the loader fails because its dependency
+     * is unavailable
+     */
+    protected <V> V computeIfAbsent(Cache<String, V> cache, String key, Function<String, V> loader) {
+        V answer = cache.get(key);
+        if (answer == null) {
+            if (!isStaleFallbackAllowed(cache.getName())) {
+                answer = loader.apply(key);
+                if (answer != null) {
+                    cache.put(key, answer);
+                }
+                return answer;
+            }
+            Cache<String, Object> staleCache = getCache(CacheNames.STALE_ENTRIES);
+            String staleKey = cache.getName() + "/" + key;
+            try {
+                answer = loader.apply(key);
+            } catch (RuntimeException e) {
+                DependencyUnavailableException unavailable = DependencyUnavailableException.find(e);
+                if (unavailable != null) {
+                    @SuppressWarnings("unchecked")
+                    V stale = (V) staleCache.get(staleKey);
+                    if (stale != null) {
+                        LOG.warn("Using a stale value for " + staleKey + " as " + unavailable.getMessage());
+                        return stale;
+                    }
+                }
+                throw e;
+            }
+            if (answer != null) {
+                cache.put(key, answer);
+                staleCache.put(staleKey, answer);
+            }
+        }
+        return answer;
+    }
+
     protected Configuration createCacheConfiguration(int cacheCount, int lifespanSeconds) {
         return new ConfigurationBuilder()
                 .memory().evictionType(EvictionType.COUNT).size(cacheCount).
@@ -23,6 +23,14 @@ public class CacheNames {
     public static final String USER_SPACES = "user-spaces";
 
     public static final String USER_PROFILE_SETTINGS = "user-profile-settings";
+    public static final String USER_BUILD_CONFIG_NAMES = "user-build-config-names";
+    public static final String PROVISIONING_JOBS = "provisioning-jobs";
+
+    public static final String JENKINS_SERVICE_URLS = "jenkins-service-urls";
+    public static final String JENKINS_BOT_SECRETS = "jenkins-bot-secrets";
+    public static final String JENKINS_RESOLVED_URLS = "jenkins-resolved-urls";
+    public static final String JENKINS_CRUMBS = "jenkins-crumbs";
+    public static final String JENKINS_CREDENTIALS = "jenkins-credentials";
 
     public static final String GITHUB_ACCOUNT_FROM_SECRET = "github-account-from-secret";
     public static final String GITHUB_ORGANISATIONS = "github-organisations";
@@ -31,4 +39,6 @@ public class CacheNames {
     public static final String GOGS_ACCOUNT_FROM_SECRET = "gogs-account-from-secret";
     public static final String GOGS_ORGANISATIONS = "gogs-organisations";
     public static final String GIT_PROVIDERS = "git-providers";
+
+    public static final String STALE_ENTRIES = "stale-entries";
 }
@@ -0,0 +1,210 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.Configuration;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.git.GitAccount;
+import io.fabric8.forge.generator.git.GitProvider;
+import io.fabric8.forge.generator.github.GitHubFacade;
+import io.fabric8.forge.generator.keycloak.KeycloakEndpoint;
+import io.fabric8.forge.generator.keycloak.ProfileSettings;
+import io.fabric8.forge.generator.keycloak.ProfileSettingsDTO;
+import io.fabric8.forge.generator.keycloak.TokenHelper;
+import io.fabric8.forge.generator.kubernetes.CachedSpaces;
+import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.tenant.NamespaceDTO;
+import io.fabric8.forge.generator.tenant.Tenants;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.utils.Strings;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * Starts loading the data the wizard steps need for the current user concurrently as soon as a wizard starts.
+ * <p>
+ * The results are stored in the {@link CacheFacade} caches; steps which load them via
+ * {@link CacheFacade#computeIfAbsent(String, String, java.util.function.Function)} wait for the loads already
+ * in flight rather than starting new ones.
+ */
+@Singleton
+public class UserContextPrefetcher {
+    private static final transient Logger LOG = LoggerFactory.getLogger(UserContextPrefetcher.class);
+
+    @Inject
+    private CacheFacade cacheManager;
+    @Inject
+    private ExecutorFacade executorFacade;
+
+    @Inject
+    public UserContextPrefetcher() {
+    }
+
+    public UserContextPrefetcher(CacheFacade cacheManager, ExecutorFacade executorFacade) {
+        this.cacheManager = cacheManager;
+        this.executorFacade = executorFacade;
+    }
+
+    /**
+     * Returns the profile settings of the current user, waiting for them if they are being prefetched.
+     * <p>
+     * If the wizard was given catalog settings which differ from the cached profile settings the user has changed
+     * them so the cached settings are reloaded.
+     */
+    public ProfileSettingsDTO getProfileSettings(UIContext context) {
+        return getProfileSettings(context.getAttributeMap(), TokenHelper.getAuthHeader(context));
+    }
+
+    protected ProfileSettingsDTO getProfileSettings(Map<Object, Object> attributeMap, String authHeader) {
+        ProfileSettingsDTO answer = (ProfileSettingsDTO) attributeMap.get(ProfileSettingsDTO.class);
+        if (answer == null) {
+            Prefetch prefetch = (Prefetch) attributeMap.get(Prefetch.class);
+            if (prefetch != null && prefetch.profileSettings != null) {
+                answer = join(prefetch.profileSettings, "profile settings");
+            }
+            if (answer == null) {
+                answer = loadProfileSettings(authHeader);
+            }
+            if (answer != null && ProfileSettings.isChanged(answer, attributeMap)) {
+                LOG.debug("The catalog settings have changed so reloading the profile settings");
+                invalidateProfileSettings(authHeader);
+                answer = loadProfileSettings(authHeader);
+            }
+            if (answer != null) {
+                attributeMap.put(ProfileSettingsDTO.class, answer);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Removes the cached profile settings of the user with the given authorization header
+     */
+    public void invalidateProfileSettings(String authHeader) {
+        if (Strings.isNotBlank(authHeader)) {
+            cacheManager.getCache(CacheNames.USER_PROFILE_SETTINGS).remove(TokenHelper.getUserCacheKey(authHeader));
+        }
+    }
+
+    /**
+     * Returns the cached profile settings of the user with the given authorization header; cached by the identity of
+     * the user together with a fingerprint of the header as the identity is not verified until the settings are loaded
+     */
+    protected ProfileSettingsDTO loadProfileSettings(String authHeader) {
+        if (Strings.isNullOrBlank(authHeader)) {
+            return null;
+        }
+        return cacheManager.computeIfAbsent(CacheNames.USER_PROFILE_SETTINGS, TokenHelper.getUserCacheKey(authHeader),
+                k -> fetchProfileSettings(authHeader));
+    }
+
+    protected ProfileSettingsDTO fetchProfileSettings(String authHeader) {
+        return ProfileSettings.loadProfileSettings(authHeader);
+    }
+
+    /**
+     * Starts loading the profile settings, tenant namespaces, spaces, git providers and github organisations of the
+     * current user unless they are already being loaded for this wizard
+     */
+    public void prefetch(UIContext context) {
+        prefetch(context.getAttributeMap(), TokenHelper.getAuthHeader(context));
+    }
+
+    protected void prefetch(Map<Object, Object> attributeMap, String authHeader) {
+        if (attributeMap.containsKey(Prefetch.class) || Strings.isNullOrBlank(authHeader)) {
+            return;
+        }
+        Prefetch prefetch = new Prefetch();
+        try {
+            prefetch.profileSettings = CompletableFuture.supplyAsync(() -> loadProfileSettings(authHeader),
+                    executorFacade.executor(Metrics.WIT));
+            logFailure(CompletableFuture.runAsync(() -> prefetchUserContext(authHeader),
+                    executorFacade.executor(Metrics.OPENSHIFT)), "namespaces, spaces and git providers");
+            if (!Configuration.isOnPremise()) {
+                logFailure(CompletableFuture.runAsync(() -> prefetchGithubOrganisations(authHeader),
+                        executorFacade.executor(Metrics.GITHUB)), "github organisations");
+            }
+        } catch (RejectedExecutionException e) {
+            // the steps load whatever was not prefetched themselves
+            LOG.debug("Not prefetching the rest of the user context: " + e);
+        }
+        attributeMap.put(Prefetch.class, prefetch);
+    }
+
+    protected void prefetchUserContext(String authHeader) {
+        KubernetesClient client = Configuration.isOnPremise() ?
+                KubernetesClientHelper.createKubernetesClientForCurrentCluster() :
+                KubernetesClientHelper.createKubernetesClientForSSO(authHeader);
+        String key = KubernetesClientHelper.getUserCacheKey(client);
+        List<NamespaceDTO> namespaces = cacheManager.computeIfAbsent(CacheNames.USER_NAMESPACES, key,
+                k -> Tenants.loadNamespaces(authHeader));
+        String namespace = Tenants.findDefaultUserNamespace(namespaces);
+        if (namespace != null) {
+            cacheManager.computeIfAbsent(CacheNames.USER_SPACES, key,
+                    k -> new CachedSpaces(namespace, KubernetesClientHelper.loadSpaces(client, namespace)));
+        }
+        cacheManager.computeIfAbsent(CacheNames.GIT_PROVIDERS, key, k -> GitProvider.loadGitProviders());
+    }
+
+    protected void prefetchGithubOrganisations(String authHeader) {
+        GitHubFacade github = createGitHubFacade(authHeader);
+        if (github.isDetailsValid()) {
+            cacheManager.computeIfAbsent(CacheNames.GITHUB_ORGANISATIONS, github.getDetails().getUserCacheKey(),
+                    k -> github.loadGithubOrganisations());
+        }
+    }
+
+    protected GitHubFacade createGitHubFacade(String authHeader) {
+        String token = TokenHelper.getMandatoryTokenFor(KeycloakEndpoint.GET_GITHUB_TOKEN, authHeader);
+        return new GitHubFacade(new GitAccount(null, token, null, null));
+    }
+
+    private static void logFailure(CompletableFuture<?> future, String description) {
+        future.whenComplete((value, e) -> {
+            if (e != null) {
+                LOG.warn("Failed to prefetch the " + description + ": " + e, e);
+            }
+        });
+    }
+
+    private static <T> T join(CompletableFuture<T> future, String description) {
+        try {
+            return Deadline.join(future, "waiting for the " + description);
+        } catch (CompletionException e) {
+            LOG.warn("Failed to prefetch the " + description + ": " + e.getCause(), e.getCause());
+            return null;
+        }
+    }
+
+    /**
+     * The loads started for a wizard which are kept in its attribute map
+     */
+    protected static class Prefetch {
+        private CompletableFuture<ProfileSettingsDTO> profileSettings;
+    }
+}
@@ -17,17 +17,11 @@
 package io.fabric8.forge.generator.che;
 
 import io.fabric8.forge.addon.utils.CommandHelpers;
-import io.fabric8.forge.generator.utils.PomFileXml;
-import io.fabric8.utils.DomHelper;
 import io.fabric8.utils.Files;
-import io.fabric8.utils.Strings;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
 import org.xml.sax.SAXException;
 
 import javax.xml.parsers.DocumentBuilder;
@@ -35,106 +29,51 @@ import javax.xml.parsers.DocumentBuilderFactory;
 import javax.xml.parsers.ParserConfigurationException;
 import java.io.File;
 import java.io.IOException;
-import java.util.LinkedHashMap;
-import java.util.Map;
 
 /**
  */
 public class CheStackDetector {
     private static final transient Logger LOG = LoggerFactory.getLogger(CheStackDetector.class);
 
-    protected static Map<String, CheStack> mavenPluginMap = new LinkedHashMap<>();
-    protected static Map<String, CheStack> mavenDependencyGroupMap = new LinkedHashMap<>();
-
-    static {
-        mavenPluginMap.put("org.springframework.boot:spring-boot-maven-plugin", CheStack.SpringBoot);
-        mavenPluginMap.put("org.wildfly.swarm:wildfly-swarm-plugin", CheStack.WildFlySwarm);
-        mavenPluginMap.put("io.fabric8:vertx-maven-plugin", CheStack.Vertx);
-
-        mavenDependencyGroupMap.put("org.springframework.boot", CheStack.SpringBoot);
-        mavenDependencyGroupMap.put("io.vertx", CheStack.Vertx);
-        mavenDependencyGroupMap.put("org.wildfly.swarm", CheStack.WildFlySwarm);
-    }
+    private static final String[] BUILD_FILES = {ProjectCoordinates.POM_XML, ProjectCoordinates.BUILD_GRADLE, ProjectCoordinates.PACKAGE_JSON};
 
     /**
-     * Lets detect the default stack to use for the newly created project
+     * Lets detect the default stack to use for the newly created project from the build files in its folder
      */
-    public static CheStack detectCheStack(UIContext context, org.jboss.forge.addon.projects.Project project, PomFileXml pom) {
-        if (pom != null) {
-            Document doc = pom.getDocument();
-            if (doc != null) {
-                return detectStackFromPomXml(doc);
-            }
-            return CheStack.JavaCentOS;
-        }
-        if (project != null && hasFile(context, project, "package.json")) {
-            return CheStack.NodeJS;
-        }
-        // TODO assume Java?
-        return CheStack.JavaCentOS;
-    }
-
-    public static Document parseXmlFile(File pomFile) throws ParserConfigurationException, SAXException, IOException {
-        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        return documentBuilder.parse(pomFile);
-    }
-
-    private static CheStack detectStackFromPomXml(Document doc) {
-        // lets find the maven plugins first
-        NodeList plugins = doc.getElementsByTagName("plugins");
-        if (plugins != null) {
-            for (int i = 0, size = plugins.getLength(); i < size; i++) {
-                Node item = plugins.item(i);
-                if (item instanceof Element) {
-                    Element element = (Element) item;
-                    String groupId = firstElementText(element, "groupId");
-                    String artifactId = firstElementText(element, "groupId");
-                    if (Strings.isNotBlank(groupId) && Strings.isNotBlank(artifactId)) {
-                        CheStack stack = mavenPluginMap.get(groupId + ":" + artifactId);
-                        if (stack != null) {
-                            return stack;
-                        }
-                    }
-                }
-            }
-        }
-        NodeList dependencies = doc.getElementsByTagName("dependency");
-        if (dependencies != null) {
-            for (int i = 0, size = dependencies.getLength(); i < size; i++) {
-                Node item = dependencies.item(i);
-                if (item instanceof Element) {
-                    Element element = (Element) item;
-                    String groupId = firstElementText(element, "groupId");
-                    if (Strings.isNotBlank(groupId)) {
-                        CheStack stack = mavenDependencyGroupMap.get(groupId);
-                        if (stack != null) {
-                            return stack;
-                        }
-                    }
+    public static CheStack detectCheStack(UIContext context, org.jboss.forge.addon.projects.Project project) {
+        if (project != null) {
+            for (String fileName : BUILD_FILES) {
+                File file = CommandHelpers.getProjectContextFile(context, project, fileName);
+                if (Files.isFile(file) && file.getParentFile() != null) {
+                    return detectCheStack(file.getParentFile());
                 }
             }
         }
+        // TODO assume Java?
         return CheStack.JavaCentOS;
     }
 
-    private static String firstElementText(Element element, String name) {
-        Element child = DomHelper.firstChild(element, name);
-        if (child != null) {
-            return child.getTextContent();
-        }
-        return null;
+    /**
+     * Detects the stack for the build files in the given project folder
+     */
+    public static CheStack detectCheStack(File basedir) {
+        return detectCheStack(ProjectCoordinates.loadFolder(basedir));
     }
 
     /**
-     * Returns true if the project has one of the given files
+     * Detects the stack from the given project coordinates using the default rules
      */
-    private static boolean hasFile(UIContext context, org.jboss.forge.addon.projects.Project project, String... fileNames) {
-        for (String fileName : fileNames) {
-            File file = CommandHelpers.getProjectContextFile(context, project, fileName);
-            if (Files.isFile(file)) {
-                return true;
-            }
+    public static CheStack detectCheStack(ProjectCoordinates coordinates) {
+        CheStack stack = CheStackRules.getDefaultRules().detect(coordinates);
+        if (stack == null) {
+            stack = CheStack.JavaCentOS;
         }
-        return false;
+        LOG.debug("Detected Che stack " + stack.getId() + " for " + coordinates);
+        return stack;
+    }
+
+    public static Document parseXmlFile(File pomFile) throws ParserConfigurationException, SAXException, IOException {
+        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
+        return documentBuilder.parse(pomFile);
     }
 }
@@ -0,0 +1,176 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.che;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.utils.Files;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * An indexed table of rules mapping build coordinates to the {@link CheStack} to use.
+ * <p>
+ * The default rules are loaded from <code>che-stack-rules.properties</code> on the classpath and can be extended
+ * via the properties file defined by the {@link EnvironmentVariables#CHE_STACK_RULES_FILE} environment variable.
+ */
+public class CheStackRules {
+    private static final transient Logger LOG = LoggerFactory.getLogger(CheStackRules.class);
+
+    public static final String PLUGINS = "plugins";
+    public static final String DEPENDENCY_GROUPS = "dependencyGroups";
+    public static final String GRADLE_PLUGINS = "gradlePlugins";
+    public static final String FILES = "files";
+
+    private static CheStackRules defaultRules;
+
+    private final Map<String, CheStack> pluginRules = new HashMap<>();
+    private final Map<String, CheStack> dependencyGroupRules = new HashMap<>();
+    private final Map<String, CheStack> gradlePluginRules = new HashMap<>();
+    private final Map<String, CheStack> fileRules = new HashMap<>();
+
+    /**
+     * Returns the rules loaded from the classpath and the optional rules file
+     */
+    public static synchronized CheStackRules getDefaultRules() {
+        if (defaultRules == null) {
+            CheStackRules rules = new CheStackRules();
+            InputStream in = CheStackRules.class.getResourceAsStream("che-stack-rules.properties");
+            if (in == null) {
+                LOG.warn("Could not find che-stack-rules.properties on the classpath!");
+            } else {
+                rules.loadRules(in, "che-stack-rules.properties");
+            }
+            String rulesFile = System.getenv(EnvironmentVariables.CHE_STACK_RULES_FILE);
+            if (Strings.isNotBlank(rulesFile)) {
+                File file = new File(rulesFile);
+                if (Files.isFile(file)) {
+                    try {
+                        rules.loadRules(new FileInputStream(file), rulesFile);
+                    } catch (IOException e) {
+                        LOG.warn("Failed to load Che stack rules from " + rulesFile + ": " + e, e);
+                    }
+                } else {
+                    LOG.warn("Che stack rules file " + rulesFile + " does not exist");
+                }
+            }
+            defaultRules = rules;
+        }
+        return defaultRules;
+    }
+
+    /**
+     * Loads the rules from the given properties stream, closing it afterwards
+     */
+    public void loadRules(InputStream in, String description) {
+        Properties properties = new Properties();
+        try {
+            properties.load(in);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to load Che stack rules from " + description + ": " + e, e);
+        } finally {
+            try {
+                in.close();
+            } catch (IOException e) {
+                // ignore
+            }
+        }
+        for (String key : properties.stringPropertyNames()) {
+            int idx = key.lastIndexOf('.');
+            CheStack stack = null;
+            if (idx > 0) {
+                try {
+                    stack = CheStack.valueOf(key.substring(0, idx).trim());
+                } catch (IllegalArgumentException e) {
+                    // handled below
+                }
+            }
+            if (stack == null) {
+                LOG.warn("Ignoring Che stack rule " + key + " from " + description + " as it does not start with a valid CheStack name");
+                continue;
+            }
+            String kind = key.substring(idx + 1).trim();
+            for (String value : properties.getProperty(key).split(",")) {
+                value = value.trim();
+                if (!value.isEmpty()) {
+                    addRule(kind, value, stack);
+                }
+            }
+        }
+    }
+
+    public void addRule(String kind, String value, CheStack stack) {
+        Map<String, CheStack> rules = getRulesForKind(kind);
+        if (rules == null) {
+            LOG.warn("Ignoring unknown Che stack rule kind " + kind + " for " + value);
+        } else {
+            rules.put(value, stack);
+        }
+    }
+
+    /**
+     * Returns the stack of the first matching rule for the given coordinates or null if there is no match.
+     * <p>
+     * The explicit maven and gradle build plugins take precedence over dependencies which may just be libraries
+     */
+    public CheStack detect(ProjectCoordinates coordinates) {
+        CheStack answer = findFirst(pluginRules, coordinates.getPlugins());
+        if (answer == null) {
+            answer = findFirst(gradlePluginRules, coordinates.getGradlePlugins());
+        }
+        if (answer == null) {
+            answer = findFirst(dependencyGroupRules, coordinates.getDependencyGroupIds());
+        }
+        if (answer == null) {
+            answer = findFirst(fileRules, coordinates.getFiles());
+        }
+        return answer;
+    }
+
+    private static CheStack findFirst(Map<String, CheStack> rules, Iterable<String> keys) {
+        for (String key : keys) {
+            CheStack stack = rules.get(key);
+            if (stack != null) {
+                return stack;
+            }
+        }
+        return null;
+    }
+
+    protected Map<String, CheStack> getRulesForKind(String kind) {
+        switch (kind) {
+            case PLUGINS:
+                return pluginRules;
+            case DEPENDENCY_GROUPS:
+                return dependencyGroupRules;
+            case GRADLE_PLUGINS:
+                return gradlePluginRules;
+            case FILES:
+                return fileRules;
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,250 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.che;
+
+import io.fabric8.utils.Files;
+import io.fabric8.utils.IOHelpers;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * The compact set of build coordinates of a project (the <code>groupId:artifactId</code> of its plugins and
+ * dependencies, the gradle plugin ids and the build files present) used to detect the kind of project
+ * without having to keep or search the whole build file.
+ */
+public class ProjectCoordinates {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ProjectCoordinates.class);
+
+    public static final String POM_XML = "pom.xml";
+    public static final String BUILD_GRADLE = "build.gradle";
+    public static final String PACKAGE_JSON = "package.json";
+
+    private static final String DEFAULT_MAVEN_PLUGIN_GROUP_ID = "org.apache.maven.plugins";
+    private static final Pattern GRADLE_DEPENDENCY_PATTERN = Pattern.compile("['\"]([\\w.\\-]+):([\\w.\\-]+)(:[^'\"]*)?['\"]");
+    private static final Pattern GRADLE_PLUGIN_PATTERN = Pattern.compile("\\bid\\s*\\(?\\s*['\"]([\\w.\\-]+)['\"]");
+    private static final Pattern GRADLE_APPLY_PLUGIN_PATTERN = Pattern.compile("apply\\s+plugin\\s*:\\s*['\"]([\\w.\\-]+)['\"]");
+
+    private final Set<String> plugins = new LinkedHashSet<>();
+    private final Set<String> dependencies = new LinkedHashSet<>();
+    private final Set<String> dependencyGroupIds = new LinkedHashSet<>();
+    private final Set<String> gradlePlugins = new LinkedHashSet<>();
+    private final Set<String> files = new LinkedHashSet<>();
+
+    /**
+     * Loads the coordinates of the build files found in the given project folder
+     */
+    public static ProjectCoordinates loadFolder(File basedir) {
+        ProjectCoordinates answer = new ProjectCoordinates();
+        if (basedir != null) {
+            File pom = new File(basedir, POM_XML);
+            if (Files.isFile(pom)) {
+                answer.loadPomFile(pom);
+            }
+            File gradle = new File(basedir, BUILD_GRADLE);
+            if (Files.isFile(gradle)) {
+                answer.loadGradleFile(gradle);
+            }
+            if (Files.isFile(new File(basedir, PACKAGE_JSON))) {
+                answer.addFile(PACKAGE_JSON);
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Loads the coordinates of the given pom.xml in a single streaming pass without building a DOM
+     */
+    public static ProjectCoordinates loadPom(File pom) {
+        ProjectCoordinates answer = new ProjectCoordinates();
+        if (Files.isFile(pom)) {
+            answer.loadPomFile(pom);
+        }
+        return answer;
+    }
+
+    protected void loadPomFile(File pom) {
+        addFile(POM_XML);
+        try (InputStream in = new FileInputStream(pom)) {
+            XMLInputFactory factory = XMLInputFactory.newInstance();
+            factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+            factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+            XMLStreamReader reader = factory.createXMLStreamReader(in);
+            try {
+                // the groupId and artifactId of the currently open plugin or dependency elements
+                Deque<String[]> coordinates = new ArrayDeque<>();
+                Deque<String> elements = new ArrayDeque<>();
+                while (reader.hasNext()) {
+                    int event = reader.next();
+                    if (event == XMLStreamConstants.START_ELEMENT) {
+                        String name = reader.getLocalName();
+                        String parent = elements.peek();
+                        elements.push(name);
+                        if (isCoordinateElement(name)) {
+                            coordinates.push(new String[2]);
+                        } else if (isCoordinateElement(parent) && !coordinates.isEmpty()) {
+                            if ("groupId".equals(name)) {
+                                coordinates.peek()[0] = reader.getElementText().trim();
+                                elements.pop();
+                            } else if ("artifactId".equals(name)) {
+                                coordinates.peek()[1] = reader.getElementText().trim();
+                                elements.pop();
+                            }
+                        }
+                    } else if (event == XMLStreamConstants.END_ELEMENT) {
+                        String name = elements.pop();
+                        if (isCoordinateElement(name) && !coordinates.isEmpty()) {
+                            String[] values = coordinates.pop();
+                            addCoordinate(name, values[0], values[1]);
+                        }
+                    }
+                }
+            } finally {
+                reader.close();
+            }
+        } catch (IOException | XMLStreamException e) {
+            LOG.debug("Failed to parse " + pom + " with: " + e, e);
+        }
+    }
+
+    protected void loadGradleFile(File gradle) {
+        addFile(BUILD_GRADLE);
+        String text;
+        try {
+            text = IOHelpers.readFully(gradle);
+        } catch (IOException e) {
+            LOG.debug("Failed to read " + gradle + " with: " + e, e);
+            return;
+        }
+        Matcher matcher = GRADLE_DEPENDENCY_PATTERN.matcher(text);
+        while (matcher.find()) {
+            addDependency(matcher.group(1), matcher.group(2));
+        }
+        matcher = GRADLE_PLUGIN_PATTERN.matcher(text);
+        while (matcher.find()) {
+            gradlePlugins.add(matcher.group(1));
+        }
+        matcher = GRADLE_APPLY_PLUGIN_PATTERN.matcher(text);
+        while (matcher.find()) {
+            gradlePlugins.add(matcher.group(1));
+        }
+    }
+
+    private static boolean isCoordinateElement(String name) {
+        return "plugin".equals(name) || "dependency".equals(name);
+    }
+
+    private void addCoordinate(String elementName, String groupId, String artifactId) {
+        if ("plugin".equals(elementName)) {
+            addPlugin(Strings.isNullOrBlank(groupId) ? DEFAULT_MAVEN_PLUGIN_GROUP_ID : groupId, artifactId);
+        } else {
+            addDependency(groupId, artifactId);
+        }
+    }
+
+    public void addPlugin(String groupId, String artifactId) {
+        if (Strings.isNotBlank(groupId) && Strings.isNotBlank(artifactId)) {
+            plugins.add(groupId + ":" + artifactId);
+        }
+    }
+
+    public void addDependency(String groupId, String artifactId) {
+        if (Strings.isNotBlank(groupId)) {
+            dependencyGroupIds.add(groupId);
+            if (Strings.isNotBlank(artifactId)) {
+                dependencies.add(groupId + ":" + artifactId);
+            }
+        }
+    }
+
+    public void addFile(String fileName) {
+        files.add(fileName);
+    }
+
+    /**
+     * Returns true if any plugin or dependency coordinate contains the given text
+     */
+    public boolean anyCoordinateContains(String text) {
+        for (String plugin : plugins) {
+            if (plugin.contains(text)) {
+                return true;
+            }
+        }
+        for (String dependency : dependencies) {
+            if (dependency.contains(text)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    public boolean hasFile(String fileName) {
+        return files.contains(fileName);
+    }
+
+    @Override
+    public String toString() {
+        return "ProjectCoordinates{" +
+                "plugins=" + plugins +
+                ", dependencies=" + dependencies +
+                ", gradlePlugins=" + gradlePlugins +
+                ", files=" + files +
+                '}';
+    }
+
+    /**
+     * Returns the <code>groupId:artifactId</code> of the build plugins in the order they were found
+     */
+    public Set<String> getPlugins() {
+        return Collections.unmodifiableSet(plugins);
+    }
+
+    /**
+     * Returns the <code>groupId:artifactId</code> of the dependencies in the order they were found
+     */
+    public Set<String> getDependencies() {
+        return Collections.unmodifiableSet(dependencies);
+    }
+
+    public Set<String> getDependencyGroupIds() {
+        return Collections.unmodifiableSet(dependencyGroupIds);
+    }
+
+    public Set<String> getGradlePlugins() {
+        return Collections.unmodifiableSet(gradlePlugins);
+    }
+
+    public Set<String> getFiles() {
+        return Collections.unmodifiableSet(files);
+    }
+}
@@ -0,0 +1,91 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Limits the number of concurrent calls to a dependency with a bounded number of callers waiting for a permit so that
+ * a slow dependency cannot tie up every thread
+ */
+public class Bulkhead {
+    private final String name;
+    private final int maxConcurrentCalls;
+    private final int maxQueued;
+    private final long maxWaitMillis;
+    private final Semaphore permits;
+    private final AtomicInteger queued = new AtomicInteger();
+
+    public Bulkhead(String name, int maxConcurrentCalls, int maxQueued, long maxWaitMillis) {
+        this.name = name;
+        this.maxConcurrentCalls = Math.max(1, maxConcurrentCalls);
+        this.maxQueued = Math.max(0, maxQueued);
+        this.maxWaitMillis = maxWaitMillis;
+        this.permits = new Semaphore(this.maxConcurrentCalls, true);
+    }
+
+    /**
+     * Returns true once a permit is acquired or false if the queue is full or the wait timed out; the wait is capped
+     * to the current {@link Deadline}
+     *
+     * @throws DeadlineExceededException if the current deadline passes before or while waiting for a permit
+     */
+    public boolean tryAcquire() throws InterruptedException {
+        if (permits.tryAcquire()) {
+            return true;
+        }
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            return false;
+        }
+        String operation = "waiting to call " + name;
+        boolean acquired;
+        try {
+            long waitMillis = maxWaitMillis > 0 ? Deadline.timeoutMillis((int) Math.min(Integer.MAX_VALUE, maxWaitMillis), operation) : 0;
+            acquired = permits.tryAcquire(waitMillis, TimeUnit.MILLISECONDS);
+        } finally {
+            queued.decrementAndGet();
+        }
+        try {
+            Deadline.checkCurrent(operation);
+        } catch (DeadlineExceededException e) {
+            if (acquired) {
+                permits.release();
+            }
+            throw e;
+        }
+        return acquired;
+    }
+
+    public void release() {
+        permits.release();
+    }
+
+    public int getInFlight() {
+        return maxConcurrentCalls - permits.availablePermits();
+    }
+
+    public int getQueued() {
+        return queued.get();
+    }
+
+    public String getName() {
+        return name;
+    }
+}
@@ -0,0 +1,241 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * The time by which the user request being processed by the current thread must complete.
+ * <p>
+ * The deadline is kept in the attribute map of the wizard's <code>UIContext</code> and entered by the
+ * {@link DeadlineInterceptor} around each wizard phase; outbound HTTP, kubernetes and git calls cap their timeouts to
+ * the time remaining and fail fast with a {@link DeadlineExceededException} once it has passed.
+ */
+public final class Deadline {
+    private static final transient Logger LOG = LoggerFactory.getLogger(Deadline.class);
+
+    private static final ThreadLocal<Deadline> current = new ThreadLocal<>();
+
+    private final long expiresAtMillis;
+
+    private Deadline(long expiresAtMillis) {
+        this.expiresAtMillis = expiresAtMillis;
+    }
+
+    public static Deadline at(long expiresAtMillis) {
+        return new Deadline(expiresAtMillis);
+    }
+
+    public static Deadline after(long millis) {
+        return new Deadline(System.currentTimeMillis() + millis);
+    }
+
+    /**
+     * Returns the deadline of the given attribute map, creating one from the configured request budget if the REST
+     * request did not set one.
+     * <p>
+     * The REST request may set the {@link AttributeMapKeys#DEADLINE} attribute to a {@link Deadline} or to the time
+     * in epoch milliseconds by which it must complete
+     */
+    public static Deadline fromAttributeMap(Map<Object, Object> attributeMap) {
+        Object value = attributeMap.get(AttributeMapKeys.DEADLINE);
+        if (value instanceof Deadline) {
+            return (Deadline) value;
+        }
+        Deadline answer = null;
+        if (value instanceof Number) {
+            answer = at(((Number) value).longValue());
+        } else if (value instanceof String && Strings.isNotBlank((String) value)) {
+            try {
+                answer = at(Long.parseLong(((String) value).trim()));
+            } catch (NumberFormatException e) {
+                LOG.warn("Ignoring invalid deadline " + value);
+            }
+        }
+        if (answer == null) {
+            answer = after(TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue(EnvironmentVariables.REQUEST_TIMEOUT, 180)));
+        }
+        attributeMap.put(AttributeMapKeys.DEADLINE, answer);
+        return answer;
+    }
+
+    /**
+     * Returns the deadline of the current thread or null if it has none
+     */
+    public static Deadline current() {
+        return current.get();
+    }
+
+    /**
+     * Makes the given deadline the current one returning the previous deadline to pass to {@link #restore(Deadline)}
+     */
+    public static Deadline enter(Deadline deadline) {
+        Deadline previous = current.get();
+        current.set(deadline);
+        return previous;
+    }
+
+    public static void restore(Deadline previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    /**
+     * Wraps the task so that it runs with the current deadline on whichever thread executes it
+     */
+    public static <T> Callable<T> propagate(Callable<T> task) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return task;
+        }
+        return () -> {
+            Deadline previous = enter(deadline);
+            try {
+                deadline.check("starting a task");
+                return task.call();
+            } finally {
+                restore(previous);
+            }
+        };
+    }
+
+    /**
+     * Throws a {@link DeadlineExceededException} if the current deadline has passed
+     */
+    public static void checkCurrent(String operation) {
+        Deadline deadline = current();
+        if (deadline != null) {
+            deadline.check(operation);
+        }
+    }
+
+    /**
+     * Returns the given timeout capped to the time remaining before the current deadline; a timeout of zero or less
+     * means no timeout
+     *
+     * @throws DeadlineExceededException if the current deadline has passed
+     */
+    public static int timeoutMillis(int defaultMillis, String operation) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return defaultMillis;
+        }
+        long remaining = deadline.check(operation);
+        if (defaultMillis > 0 && defaultMillis < remaining) {
+            return defaultMillis;
+        }
+        return (int) Math.min(Integer.MAX_VALUE, remaining);
+    }
+
+    /**
+     * Returns the given timeout in seconds capped to the time remaining before the current deadline such as for a
+     * JGit transport; a timeout of zero or less means no timeout
+     */
+    public static int timeoutSeconds(int defaultSeconds, String operation) {
+        int millis = timeoutMillis(defaultSeconds > 0 ? (int) TimeUnit.SECONDS.toMillis(defaultSeconds) : 0, operation);
+        if (millis <= 0) {
+            return millis;
+        }
+        return (int) Math.max(1, TimeUnit.MILLISECONDS.toSeconds(millis + 999));
+    }
+
+    /**
+     * Waits for the future until the current deadline like {@link CompletableFuture#join()}
+     *
+     * @throws DeadlineExceededException if the deadline passes first
+     */
+    public static <T> T join(CompletableFuture<T> future, String operation) {
+        Deadline deadline = current();
+        if (deadline == null || future.isDone()) {
+            return future.join();
+        }
+        try {
+            return future.get(deadline.check(operation), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            throw deadline.exceeded(operation);
+        } catch (ExecutionException e) {
+            throw new CompletionException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CompletionException(e);
+        }
+    }
+
+    /**
+     * Acquires a permit waiting no longer than the current deadline
+     *
+     * @throws DeadlineExceededException if the deadline passes first
+     */
+    public static void acquire(Semaphore permits, String operation) throws InterruptedException {
+        Deadline deadline = current();
+        if (deadline == null) {
+            permits.acquire();
+        } else if (!permits.tryAcquire(deadline.check(operation), TimeUnit.MILLISECONDS)) {
+            throw deadline.exceeded(operation);
+        }
+    }
+
+    /**
+     * Returns the milliseconds remaining before the deadline
+     *
+     * @throws DeadlineExceededException if the deadline has passed
+     */
+    public long check(String operation) {
+        long remaining = remainingMillis();
+        if (remaining <= 0) {
+            throw exceeded(operation);
+        }
+        return remaining;
+    }
+
+    public DeadlineExceededException exceeded(String operation) {
+        return new DeadlineExceededException("The request ran out of time " + operation);
+    }
+
+    public long remainingMillis() {
+        return expiresAtMillis - System.currentTimeMillis();
+    }
+
+    public boolean isExpired() {
+        return remainingMillis() <= 0;
+    }
+
+    public long getExpiresAtMillis() {
+        return expiresAtMillis;
+    }
+
+    @Override
+    public String toString() {
+        return "Deadline{" + remainingMillis() + "ms remaining}";
+    }
+}
@@ -0,0 +1,81 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIContextProvider;
+import org.jboss.forge.addon.ui.result.Results;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Runs the wizard phases of {@link WithDeadline} steps with the {@link Deadline} of the user request so that the outbound
+ * calls they make give up once it has passed; an <code>execute</code> which runs out of time fails rather than
+ * throwing
+ */
+@WithDeadline
+@Interceptor
+public class DeadlineInterceptor {
+    private static final transient Logger LOG = LoggerFactory.getLogger(DeadlineInterceptor.class);
+
+    private static final Set<String> PHASES = new HashSet<>(Arrays.asList("initializeUI", "validate", "next", "execute"));
+
+    @AroundInvoke
+    public Object applyDeadline(InvocationContext context) throws Exception {
+        String phase = context.getMethod().getName();
+        UIContext uiContext = PHASES.contains(phase) ? findUIContext(context.getParameters()) : null;
+        if (uiContext == null) {
+            return context.proceed();
+        }
+        Deadline deadline = Deadline.fromAttributeMap(uiContext.getAttributeMap());
+        Deadline previous = Deadline.enter(deadline);
+        try {
+            deadline.check("before " + phase);
+            return context.proceed();
+        } catch (Exception e) {
+            DeadlineExceededException exceeded = DeadlineExceededException.find(e);
+            if (exceeded != null && "execute".equals(phase)) {
+                LOG.warn(exceeded.getMessage() + " in " + context.getTarget().getClass().getSimpleName());
+                return Results.fail(exceeded.getMessage(), exceeded);
+            }
+            throw e;
+        } finally {
+            Deadline.restore(previous);
+        }
+    }
+
+    protected static UIContext findUIContext(Object[] parameters) {
+        if (parameters != null) {
+            for (Object parameter : parameters) {
+                if (parameter instanceof UIContext) {
+                    return (UIContext) parameter;
+                }
+                if (parameter instanceof UIContextProvider) {
+                    return ((UIContextProvider) parameter).getUIContext();
+                }
+            }
+        }
+        return null;
+    }
+}
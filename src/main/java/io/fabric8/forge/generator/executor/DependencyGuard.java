@@ -0,0 +1,170 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+
+import java.util.Collections;
+import java.util.Locale;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The bulkhead and circuit breaker of a dependency such as github or jenkins which guard every call to it.
+ * <p>
+ * Nested calls to the same dependency on a thread, such as a kubernetes client request made inside a metered
+ * OpenShift operation, only count once.
+ * <p>
+ * The limits can be configured per dependency with environment variables such as
+ * <code>GENERATOR_BULKHEAD_GITHUB_MAX</code>, <code>GENERATOR_BULKHEAD_GITHUB_QUEUE</code>,
+ * <code>GENERATOR_BREAKER_GITHUB_FAILURES</code> and <code>GENERATOR_BREAKER_GITHUB_OPEN_SECONDS</code>.
+ */
+public class DependencyGuard {
+    public static final String GIT_TRANSPORT = "git-transport";
+
+    private static final ConcurrentMap<String, DependencyGuard> guards = new ConcurrentHashMap<>();
+
+    private final String name;
+    private final Bulkhead bulkhead;
+    private final CircuitBreaker circuitBreaker;
+    private final ThreadLocal<int[]> depth = ThreadLocal.withInitial(() -> new int[1]);
+
+    public DependencyGuard(String name, Bulkhead bulkhead, CircuitBreaker circuitBreaker) {
+        this.name = name;
+        this.bulkhead = bulkhead;
+        this.circuitBreaker = circuitBreaker;
+    }
+
+    /**
+     * Returns the guard of the given dependency; git clones and pushes share the git transport guard
+     */
+    public static DependencyGuard get(String dependency) {
+        return guards.computeIfAbsent(guardName(dependency), DependencyGuard::create);
+    }
+
+    /**
+     * Returns the guards created so far by name
+     */
+    public static Map<String, DependencyGuard> getGuards() {
+        return Collections.unmodifiableMap(new TreeMap<>(guards));
+    }
+
+    protected static String guardName(String dependency) {
+        if (dependency.startsWith("git-")) {
+            return GIT_TRANSPORT;
+        }
+        return dependency;
+    }
+
+    protected static DependencyGuard create(String name) {
+        String prefix = name.toUpperCase(Locale.ENGLISH).replace('-', '_');
+        Bulkhead bulkhead = new Bulkhead(name,
+                EnvironmentVariables.getIntegerValue("GENERATOR_BULKHEAD_" + prefix + "_MAX", 32),
+                EnvironmentVariables.getIntegerValue("GENERATOR_BULKHEAD_" + prefix + "_QUEUE", 64),
+                TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue("GENERATOR_BULKHEAD_" + prefix + "_WAIT_SECONDS", 10)));
+        CircuitBreaker circuitBreaker = new CircuitBreaker(name,
+                EnvironmentVariables.getIntegerValue("GENERATOR_BREAKER_" + prefix + "_FAILURES", 5),
+                TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue("GENERATOR_BREAKER_" + prefix + "_OPEN_SECONDS", 30)));
+        return new DependencyGuard(name, bulkhead, circuitBreaker);
+    }
+
+    /**
+     * Acquires a permit to call the dependency which must be released via {@link #release(boolean)}
+     *
+     * @throws DependencyUnavailableException if the circuit breaker is open or the bulkhead is full
+     * @throws DeadlineExceededException if the current deadline passes while waiting for the bulkhead
+     */
+    public void acquire() {
+        int[] count = depth.get();
+        if (count[0] > 0) {
+            count[0]++;
+            return;
+        }
+        if (!circuitBreaker.tryAcquire()) {
+            throw new DependencyUnavailableException(name, "The circuit breaker for " + name + " is open");
+        }
+        boolean acquired;
+        try {
+            acquired = bulkhead.tryAcquire();
+        } catch (InterruptedException e) {
+            circuitBreaker.onIgnored();
+            Thread.currentThread().interrupt();
+            throw new DependencyUnavailableException(name, "Interrupted waiting to call " + name);
+        } catch (DeadlineExceededException e) {
+            circuitBreaker.onIgnored();
+            throw e;
+        }
+        if (!acquired) {
+            circuitBreaker.onIgnored();
+            throw new DependencyUnavailableException(name, "Too many concurrent calls to " + name);
+        }
+        count[0] = 1;
+    }
+
+    /**
+     * Releases the permit recording whether the call failed
+     */
+    public void release(boolean failed) {
+        if (!releasePermit()) {
+            return;
+        }
+        if (failed) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+    }
+
+    /**
+     * Releases the permit without counting the call for or against the dependency, such as when the caller ran out
+     * of time or was cancelled
+     */
+    public void releaseIgnored() {
+        if (releasePermit()) {
+            circuitBreaker.onIgnored();
+        }
+    }
+
+    /**
+     * Returns true if the outermost call on this thread released its bulkhead permit
+     */
+    private boolean releasePermit() {
+        int[] count = depth.get();
+        if (--count[0] > 0) {
+            return false;
+        }
+        count[0] = 0;
+        depth.remove();
+        bulkhead.release();
+        return true;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public Bulkhead getBulkhead() {
+        return bulkhead;
+    }
+
+    public CircuitBreaker getCircuitBreaker() {
+        return circuitBreaker;
+    }
+}
@@ -0,0 +1,48 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+/**
+ * Thrown instead of calling a dependency when its circuit breaker is open or its bulkhead is full
+ */
+public class DependencyUnavailableException extends RuntimeException {
+    private final String dependency;
+
+    public DependencyUnavailableException(String dependency, String message) {
+        super(message);
+        this.dependency = dependency;
+    }
+
+    /**
+     * Returns the exception if it or one of its causes is a {@link DependencyUnavailableException} or null
+     */
+    public static DependencyUnavailableException find(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof DependencyUnavailableException) {
+                return (DependencyUnavailableException) cause;
+            }
+            if (cause.getCause() == cause) {
+                break;
+            }
+        }
+        return null;
+    }
+
+    public String getDependency() {
+        return dependency;
+    }
+}
@@ -0,0 +1,437 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.metrics.Metrics;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.lang.reflect.Method;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * The executor shared by the wizard steps for all blocking outbound work such as git clones and pushes, webhooks and
+ * BuildConfig creation.
+ * <p>
+ * Tasks run on a bounded pool of platform threads unless <code>GENERATOR_VIRTUAL_THREADS</code> is enabled on a
+ * runtime with virtual threads, in which case each task gets its own virtual thread. Either way the number of
+ * concurrent calls to each dependency is limited separately so that fanning out over many repositories cannot overload
+ * github, git, OpenShift or Jenkins; background work is submitted via {@link #executor(String)} so that it is limited
+ * in the same way.
+ */
+@Singleton
+public class ExecutorFacade {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ExecutorFacade.class);
+    private static final String CONCURRENCY_PREFIX = "GENERATOR_CONCURRENCY_";
+    private static final String QUEUE_PREFIX = "GENERATOR_QUEUE_";
+
+    private final int maxThreads;
+    private final boolean virtualThreads;
+    private final ExecutorService executorService;
+    private final ScheduledExecutorService scheduledExecutorService;
+    private final ConcurrentMap<String, Semaphore> dependencyPermits = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, LimitedExecutor> executors = new ConcurrentHashMap<>();
+
+    @Inject
+    @Singleton
+    public ExecutorFacade() {
+        this(EnvironmentVariables.getIntegerValue(EnvironmentVariables.MAX_THREADS, defaultMaxThreads()),
+                EnvironmentVariables.getBooleanValue(EnvironmentVariables.VIRTUAL_THREADS, false));
+    }
+
+    public ExecutorFacade(int maxThreads) {
+        this(maxThreads, false);
+    }
+
+    public ExecutorFacade(int maxThreads, boolean useVirtualThreads) {
+        this.maxThreads = Math.max(1, maxThreads);
+        ExecutorService virtualExecutor = useVirtualThreads ? createVirtualThreadExecutor() : null;
+        this.virtualThreads = virtualExecutor != null;
+        this.executorService = virtualThreads ? virtualExecutor :
+                Executors.newFixedThreadPool(this.maxThreads, new NamedThreadFactory("fabric8-generator"));
+        this.scheduledExecutorService = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("fabric8-generator-scheduler"));
+        if (virtualThreads) {
+            LOG.info("starting executor with virtual threads");
+        } else {
+            LOG.info("starting executor with " + this.maxThreads + " threads");
+        }
+    }
+    @PreDestroy
+    public void destroy() {
+        LOG.info("stopping executor");
+        scheduledExecutorService.shutdownNow();
+        executorService.shutdown();
+        try {
+            if (!executorService.awaitTermination(10, TimeUnit.SECONDS)) {
+                executorService.shutdownNow();
+            }
+        } catch (InterruptedException e) {
+            executorService.shutdownNow();
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Returns the underlying executor; prefer {@link #executor(String)} or {@link #invokeAll(String, List, Function)}
+     * which limit how much work for each dependency is running or queued
+     */
+    public ExecutorService getExecutorService() {
+        return executorService;
+    }
+
+    /**
+     * Returns the executor for background tasks calling the given dependency with the {@link Deadline} of the caller.
+     * <p>
+     * It runs no more of the tasks at once than the dependency's concurrency limit and queues a bounded number of the
+     * rest, configured via the <code>GENERATOR_QUEUE_</code> environment variable for the dependency; beyond that
+     * tasks are rejected with a {@link RejectedExecutionException} rather than queueing unbounded work.
+     */
+    public Executor executor(String dependency) {
+        return executors.computeIfAbsent(dependency, d -> new LimitedExecutor(d, getConcurrencyLimit(d), getQueueLimit(d)));
+    }
+
+    /**
+     * Returns the single threaded scheduler used to delay work; scheduled tasks should hand any blocking work to
+     * {@link #getExecutorService()}
+     */
+    public ScheduledExecutorService getScheduledExecutorService() {
+        return scheduledExecutorService;
+    }
+
+    /**
+     * Returns the size of the platform thread pool; tasks are not limited by it when using virtual threads
+     */
+    public int getMaxThreads() {
+        return maxThreads;
+    }
+
+    public boolean isVirtualThreads() {
+        return virtualThreads;
+    }
+
+    /**
+     * Returns how many calls to the given dependency may be in flight at once across all the callers.
+     * <p>
+     * Configured via the <code>GENERATOR_CONCURRENCY_</code> environment variable for the dependency, such as
+     * <code>GENERATOR_CONCURRENCY_GIT_CLONE</code>
+     */
+    public int getConcurrencyLimit(String dependency) {
+        int limit = EnvironmentVariables.getIntegerValue(concurrencyEnvVar(dependency), defaultConcurrencyLimit(dependency));
+        if (!virtualThreads) {
+            limit = Math.min(limit, maxThreads);
+        }
+        return Math.max(1, limit);
+    }
+
+    /**
+     * Returns how many background tasks calling the given dependency may be queued waiting to run
+     */
+    public int getQueueLimit(String dependency) {
+        return Math.max(0, EnvironmentVariables.getIntegerValue(QUEUE_PREFIX + envVarSuffix(dependency), 64));
+    }
+
+    /**
+     * Runs the tasks calling the given dependency concurrently with no more of them in flight than the dependency's
+     * concurrency limit.
+     * <p>
+     * A failing task is turned into a result by the given function rather than stopping the other tasks. Returns the
+     * results in the same order as the given tasks.
+     * <p>
+     * The tasks run with the {@link Deadline} of the caller; if it passes before they have all completed the tasks
+     * still pending are cancelled and a {@link DeadlineExceededException} is thrown
+     */
+    public <T> List<T> invokeAll(String dependency, List<Callable<T>> tasks, Function<Throwable, T> onFailure) throws InterruptedException {
+        return invokeAll(dependency, tasks, (index, e) -> onFailure.apply(e));
+    }
+
+    /**
+     * Runs the tasks like {@link #invokeAll(String, List, Function)} passing the index of a failing task with its
+     * exception so that failures can be reported in the order of the tasks
+     */
+    public <T> List<T> invokeAll(String dependency, List<Callable<T>> tasks, BiFunction<Integer, Throwable, T> onFailure) throws InterruptedException {
+        int size = tasks.size();
+        List<T> results = new ArrayList<>(Collections.nCopies(size, null));
+        CompletionService<T> completionService = new ExecutorCompletionService<>(executorService);
+        Map<Future<T>, PermitTask<T>> pending = new HashMap<>();
+        Semaphore permits = dependencyPermits.computeIfAbsent(dependency, d -> new Semaphore(getConcurrencyLimit(d), true));
+        int limit = getConcurrencyLimit(dependency);
+        int next = 0;
+        try {
+            while (next < size || !pending.isEmpty()) {
+                // lets take the permit before handing a task to the pool so that tasks waiting for one cannot tie up
+                // the pool threads; we only wait for one if none of our tasks will complete and release theirs
+                while (next < size && pending.size() < limit) {
+                    if (pending.isEmpty()) {
+                        Deadline.acquire(permits, "waiting to call " + dependency);
+                    } else if (!permits.tryAcquire()) {
+                        break;
+                    }
+                    PermitTask<T> task = new PermitTask<>(next, permits, tasks.get(next));
+                    try {
+                        pending.put(completionService.submit(Deadline.propagate(task)), task);
+                    } catch (RejectedExecutionException e) {
+                        task.cancel();
+                        throw e;
+                    }
+                    next++;
+                }
+                Future<T> future = take(completionService, dependency);
+                int index = pending.remove(future).index;
+                try {
+                    results.set(index, future.get());
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    LOG.warn("Task calling " + dependency + " failed: " + cause, cause);
+                    results.set(index, onFailure.apply(index, cause));
+                }
+            }
+        } finally {
+            for (Map.Entry<Future<T>, PermitTask<T>> entry : pending.entrySet()) {
+                entry.getKey().cancel(true);
+                entry.getValue().cancel();
+            }
+        }
+        return results;
+    }
+
+    protected static <T> Future<T> take(CompletionService<T> completionService, String dependency) throws InterruptedException {
+        Deadline deadline = Deadline.current();
+        if (deadline == null) {
+            return completionService.take();
+        }
+        String operation = "waiting for the calls to " + dependency;
+        Future<T> answer = completionService.poll(deadline.check(operation), TimeUnit.MILLISECONDS);
+        if (answer == null) {
+            throw deadline.exceeded(operation);
+        }
+        return answer;
+    }
+
+    protected static int defaultMaxThreads() {
+        return Math.max(4, Runtime.getRuntime().availableProcessors() * 2);
+    }
+
+    protected static int defaultConcurrencyLimit(String dependency) {
+        switch (dependency) {
+            case Metrics.OPENSHIFT:
+                return EnvironmentVariables.getIntegerValue(EnvironmentVariables.BUILD_CONFIG_CONCURRENCY, 8);
+            case Metrics.GIT_CLONE:
+            case Metrics.GIT_PUSH:
+            case Metrics.JENKINS:
+                return 4;
+            default:
+                return 8;
+        }
+    }
+
+    protected static String concurrencyEnvVar(String dependency) {
+        return CONCURRENCY_PREFIX + envVarSuffix(dependency);
+    }
+
+    protected static String envVarSuffix(String dependency) {
+        return dependency.toUpperCase(Locale.ENGLISH).replace('-', '_');
+    }
+
+    /**
+     * Creates an executor starting a virtual thread per task via reflection so that we can still run on Java 8,
+     * returning null if the runtime has no virtual threads
+     */
+    protected static ExecutorService createVirtualThreadExecutor() {
+        try {
+            Method method = Executors.class.getMethod("newVirtualThreadPerTaskExecutor");
+            return (ExecutorService) method.invoke(null);
+        } catch (NoSuchMethodException e) {
+            LOG.debug("No virtual threads on this runtime so using platform threads");
+        } catch (Exception e) {
+            LOG.warn("Failed to create a virtual thread executor so using platform threads: " + e, e);
+        }
+        return null;
+    }
+
+    /**
+     * Runs a limited number of tasks at once on the shared executor starting the queued tasks as the running ones
+     * complete
+     */
+    protected class LimitedExecutor implements Executor {
+        private final String dependency;
+        private final int maxRunning;
+        private final int maxQueued;
+        private final Deque<Runnable> queue = new ArrayDeque<>();
+        private int running;
+
+        public LimitedExecutor(String dependency, int maxRunning, int maxQueued) {
+            this.dependency = dependency;
+            this.maxRunning = maxRunning;
+            this.maxQueued = maxQueued;
+        }
+
+        @Override
+        public void execute(Runnable task) {
+            Runnable propagated = propagate(task);
+            synchronized (this) {
+                if (running >= maxRunning) {
+                    if (queue.size() >= maxQueued) {
+                        throw new RejectedExecutionException("Too many tasks calling " + dependency + " are queued");
+                    }
+                    queue.add(propagated);
+                    return;
+                }
+                running++;
+            }
+            try {
+                executorService.execute(() -> runAndStartNext(propagated));
+            } catch (RejectedExecutionException e) {
+                synchronized (this) {
+                    running--;
+                }
+                throw e;
+            }
+        }
+
+        public synchronized int getRunning() {
+            return running;
+        }
+
+        public synchronized int getQueued() {
+            return queue.size();
+        }
+
+        private void runAndStartNext(Runnable task) {
+            try {
+                task.run();
+            } finally {
+                startNext();
+            }
+        }
+
+        private void startNext() {
+            while (true) {
+                Runnable next;
+                synchronized (this) {
+                    next = queue.poll();
+                    if (next == null) {
+                        running--;
+                        return;
+                    }
+                }
+                try {
+                    executorService.execute(() -> runAndStartNext(next));
+                    return;
+                } catch (RejectedExecutionException e) {
+                    LOG.warn("Dropping a queued task calling " + dependency + " as the executor is shutting down");
+                }
+            }
+        }
+
+        private Runnable propagate(Runnable task) {
+            Deadline deadline = Deadline.current();
+            if (deadline == null) {
+                return task;
+            }
+            return () -> {
+                Deadline previous = Deadline.enter(deadline);
+                try {
+                    task.run();
+                } finally {
+                    Deadline.restore(previous);
+                }
+            };
+        }
+    }
+
+    /**
+     * Runs a task holding the permit of its dependency which the caller acquired; the permit is released once the task
+     * completes or when it is cancelled before it starts
+     */
+    private static class PermitTask<T> implements Callable<T> {
+        private final int index;
+        private final Semaphore permits;
+        private final Callable<T> task;
+        private final AtomicBoolean started = new AtomicBoolean();
+
+        PermitTask(int index, Semaphore permits, Callable<T> task) {
+            this.index = index;
+            this.permits = permits;
+            this.task = task;
+        }
+
+        @Override
+        public T call() throws Exception {
+            if (!started.compareAndSet(false, true)) {
+                throw new CancellationException("The task was cancelled before it started");
+            }
+            try {
+                return task.call();
+            } finally {
+                permits.release();
+            }
+        }
+
+        void cancel() {
+            if (started.compareAndSet(false, true)) {
+                permits.release();
+            }
+        }
+    }
+
+    public static class NamedThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        public NamedThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, prefix + "-" + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+}
@@ -17,6 +17,8 @@
 package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
 import org.jboss.forge.addon.convert.Converter;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -40,6 +42,8 @@ import static io.fabric8.forge.generator.git.GitProvider.pickDefaultGitProvider;
 
 /**
  */
+@Metered
+@WithDeadline
 public abstract class AbstractGitProviderCommand implements UIWizard {
     private static final transient Logger LOG = LoggerFactory.getLogger(ConfigureGitAccount.class);
     private List<GitProvider> gitProviders;
@@ -19,6 +19,10 @@ package io.fabric8.forge.generator.git;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import io.fabric8.devops.ProjectConfigs;
 import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
@@ -39,11 +43,18 @@ import org.slf4j.LoggerFactory;
 import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
 
 /**
  */
+@WithDeadline
 public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
+    private static final int PUSH_RETRY_COUNT = 5;
+    private static final long PUSH_RETRY_BUDGET_MILLIS = 30 * 1000L;
+
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
     private final String accountsCacheKey;
@@ -53,6 +64,8 @@ public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
     protected Cache<String, Collection<GitOrganisationDTO>> organisationsCache;
     @Inject
     protected CacheFacade cacheManager;
+    @Inject
+    protected ExecutorFacade executorFacade;
     /**
      * The name of the upstream repo
      */
@@ -93,6 +106,13 @@ public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
         }
     }
 
+    /**
+     * Returns the cached organisations for the given key, waiting for any prefetch of them already in flight
+     */
+    protected Collection<GitOrganisationDTO> loadCachedOrganisations(String key, Function<String, Collection<GitOrganisationDTO>> loader) {
+        return cacheManager.computeIfAbsent(organisationsCacheKey, key, loader);
+    }
+
     public void importNewGitProject(UserDetails userDetails, File basedir, String message, String gitUrl)
             throws GitAPIException, JsonProcessingException {
         importNewGitProject(userDetails, basedir, message, gitUrl, this.branch, this.origin, LOG);
@@ -117,26 +137,57 @@ public abstract class AbstractGitRepoStep extends AbstractDevToolsCommand {
         GitUtils.configureBranch(git, branch, origin, gitUrl);
         GitUtils.addDummyFileToEmptyFolders(basedir);
         logger.info("About to git commit and push to: " + gitUrl + " and remote name " + origin);
-        int retryCount = 5;
-        for (int i = retryCount; i > 0; i--) {
-            if (i < retryCount) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e1) {
-                    e1.printStackTrace();
-                }
-            }
+        long deadline = System.currentTimeMillis() + PUSH_RETRY_BUDGET_MILLIS;
+        Deadline requestDeadline = Deadline.current();
+        if (requestDeadline != null) {
+            deadline = Math.min(deadline, requestDeadline.getExpiresAtMillis());
+        }
+        long delay = 500;
+        for (int i = PUSH_RETRY_COUNT; i > 0; i--) {
             try {
-                GitUtils.doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, true);
+                Metrics.run(Metrics.GIT_PUSH, "commitAndPush", () ->
+                        GitUtils.doAddCommitAndPushFiles(git, userDetails, personIdent, branch, origin, message, true));
                 return;
             } catch (TransportException e) {
-                if (i <= 1) {
+                if (i <= 1 || System.currentTimeMillis() + delay > deadline) {
+                    throw e;
+                }
+                logger.info("Caught a transport exception: " + e + " so retrying in " + delay + "ms");
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException e1) {
+                    Thread.currentThread().interrupt();
                     throw e;
-                } else {
-                    logger.info("Caught a transport exception: " + e + " so retrying");
+                }
+                delay *= 2;
+            }
+        }
+    }
+
+    /**
+     * Returns a failed result reporting the failures of the tasks for each repository in the order of the repositories
+     * rather than the order they failed in, or null if none of them failed
+     */
+    protected static Result failedRepositories(String action, Throwable[] failures) {
+        List<String> messages = new ArrayList<>();
+        Throwable first = null;
+        for (Throwable failure : failures) {
+            if (failure != null) {
+                messages.add(failure.getMessage());
+                if (first == null) {
+                    first = failure;
                 }
             }
         }
+        if (first == null) {
+            return null;
+        }
+        Throwable cause = first.getCause() != null ? first.getCause() : first;
+        if (messages.size() == 1) {
+            return Results.fail(first.getMessage(), cause);
+        }
+        return Results.fail("Failed to " + action + " " + messages.size() + " of " + failures.length + " repositories: " +
+                String.join("; ", messages), cause);
     }
 
     protected Result updateGitURLInJenkinsfile(File basedir, String gitUrl) {
@@ -59,7 +59,7 @@ public abstract class AbstractPickGitAccountStep extends AbstractGitCommand impl
 
         KubernetesClient kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        List<GitProvider> gitServices = gitProviderCache.computeIfAbsent(key, k -> GitProvider.loadGitProviders());
+        List<GitProvider> gitServices = cacheManager.computeIfAbsent(CacheNames.GIT_PROVIDERS, key, k -> GitProvider.loadGitProviders());
         int size = gitServices.size();
         if (size > 0) {
             gitProvider.setDefaultValue(pickDefaultGitProvider(gitServices));
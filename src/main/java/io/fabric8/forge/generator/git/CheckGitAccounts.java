@@ -16,6 +16,8 @@
  */
 package io.fabric8.forge.generator.git;
 
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
 import org.jboss.forge.addon.ui.command.UICommand;
 import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
@@ -33,6 +35,8 @@ import java.util.List;
 /**
  * A command which checks if we have a git account setup correctly
  */
+@Metered
+@WithDeadline
 public class CheckGitAccounts implements UICommand {
 
     @Override
@@ -208,7 +208,7 @@ public class GitAccount {
         if (Strings.isNotBlank(username)) {
             return username;
         } else if (Strings.isNotBlank(token)) {
-            return "token/" + token;
+            return "token/" + TokenHelper.getUserIdentity(token);
         }
         throw new IllegalArgumentException("No cache key available for user: " + this);
     }
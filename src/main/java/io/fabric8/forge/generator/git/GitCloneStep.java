@@ -17,6 +17,8 @@
 package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.utils.Strings;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -32,9 +34,11 @@ import java.nio.file.Files;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  */
+@WithDeadline
 public abstract class GitCloneStep extends AbstractGitRepoStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
@@ -77,21 +81,31 @@ public abstract class GitCloneStep extends AbstractGitRepoStep {
         }
 
         File tmpdir = Files.createTempDirectory("importdir").toFile();
-        List<GitClonedRepoDetails> clonedRepos = new ArrayList<>();
+        List<Callable<GitClonedRepoDetails>> tasks = new ArrayList<>();
         for (String gitRepoName : gitRepoNameList) {
             File basedir = new File(tmpdir, gitRepoName);
             CloneRepoAttributes attributes = createCloneRepoAttributes(gitOwnerName, gitRepoName, basedir);
+            tasks.add(() -> {
+                try {
+                    LOG.info("Cloning repository " + attributes.getUri() + " into directory " + attributes.getRemote());
+                    Git git = gitProvider.cloneRepo(attributes);
+                    return new GitClonedRepoDetails(gitRepoName, git, attributes);
+                } catch (GitAPIException e) {
+                    removeTemporaryFiles(basedir);
+                    throw new IllegalStateException("Failed to clone repository " + attributes.getUri() + " due to " + e, e);
+                }
+            });
+        }
 
-            try {
-                LOG.info("Cloning repository " + attributes.getUri() + " into directory " + attributes.getRemote());
-                Git git = gitProvider.cloneRepo(attributes);
-
-                GitClonedRepoDetails clonedRepo = new GitClonedRepoDetails(gitRepoName, git, attributes);
-                clonedRepos.add(clonedRepo);
-            } catch (GitAPIException e) {
-                removeTemporaryFiles(basedir);
-                return Results.fail("Failed to clone repository " + attributes.getUri() + " due to " + e, e);
-            }
+        // lets clone the repositories concurrently
+        Throwable[] failures = new Throwable[tasks.size()];
+        List<GitClonedRepoDetails> clonedRepos = executorFacade.invokeAll(Metrics.GIT_CLONE, tasks, (index, e) -> {
+            failures[index] = e;
+            return null;
+        });
+        Result failed = failedRepositories("clone", failures);
+        if (failed != null) {
+            return failed;
         }
         attributeMap.put(AttributeMapKeys.GIT_CLONED_REPOS, clonedRepos);
         return Results.success();
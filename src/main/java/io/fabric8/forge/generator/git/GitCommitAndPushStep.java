@@ -18,6 +18,8 @@ package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.project.support.UserDetails;
 import org.eclipse.jgit.api.Git;
 import org.eclipse.jgit.api.errors.GitAPIException;
@@ -30,12 +32,15 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.Callable;
 
 /**
  * Performs a git add, commit and push on the given git repos
  */
+@WithDeadline
 public class GitCommitAndPushStep extends AbstractGitRepoStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
@@ -53,20 +58,35 @@ public class GitCommitAndPushStep extends AbstractGitRepoStep {
 
         List<GitClonedRepoDetails> clonedRepos = (List<GitClonedRepoDetails>) attributeMap.get(AttributeMapKeys.GIT_CLONED_REPOS);
         if (clonedRepos != null) {
+            List<Callable<Void>> tasks = new ArrayList<>();
             for (GitClonedRepoDetails clonedRepo : clonedRepos) {
-                Git git = clonedRepo.getGit();
-                String gitUrl = clonedRepo.getGitUrl();
-                UserDetails userDetails = clonedRepo.getUserDetails();
-                File basedir = clonedRepo.getDirectory();
-                String message = "Adding pipeline";
-                try {
-                    LOG.info("Performing a git commit and push on URI " + gitUrl);
-                    gitAddCommitAndPush(git, gitUrl, userDetails, basedir, message);
-                } catch (GitAPIException e) {
-                    return Results.fail("Failed to commit and push repository " + clonedRepo.getGitRepoName() + " due to " + e, e);
-                } finally {
-                    removeTemporaryFiles(basedir);
-                }
+                tasks.add(() -> {
+                    Git git = clonedRepo.getGit();
+                    String gitUrl = clonedRepo.getGitUrl();
+                    UserDetails userDetails = clonedRepo.getUserDetails();
+                    File basedir = clonedRepo.getDirectory();
+                    String message = "Adding pipeline";
+                    try {
+                        LOG.info("Performing a git commit and push on URI " + gitUrl);
+                        gitAddCommitAndPush(git, gitUrl, userDetails, basedir, message);
+                    } catch (GitAPIException e) {
+                        throw new IllegalStateException("Failed to commit and push repository " + clonedRepo.getGitRepoName() + " due to " + e, e);
+                    } finally {
+                        removeTemporaryFiles(basedir);
+                    }
+                    return null;
+                });
+            }
+
+            // lets push the repositories concurrently
+            Throwable[] failures = new Throwable[tasks.size()];
+            executorFacade.invokeAll(Metrics.GIT_PUSH, tasks, (index, e) -> {
+                failures[index] = e;
+                return null;
+            });
+            Result failed = failedRepositories("commit and push", failures);
+            if (failed != null) {
+                return failed;
             }
         }
         return Results.success();
@@ -17,9 +17,11 @@
 package io.fabric8.forge.generator.git;
 
 import io.fabric8.forge.generator.Configuration;
+import io.fabric8.forge.generator.executor.Deadline;
 import io.fabric8.forge.generator.github.GitHubProvider;
 import io.fabric8.forge.generator.gogs.GogsProvider;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.kubernetes.api.ServiceNames;
 import io.fabric8.kubernetes.api.model.Service;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -123,7 +125,10 @@ public abstract class GitProvider {
 
     public abstract void addConfigureStep(NavigationResultBuilder builder);
 
-    public abstract void registerWebHook(GitAccount details, WebHookDetails webhook) throws IOException;
+    /**
+     * Registers the webhook on the repository returning whether it was created, updated or already up to date
+     */
+    public abstract WebHookStatus registerWebHook(GitAccount details, WebHookDetails webhook) throws IOException;
 
     public Git cloneRepo(CloneRepoAttributes attributes) throws GitAPIException {
         CloneCommand command = Git.cloneRepository();
@@ -136,9 +141,10 @@ public abstract class GitProvider {
         command = command.setCredentialsProvider(credentialsProvider).
                 setCloneAllBranches(attributes.isCloneAll()).
                 setURI(gitUri).
-                setDirectory(attributes.getDirectory()).setRemote(attributes.getRemote());
+                setDirectory(attributes.getDirectory()).setRemote(attributes.getRemote()).
+                setTimeout(Deadline.timeoutSeconds(0, "before cloning " + gitUri));
 
-        return command.call();
+        return Metrics.call(Metrics.GIT_CLONE, "clone", command::call);
     }
 
     public abstract void addGitCloneStep(NavigationResultBuilder builder);
@@ -16,18 +16,25 @@
  */
 package io.fabric8.forge.generator.git;
 
+import io.fabric8.forge.generator.cache.UserContextPrefetcher;
 import io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep;
 import io.fabric8.forge.generator.pipeline.ChoosePipelineStep;
+import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
 import org.jboss.forge.addon.ui.result.navigation.NavigationResultBuilder;
 import org.jboss.forge.addon.ui.util.Categories;
 import org.jboss.forge.addon.ui.util.Metadata;
 
+import javax.inject.Inject;
+
 /**
  * Imports an organisation, selection of repos or all repos from a git provider
  */
 public class ImportGit extends AbstractGitProviderCommand {
+    @Inject
+    private UserContextPrefetcher prefetcher;
+
     @Override
     public UICommandMetadata getMetadata(UIContext context) {
         return Metadata.forCommand(getClass()).name("fabric8: Import Git")
@@ -35,6 +42,12 @@ public class ImportGit extends AbstractGitProviderCommand {
                 .category(Categories.create("Fabric8"));
     }
 
+    @Override
+    public void initializeUI(UIBuilder builder) throws Exception {
+        prefetcher.prefetch(builder.getUIContext());
+        super.initializeUI(builder);
+    }
+
     @Override
     protected void addNextStep(NavigationResultBuilder builder, GitProvider provider) {
         provider.addImportRepositoriesSteps(builder);
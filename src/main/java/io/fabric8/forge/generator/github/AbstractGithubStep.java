@@ -23,6 +23,8 @@ import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.git.AbstractGitRepoStep;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitSecretNames;
+import io.fabric8.forge.generator.keycloak.KeycloakEndpoint;
+import io.fabric8.forge.generator.keycloak.TokenHelper;
 import org.infinispan.Cache;
 import org.jboss.forge.addon.ui.context.UIContext;
 import org.slf4j.Logger;
@@ -60,6 +62,11 @@ public abstract class AbstractGithubStep extends AbstractGitRepoStep {
             LOG.warn("No git details found - assuming local testing mode!");
             return new GitHubFacade();
         }
-        return new GitHubFacade(details);
+        GitHubFacade answer = new GitHubFacade(details);
+        if (answer.isUnauthorized() && !Configuration.isOnPremise()) {
+            // lets exchange the github token again next time
+            TokenHelper.evictTokenFor(KeycloakEndpoint.GET_GITHUB_TOKEN, TokenHelper.getAuthHeader(context));
+        }
+        return answer;
     }
 }
@@ -0,0 +1,54 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.DeadlineExceededException;
+import org.kohsuke.github.HttpConnector;
+
+import java.io.IOException;
+import java.net.HttpURLConnection;
+import java.net.URL;
+
+/**
+ * Opens the github API connections with their timeouts capped to the time remaining before the deadline of the
+ * current user request
+ */
+public class DeadlineHttpConnector implements HttpConnector {
+    public static final DeadlineHttpConnector INSTANCE = new DeadlineHttpConnector(HttpConnector.DEFAULT);
+
+    private final HttpConnector delegate;
+
+    public DeadlineHttpConnector(HttpConnector delegate) {
+        this.delegate = delegate;
+    }
+
+    @Override
+    public HttpURLConnection connect(URL url) throws IOException {
+        HttpURLConnection connection = delegate.connect(url);
+        if (Deadline.current() != null) {
+            String operation = "before calling " + url;
+            try {
+                connection.setConnectTimeout(Deadline.timeoutMillis(connection.getConnectTimeout(), operation));
+                connection.setReadTimeout(Deadline.timeoutMillis(connection.getReadTimeout(), operation));
+            } catch (DeadlineExceededException e) {
+                throw new IOException(e.getMessage(), e);
+            }
+        }
+        return connection;
+    }
+}
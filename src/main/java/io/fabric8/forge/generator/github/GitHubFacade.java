@@ -16,29 +16,36 @@
  */
 package io.fabric8.forge.generator.github;
 
+import io.fabric8.forge.generator.EnvironmentVariables;
 import io.fabric8.forge.generator.git.EnvironmentVariablePrefixes;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
 import io.fabric8.forge.generator.git.GitRepositoryDTO;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.git.WebHookStatus;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.utils.WebClientHelpers;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
-import org.jboss.forge.addon.ui.context.UIBuilder;
 import org.jboss.forge.addon.ui.context.UIValidationContext;
 import org.jboss.forge.addon.ui.input.UIInput;
 import org.kohsuke.github.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
 import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -54,11 +61,14 @@ import static java.util.Collections.unmodifiableMap;
  */
 public class GitHubFacade {
     private static final transient Logger LOG = LoggerFactory.getLogger(GitHubFacade.class);
+    private static final List<GHEvent> WEB_HOOK_EVENTS = Collections.singletonList(GHEvent.ALL);
+    private static final List<String> WEB_HOOK_CONFIG_KEYS = Arrays.asList("url", "content_type", "insecure_ssl");
     public static final String MY_PERSONAL_GITHUB_ACCOUNT = "My personal github account";
     private final GitAccount details;
     private GHMyself myself;
 
     private GitHub github;
+    private boolean unauthorized;
 
     public GitHubFacade() {
         this(GitAccount.createViaEnvironmentVariables(EnvironmentVariablePrefixes.GITHUB));
@@ -80,7 +90,11 @@ public class GitHubFacade {
                 .withConnector(new OkHttpConnector(new OkUrlFactory(new OkHttpClient().setCache(cache))));
 */
         try {
-            final GitHubBuilder ghb = new GitHubBuilder();
+            final GitHubBuilder ghb = new GitHubBuilder().withConnector(DeadlineHttpConnector.INSTANCE);
+            String apiUrl = System.getenv(EnvironmentVariables.GITHUB_API_URL);
+            if (Strings.isNotBlank(apiUrl)) {
+                ghb.withEndpoint(apiUrl);
+            }
             if (Strings.isNotBlank(username) && Strings.isNotBlank(password)) {
                 ghb.withPassword(username, password);
             } else if (Strings.isNotBlank(token)) {
@@ -91,7 +105,7 @@ public class GitHubFacade {
                 }
             }
             this.github = ghb.build();
-            this.myself = this.github.getMyself();
+            this.myself = Metrics.call(Metrics.GITHUB, "getMyself", this.github::getMyself);
             String login = myself.getLogin();
             if (Strings.isNotBlank(login) && !Objects.equals(login, username)) {
                 LOG.debug("Switching the github user name from " + username + " to " + login);
@@ -102,13 +116,26 @@ public class GitHubFacade {
             if (Strings.isNotBlank(email)) {
                 details.setEmail(email);
             }
+        } catch (HttpException e) {
+            unauthorized = e.getResponseCode() == 401;
+            LOG.warn("Failed to create github client for user " + details.getUsername() + " status: " + e.getResponseCode());
         } catch (IOException e) {
             LOG.warn("Failed to create github client for user " + details.getUsername());
         }
     }
 
+    /**
+     * Creates a facade for an account whose github client has already been created
+     */
+    protected GitHubFacade(GitAccount details, GitHub github) {
+        this.details = details;
+        this.github = github;
+    }
 
-    public Collection<GitOrganisationDTO> loadGithubOrganisations(UIBuilder builder) {
+    /**
+     * Loads the organisations of the user; this does not touch the UI so it can also be used to prefetch them
+     */
+    public Collection<GitOrganisationDTO> loadGithubOrganisations() {
         SortedSet<GitOrganisationDTO> organisations = new TreeSet();
         String username = details.getUsername();
         if (Strings.isNotBlank(username)) {
@@ -118,7 +145,7 @@ public class GitHubFacade {
         if (github != null) {
             try {
                 LOG.debug("Loading github organisations for " + username);
-                Map<String, GHOrganization> map = github.getMyOrganizations();
+                Map<String, GHOrganization> map = Metrics.call(Metrics.GITHUB, "getMyOrganizations", github::getMyOrganizations);
                 if (map != null) {
                     Collection<GHOrganization> organizations = map.values();
                     for (GHOrganization organization : organizations) {
@@ -149,7 +176,7 @@ public class GitHubFacade {
         if (github != null) {
             String name = orgName + "/" + repoName;
             try {
-                GHRepository repository = github.getRepository(name);
+                GHRepository repository = Metrics.call(Metrics.GITHUB, "getRepository", () -> github.getRepository(name));
                 if (repository != null) {
                     context.addValidationError(input, "The repository " + repoName + " already exists!");
                 }
@@ -172,12 +199,13 @@ public class GitHubFacade {
                 if (Strings.isNullOrBlank(orgName) || orgName.equals(username)) {
                     Map<String,GHRepository> repositoriesTree = new TreeMap<String, GHRepository>();
                     // With OWNER, retrieve public and private repositories owned by current user (only).
-                    for (GHRepository r : github.getMyself().listRepositories(100, GHMyself.RepositoryListFilter.OWNER)) {
+                    for (GHRepository r : Metrics.call(Metrics.GITHUB, "listRepositories", () ->
+                            github.getMyself().listRepositories(100, GHMyself.RepositoryListFilter.OWNER).asList())) {
                         repositoriesTree.put(r.getName(),r);
                     }
                     repositories = unmodifiableMap(repositoriesTree);
                  } else {
-                    repositories = github.getOrganization(orgName).getRepositories();
+                    repositories = Metrics.call(Metrics.GITHUB, "getRepositories", () -> github.getOrganization(orgName).getRepositories());
                 }
                 if (repositories != null) {
                     for (Map.Entry<String, GHRepository> entry : repositories.entrySet()) {
@@ -201,7 +229,7 @@ public class GitHubFacade {
         boolean hasFile = false;
         GHContent content = null;
         try {
-            content = github.getRepository(org + "/" + repoName).getFileContent(fileName);
+            content = Metrics.call(Metrics.GITHUB, "getFileContent", () -> github.getRepository(org + "/" + repoName).getFileContent(fileName));
             if (content != null) {
                 hasFile = true;
             }
@@ -215,7 +243,7 @@ public class GitHubFacade {
     public GHMyself getMyself() {
         if (myself == null) {
             try {
-                myself = this.github.getMyself();
+                myself = Metrics.call(Metrics.GITHUB, "getMyself", this.github::getMyself);
                 if (myself == null) {
                     LOG.warn("Could not find valid github.getMyself()");
                 }
@@ -270,61 +298,137 @@ public class GitHubFacade {
         if (Strings.isNotBlank(description)) {
             builder.description(description);
         }
-        return builder.create();
+        return Metrics.call(Metrics.GITHUB, "createRepository", builder::create);
+    }
+
+    /**
+     * Returns true if github rejected the token of the account details
+     */
+    public boolean isUnauthorized() {
+        return unauthorized;
     }
 
     public boolean isDetailsValid() {
         return details != null && GitAccount.isValid(details);
     }
 
-    public void createWebHook(WebHookDetails webhook) throws IOException {
+    /**
+     * Ensures the repository has the given webhook using a single listing of its hooks.
+     * <p>
+     * A hook on the same URL is updated in place rather than deleted and recreated, and is left alone if the
+     * configuration github returns for it already matches and it has no secret which would need refreshing
+     */
+    public WebHookStatus reconcileWebHook(WebHookDetails webhook) throws IOException {
         String repoName = webhook.getRepositoryName();
-
-
         String orgName = webhook.getGitOwnerName();
-        GHRepository repository = github.getRepository(orgName + "/" + repoName);
+        GHRepository repository = Metrics.call(Metrics.GITHUB, "getRepository", () -> github.getRepository(orgName + "/" + repoName));
         String webhookUrl = webhook.getWebhookUrl();
 
-        removeOldWebHooks(repository, webhookUrl);
+        List<GHHook> hooks = Metrics.call(Metrics.GITHUB, "getHooks", repository::getHooks);
+        GHHook existing = null;
+        if (hooks != null) {
+            for (GHHook hook : hooks) {
+                Map<String, String> config = hook.getConfig();
+                if (config != null && webhookUrl.equals(config.get("url"))) {
+                    if (existing == null) {
+                        existing = hook;
+                    } else {
+                        removeWebHook(repository, hook, webhookUrl);
+                    }
+                }
+            }
+        }
+        if (existing == null) {
+            GHHook hook = Metrics.call(Metrics.GITHUB, "createHook", () -> repository.createHook("web", webHookConfig(webhook), WEB_HOOK_EVENTS, true));
+            if (hook != null) {
+                LOG.info("Created WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+            }
+            return WebHookStatus.CREATED;
+        }
+        if (webHookMatches(existing, webhook)) {
+            LOG.debug("WebHook " + existing.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl + " is up to date");
+            return WebHookStatus.UNCHANGED;
+        }
+        updateWebHook(existing, webhook);
+        LOG.info("Updated WebHook " + existing.getName() + " with ID " + existing.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+        return WebHookStatus.UPDATED;
+    }
 
+    private void removeWebHook(GHRepository repository, GHHook hook, String webhookUrl) {
+        LOG.info("Removing duplicate WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+        try {
+            Metrics.run(Metrics.GITHUB, "deleteHook", hook::delete);
+        } catch (IOException e) {
+            LOG.warn("Failed to remove WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl + " due to: " + e, e);
+        }
+    }
+
+    /**
+     * Updates the configuration of the hook in place; the github API we use has no way to edit a hook so lets PATCH it
+     */
+    private void updateWebHook(GHHook hook, WebHookDetails webhook) throws IOException {
+        Map<String, Object> body = new HashMap<>();
+        body.put("active", true);
+        body.put("events", Collections.singletonList("*"));
+        body.put("config", webHookConfig(webhook));
+        String hookUrl = String.valueOf(hook.getUrl());
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.GITHUB);
+        Response response = Metrics.call(Metrics.GITHUB, "editHook", () -> client.target(hookUrl).
+                request(MediaType.APPLICATION_JSON).
+                header("Authorization", details.mandatoryAuthHeader()).
+                method("PATCH", Entity.json(body)), Response::getStatus);
+        try {
+            int status = response.getStatus();
+            if (status < 200 || status >= 300) {
+                throw new IOException("Failed to update the github web hook at: " + hookUrl + ". Status: " + status);
+            }
+        } finally {
+            response.close();
+        }
+    }
+
+    protected static Map<String, String> webHookConfig(WebHookDetails webhook) {
         Map<String, String> config = new HashMap<>();
-        config.put("url", webhookUrl);
+        config.put("url", webhook.getWebhookUrl());
         config.put("insecure_ssl", "1");
         config.put("content_type", "json");
         config.put("secret", webhook.getSecret());
-        List<GHEvent> events = new ArrayList<>();
-        events.add(GHEvent.ALL);
-        GHHook hook = repository.createHook("web", config, events, true);
-        if (hook != null) {
-            LOG.info("Created WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
+        return config;
+    }
+
+    /**
+     * Returns true if the configuration github returns for the hook matches the hook we would create.
+     * <p>
+     * Github masks the secret so a hook which should have one never matches; lets update it so it has the current
+     * secret rather than keep one which may be stale
+     */
+    protected static boolean webHookMatches(GHHook hook, WebHookDetails webhook) {
+        return webHookMatches(hook.isActive(), hook.getEvents(), hook.getConfig(), webhook);
+    }
+
+    protected static boolean webHookMatches(boolean active, Collection<GHEvent> events, Map<String, String> config, WebHookDetails webhook) {
+        if (Strings.isNotBlank(webhook.getSecret())) {
+            return false;
         }
-        //registerGitWebHook(details, webhook.getWebhookUrl(), webhook.getGitOwnerName(), repoName, webhook.getSecret());
+        return webHookSettings(active, events, config).equals(webHookSettings(true, WEB_HOOK_EVENTS, webHookConfig(webhook)));
     }
 
-    private void removeOldWebHooks(GHRepository repository, String webhookUrl) {
-        List<GHHook> hooks = null;
-        try {
-            hooks = repository.getHooks();
-        } catch (IOException e) {
-            LOG.warn("Failed to find WebHooks for repository " + repository.getFullName() + " due to : " + e, e);
-            return;
+    /**
+     * Returns the settings of a hook which github returns in a canonical form; github masks the secret so only whether
+     * the hook has one is included
+     */
+    protected static String webHookSettings(boolean active, Collection<GHEvent> events, Map<String, String> config) {
+        if (config == null) {
+            config = Collections.emptyMap();
         }
-        if (hooks != null) {
-            for (GHHook hook : hooks) {
-                Map<String, String> config = hook.getConfig();
-                if (config != null) {
-                    String url = config.get("url");
-                    if (url != null && webhookUrl.equals(url)) {
-                        LOG.info("Removing WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl);
-                        try {
-                            hook.delete();
-                        } catch (IOException e) {
-                            LOG.warn("Failed to remove WebHook " + hook.getName() + " with ID " + hook.getId() + " for " + repository.getFullName() + " on URL " + webhookUrl + " due to: " + e, e);
-                        }
-                    }
-                }
-            }
+        StringBuilder builder = new StringBuilder();
+        builder.append(active).append('\n');
+        builder.append(events == null ? Collections.emptySet() : new TreeSet<>(events)).append('\n');
+        for (String key : WEB_HOOK_CONFIG_KEYS) {
+            builder.append(key).append('=').append(Objects.toString(config.get(key), "")).append('\n');
         }
+        builder.append("secret=").append(Strings.isNotBlank(config.get("secret")));
+        return builder.toString();
     }
 
     private void registerGitWebHook(GitAccount details, String webhookUrl, String gitOwnerName, String gitRepoName, String botSecret) throws IOException {
@@ -21,6 +21,7 @@ import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitProvider;
 import io.fabric8.forge.generator.git.GitSecretNames;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.git.WebHookStatus;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import org.jboss.forge.addon.ui.result.navigation.NavigationResultBuilder;
@@ -78,10 +79,11 @@ public class GitHubProvider extends GitProvider {
     }
 
     @Override
-    public void registerWebHook(GitAccount details, WebHookDetails webhook) throws IOException {
+    public WebHookStatus registerWebHook(GitAccount details, WebHookDetails webhook) throws IOException {
         if (registerWebHooks) {
             GitHubFacade facade = new GitHubFacade(details);
-            facade.createWebHook(webhook);
+            return facade.reconcileWebHook(webhook);
         }
+        return WebHookStatus.SKIPPED;
     }
 }
@@ -8,15 +8,16 @@
 package io.fabric8.forge.generator.github;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.git.GitRepositoryDTO;
+import io.fabric8.forge.generator.kubernetes.CachedBuildConfigNames;
+import io.fabric8.forge.generator.kubernetes.JobPattern;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.forge.generator.tenant.NamespaceDTO;
 import io.fabric8.forge.generator.tenant.Tenants;
 import io.fabric8.kubernetes.api.Controller;
-import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.client.KubernetesClient;
-import io.fabric8.openshift.api.model.BuildConfig;
 import io.fabric8.openshift.client.OpenShiftClient;
 import io.fabric8.utils.Strings;
 import org.infinispan.Cache;
@@ -39,7 +40,6 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
-import java.util.Iterator;
 import static io.fabric8.forge.generator.AttributeMapKeys.GIT_REPOSITORY_PATTERN;
 import static io.fabric8.forge.generator.AttributeMapKeys.GIT_REPO_NAMES;
 import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHeader;
@@ -65,7 +65,7 @@ public class GithubImportPickRepositoriesStep extends AbstractGithubStep impleme
         kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
+        namespaces = cacheManager.computeIfAbsent(CacheNames.USER_NAMESPACES, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
 
         repositoriesCache = cacheManager.getCache(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION);
 
@@ -74,10 +74,7 @@ public class GithubImportPickRepositoriesStep extends AbstractGithubStep impleme
         Map<Object, Object> attributeMap = builder.getUIContext().getAttributeMap();
         final String gitOrganisation = (String) attributeMap.get(AttributeMapKeys.GIT_ORGANISATION);
 
-        String userKey = github.getDetails().getUserCacheKey();
-        String orgKey = userKey + "/" + gitOrganisation;
-
-        this.repositoryNames = repositoriesCache.computeIfAbsent(orgKey, k -> github.getRespositoriesForOrganisation(gitOrganisation));
+        this.repositoryNames = loadRepositories(cacheManager, github, gitOrganisation);
 
         gitRepositoryPattern.setValueChoices(repositoryNames);
         gitRepositoryPattern.setItemLabelConverter(new Converter<GitRepositoryDTO, String>() {
@@ -104,25 +101,40 @@ public class GithubImportPickRepositoriesStep extends AbstractGithubStep impleme
         OpenShiftClient openShiftClient = controller.getOpenShiftClientOrNull();
         if (openShiftClient == null) {
             context.addValidationError(gitRepositoryPattern, "Could not create OpenShiftClient. Maybe the Kubernetes server version is older than 1.7?");
+            return;
         }
-        Iterator<GitRepositoryDTO> it = value.iterator();
         String userNameSpace = Tenants.findDefaultUserNamespace(namespaces);
         if (userNameSpace == null ) {
             // Tenant not yet initialised properly!
             return;
         }
-        while (it.hasNext()) {
-            GitRepositoryDTO repo = it.next();
-            if (repo != null && repo.getName() != null) {
-                BuildConfig oldBC = openShiftClient.buildConfigs().inNamespace(userNameSpace).withName(repo.getName().toLowerCase()).get();
-                if (oldBC != null && Strings.isNotBlank(KubernetesHelper.getName(oldBC))) {
-                    context.addValidationError(gitRepositoryPattern, "The repository " + repo.getName() + " has already a build config, please select another repo.");
-                    break;
-                }
-            }
+        // lets list the BuildConfigs once rather than looking up each repository on every validation
+        CachedBuildConfigNames buildConfigNames = CachedBuildConfigNames.getCached(cacheManager, kubernetesClient, openShiftClient, userNameSpace);
+        String existing = findRepositoryWithBuildConfig(buildConfigNames, value);
+        if (existing != null) {
+            context.addValidationError(gitRepositoryPattern, "The repository " + existing + " has already a build config, please select another repo.");
         }
+    }
 
+    /**
+     * Returns the repositories of the organisation for the github user; caching them per user and organisation
+     */
+    public static Collection<GitRepositoryDTO> loadRepositories(CacheFacade cacheManager, GitHubFacade github, String gitOrganisation) {
+        String orgKey = github.getDetails().getUserCacheKey() + "/" + gitOrganisation;
+        return cacheManager.computeIfAbsent(CacheNames.GITHUB_REPOSITORIES_FOR_ORGANISATION, orgKey,
+                k -> github.getRespositoriesForOrganisation(gitOrganisation));
+    }
 
+    /**
+     * Returns the name of the first of the given repositories which already has a BuildConfig or null if none do
+     */
+    public static String findRepositoryWithBuildConfig(CachedBuildConfigNames buildConfigNames, Iterable<GitRepositoryDTO> repositories) {
+        for (GitRepositoryDTO repo : repositories) {
+            if (repo != null && repo.getName() != null && buildConfigNames.contains(repo.getName().toLowerCase())) {
+                return repo.getName();
+            }
+        }
+        return null;
     }
 
     @Override
@@ -164,20 +176,9 @@ public class GithubImportPickRepositoriesStep extends AbstractGithubStep impleme
             }
 */
         }
-        String pattern = createPatternFromRepositories(repositories);
+        String pattern = JobPattern.of(repositories).toRegex();
         uiContext.getAttributeMap().put(GIT_REPOSITORY_PATTERN, pattern);
         uiContext.getAttributeMap().put(GIT_REPO_NAMES, repositories);
         return Results.success();
     }
-
-    private String createPatternFromRepositories(Iterable<String> value) {
-        StringBuilder builder = new StringBuilder();
-        for (String name : value) {
-            if (builder.length() > 0) {
-                builder.append("|");
-            }
-            builder.append(name);
-        }
-        return builder.toString();
-    }
 }
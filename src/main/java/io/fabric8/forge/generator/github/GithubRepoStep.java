@@ -85,7 +85,7 @@ public class GithubRepoStep extends AbstractGithubStep implements UIWizardStep {
         Collection<GitOrganisationDTO> organisations = new ArrayList<>();
         if (github != null && github.isDetailsValid()) {
             String orgKey = github.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> github.loadGithubOrganisations(builder));
+            organisations = loadCachedOrganisations(orgKey, k -> github.loadGithubOrganisations());
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(new Converter<GitOrganisationDTO, String>() {
@@ -21,6 +21,7 @@ import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitProvider;
 import io.fabric8.forge.generator.git.GitSecretNames;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.git.WebHookStatus;
 import io.fabric8.forge.generator.kubernetes.KubernetesClientHelper;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import org.jboss.forge.addon.ui.result.navigation.NavigationResultBuilder;
@@ -76,11 +77,12 @@ public class GogsProvider extends GitProvider {
     }
 
     @Override
-    public void registerWebHook(GitAccount details, WebHookDetails webhook) {
+    public WebHookStatus registerWebHook(GitAccount details, WebHookDetails webhook) {
         System.out.println("TODO - register webhook at " + webhook.getWebhookUrl());
         
 /*
         getGitFacade().registerWebHook(WebHookDetails webhook);
 */
+        return WebHookStatus.SKIPPED;
     }
 }
@@ -10,6 +10,7 @@ package io.fabric8.forge.generator.gogs;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.Configuration;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.WithDeadline;
 import io.fabric8.forge.generator.git.AbstractGitRepoStep;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
@@ -52,6 +53,7 @@ import static io.fabric8.forge.generator.AttributeMapKeys.GIT_URL;
 /**
  * Lets the user configure the Gogs organisation and repo name that they want to pick for a new project
  */
+@WithDeadline
 public class GogsRepoStep extends AbstractGitRepoStep implements UIWizardStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
     @Inject
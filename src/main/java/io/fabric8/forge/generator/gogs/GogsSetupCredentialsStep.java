@@ -8,6 +8,7 @@
 package io.fabric8.forge.generator.gogs;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.WithDeadline;
 import io.fabric8.forge.generator.git.AbstractGitSetupCredentialsStep;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitSecretNames;
@@ -31,6 +32,7 @@ import java.util.Map;
 /**
  * When running on premise lets let the user setup their gogs credentials and store them in a Secret
  */
+@WithDeadline
 public class GogsSetupCredentialsStep extends AbstractGitSetupCredentialsStep implements UIWizardStep {
     final transient Logger LOG = LoggerFactory.getLogger(this.getClass());
 
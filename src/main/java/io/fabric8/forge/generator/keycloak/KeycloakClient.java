@@ -16,7 +16,8 @@
  */
 package io.fabric8.forge.generator.keycloak;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.utils.ObjectMappers;
 import io.fabric8.forge.generator.utils.WebClientHelpers;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -34,6 +35,7 @@ public class KeycloakClient {
 
     private static final String ACCESS_TOKEN = "access_token";
     private static final String SCOPE = "scope";
+    private static final String EXPIRES_IN = "expires_in";
 
     public String getOpenShiftToken(String authHeader) {
         return getTokenFor(KeycloakEndpoint.GET_OPENSHIFT_TOKEN, authHeader);
@@ -44,36 +46,48 @@ public class KeycloakClient {
     }
 
     public String getTokenFor(KeycloakEndpoint endpoint, String authHeader) {
+        KeycloakToken token = getKeycloakTokenFor(endpoint, authHeader);
+        return token != null ? token.getToken() : null;
+    }
+
+    /**
+     * Returns the token along with its expiry or null if there is no response
+     */
+    public KeycloakToken getKeycloakTokenFor(KeycloakEndpoint endpoint, String authHeader) {
         // access_token=token&scope=scope
         String responseBody = getResponseBody(endpoint, authHeader);
         if (responseBody == null) {
             return null;
         }
         responseBody = responseBody.trim();
-        Map<String, String> parameter;
+        Map<String, ?> parameter;
         if (responseBody.startsWith("{") && responseBody.endsWith("}")) {
             try {
-                parameter = new ObjectMapper().readerFor(Map.class).readValue(responseBody);
+                parameter = ObjectMappers.jsonReader(Map.class).readValue(responseBody);
             } catch (IOException e) {
                 throw new WebApplicationException("Failed to parse JSON token reply: " + e, e);
             }
         } else {
             parameter = UrlHelper.splitQuery(responseBody);
         }
-        String token = parameter.get(ACCESS_TOKEN);
+        String token = toString(parameter.get(ACCESS_TOKEN));
         LOG.debug("Token: {}", token);
-        String scope = parameter.get(SCOPE);
+        String scope = toString(parameter.get(SCOPE));
         LOG.debug("Scope: {}", scope);
-        return token;
+        return KeycloakToken.create(token, parameter.get(EXPIRES_IN), 0);
+    }
+
+    private static String toString(Object value) {
+        return value != null ? value.toString() : null;
     }
 
     private String getResponseBody(KeycloakEndpoint endpoint, String authHeader) {
         try {
-            Client client = WebClientHelpers.createClientWihtoutHostVerification();
-            return client.target(endpoint.toString())
+            Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.KEYCLOAK);
+            return Metrics.call(Metrics.KEYCLOAK, endpoint.getName(), () -> client.target(endpoint.toString())
                     .request(MediaType.APPLICATION_JSON)
                     .header("Authorization", authHeader)
-                    .get(String.class);
+                    .get(String.class));
         } catch (Exception e) {
             throw new KeyCloakFailureException(endpoint, e);
         }
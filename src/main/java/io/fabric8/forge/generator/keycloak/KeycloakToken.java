@@ -0,0 +1,87 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.keycloak;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import io.fabric8.utils.Strings;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * A token returned by a {@link KeycloakEndpoint} along with the time it expires
+ */
+public class KeycloakToken {
+    private final String token;
+    private final long expiresAt;
+
+    public KeycloakToken(String token, long expiresAt) {
+        this.token = token;
+        this.expiresAt = expiresAt;
+    }
+
+    /**
+     * Creates a token which expires at the <code>exp</code> claim of the token if its a JWT,
+     * otherwise after the <code>expires_in</code> seconds returned by keycloak or else the given default expiry
+     */
+    public static KeycloakToken create(String token, Object expiresInSeconds, long defaultExpiresAt) {
+        long expiresAt = jwtExpiry(token);
+        if (expiresAt <= 0 && expiresInSeconds != null) {
+            try {
+                long seconds = Long.parseLong(expiresInSeconds.toString().trim());
+                if (seconds > 0) {
+                    expiresAt = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(seconds);
+                }
+            } catch (NumberFormatException e) {
+                // ignore invalid values
+            }
+        }
+        if (expiresAt <= 0) {
+            expiresAt = defaultExpiresAt;
+        }
+        return new KeycloakToken(token, expiresAt);
+    }
+
+    /**
+     * Returns the time in millis of the <code>exp</code> claim of the given token or 0 if it is not a JWT
+     */
+    public static long jwtExpiry(String token) {
+        if (Strings.isNullOrBlank(token) || token.indexOf('.') < 0) {
+            return 0;
+        }
+        try {
+            Date expiresAt = JWT.decode(token).getExpiresAt();
+            return expiresAt != null ? expiresAt.getTime() : 0;
+        } catch (JWTDecodeException e) {
+            return 0;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "KeycloakToken{expiresAt=" + new Date(expiresAt) + "}";
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    public long getExpiresAt() {
+        return expiresAt;
+    }
+}
@@ -0,0 +1,230 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.keycloak;
+
+import com.auth0.jwt.JWT;
+import com.auth0.jwt.exceptions.JWTDecodeException;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.utils.Strings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Supplier;
+
+/**
+ * Caches the tokens exchanged with keycloak by user subject and {@link KeycloakEndpoint} until they expire.
+ * <p>
+ * Concurrent requests for the same token share a single keycloak call. As the subject is read from an unverified
+ * authorization header, a cached token is only returned for the same authorization header it was exchanged with;
+ * a new header for the same subject (such as after a session refresh) replaces the entry.
+ */
+public class KeycloakTokenCache {
+    private static final transient Logger LOG = LoggerFactory.getLogger(KeycloakTokenCache.class);
+
+    private final ConcurrentMap<CacheKey, CacheEntry> entries = new ConcurrentHashMap<>();
+    private final long defaultTimeToLiveMillis;
+    private final long refreshBeforeExpiryMillis;
+
+    public KeycloakTokenCache(long defaultTimeToLiveMillis, long refreshBeforeExpiryMillis) {
+        this.defaultTimeToLiveMillis = defaultTimeToLiveMillis;
+        this.refreshBeforeExpiryMillis = refreshBeforeExpiryMillis;
+    }
+
+    /**
+     * Returns the cached token for the given endpoint and authorization header or invokes the loader to exchange a new one
+     */
+    public String getToken(KeycloakEndpoint endpoint, String authHeader, Supplier<KeycloakToken> loader) {
+        CacheKey key = new CacheKey(subject(authHeader), endpoint);
+        String fingerprint = fingerprint(authHeader);
+        while (true) {
+            CacheEntry entry = entries.get(key);
+            if (entry != null && entry.isValid(fingerprint, System.currentTimeMillis() + refreshBeforeExpiryMillis)) {
+                try {
+                    return Deadline.join(entry.future, "waiting for the " + endpoint + " token").getToken();
+                } catch (CompletionException e) {
+                    // the shared call failed so lets rethrow its exception
+                    throw unwrap(e);
+                }
+            }
+            CacheEntry newEntry = new CacheEntry(fingerprint);
+            boolean installed = entry == null ? entries.putIfAbsent(key, newEntry) == null : entries.replace(key, entry, newEntry);
+            if (!installed) {
+                continue;
+            }
+            return load(key, newEntry, authHeader, loader);
+        }
+    }
+
+    /**
+     * Removes the cached token for the given endpoint and authorization header such as when it was rejected with a 401
+     */
+    public void evict(KeycloakEndpoint endpoint, String authHeader) {
+        CacheKey key = new CacheKey(subject(authHeader), endpoint);
+        CacheEntry entry = entries.get(key);
+        if (entry != null && entry.fingerprint.equals(fingerprint(authHeader))) {
+            LOG.debug("Evicting the cached " + endpoint.getName() + " token");
+            entries.remove(key, entry);
+        }
+    }
+
+    public void clear() {
+        entries.clear();
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    protected String load(CacheKey key, CacheEntry entry, String authHeader, Supplier<KeycloakToken> loader) {
+        KeycloakToken token;
+        try {
+            token = loader.get();
+        } catch (RuntimeException e) {
+            entries.remove(key, entry);
+            entry.future.completeExceptionally(e);
+            throw e;
+        }
+        if (token == null || Strings.isNullOrBlank(token.getToken())) {
+            // lets not cache missing tokens
+            entries.remove(key, entry);
+            token = new KeycloakToken(null, 0);
+        } else if (token.getExpiresAt() <= 0) {
+            token = new KeycloakToken(token.getToken(), defaultExpiry(authHeader));
+        }
+        entry.future.complete(token);
+        return token.getToken();
+    }
+
+    /**
+     * Returns when a token with no known expiry should expire; which is the default time to live capped by the
+     * expiry of the users authorization header
+     */
+    protected long defaultExpiry(String authHeader) {
+        long answer = System.currentTimeMillis() + defaultTimeToLiveMillis;
+        long sessionExpiry = KeycloakToken.jwtExpiry(bearerToken(authHeader));
+        if (sessionExpiry > 0) {
+            answer = Math.min(answer, sessionExpiry);
+        }
+        return answer;
+    }
+
+    protected static String subject(String authHeader) {
+        String jwt = bearerToken(authHeader);
+        if (jwt.indexOf('.') > 0) {
+            try {
+                String subject = JWT.decode(jwt).getSubject();
+                if (Strings.isNotBlank(subject)) {
+                    return subject;
+                }
+            } catch (JWTDecodeException e) {
+                // fall back to the header
+            }
+        }
+        return fingerprint(authHeader);
+    }
+
+    protected static String bearerToken(String authHeader) {
+        if (authHeader == null) {
+            return "";
+        }
+        int idx = authHeader.indexOf(' ');
+        return authHeader.substring(idx + 1).trim();
+    }
+
+    protected static String fingerprint(String authHeader) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] hash = digest.digest(String.valueOf(authHeader).getBytes(StandardCharsets.UTF_8));
+            StringBuilder builder = new StringBuilder(hash.length * 2);
+            for (byte b : hash) {
+                builder.append(Character.forDigit((b >> 4) & 0xf, 16)).append(Character.forDigit(b & 0xf, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("No SHA-256 support: " + e, e);
+        }
+    }
+
+    private static RuntimeException unwrap(CompletionException e) {
+        Throwable cause = e.getCause();
+        if (cause instanceof RuntimeException) {
+            return (RuntimeException) cause;
+        }
+        return e;
+    }
+
+    protected static final class CacheKey {
+        private final String subject;
+        private final KeycloakEndpoint endpoint;
+
+        CacheKey(String subject, KeycloakEndpoint endpoint) {
+            this.subject = subject;
+            this.endpoint = endpoint;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof CacheKey)) {
+                return false;
+            }
+            CacheKey that = (CacheKey) o;
+            return subject.equals(that.subject) && endpoint == that.endpoint;
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(subject, endpoint);
+        }
+    }
+
+    protected static final class CacheEntry {
+        private final String fingerprint;
+        private final CompletableFuture<KeycloakToken> future = new CompletableFuture<>();
+
+        CacheEntry(String fingerprint) {
+            this.fingerprint = fingerprint;
+        }
+
+        /**
+         * Returns true if this entry was created for the same authorization header and is either still loading
+         * or is not expired at the given time
+         */
+        boolean isValid(String fingerprint, long time) {
+            if (!this.fingerprint.equals(fingerprint)) {
+                return false;
+            }
+            if (!future.isDone()) {
+                return true;
+            }
+            if (future.isCompletedExceptionally()) {
+                return false;
+            }
+            return future.join().getExpiresAt() > time;
+        }
+    }
+}
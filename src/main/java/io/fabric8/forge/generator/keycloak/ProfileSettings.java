@@ -17,10 +17,12 @@
 package io.fabric8.forge.generator.keycloak;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.forge.generator.utils.JsonHelper;
+import io.fabric8.forge.generator.utils.ObjectMappers;
 import io.fabric8.forge.generator.utils.WebClientHelpers;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
@@ -30,47 +32,61 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.core.MediaType;
-import java.io.IOException;
+import java.io.InputStream;
 import java.util.Map;
+import java.util.Objects;
 
 /**
  */
 public class ProfileSettings {
     private static final transient Logger LOG = LoggerFactory.getLogger(ProfileSettings.class);
+    private static final ObjectReader JSON_NODE_READER = ObjectMappers.jsonReader(JsonNode.class);
+    private static final String[] BOOSTER_CATALOG_PATH = {"data", "attributes", "contextInformation", "boosterCatalog"};
 
+    /**
+     * Loads the profile settings of the user; returning empty settings if the user has no booster catalog configured
+     * or null if they could not be loaded
+     */
     public static ProfileSettingsDTO loadProfileSettings(String authHeader) {
         if (Strings.isNullOrBlank(authHeader)) {
             return null;
         }
         String witAPI = EnvironmentVariables.getWitApiURL();
         String userSettingsUrl =  URLUtils.pathJoin(witAPI, "/api/user");
-        String json = null;
+        JsonNode boosterCatalog;
         try {
-            Client client = WebClientHelpers.createClientWihtoutHostVerification();
-            json = client.target(userSettingsUrl)
-                    .request(MediaType.APPLICATION_JSON)
-                    .header("Authorization", authHeader)
-                    .get(String.class);
+            Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.WIT);
+            boosterCatalog = Metrics.call(Metrics.WIT, "user", () -> {
+                try (InputStream in = client.target(userSettingsUrl)
+                        .request(MediaType.APPLICATION_JSON)
+                        .header("Authorization", authHeader)
+                        .get(InputStream.class)) {
+                    return JsonHelper.<JsonNode>readValue(in, JSON_NODE_READER, BOOSTER_CATALOG_PATH);
+                }
+            });
         } catch (Exception e) {
             LOG.warn("Could not find the user settings at " + userSettingsUrl + " due to: " + e, e);
+            return null;
         }
-        if (Strings.isNotBlank(json)) {
-            ObjectMapper mapper = new ObjectMapper();
-            JsonNode tree = null;
-            try {
-                tree = mapper.readTree(json);
-            } catch (IOException e) {
-                LOG.warn("Failed to parse user settings " + e + " with JSON: " + json, e);
-            }
-            JsonNode boosterCatalog = JsonHelper.navigate(tree, "data", "attributes", "contextInformation", "boosterCatalog");
-            if (boosterCatalog != null) {
-                ProfileSettingsDTO answer = new ProfileSettingsDTO();
-                answer.setCatalogGitRef(JsonHelper.textValue(boosterCatalog, "gitRef"));
-                answer.setCatalogGitRepo(JsonHelper.textValue(boosterCatalog, "gitRepo"));
-                return answer;
-            }
+        ProfileSettingsDTO answer = new ProfileSettingsDTO();
+        if (boosterCatalog != null) {
+            answer.setCatalogGitRef(boosterCatalog.path("gitRef").textValue());
+            answer.setCatalogGitRepo(boosterCatalog.path("gitRepo").textValue());
         }
-        return null;
+        return answer;
+    }
+
+    /**
+     * Returns true if the wizard was given catalog settings which differ from the given profile settings
+     * such as when the user has just changed them
+     */
+    public static boolean isChanged(ProfileSettingsDTO profileSettings, Map<Object, Object> attributeMap) {
+        return isChanged(profileSettings.getCatalogGitRepo(), attributeMap.get(AttributeMapKeys.CATALOG_GIT_REPOSITORY)) ||
+                isChanged(profileSettings.getCatalogGitRef(), attributeMap.get(AttributeMapKeys.CATALOG_GIT_REF));
+    }
+
+    private static boolean isChanged(String value, Object attributeValue) {
+        return attributeValue != null && Strings.isNotBlank(attributeValue.toString()) && !Objects.equals(value, attributeValue.toString());
     }
 
     public static void updateAttributeMap(ProfileSettingsDTO profileSettings, UIContext uiContext) {
@@ -23,10 +23,14 @@ import org.jboss.forge.addon.ui.context.UIContext;
 import javax.ws.rs.WebApplicationException;
 import javax.ws.rs.core.Response;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  */
 public class TokenHelper {
+    private static final KeycloakTokenCache TOKEN_CACHE = new KeycloakTokenCache(
+            TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue(EnvironmentVariables.KEYCLOAK_TOKEN_CACHE_TTL, 300)),
+            TimeUnit.SECONDS.toMillis(30));
 
     public static String getMandatoryAuthHeader(UIContext context) {
         String authToken = getAuthHeader(context);
@@ -64,11 +68,33 @@ public class TokenHelper {
     }
 
     public static String getMandatoryTokenFor(KeycloakEndpoint endpoint, String authHeader) {
-        KeycloakClient client = new KeycloakClient();
-        String token = client.getTokenFor(endpoint, authHeader);
+        String token = TOKEN_CACHE.getToken(endpoint, authHeader, () -> new KeycloakClient().getKeycloakTokenFor(endpoint, authHeader));
         if (Strings.isNullOrBlank(token)) {
             throw new WebApplicationException("No auth token available for " + endpoint.getName(), Response.Status.UNAUTHORIZED);
         }
         return token;
     }
+
+    /**
+     * Removes the cached token for the given endpoint such as when the token has been rejected with a 401
+     */
+    public static void evictTokenFor(KeycloakEndpoint endpoint, String authHeader) {
+        TOKEN_CACHE.evict(endpoint, authHeader);
+    }
+
+    /**
+     * Returns the identity of the user of the given authorization header; the subject of its token if it has one
+     */
+    public static String getUserIdentity(String authHeader) {
+        return KeycloakTokenCache.subject(authHeader);
+    }
+
+    /**
+     * Returns a key for caching data loaded with the given authorization header; the subject of its token is not
+     * verified here so the key includes a fingerprint of the header to avoid a forged header sharing the cached
+     * data of another user
+     */
+    public static String getUserCacheKey(String authHeader) {
+        return KeycloakTokenCache.subject(authHeader) + "/" + KeycloakTokenCache.fingerprint(authHeader);
+    }
 }
@@ -0,0 +1,90 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * The outcome of creating the BuildConfig for a single git repository
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class BuildConfigResultDTO {
+    private String gitRepoName;
+    private String buildConfigName;
+    private String cheStackId;
+    private boolean created;
+    private String error;
+
+    public BuildConfigResultDTO() {
+    }
+
+    public BuildConfigResultDTO(String gitRepoName, String buildConfigName) {
+        this.gitRepoName = gitRepoName;
+        this.buildConfigName = buildConfigName;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildConfigResultDTO{" +
+                "gitRepoName='" + gitRepoName + '\'' +
+                ", buildConfigName='" + buildConfigName + '\'' +
+                ", cheStackId='" + cheStackId + '\'' +
+                ", created=" + created +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+    public String getGitRepoName() {
+        return gitRepoName;
+    }
+
+    public void setGitRepoName(String gitRepoName) {
+        this.gitRepoName = gitRepoName;
+    }
+
+    public String getBuildConfigName() {
+        return buildConfigName;
+    }
+
+    public void setBuildConfigName(String buildConfigName) {
+        this.buildConfigName = buildConfigName;
+    }
+
+    public String getCheStackId() {
+        return cheStackId;
+    }
+
+    public void setCheStackId(String cheStackId) {
+        this.cheStackId = cheStackId;
+    }
+
+    public boolean isCreated() {
+        return created;
+    }
+
+    public void setCreated(boolean created) {
+        this.created = created;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,92 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * An immutable snapshot of the status of the asynchronous trigger of the first build of a BuildConfig
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public final class BuildTriggerDTO {
+    public static final String PENDING = "pending";
+    public static final String TRIGGERED = "triggered";
+    public static final String FAILED = "failed";
+
+    private final String namespace;
+    private final String buildConfigName;
+    private final String status;
+    private final String buildName;
+    private final String message;
+
+    public BuildTriggerDTO(String namespace, String buildConfigName) {
+        this(namespace, buildConfigName, PENDING, null, null);
+    }
+
+    private BuildTriggerDTO(String namespace, String buildConfigName, String status, String buildName, String message) {
+        this.namespace = namespace;
+        this.buildConfigName = buildConfigName;
+        this.status = status;
+        this.buildName = buildName;
+        this.message = message;
+    }
+
+    @Override
+    public String toString() {
+        return "BuildTriggerDTO{" +
+                "namespace='" + namespace + '\'' +
+                ", buildConfigName='" + buildConfigName + '\'' +
+                ", status='" + status + '\'' +
+                ", buildName='" + buildName + '\'' +
+                ", message='" + message + '\'' +
+                '}';
+    }
+
+    /**
+     * Returns the status once the given build has been triggered
+     */
+    public BuildTriggerDTO triggered(String buildName) {
+        return new BuildTriggerDTO(namespace, buildConfigName, TRIGGERED, buildName, null);
+    }
+
+    /**
+     * Returns the status once triggering the build has failed
+     */
+    public BuildTriggerDTO failed(String message) {
+        return new BuildTriggerDTO(namespace, buildConfigName, FAILED, null, message);
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+
+    public String getBuildConfigName() {
+        return buildConfigName;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public String getBuildName() {
+        return buildName;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
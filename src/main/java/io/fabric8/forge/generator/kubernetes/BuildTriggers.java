@@ -0,0 +1,246 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildConfig;
+import io.fabric8.openshift.api.model.BuildRequest;
+import io.fabric8.openshift.api.model.BuildRequestBuilder;
+import io.fabric8.openshift.client.OpenShiftClient;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Triggers the first build of a new BuildConfig in the background as soon as the BuildConfig is visible so that
+ * the wizard does not block while it propagates.
+ * <p>
+ * A watch on the BuildConfig triggers the build when it is added or modified; a backing off retry is only used if the
+ * watch cannot be opened or fails, or if the build is rejected. Each change of the status publishes a new immutable
+ * {@link BuildTriggerDTO}.
+ */
+@Singleton
+public class BuildTriggers {
+    private static final transient Logger LOG = LoggerFactory.getLogger(BuildTriggers.class);
+    private static final long INITIAL_RETRY_MILLIS = 250;
+    private static final long MAX_RETRY_MILLIS = 4000;
+
+    @Inject
+    private ExecutorFacade executorFacade;
+
+    @Inject
+    public BuildTriggers() {
+    }
+
+    public BuildTriggers(ExecutorFacade executorFacade) {
+        this.executorFacade = executorFacade;
+    }
+
+    /**
+     * Starts triggering a build of the given BuildConfig returning a supplier of its latest status
+     */
+    public Supplier<BuildTriggerDTO> trigger(OpenShiftClient openShiftClient, String namespace, String buildConfigName) {
+        long timeout = TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue(EnvironmentVariables.BUILD_TRIGGER_TIMEOUT, 30));
+        PendingTrigger trigger = new PendingTrigger(openShiftClient, new BuildTriggerDTO(namespace, buildConfigName), System.currentTimeMillis() + timeout);
+        trigger.start();
+        return trigger;
+    }
+
+    protected class PendingTrigger implements Watcher<BuildConfig>, Supplier<BuildTriggerDTO> {
+        private final OpenShiftClient openShiftClient;
+        private final long deadline;
+        private volatile BuildTriggerDTO status;
+        private long retryMillis = INITIAL_RETRY_MILLIS;
+        private boolean done;
+        private boolean retryScheduled;
+        private Watch watch;
+
+        public PendingTrigger(OpenShiftClient openShiftClient, BuildTriggerDTO status, long deadline) {
+            this.openShiftClient = openShiftClient;
+            this.status = status;
+            this.deadline = deadline;
+        }
+
+        /**
+         * Returns the latest status of the trigger
+         */
+        @Override
+        public BuildTriggerDTO get() {
+            return status;
+        }
+
+        public void start() {
+            scheduleTimeout();
+            Watch newWatch;
+            try {
+                // the watch sends an ADDED event straight away if the BuildConfig is already visible
+                newWatch = watch();
+            } catch (Exception e) {
+                LOG.warn("Failed to watch BuildConfig " + describe() + " so polling instead: " + e, e);
+                schedule(retryMillis);
+                return;
+            }
+            synchronized (this) {
+                watch = newWatch;
+                if (done) {
+                    closeWatch();
+                }
+            }
+        }
+
+        @Override
+        public void eventReceived(Action action, BuildConfig resource) {
+            if (action == Action.ADDED || action == Action.MODIFIED) {
+                submit();
+            }
+        }
+
+        @Override
+        public void onClose(KubernetesClientException cause) {
+            if (cause != null) {
+                LOG.debug("Watch of BuildConfig " + describe() + " closed so polling instead: " + cause);
+                schedule(retryMillis);
+            }
+        }
+
+        protected Watch watch() throws Exception {
+            return openShiftClient.buildConfigs().inNamespace(status.getNamespace()).withName(status.getBuildConfigName()).watch(this);
+        }
+
+        protected Build instantiate() throws Exception {
+            BuildRequest request = new BuildRequestBuilder().
+                    withNewMetadata().withName(status.getBuildConfigName()).endMetadata().
+                    addNewTriggeredBy().withMessage("Manually triggered").endTriggeredBy().
+                    build();
+            return Metrics.call(Metrics.OPENSHIFT, "instantiate", () -> openShiftClient.buildConfigs().
+                    inNamespace(status.getNamespace()).withName(status.getBuildConfigName()).instantiate(request));
+        }
+
+        /**
+         * Fails the trigger if the BuildConfig has not been seen by the deadline
+         */
+        protected void scheduleTimeout() {
+            try {
+                executorFacade.getScheduledExecutorService().schedule(() -> fail("timed out waiting for the BuildConfig"),
+                        Math.max(0, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail("shutting down");
+            }
+        }
+
+        /**
+         * Schedules a retry unless one is already scheduled
+         */
+        protected synchronized void schedule(long delayMillis) {
+            if (done || retryScheduled) {
+                return;
+            }
+            retryScheduled = true;
+            try {
+                executorFacade.getScheduledExecutorService().schedule(this::retry, delayMillis, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                fail("shutting down");
+            }
+        }
+
+        protected void retry() {
+            synchronized (this) {
+                retryScheduled = false;
+            }
+            submit();
+        }
+
+        protected void submit() {
+            try {
+                executorFacade.executor(Metrics.OPENSHIFT).execute(this::attempt);
+            } catch (RejectedExecutionException e) {
+                if (executorFacade.getExecutorService().isShutdown()) {
+                    fail("shutting down");
+                } else {
+                    // too many OpenShift calls are queued so lets try again later
+                    schedule(retryMillis);
+                }
+            }
+        }
+
+        protected synchronized void attempt() {
+            if (done) {
+                return;
+            }
+            String message;
+            try {
+                Build build = instantiate();
+                if (build != null) {
+                    status = status.triggered(KubernetesHelper.getName(build));
+                    LOG.info("Triggered build " + status.getBuildName() + " of " + describe());
+                    finish();
+                    return;
+                }
+                message = "no Build returned";
+            } catch (Exception e) {
+                message = e.toString();
+                LOG.debug("Failed to trigger build for " + describe() + " due to: " + e);
+            }
+            if (System.currentTimeMillis() + retryMillis > deadline) {
+                fail(message);
+            } else {
+                schedule(retryMillis);
+                retryMillis = Math.min(retryMillis * 2, MAX_RETRY_MILLIS);
+            }
+        }
+
+        protected synchronized void fail(String message) {
+            if (!done) {
+                LOG.error("Failed to trigger build for " + describe() + " due to: " + message);
+                status = status.failed(message);
+                finish();
+            }
+        }
+
+        private void finish() {
+            done = true;
+            closeWatch();
+        }
+
+        private void closeWatch() {
+            if (watch != null) {
+                try {
+                    watch.close();
+                } catch (Exception e) {
+                    LOG.debug("Ignoring exception closing watch of BuildConfig " + describe() + ": " + e, e);
+                }
+                watch = null;
+            }
+        }
+
+        private String describe() {
+            return status.getNamespace() + "/" + status.getBuildConfigName();
+        }
+    }
+}
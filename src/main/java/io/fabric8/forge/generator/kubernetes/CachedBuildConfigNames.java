@@ -0,0 +1,107 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.openshift.api.model.BuildConfig;
+import io.fabric8.openshift.api.model.BuildConfigList;
+import io.fabric8.openshift.client.OpenShiftClient;
+import io.fabric8.utils.Strings;
+
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * The names of the BuildConfigs in a namespace loaded with a single list call so that checking many repositories
+ * for an existing BuildConfig does not need a call per repository.
+ * <p>
+ * The names are cached for a short time in the {@link CacheNames#USER_BUILD_CONFIG_NAMES} cache and BuildConfigs
+ * created by the generator are added as they are created. They are never returned stale while OpenShift is
+ * unavailable as a missing name would lead to creating a BuildConfig which already exists.
+ */
+public class CachedBuildConfigNames {
+    private final String namespace;
+    private final Set<String> names = ConcurrentHashMap.newKeySet();
+
+    public CachedBuildConfigNames(String namespace) {
+        this.namespace = namespace;
+    }
+
+    /**
+     * Lists the BuildConfigs in the given namespace
+     */
+    public static CachedBuildConfigNames load(OpenShiftClient openShiftClient, String namespace) {
+        CachedBuildConfigNames answer = new CachedBuildConfigNames(namespace);
+        BuildConfigList list = openShiftClient.buildConfigs().inNamespace(namespace).list();
+        if (list != null) {
+            List<BuildConfig> items = list.getItems();
+            if (items != null) {
+                for (BuildConfig item : items) {
+                    answer.add(KubernetesHelper.getName(item));
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the cached BuildConfig names for the current user and namespace; listing them if they are not cached
+     */
+    public static CachedBuildConfigNames getCached(CacheFacade cacheManager, KubernetesClient kubernetesClient, OpenShiftClient openShiftClient, String namespace) {
+        return cacheManager.computeIfAbsent(CacheNames.USER_BUILD_CONFIG_NAMES, cacheKey(kubernetesClient, namespace),
+                k -> load(openShiftClient, namespace));
+    }
+
+    /**
+     * Lists the BuildConfig names for the current user and namespace again; replacing any cached names
+     */
+    public static CachedBuildConfigNames reload(CacheFacade cacheManager, KubernetesClient kubernetesClient, OpenShiftClient openShiftClient, String namespace) {
+        CachedBuildConfigNames answer = load(openShiftClient, namespace);
+        cacheManager.<String, CachedBuildConfigNames>getCache(CacheNames.USER_BUILD_CONFIG_NAMES).put(cacheKey(kubernetesClient, namespace), answer);
+        return answer;
+    }
+
+    protected static String cacheKey(KubernetesClient kubernetesClient, String namespace) {
+        return KubernetesClientHelper.getUserCacheKey(kubernetesClient) + "/" + namespace;
+    }
+
+    @Override
+    public String toString() {
+        return "CachedBuildConfigNames{" +
+                "namespace='" + namespace + '\'' +
+                ", names=" + names +
+                '}';
+    }
+
+    public boolean contains(String name) {
+        return name != null && names.contains(name);
+    }
+
+    public void add(String name) {
+        if (Strings.isNotBlank(name)) {
+            names.add(name);
+        }
+    }
+
+    public String getNamespace() {
+        return namespace;
+    }
+}
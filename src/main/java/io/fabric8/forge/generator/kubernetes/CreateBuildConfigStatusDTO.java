@@ -19,6 +19,7 @@ package io.fabric8.forge.generator.kubernetes;
 import com.fasterxml.jackson.annotation.JsonInclude;
 
 import java.util.List;
+import java.util.function.Supplier;
 
 /**
  * Results from creating a BuildConfig
@@ -34,6 +35,10 @@ public class CreateBuildConfigStatusDTO {
     private List<GitRepoDTO> gitRepositories;
     private String gitOwnerName;
     private List<String> warnings;
+    private List<BuildConfigResultDTO> buildConfigs;
+    private List<WebHookResultDTO> webHooks;
+    private Supplier<BuildTriggerDTO> buildTrigger;
+    private String jobId;
 
     public CreateBuildConfigStatusDTO() {
     }
@@ -60,6 +65,10 @@ public class CreateBuildConfigStatusDTO {
                 ", organisationJenkinsJobUrl='" + organisationJenkinsJobUrl + '\'' +
                 ", gitRepositoryNames=" + gitRepositoryNames +
                 ", gitOwnerName='" + gitOwnerName + '\'' +
+                ", buildConfigs=" + buildConfigs +
+                ", webHooks=" + webHooks +
+                ", buildTrigger=" + buildTrigger +
+                ", jobId='" + jobId + '\'' +
                 '}';
     }
 
@@ -134,4 +143,42 @@ public class CreateBuildConfigStatusDTO {
     public void setGitRepositories(List<GitRepoDTO> gitRepositories) {
         this.gitRepositories = gitRepositories;
     }
+
+    public List<BuildConfigResultDTO> getBuildConfigs() {
+        return buildConfigs;
+    }
+
+    public void setBuildConfigs(List<BuildConfigResultDTO> buildConfigs) {
+        this.buildConfigs = buildConfigs;
+    }
+
+    public List<WebHookResultDTO> getWebHooks() {
+        return webHooks;
+    }
+
+    public void setWebHooks(List<WebHookResultDTO> webHooks) {
+        this.webHooks = webHooks;
+    }
+
+    /**
+     * Returns the latest status of the trigger of the first build
+     */
+    public BuildTriggerDTO getBuildTrigger() {
+        return buildTrigger != null ? buildTrigger.get() : null;
+    }
+
+    public void setBuildTrigger(Supplier<BuildTriggerDTO> buildTrigger) {
+        this.buildTrigger = buildTrigger;
+    }
+
+    /**
+     * Returns the id of the provisioning job when the BuildConfigs are being created asynchronously
+     */
+    public String getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(String jobId) {
+        this.jobId = jobId;
+    }
 }
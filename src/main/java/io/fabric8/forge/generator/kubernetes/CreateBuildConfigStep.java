@@ -15,54 +15,41 @@
  */
 package io.fabric8.forge.generator.kubernetes;
 
-import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.google.common.base.Objects;
 import io.fabric8.forge.generator.Annotations;
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.EnvironmentVariables;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
 import io.fabric8.forge.generator.che.CheStack;
 import io.fabric8.forge.generator.che.CheStackDetector;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitClonedRepoDetails;
 import io.fabric8.forge.generator.git.GitProvider;
 import io.fabric8.forge.generator.git.WebHookDetails;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand;
 import io.fabric8.forge.generator.tenant.NamespaceDTO;
 import io.fabric8.forge.generator.tenant.Tenants;
-import io.fabric8.forge.generator.utils.DomUtils;
-import io.fabric8.forge.generator.utils.MavenHelpers;
-import io.fabric8.forge.generator.utils.PomFileXml;
-import io.fabric8.forge.generator.utils.WebClientHelpers;
 import io.fabric8.kubernetes.api.Controller;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.api.KubernetesNames;
-import io.fabric8.kubernetes.api.ServiceNames;
-import io.fabric8.kubernetes.api.model.ConfigMap;
-import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
-import io.fabric8.kubernetes.api.model.DoneableConfigMap;
 import io.fabric8.kubernetes.api.model.DoneableSecret;
 import io.fabric8.kubernetes.api.model.EnvVar;
 import io.fabric8.kubernetes.api.model.EnvVarBuilder;
 import io.fabric8.kubernetes.api.model.Secret;
 import io.fabric8.kubernetes.api.model.SecretBuilder;
-import io.fabric8.kubernetes.api.model.SecretList;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.kubernetes.client.dsl.Resource;
-import io.fabric8.openshift.api.model.Build;
 import io.fabric8.openshift.api.model.BuildConfig;
 import io.fabric8.openshift.api.model.BuildConfigSpec;
-import io.fabric8.openshift.api.model.BuildRequest;
-import io.fabric8.openshift.api.model.BuildRequestBuilder;
 import io.fabric8.openshift.api.model.BuildStrategy;
 import io.fabric8.openshift.api.model.JenkinsPipelineBuildStrategy;
 import io.fabric8.openshift.client.OpenShiftClient;
-import io.fabric8.utils.DomHelper;
-import io.fabric8.utils.IOHelpers;
+import io.fabric8.project.support.BuildConfigHelper;
 import io.fabric8.utils.Strings;
 import io.fabric8.utils.URLUtils;
-import io.fabric8.utils.XmlUtils;
 import org.infinispan.Cache;
 import org.jboss.forge.addon.ui.command.UICommand;
 import org.jboss.forge.addon.ui.context.UIBuilder;
@@ -75,46 +62,27 @@ import org.jboss.forge.addon.ui.result.Result;
 import org.jboss.forge.addon.ui.result.Results;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.w3c.dom.Document;
-import org.w3c.dom.Element;
-import org.w3c.dom.Node;
-import org.w3c.dom.NodeList;
-import org.xml.sax.SAXException;
 
 import javax.inject.Inject;
-import javax.ws.rs.RedirectionException;
-import javax.ws.rs.WebApplicationException;
-import javax.ws.rs.client.Client;
-import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
-import javax.ws.rs.client.WebTarget;
-import javax.ws.rs.core.Form;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import javax.xml.parsers.DocumentBuilder;
-import javax.xml.parsers.DocumentBuilderFactory;
-import javax.xml.parsers.ParserConfigurationException;
-import javax.xml.transform.TransformerException;
-import java.io.ByteArrayInputStream;
 import java.io.File;
 import java.io.IOException;
-import java.io.InputStream;
 import java.io.OutputStreamWriter;
-import java.io.Reader;
 import java.net.HttpURLConnection;
-import java.net.URI;
 import java.net.URL;
-import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.function.Function;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
 
 import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHeader;
-import static io.fabric8.forge.generator.kubernetes.Base64Helper.base64decode;
-import static io.fabric8.project.support.BuildConfigHelper.createBuildConfig;
 
 /**
  * Creates the BuildConfig in OpenShift/Kubernetes so that the Jenkins build will be created
@@ -135,32 +103,46 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
     @WithAttributes(label = "Add CI?", description = "Should we add a Continuous Integration webhooks for Pull Requests?")
     private UIInput<Boolean> addCIWebHooks;
     @Inject
+    @WithAttributes(label = "Run asynchronously", description = "Should the BuildConfigs, Jenkins jobs and webhooks be created in the background?")
+    private UIInput<Boolean> runAsync;
+    @Inject
     private CacheFacade cacheManager;
+    @Inject
+    private ExecutorFacade executorFacade;
+    @Inject
+    private BuildTriggers buildTriggers;
+    @Inject
+    private ProvisioningJobs provisioningJobs;
+    @Inject
+    private OrganisationJobConfigMaps organisationJobConfigMaps;
+    @Inject
+    private JenkinsClients jenkinsClients;
     private KubernetesClient kubernetesClient;
-    private int retryTriggerBuildCount = 5;
     private boolean useUiidForBotSecret = true;
     private List<NamespaceDTO> namespaces;
 
+    public CreateBuildConfigStep() {
+    }
+
     /**
-     * Combines the job patterns.
+     * Creates a step which provisions with the given client and services outside of a wizard, such as in the load test
      */
-    public static String combineJobPattern(String oldPattern, String repoName) {
-        if (oldPattern == null) {
-            oldPattern = "";
-        }
-        oldPattern = oldPattern.trim();
-        if (oldPattern.isEmpty()) {
-            return repoName;
-        }
-        return oldPattern + "|" + repoName;
+    protected CreateBuildConfigStep(KubernetesClient kubernetesClient, CacheFacade cacheManager, ExecutorFacade executorFacade,
+                                    BuildTriggers buildTriggers, OrganisationJobConfigMaps organisationJobConfigMaps, JenkinsClients jenkinsClients) {
+        this.kubernetesClient = kubernetesClient;
+        this.cacheManager = cacheManager;
+        this.executorFacade = executorFacade;
+        this.buildTriggers = buildTriggers;
+        this.organisationJobConfigMaps = organisationJobConfigMaps;
+        this.jenkinsClients = jenkinsClients;
     }
 
-    public static void closeQuietly(Client client) {
-        if (client != null) {
+    public static void closeQuietly(Response response) {
+        if (response != null) {
             try {
-                client.close();
+                response.close();
             } catch (Exception e) {
-                LOG.debug("Ignoring exception closing client: " + e, e);
+                LOG.debug("Ignoring exception closing response: " + e, e);
             }
         }
     }
@@ -169,7 +151,7 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         this.kubernetesClient = KubernetesClientHelper.createKubernetesClient(builder.getUIContext());
         this.namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        this.namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
+        this.namespaces = cacheManager.computeIfAbsent(CacheNames.USER_NAMESPACES, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(builder.getUIContext())));
 
         jenkinsSpace.setValueChoices(Tenants.jenkinsNamespaces(namespaces));
         if (!namespaces.isEmpty()) {
@@ -178,12 +160,14 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
         triggerBuild.setDefaultValue(true);
         addCIWebHooks.setDefaultValue(true);
+        runAsync.setDefaultValue(EnvironmentVariables.getBooleanValue(EnvironmentVariables.CREATE_BUILD_CONFIG_ASYNC, false));
 
         if (namespaces.size() > 1) {
             builder.add(jenkinsSpace);
         }
         builder.add(triggerBuild);
         builder.add(addCIWebHooks);
+        builder.add(runAsync);
     }
 
     @Override
@@ -237,7 +221,6 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         if (gitProvider == null) {
             return Results.fail("No attribute: " + AttributeMapKeys.GIT_PROVIDER);
         }
-        KubernetesClient kubernetes = getKubernetesClient();
         Controller controller = new Controller(kubernetesClient);
         controller.setNamespace(namespace);
         OpenShiftClient openShiftClient = controller.getOpenShiftClientOrNull();
@@ -245,20 +228,30 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
             return Results.fail("Could not create OpenShiftClient. Maybe the Kubernetes server version is older than 1.7?");
         }
 
-        String jenkinsJobUrl = null;
-        String cheStackId = null;
-        String message = "";
-        Boolean addCI = addCIWebHooks.getValue();
+        boolean addCI = addCIWebHooks.getValue();
         boolean isGitHubOrganisationFolder = gitProvider.isGitHub();
-        String gitToken = details.tokenOrPassword();
-
-        boolean talkToJenkins = false;
-        String useJenkinsFlag = System.getenv("USE_JENKINS");
-        if (useJenkinsFlag != null && useJenkinsFlag.equalsIgnoreCase("true")) {
-            talkToJenkins = true;
-        }
 
         List<GitRepoDTO> gitRepos = getGitRepos(uiContext, gitRepoNameValue);
+        CachedBuildConfigNames buildConfigNames = null;
+        try {
+            // lets list the current BuildConfigs once for all the repositories
+            buildConfigNames = CachedBuildConfigNames.reload(cacheManager, kubernetesClient, openShiftClient, namespace);
+        } catch (Exception e) {
+            LOG.warn("Ignoring exception listing BuildConfigs in " + namespace + ": " + e, e);
+        }
+        String spaceId = null;
+        Object spaceValue = attributeMap.get(AttributeMapKeys.SPACE);
+        if (spaceValue instanceof SpaceDTO) {
+            SpaceDTO spaceDTO = (SpaceDTO) spaceValue;
+            spaceId = spaceDTO.getId();
+        } else if (spaceValue instanceof String) {
+            spaceId = (String) spaceValue;
+        }
+        boolean bulk = gitRepos.size() > 1;
+        String buildConfigNamespace = namespace;
+        String buildJenkinsNamespace = jenkinsNamespace;
+        String ownerName = gitOwnerName;
+        List<BuildConfigTask> tasks = new ArrayList<>();
         for (GitRepoDTO gitRepo : gitRepos) {
             String gitUrl = gitRepo.getUrl();
             gitRepoNameValue = gitRepo.getRepoName();
@@ -267,91 +260,116 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
                 LOG.warn("Invalid GitRepo " + gitRepo);
                 continue;
             }
-
-            if (addCI && isGitHubOrganisationFolder) {
-                ensureCDGihubSecretExists(kubernetesClient, namespace, gitOwnerName, gitToken);
-            }
-            try {
-                BuildConfig oldBC = openShiftClient.buildConfigs().inNamespace(namespace).withName(projectName).get();
-                if (oldBC != null && Strings.isNotBlank(KubernetesHelper.getName(oldBC))) {
+            if (buildConfigNames != null && buildConfigNames.contains(projectName)) {
+                if (!bulk) {
                     LOG.warn("Already created build " + namespace + "/" + projectName + " so returning");
                     return Results.fail("Already created BuildConfig " + namespace + "/" + projectName);
                 }
-            } catch (Exception e) {
-                LOG.warn("Ignoring exception looking up BuildConfig " + namespace + "/" + projectName + ": " + e, e);
+                LOG.warn("Already created build " + namespace + "/" + projectName + " so skipping repository " + gitRepoNameValue);
+                BuildConfigResultDTO result = new BuildConfigResultDTO(gitRepoNameValue, projectName);
+                result.setError("Already created BuildConfig " + namespace + "/" + projectName);
+                tasks.add(new BuildConfigTask(gitRepoNameValue, projectName, () -> result));
+                continue;
             }
 
-            Map<String, String> annotations = new HashMap<>();
-            // lets add the annotations so that it looks like its generated by jenkins-sync plugin to minimise duplication
-            if (addCI && isGitHubOrganisationFolder) {
-                annotations.put(Annotations.JENKINGS_GENERATED_BY, "jenkins");
-                annotations.put(Annotations.JENKINS_JOB_PATH, "" + gitOwnerName + "/" + gitRepoNameValue + "/master");
-            }
+            Map<String, String> annotations = buildConfigAnnotations(addCI && isGitHubOrganisationFolder, gitOwnerName, gitRepoNameValue);
             org.jboss.forge.addon.projects.Project project = getCurrentSelectedProject(uiContext);
-            File pom = null;
+            File clonedDir = null;
             if (project == null) { // if no project (only quickstart flow), we are in "import repo" flow
                 Object obj = attributeMap.get(AttributeMapKeys.GIT_CLONED_REPOS); // let's find the cloned repo directory
                 if ((obj != null) && (obj instanceof ArrayList)) {
                     ArrayList<GitClonedRepoDetails> list = (ArrayList<GitClonedRepoDetails>)obj;
                     for (GitClonedRepoDetails repoDetails: list) {
                         if (repoDetails.getGitRepoName().equals(gitRepo.getRepoName())) {
-                            File dir = repoDetails.getAttributes().getDirectory();
-                            pom = new File(dir, "pom.xml");
+                            clonedDir = repoDetails.getAttributes().getDirectory();
                         }
                     }
                 }
             }
-            PomFileXml pomFile = MavenHelpers.findPom(uiContext, project, pom);
-            CheStack stack = CheStackDetector.detectCheStack(uiContext, project, pomFile);
-            if (stack != null) {
-                cheStackId = stack.getId();
-                annotations.put(Annotations.CHE_STACK, cheStackId);
-            }
-            if (addCI && isGitHubOrganisationFolder) {
-                // lets disable jenkins-syn plugin creating the BC as well to avoid possible duplicate
-                annotations.put("jenkins.openshift.org/disable-sync-create-on", "jenkins");
-            }
+            // the UIContext is only used on this thread; cloned repositories are detected on the worker threads
+            CheStack projectStack = clonedDir == null ? CheStackDetector.detectCheStack(uiContext, project) : null;
+            tasks.add(createBuildConfigTask(namespace, gitRepoNameValue, projectName, gitUrl, annotations, spaceId, gitOwnerName,
+                    clonedDir, projectStack, buildConfigNames));
+        }
+        String lastProjectName = projectName;
+        if (Boolean.TRUE.equals(runAsync.getValue())) {
+            // lets do the remote work in the background and return the job so its progress can be polled
+            ProvisioningJob job = new ProvisioningJob(ProvisioningJobs.getOwner(uiContext));
+            try {
+                provisioningJobs.submit(job, () -> provision(job, buildConfigNamespace, buildJenkinsNamespace, lastProjectName, details, gitProvider,
+                        ownerName, gitRepoPattern, gitRepoNameList, gitRepos, tasks, openShiftClient, addCI));
+            } catch (RejectedExecutionException e) {
+                return Results.fail("Too many provisioning jobs are running so please try again later");
+            }
+            String gitUrl = gitRepos.isEmpty() ? null : gitRepos.get(0).getUrl();
+            CreateBuildConfigStatusDTO status = new CreateBuildConfigStatusDTO(namespace, projectName, gitUrl, null, null, gitRepoNameList, gitRepos, gitOwnerName, new ArrayList<>());
+            status.setJobId(job.getId());
+            return Results.success("Started provisioning job " + job.getId(), status);
+        }
+        return provision(new ProvisioningJob(null), namespace, jenkinsNamespace, projectName, details, gitProvider,
+                gitOwnerName, gitRepoPattern, gitRepoNameList, gitRepos, tasks, openShiftClient, addCI);
+    }
 
-            BuildConfig buildConfig = createBuildConfig(kubernetesClient, namespace, projectName, gitUrl, annotations);
-            String spaceId = null;
-            Object spaceValue = attributeMap.get(AttributeMapKeys.SPACE);
-            if (spaceValue instanceof SpaceDTO) {
-                SpaceDTO spaceDTO = (SpaceDTO) spaceValue;
-                spaceId = spaceDTO.getId();
-            } else if (spaceValue instanceof String) {
-                spaceId = (String) spaceValue;
-            }
-            LOG.info("Got labelSpace: " + spaceId + " for new app " + projectName + " for user " + gitOwnerName);
+    /**
+     * Creates the BuildConfigs, Jenkins credentials and jobs, triggers the build and registers the webhooks recording
+     * the progress of each stage on the given job
+     */
+    protected Result provision(ProvisioningJob job, String namespace, String jenkinsNamespace, String projectName, GitAccount details, GitProvider gitProvider,
+                               String gitOwnerName, String gitRepoPattern, List<String> gitRepoNameList, List<GitRepoDTO> gitRepos,
+                               List<BuildConfigTask> buildConfigTasks, OpenShiftClient openShiftClient, boolean addCI) throws Exception {
+        KubernetesClient kubernetes = getKubernetesClient();
+        String jenkinsJobUrl = null;
+        String cheStackId = null;
+        String message = "";
+        boolean isGitHubOrganisationFolder = gitProvider.isGitHub();
+        String gitToken = details.tokenOrPassword();
+        boolean bulk = gitRepos.size() > 1;
 
-            if (Strings.isNotBlank(spaceId)) {
-                KubernetesHelper.getOrCreateLabels(buildConfig).put("space", spaceId);
-                BuildConfigSpec spec = buildConfig.getSpec();
-                if (spec != null) {
-                    BuildStrategy strategy = spec.getStrategy();
-                    if (strategy != null) {
-                        JenkinsPipelineBuildStrategy jenkinsPipelineStrategy = strategy.getJenkinsPipelineStrategy();
-                        if (jenkinsPipelineStrategy != null) {
-                            ensureEnvVar(jenkinsPipelineStrategy, "FABRIC8_SPACE", spaceId);
-                        }
-                    }
-                }
-            }
-            controller.applyBuildConfig(buildConfig, "from project " + projectName);
+        boolean talkToJenkins = false;
+        String useJenkinsFlag = System.getenv("USE_JENKINS");
+        if (useJenkinsFlag != null && useJenkinsFlag.equalsIgnoreCase("true")) {
+            talkToJenkins = true;
+        }
 
-            message += "Created OpenShift BuildConfig " + namespace + "/" + projectName;
+        job.startStage("build-configs");
+        if (addCI && isGitHubOrganisationFolder && !gitRepos.isEmpty()) {
+            ensureCDGihubSecretExists(kubernetesClient, namespace, gitOwnerName, gitToken);
         }
+        List<BuildConfigResultDTO> buildConfigResults = createBuildConfigs(executorFacade, namespace, buildConfigTasks, bulk);
         List<String> warnings = new ArrayList<>();
+        List<WebHookResultDTO> webHookResults = null;
+        Supplier<BuildTriggerDTO> buildTrigger = null;
+        List<String> createdNames = new ArrayList<>();
+        // the jenkins job and webhooks are only for the repositories whose BuildConfig was created
+        List<String> createdRepoNames = buildConfigResults.isEmpty() ? gitRepoNameList : createdRepositories(buildConfigResults);
+        for (BuildConfigResultDTO result : buildConfigResults) {
+            if (result.isCreated()) {
+                createdNames.add(namespace + "/" + result.getBuildConfigName());
+                if (result.getCheStackId() != null) {
+                    cheStackId = result.getCheStackId();
+                }
+            } else if (result.getError() != null) {
+                warnings.add(result.getError());
+            }
+        }
+        if (createdNames.isEmpty() && (bulk || !warnings.isEmpty())) {
+            return Results.fail("Failed to create any BuildConfig in " + namespace + ": " + Strings.join(warnings, ", "));
+        }
+        if (!createdNames.isEmpty()) {
+            message += "Created OpenShift BuildConfig " + Strings.join(createdNames, ", ");
+        }
 
         if (addCI) {
+            job.startStage("jenkins-discovery");
             String discoveryNamespace = KubernetesClientHelper.getDiscoveryNamespace(kubernetes, jenkinsNamespace);
             String jenkinsUrl = null;
             try {
-                jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, jenkinsNamespace, "https", true);
+                jenkinsUrl = JenkinsDiscovery.getJenkinsURL(cacheManager, kubernetes, jenkinsNamespace);
                 discoveryNamespace = jenkinsNamespace;
             } catch (Exception e) {
                 if (!discoveryNamespace.equals(jenkinsNamespace)) {
                     try {
-                        jenkinsUrl = KubernetesHelper.getServiceURL(kubernetes, ServiceNames.JENKINS, discoveryNamespace, "https", true);
+                        jenkinsUrl = JenkinsDiscovery.getJenkinsURL(cacheManager, kubernetes, discoveryNamespace);
                     } catch (Exception e2) {
                         throw new BadTenantException("Failed to find Jenkins URL in namespaces " + discoveryNamespace + " and " + jenkinsNamespace + ": " + e, e);
                     }
@@ -367,14 +385,15 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
                 botSecret = "secret101";
             }
             String oauthToken = kubernetes.getConfiguration().getOauthToken();
-            String authHeader = "Bearer " + oauthToken;
+            JenkinsClient jenkinsClient = jenkinsClients.getClient(jenkinsUrl, "Bearer " + oauthToken);
 
             String webhookUrl = URLUtils.pathJoin(jenkinsUrl, "/github-webhook/");
 
             if (isGitHubOrganisationFolder) {
                 if (talkToJenkins) {
+                    job.startStage("jenkins-credentials");
                     try {
-                        ensureJenkinsCDCredentialCreated(gitOwnerName, gitToken, jenkinsUrl, authHeader);
+                        jenkinsClient.ensureCredentials(gitOwnerName, gitToken);
                     } catch (Exception e) {
                         LOG.error("Failed to create Jenkins CD Bot credentials: " + e, e);
                         return Results.fail("Failed to create Jenkins CD Bot credentials: " + e, e);
@@ -383,46 +402,47 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
 
                 String gitRepoPatternOrName = gitRepoPattern;
                 if (Strings.isNullOrBlank(gitRepoPatternOrName)) {
-                    gitRepoPatternOrName = Strings.join(gitRepoNameList, "|");
+                    gitRepoPatternOrName = JobPattern.of(createdRepoNames).toRegex();
                 }
                 String jobUrl = URLUtils.pathJoin(jenkinsUrl, "/job/" + gitOwnerName);
                 if (Strings.isNotBlank(message)) {
                     message += ". ";
                 }
                 message += "Created Jenkins job: " + jobUrl;
+                job.startStage("jenkins-job");
                 if (talkToJenkins) {
                     try {
                         jenkinsJobUrl = jobUrl;
-                        ensureJenkinsCDOrganisationJobCreated(jenkinsUrl, jobUrl, oauthToken, authHeader, gitOwnerName, gitRepoPatternOrName);
+                        ensureJenkinsCDOrganisationJobCreated(jenkinsClient, jobUrl, gitOwnerName, gitRepoPatternOrName);
                     } catch (Exception e) {
                         LOG.error("Failed to create Jenkins Organisation job: " + e, e);
                         return Results.fail("Failed to create Jenkins Organisation job:: " + e, e);
                     }
                 } else {
                     try {
-                        ensureJenkinsCDOrganisationConfigMapCreated(kubernetes, namespace, gitOwnerName, gitRepoPatternOrName);
+                        organisationJobConfigMaps.addRepositories(kubernetes, namespace, gitOwnerName, Collections.singletonList(gitRepoPatternOrName));
                     } catch (Exception e) {
                         LOG.error("Failed to create Jenkins Organisation ConfigMap: " + e, e);
                         return Results.fail("Failed to create Jenkins Organisation ConfigMap:: " + e, e);
                     }
                 }
             } else {
-                // lets trigger the build
+                // lets trigger the build in the background once the BuildConfig is visible
                 if (openShiftClient != null) {
-                    triggerBuild(openShiftClient, namespace, projectName);
+                    job.startStage("build-trigger");
+                    buildTrigger = buildTriggers.trigger(openShiftClient, namespace, projectName);
                 }
             }
 
-            for (String gitRepoName : gitRepoNameList) {
-                try {
-                    gitProvider.registerWebHook(details, new WebHookDetails(gitOwnerName, gitRepoName, webhookUrl, botSecret));
-                    //registerGitWebHook(details, webhookUrl, gitOwnerName, gitRepoName, botSecret);
-                } catch (Exception e) {
-                    addWarning(warnings, "Failed to create CI webhooks for: " + gitRepoName + ": " + e, e);
+            job.startStage("webhooks");
+            webHookResults = registerWebHooks(gitProvider, details, gitOwnerName, createdRepoNames, webhookUrl, botSecret);
+            for (WebHookResultDTO webHookResult : webHookResults) {
+                if (webHookResult.getError() != null) {
+                    warnings.add(webHookResult.getError());
                 }
             }
-            if (!gitRepoNameList.isEmpty()) {
-                message += " and added git webhooks to repositories " + Strings.join(gitRepoNameList, ", ");
+            if (!createdRepoNames.isEmpty()) {
+                message += " and added git webhooks to repositories " + Strings.join(createdRepoNames, ", ");
             }
             message += ". ";
         }
@@ -431,9 +451,83 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
             gitUrl = gitRepos.get(0).getUrl();
         }
         CreateBuildConfigStatusDTO status = new CreateBuildConfigStatusDTO(namespace, projectName, gitUrl, cheStackId, jenkinsJobUrl, gitRepoNameList, gitRepos, gitOwnerName, warnings);
+        if (bulk) {
+            status.setBuildConfigs(buildConfigResults);
+        }
+        status.setWebHooks(webHookResults);
+        status.setBuildTrigger(buildTrigger);
         return Results.success(message, status);
     }
 
+    /**
+     * Returns the annotations of a new BuildConfig; for an organisation job they make it look like it was generated by
+     * the jenkins-sync plugin to minimise duplication
+     */
+    protected static Map<String, String> buildConfigAnnotations(boolean organisationJob, String gitOwnerName, String gitRepoName) {
+        Map<String, String> annotations = new HashMap<>();
+        if (organisationJob) {
+            annotations.put(Annotations.JENKINGS_GENERATED_BY, "jenkins");
+            annotations.put(Annotations.JENKINS_JOB_PATH, "" + gitOwnerName + "/" + gitRepoName + "/master");
+            // lets disable jenkins-syn plugin creating the BC as well to avoid possible duplicate
+            annotations.put("jenkins.openshift.org/disable-sync-create-on", "jenkins");
+        }
+        return annotations;
+    }
+
+    /**
+     * Returns the task creating the BuildConfig of a git repository; the stack of a cloned repository is detected
+     * on the thread running the task
+     */
+    protected BuildConfigTask createBuildConfigTask(String namespace, String gitRepoName, String buildConfigName, String gitUrl,
+                                                    Map<String, String> annotations, String spaceId, String gitOwnerName,
+                                                    File repoDir, CheStack projectStack, CachedBuildConfigNames names) {
+        return new BuildConfigTask(gitRepoName, buildConfigName, () -> {
+            BuildConfigResultDTO result = new BuildConfigResultDTO(gitRepoName, buildConfigName);
+            // detect the stack from the build coordinates without loading the whole pom.xml into a DOM
+            CheStack stack = repoDir != null ? CheStackDetector.detectCheStack(repoDir) : projectStack;
+            if (stack != null) {
+                result.setCheStackId(stack.getId());
+                annotations.put(Annotations.CHE_STACK, stack.getId());
+            }
+            createBuildConfig(namespace, buildConfigName, gitUrl, annotations, spaceId, gitOwnerName);
+            if (names != null) {
+                names.add(buildConfigName);
+            }
+            result.setCreated(true);
+            return result;
+        });
+    }
+
+    /**
+     * Runs the tasks creating the BuildConfigs; when importing several repositories they run concurrently and a
+     * failure is recorded against its repository rather than failing the import
+     */
+    protected static List<BuildConfigResultDTO> createBuildConfigs(ExecutorFacade executorFacade, String namespace,
+                                                                   List<BuildConfigTask> tasks, boolean bulk) throws Exception {
+        if (bulk) {
+            return executorFacade.invokeAll(Metrics.OPENSHIFT, new ArrayList<Callable<BuildConfigResultDTO>>(tasks),
+                    (index, e) -> tasks.get(index).failed(namespace, e));
+        }
+        List<BuildConfigResultDTO> answer = new ArrayList<>();
+        for (BuildConfigTask task : tasks) {
+            answer.add(task.call());
+        }
+        return answer;
+    }
+
+    /**
+     * Returns the names of the git repositories whose BuildConfig was created
+     */
+    protected static List<String> createdRepositories(List<BuildConfigResultDTO> buildConfigResults) {
+        List<String> answer = new ArrayList<>();
+        for (BuildConfigResultDTO result : buildConfigResults) {
+            if (result.isCreated() && result.getGitRepoName() != null) {
+                answer.add(result.getGitRepoName());
+            }
+        }
+        return answer;
+    }
+
     private List<GitRepoDTO> getGitRepos(UIContext uiContext, String gitRepoName) {
         List<GitRepoDTO> answer = new ArrayList<>();
         Map<Object, Object> attributeMap = uiContext.getAttributeMap();
@@ -450,6 +544,57 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         return answer;
     }
 
+    /**
+     * Creates and applies the BuildConfig for a single git repository
+     */
+    protected void createBuildConfig(String namespace, String projectName, String gitUrl, Map<String, String> annotations, String spaceId, String gitOwnerName) {
+        BuildConfig buildConfig = BuildConfigHelper.createBuildConfig(kubernetesClient, namespace, projectName, gitUrl, annotations);
+        LOG.info("Got labelSpace: " + spaceId + " for new app " + projectName + " for user " + gitOwnerName);
+
+        if (Strings.isNotBlank(spaceId)) {
+            KubernetesHelper.getOrCreateLabels(buildConfig).put("space", spaceId);
+            BuildConfigSpec spec = buildConfig.getSpec();
+            if (spec != null) {
+                BuildStrategy strategy = spec.getStrategy();
+                if (strategy != null) {
+                    JenkinsPipelineBuildStrategy jenkinsPipelineStrategy = strategy.getJenkinsPipelineStrategy();
+                    if (jenkinsPipelineStrategy != null) {
+                        ensureEnvVar(jenkinsPipelineStrategy, "FABRIC8_SPACE", spaceId);
+                    }
+                }
+            }
+        }
+        // the Controller is not thread safe so lets use one per BuildConfig
+        Controller controller = new Controller(kubernetesClient);
+        controller.setNamespace(namespace);
+        controller.applyBuildConfig(buildConfig, "from project " + projectName);
+    }
+
+    /**
+     * Registers the CI webhook on each repository concurrently returning the outcome for each repository in order
+     */
+    protected List<WebHookResultDTO> registerWebHooks(GitProvider gitProvider, GitAccount details, String gitOwnerName, List<String> gitRepoNames, String webhookUrl, String botSecret) throws InterruptedException {
+        List<Callable<WebHookResultDTO>> tasks = new ArrayList<>();
+        for (String gitRepoName : gitRepoNames) {
+            tasks.add(() -> {
+                WebHookResultDTO result = new WebHookResultDTO(gitRepoName, null);
+                try {
+                    result.setStatus(gitProvider.registerWebHook(details, new WebHookDetails(gitOwnerName, gitRepoName, webhookUrl, botSecret)));
+                    //registerGitWebHook(details, webhookUrl, gitOwnerName, gitRepoName, botSecret);
+                } catch (Exception e) {
+                    LOG.warn("Failed to create CI webhooks for: " + gitRepoName + ": " + e, e);
+                    result.setError("Failed to create CI webhooks for: " + gitRepoName + ": " + e);
+                }
+                return result;
+            });
+        }
+        return executorFacade.invokeAll(Metrics.GITHUB, tasks, e -> {
+            WebHookResultDTO result = new WebHookResultDTO();
+            result.setError("Failed to create CI webhooks: " + e);
+            return result;
+        });
+    }
+
     private static void addGitURl(List<GitRepoDTO> answer, String repoName, String gitUrl) {
         if (gitUrl != null) {
             for (GitRepoDTO repoDTO : answer) {
@@ -515,41 +660,6 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
         return null;
     }
 
-    private void addWarning(List<String> warnings, String message, Exception e) {
-        LOG.warn(message, e);
-        // TODO add stack trace too?
-        warnings.add(message);
-    }
-
-    protected void triggerBuild(OpenShiftClient openShiftClient, String namespace, String projectName) {
-        for (int i = 0; i < retryTriggerBuildCount; i++) {
-            if (i > 0) {
-                try {
-                    Thread.sleep(500);
-                } catch (InterruptedException e) {
-                    // ignore
-                }
-            }
-            String triggeredBuildName;
-            BuildRequest request = new BuildRequestBuilder().
-                    withNewMetadata().withName(projectName).endMetadata().
-                    addNewTriggeredBy().withMessage("Manually triggered").endTriggeredBy().
-                    build();
-            try {
-                Build build = openShiftClient.buildConfigs().inNamespace(namespace).withName(projectName).instantiate(request);
-                if (build != null) {
-                    triggeredBuildName = KubernetesHelper.getName(build);
-                    LOG.info("Triggered build " + triggeredBuildName);
-                    return;
-                } else {
-                    LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " du to: no Build returned");
-                }
-            } catch (Exception e) {
-                LOG.error("Failed to trigger build for " + namespace + "/" + projectName + " due to: " + e, e);
-            }
-        }
-    }
-
     private void registerGitWebHook(GitAccount details, String webhookUrl, String gitOwnerName, String gitRepoName, String botSecret) throws IOException {
 
         // TODO move this logic into the GitProvider!!!
@@ -596,463 +706,96 @@ public class CreateBuildConfigStep extends AbstractDevToolsCommand implements UI
      * Finds the secret token we should use for the web hooks
      */
     private String findBotSecret(String discoveryNamespace, String botServiceAccount) {
+        KubernetesClient kubernetes = getKubernetesClient();
         if (useUiidForBotSecret) {
-            return UUID.randomUUID().toString();
+            // lets reuse the generated secret for the namespace so that repeat imports leave matching webhooks alone
+            return cacheManager.computeIfAbsent(CacheNames.JENKINS_BOT_SECRETS, JenkinsDiscovery.cacheKey(kubernetes, discoveryNamespace),
+                    k -> UUID.randomUUID().toString());
         } else {
-            KubernetesClient kubernetes = getKubernetesClient();
-            SecretList list = kubernetes.secrets().inNamespace(discoveryNamespace).list();
-            if (list != null) {
-                List<Secret> items = list.getItems();
-                if (items != null) {
-                    for (Secret item : items) {
-                        String name = KubernetesHelper.getName(item);
-                        if (name.startsWith(botServiceAccount + "-token-")) {
-                            Map<String, String> data = item.getData();
-                            if (data != null) {
-                                String token = data.get("token");
-                                if (token != null) {
-                                    return base64decode(token);
-                                }
-                            }
-                        }
-                    }
-                }
-            }
-        }
-        return null;
-    }
-
-    /**
-     * Triggers the given jenkins job via its URL.
-     *
-     * @param authHeader
-     * @param jobUrl     the URL to the jenkins job
-     * @param triggerUrl can be null or empty and the default triggerUrl will be used
-     */
-    protected void triggerJenkinsWebHook(String token, String authHeader, String jobUrl, String triggerUrl, boolean post) {
-        if (Strings.isNullOrBlank(triggerUrl)) {
-            //triggerUrl = URLUtils.pathJoin(jobUrl, "/build?token=" + token);
-            triggerUrl = URLUtils.pathJoin(jobUrl, "/build?delay=0");
-        }
-        // lets check if this build is already running in which case do nothing
-        String lastBuild = URLUtils.pathJoin(jobUrl, "/lastBuild/api/json");
-        JsonNode lastBuildJson = parseLastBuildJson(authHeader, lastBuild);
-        JsonNode building = null;
-        if (lastBuildJson != null && lastBuildJson.isObject()) {
-            building = lastBuildJson.get("building");
-            if (building != null && building.isBoolean()) {
-                if (building.booleanValue()) {
-                    LOG.info("Build is already running so lets not trigger another one!");
-                    return;
-                }
-            }
-        }
-        LOG.info("Got last build JSON: " + lastBuildJson + " building: " + building);
-
-        LOG.info("Triggering Jenkins build: " + triggerUrl);
-
-        Client client = WebClientHelpers.createClientWihtoutHostVerification();
-        try {
-            Response response = client.target(triggerUrl).
-                    request().
-                    header("Authorization", authHeader).
-                    post(Entity.text(null), Response.class);
-
-            int status = response.getStatus();
-            String message = null;
-            Response.StatusType statusInfo = response.getStatusInfo();
-            if (statusInfo != null) {
-                message = statusInfo.getReasonPhrase();
-            }
-            String extra = "";
-            if (status == 302) {
-                extra = " Location: " + response.getLocation();
-            }
-            LOG.info("Got response code from Jenkins: " + status + " message: " + message + " from URL: " + triggerUrl + extra);
-            if (status <= 200 || status > 302) {
-                LOG.error("Failed to trigger job " + triggerUrl + ". Status: " + status + " message: " + message);
-            }
-        } finally {
-            closeQuietly(client);
+            return JenkinsDiscovery.getServiceAccountToken(cacheManager, kubernetes, discoveryNamespace, botServiceAccount);
         }
     }
 
-    protected JsonNode parseLastBuildJson(String authHeader, String urlText) {
-        Client client = WebClientHelpers.createClientWihtoutHostVerification();
-        try {
-            Response response = client.target(urlText).
-                    request().
-                    header("Authorization", authHeader).
-                    post(Entity.text(null), Response.class);
-
-            int status = response.getStatus();
-            String message = null;
-            Response.StatusType statusInfo = response.getStatusInfo();
-            if (statusInfo != null) {
-                message = statusInfo.getReasonPhrase();
-            }
-            LOG.info("Got response code from Jenkins: " + status + " message: " + message + " from URL: " + urlText);
-            if (status <= 200 || status >= 300) {
-                LOG.error("Failed to trigger job " + urlText + ". Status: " + status + " message: " + message);
-            } else {
-                String json = response.readEntity(String.class);
-                if (Strings.isNotBlank(json)) {
-                    ObjectMapper objectMapper = new ObjectMapper();
-                    try {
-                        return objectMapper.reader().readTree(json);
-                    } catch (IOException e) {
-                        LOG.warn("Failed to parse JSON: " + e, e);
-                    }
-                }
-            }
-        } finally {
-            closeQuietly(client);
-        }
-        return null;
-    }
+    private void ensureJenkinsCDOrganisationJobCreated(JenkinsClient jenkinsClient, String jobUrl, String gitOwnerName, String gitRepoName) {
+        String getUrl = URLUtils.pathJoin(jobUrl, "/config.xml");
+        String createUrl = URLUtils.pathJoin(jenkinsClient.getJenkinsUrl(), "/createItem?name=" + gitOwnerName);
 
-    private Response ensureJenkinsCDCredentialCreated(String gitUserName, String gitToken, String jenkinsUrl, String authHeader) {
-        Client client = null;
+        String currentXml = null;
         Response response = null;
-
-        String createUrl = URLUtils.pathJoin(jenkinsUrl, "/credentials/store/system/domain/_/createCredentials");
-        String getUrl = URLUtils.pathJoin(jenkinsUrl, "/credentials/store/system/domain/_/credentials/cd-github/");
-
         try {
-            client = WebClientHelpers.createClientWihtoutHostVerification();
-            response = client.target(getUrl).
-                    request(MediaType.APPLICATION_JSON).
-                    header("Authorization", authHeader).get(Response.class);
-
+            response = jenkinsClient.execute("getJobConfig", getUrl, MediaType.TEXT_XML, null);
             int status = response.getStatus();
-            String message = null;
-            Response.StatusType statusInfo = response.getStatusInfo();
-            if (statusInfo != null) {
-                message = statusInfo.getReasonPhrase();
-            }
-            String extra = "";
-            if (status == 302) {
-                extra = " Location: " + response.getLocation();
-            }
-            String resultText = convertEntityToText(response.getEntity());
-            LOG.info("Got response code from Jenkins looking up credential: " + status + " message: " + message +
-                    " from URL: " + getUrl + extra + " result: " + resultText);
             if (status >= 200 && status < 300) {
-                return response;
-            }
-            if (status < 200 || status > 302) {
-                LOG.error("Failed to lookup github credentials " + getUrl + ". Status: " + status + " message: " + message);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to lookup the github credentials in Jenkins at the URL " + getUrl + ". " + e, e);
-        } finally {
-            closeQuietly(client);
-        }
-
-        LOG.info("Creating Jenkins github credentials for github user name: " + gitUserName);
-
-
-        String json = "{\n" +
-                "  \"\": \"0\",\n" +
-                "  \"credentials\": {\n" +
-                "    \"scope\": \"GLOBAL\",\n" +
-                "    \"id\": \"cd-github\",\n" +
-                "    \"username\": \"" + gitUserName + "\",\n" +
-                "    \"password\": \"" + gitToken + "\",\n" +
-                "    \"description\": \"fabric8 CD credentials for github\",\n" +
-                "    \"$class\": \"com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl\"\n" +
-                "  }\n" +
-                "}";
-
-        Form form = new Form();
-        form.param("json", json);
-
-        try {
-            client = WebClientHelpers.createClientWihtoutHostVerification();
-            response = client.target(createUrl).request().
-                    header("Authorization", authHeader).
-                    post(Entity.form(form), Response.class);
-
-            int status = response.getStatus();
-            String message = null;
-            Response.StatusType statusInfo = response.getStatusInfo();
-            if (statusInfo != null) {
-                message = statusInfo.getReasonPhrase();
-            }
-            String extra = "";
-            if (status == 302) {
-                extra = " Location: " + response.getLocation();
-            }
-            LOG.info("Got response code from Jenkins: " + status + " message: " + message + " from URL: " + createUrl + extra);
-            if (status < 200 || status > 302) {
-                LOG.error("Failed to create credentials " + createUrl + ". Status: " + status + " message: " + message);
-            }
-        } catch (Exception e) {
-            throw new IllegalStateException("Failed to create the fabric8 credentials in Jenkins at the URL " + createUrl + ". " + e, e);
-        } finally {
-            closeQuietly(client);
-        }
-        return response;
-    }
-
-    private String convertEntityToText(Object entity) {
-        try {
-            if (entity instanceof InputStream) {
-                return IOHelpers.readFully((InputStream) entity);
-            } else if (entity instanceof Reader) {
-                return IOHelpers.readFully((Reader) entity);
-            } else if (entity != null) {
-                return entity.toString();
-            }
-            return null;
-        } catch (IOException e) {
-            return "Failed to parse result: " + e;
-        }
-    }
-
-    private ConfigMap ensureJenkinsCDOrganisationConfigMapCreated(KubernetesClient kubernetes, String namespace, String gitOwnerName, String gitRepoName) {
-
-        String configMapName = KubernetesNames.convertToKubernetesName(gitOwnerName, false);
-        Resource<ConfigMap, DoneableConfigMap> configMapResource = kubernetes.configMaps().inNamespace(namespace).withName(configMapName);
-        ConfigMap cm = configMapResource.get();
-        boolean update = true;
-        if (cm == null) {
-            update = false;
-            cm = new ConfigMapBuilder().withNewMetadata().withName(configMapName).
-                    addToLabels("provider", "fabric8").
-                    addToLabels("openshift.io/jenkins", "job").endMetadata().withData(new HashMap<>()).build();
-        }
-
-        Map<String, String> data = cm.getData();
-        if (data == null) {
-            data = new HashMap<>();
-        }
-        data.put(ConfigMapKeys.ROOT_JOB, "true");
-        data.put(ConfigMapKeys.TRIGGER_ON_CHANGE, "true");
-
-        String configXml = data.get(ConfigMapKeys.CONFIG_XML);
-        Document document = null;
-        if (Strings.isNotBlank(configXml)) {
-            try {
-                document = XmlUtils.parseDoc(new ByteArrayInputStream(configXml.getBytes(StandardCharsets.UTF_8)));
-            } catch (Exception e) {
-                LOG.warn("Could not parse current config.xml on " + namespace + "/" + configMapName + ". " + e, e);
-            }
-        }
-        if (document == null || getGithubScmNavigatorElement(document) == null) {
-            document = parseGitHubOrgJobConfig();
-            if (document == null) {
-                throw new IllegalStateException("Cannot parse the template github org job XML!");
-            }
-        }
-        setGithubOrgJobOwnerAndRepo(document, gitOwnerName, gitRepoName);
-
-        try {
-            configXml = DomHelper.toXml(document);
-        } catch (TransformerException e) {
-            throw new IllegalStateException("Cannot convert the updated config.xml back to XML! " + e, e);
-        }
-        data.put(ConfigMapKeys.CONFIG_XML, configXml);
-
-        if (update) {
-            try {
-                return configMapResource.edit().withData(data).done();
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to update the Organisation Job ConfigMap " + namespace + "/" + configMapName + " due to: " + e, e);
-            }
-        } else {
-            try {
-                return configMapResource.create(cm);
-            } catch (Exception e) {
-                throw new IllegalStateException("Failed to create the Organisation Job ConfigMap " + namespace + "/" + configMapName + " due to: " + e, e);
-            }
-        }
-    }
-
-    private Response ensureJenkinsCDOrganisationJobCreated(String jenkinsUrl, String jobUrl, String oauthToken, String authHeader, String gitOwnerName, String gitRepoName) {
-        String triggerUrl = URLUtils.pathJoin(jobUrl, "/build?delay=0");
-        String getUrl = URLUtils.pathJoin(jobUrl, "/config.xml");
-        String createUrl = URLUtils.pathJoin(jenkinsUrl, "/createItem?name=" + gitOwnerName);
-
-        Document document = null;
-        try {
-            Response response = invokeRequestWithRedirectResponse(getUrl,
-                    target -> target.request(MediaType.TEXT_XML).
-                            header("Authorization", authHeader).
-                            get(Response.class));
-            document = response.readEntity(Document.class);
-            if (document == null) {
-                document = parseEntityAsXml(response.readEntity(String.class));
+                currentXml = response.readEntity(String.class);
+            } else {
+                LOG.info("No github org job at " + getUrl + " as got status: " + status);
             }
         } catch (Exception e) {
             LOG.warn("Failed to get github org job at " + getUrl + ". Probably does not exist? " + e, e);
+        } finally {
+            closeQuietly(response);
         }
 
-        boolean create = false;
-        if (document == null || getGithubScmNavigatorElement(document) == null) {
-            create = true;
-            document = parseGitHubOrgJobConfig();
-            if (document == null) {
-                throw new IllegalStateException("Cannot parse the template github org job XML!");
-            }
-        }
-
-        setGithubOrgJobOwnerAndRepo(document, gitOwnerName, gitRepoName);
+        boolean create = Strings.isNullOrBlank(currentXml);
+        String configXml = GitHubOrgJobConfig.merge(currentXml, gitOwnerName, Collections.singletonList(gitRepoName));
 
-        final Entity entity = Entity.entity(document, MediaType.TEXT_XML);
-        Response answer;
-        if (create) {
+        final Entity entity = Entity.entity(configXml, MediaType.TEXT_XML);
+        Response answer = null;
+        if (!create && configXml.equals(currentXml)) {
+            LOG.debug("The GitHub Org Job at " + getUrl + " already includes " + gitRepoName);
+        } else if (create) {
             try {
-                answer = invokeRequestWithRedirectResponse(createUrl,
-                        target -> target.request(MediaType.TEXT_XML).
-                                header("Authorization", authHeader).
-                                post(entity, Response.class));
+                answer = jenkinsClient.post("createJob", createUrl, MediaType.TEXT_XML, entity);
             } catch (Exception e) {
                 throw new IllegalStateException("Failed to create the GitHub Org Job at " + createUrl + ". " + e, e);
             }
         } else {
             try {
-                answer = invokeRequestWithRedirectResponse(getUrl,
-                        target -> target.request(MediaType.TEXT_XML).
-                                header("Authorization", authHeader).
-                                post(entity, Response.class));
+                answer = jenkinsClient.post("updateJob", getUrl, MediaType.TEXT_XML, entity);
             } catch (Exception e) {
                 throw new IllegalStateException("Failed to update the GitHub Org Job at " + getUrl + ". " + e, e);
             }
         }
+        // lets release the connection as only the status is used
+        closeQuietly(answer);
 
         LOG.info("Triggering the job " + jobUrl);
         try {
-            triggerJenkinsWebHook(oauthToken, authHeader, jobUrl, triggerUrl, true);
+            // a job we just created has no last build to check
+            jenkinsClient.triggerBuild(jobUrl, !create);
         } catch (Exception e) {
-            LOG.error("Failed to trigger jenkins job at " + triggerUrl + ". " + e, e);
+            LOG.error("Failed to trigger jenkins job at " + jobUrl + ". " + e, e);
         }
-        return answer;
     }
 
-    private void setGithubOrgJobOwnerAndRepo(Document doc, String gitOwnerName, String gitRepoName) {
-        Element githubNavigator = getGithubScmNavigatorElement(doc);
-        if (githubNavigator == null) {
-            new IllegalArgumentException("No element <" + GITHUB_SCM_NAVIGATOR_ELEMENT + "> found in the github organisation job!");
-        }
-
-        Element repoOwner = DomUtils.mandatoryFirstChild(githubNavigator, "repoOwner");
-        Element pattern = DomHelper.firstChild(githubNavigator, "pattern");
-        if (pattern == null) {
-            // lets check for the new plugin XML
-            Element traitsElement = DomHelper.firstChild(githubNavigator, "traits");
-            if (traitsElement != null) {
-                Element sourceFilterElement = DomHelper.firstChild(traitsElement, REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT);
-                if (sourceFilterElement != null) {
-                    pattern = DomHelper.firstChild(sourceFilterElement, "regex");
-                }
-            }
-        }
-        if (pattern == null) {
-            throw new IllegalArgumentException("No <pattern> or <traits><" + REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT + "><regex> found in element <" + GITHUB_SCM_NAVIGATOR_ELEMENT + "> for the github organisation job!");
-        }
-
-        String newPattern = combineJobPattern(pattern.getTextContent(), gitRepoName);
-        DomUtils.setElementText(repoOwner, gitOwnerName);
-        DomUtils.setElementText(pattern, newPattern);
-    }
-
-    protected Element getGithubScmNavigatorElement(Document doc) {
-        Element githubNavigator = null;
-        Element rootElement = doc.getDocumentElement();
-        if (rootElement != null) {
-            NodeList githubNavigators = rootElement.getElementsByTagName(GITHUB_SCM_NAVIGATOR_ELEMENT);
-            for (int i = 0, size = githubNavigators.getLength(); i < size; i++) {
-                Node item = githubNavigators.item(i);
-                if (item instanceof Element) {
-                    Element element = (Element) item;
-                    githubNavigator = element;
-                    break;
-                }
-            }
-        }
-        return githubNavigator;
-    }
-
-    protected Response invokeRequestWithRedirectResponse(String url, Function<WebTarget, Response> callback) {
-        boolean redirected = false;
-        Response response = null;
-        for (int i = 0, retries = 2; i < retries; i++) {
-            Client client = null;
-            try {
-                client = WebClientHelpers.createClientWihtoutHostVerification();
-                WebTarget target = client.target(url);
-                response = callback.apply(target);
-                int status = response.getStatus();
-                String reasonPhrase = "";
-                Response.StatusType statusInfo = response.getStatusInfo();
-                if (statusInfo != null) {
-                    reasonPhrase = statusInfo.getReasonPhrase();
-                }
-                LOG.info("Response from " + url + " is " + status + " " + reasonPhrase);
-                if (status == 302) {
-                    if (redirected) {
-                        LOG.warn("Failed to process " + url + " and got status: " + status + " " + reasonPhrase, response);
-                        throw new WebApplicationException("Failed to process " + url + " and got status: " + status + " " + reasonPhrase, response);
-                    }
-                    redirected = true;
-                    URI uri = response.getLocation();
-                    if (uri == null) {
-                        LOG.warn("Failed to process " + url + " and got status: " + status + " " + reasonPhrase + " but no location header!", response);
-                        throw new WebApplicationException("Failed to process " + url + " and got status: " + status + " " + reasonPhrase + " but no location header!", response);
-                    }
-                    url = uri.toString();
-                } else if (status < 200 || status >= 300) {
-                    LOG.warn("Failed to process " + url + " and got status: " + status + " " + reasonPhrase, response);
-                    throw new WebApplicationException("Failed to process " + url + " and got status: " + status + " " + reasonPhrase, response);
-                } else {
-                    return response;
-                }
-            } catch (RedirectionException redirect) {
-                if (redirected) {
-                    throw redirect;
-                }
-                redirected = true;
-                URI uri = redirect.getLocation();
-                url = uri.toString();
-            } finally {
-                closeQuietly(client);
-            }
-        }
-        return response;
-    }
-
-    private Client createSecureClient() {
-        return ClientBuilder.newClient();
-    }
-
-
     public KubernetesClient getKubernetesClient() {
         return kubernetesClient;
     }
 
-    private Document parseEntityAsXml(String entity) throws ParserConfigurationException, IOException, SAXException {
-        if (entity == null) {
-            return null;
+    /**
+     * Creates the BuildConfig for a git repository; a failure is reported against the repository and BuildConfig
+     */
+    protected static class BuildConfigTask implements Callable<BuildConfigResultDTO> {
+        private final String gitRepoName;
+        private final String buildConfigName;
+        private final Callable<BuildConfigResultDTO> task;
+
+        public BuildConfigTask(String gitRepoName, String buildConfigName, Callable<BuildConfigResultDTO> task) {
+            this.gitRepoName = gitRepoName;
+            this.buildConfigName = buildConfigName;
+            this.task = task;
         }
-        DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-        return documentBuilder.parse(new ByteArrayInputStream(entity.getBytes()));
-    }
 
+        @Override
+        public BuildConfigResultDTO call() throws Exception {
+            return task.call();
+        }
 
-    public Document parseGitHubOrgJobConfig() {
-        String templateName = "github-org-job-config.xml";
-        URL url = getClass().getResource(templateName);
-        if (url == null) {
-            LOG.error("Could not load " + templateName + " on the classpath!");
-        } else {
-            try {
-                DocumentBuilder documentBuilder = DocumentBuilderFactory.newInstance().newDocumentBuilder();
-                return documentBuilder.parse(url.toString());
-            } catch (Exception e) {
-                LOG.error("Failed to load template " + templateName + " from " + url + ". " + e, e);
-            }
+        public BuildConfigResultDTO failed(String namespace, Throwable e) {
+            LOG.warn("Failed to create BuildConfig " + namespace + "/" + buildConfigName + " for repository " + gitRepoName + ": " + e, e);
+            BuildConfigResultDTO result = new BuildConfigResultDTO(gitRepoName, buildConfigName);
+            result.setError("Failed to create BuildConfig " + namespace + "/" + buildConfigName + ": " + e);
+            return result;
         }
-        return null;
     }
 }
@@ -0,0 +1,361 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.utils.DomUtils;
+import io.fabric8.utils.DomHelper;
+import io.fabric8.utils.IOHelpers;
+import io.fabric8.utils.Strings;
+import io.fabric8.utils.XmlUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.w3c.dom.Document;
+import org.w3c.dom.Element;
+import org.w3c.dom.Node;
+import org.w3c.dom.NodeList;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Objects;
+
+import static io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep.GITHUB_SCM_NAVIGATOR_ELEMENT;
+import static io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep.REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT;
+
+/**
+ * The <code>config.xml</code> of a github organisation job with the locations of its <code>repoOwner</code> and
+ * repository <code>pattern</code> (or <code>regex</code> trait) found up front so that the owner and repository can be
+ * spliced in without building and serialising a DOM.
+ * <p>
+ * The bundled template is located once; existing job configurations are scanned only for the two elements which are
+ * merged. Configurations which cannot be scanned this way should be updated via the DOM instead.
+ */
+public class GitHubOrgJobConfig {
+    public static final String TEMPLATE_NAME = "github-org-job-config.xml";
+    private static final transient Logger LOG = LoggerFactory.getLogger(GitHubOrgJobConfig.class);
+
+    private final String xml;
+    private final Insertion repoOwner;
+    private final Insertion pattern;
+
+    protected GitHubOrgJobConfig(String xml, Insertion repoOwner, Insertion pattern) {
+        this.xml = xml;
+        this.repoOwner = repoOwner;
+        this.pattern = pattern;
+    }
+
+    /**
+     * Returns the bundled template
+     */
+    public static GitHubOrgJobConfig template() {
+        return TemplateHolder.TEMPLATE;
+    }
+
+    /**
+     * Returns the github organisation job config.xml for the owner with the repositories added to the current config
+     * or to the template if there is no current config with a github navigator.
+     * <p>
+     * The current XML instance is returned as is when the owner and all the repositories are already present so
+     * callers can skip writing it back
+     */
+    public static String merge(String currentXml, String gitOwnerName, Collection<String> gitRepoNames) {
+        if (Strings.isNotBlank(currentXml)) {
+            GitHubOrgJobConfig config = parse(currentXml);
+            if (config != null) {
+                return config.render(gitOwnerName, gitRepoNames);
+            }
+            // lets fall back to the DOM for XML we cannot splice such as a pattern with child nodes
+            try {
+                Document document = XmlUtils.parseDoc(new ByteArrayInputStream(currentXml.getBytes(StandardCharsets.UTF_8)));
+                if (document != null && getGithubScmNavigatorElement(document) != null) {
+                    if (!setGithubOrgJobOwnerAndRepos(document, gitOwnerName, gitRepoNames)) {
+                        return currentXml;
+                    }
+                    return DomHelper.toXml(document);
+                }
+            } catch (Exception e) {
+                LOG.warn("Could not parse current github org job config.xml. " + e, e);
+            }
+        }
+        return template().render(gitOwnerName, gitRepoNames);
+    }
+
+    /**
+     * Returns the pattern with the repository names or patterns merged in or the old pattern itself if it already
+     * includes them all
+     */
+    public static String addToPattern(String oldPattern, Collection<String> gitRepoNames) {
+        JobPattern jobPattern = JobPattern.parse(oldPattern);
+        boolean changed = false;
+        for (String gitRepoName : gitRepoNames) {
+            changed |= jobPattern.addAll(JobPattern.parse(gitRepoName));
+        }
+        if (!changed && oldPattern != null) {
+            return oldPattern;
+        }
+        return jobPattern.toRegex();
+    }
+
+    /**
+     * Updates the owner and adds the repositories to the pattern of the github navigator returning false if the
+     * document was already up to date
+     */
+    protected static boolean setGithubOrgJobOwnerAndRepos(Document doc, String gitOwnerName, Collection<String> gitRepoNames) {
+        Element githubNavigator = getGithubScmNavigatorElement(doc);
+        if (githubNavigator == null) {
+            throw new IllegalArgumentException("No element <" + GITHUB_SCM_NAVIGATOR_ELEMENT + "> found in the github organisation job!");
+        }
+
+        Element repoOwner = DomUtils.mandatoryFirstChild(githubNavigator, "repoOwner");
+        Element pattern = DomHelper.firstChild(githubNavigator, "pattern");
+        if (pattern == null) {
+            // lets check for the new plugin XML
+            Element traitsElement = DomHelper.firstChild(githubNavigator, "traits");
+            if (traitsElement != null) {
+                Element sourceFilterElement = DomHelper.firstChild(traitsElement, REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT);
+                if (sourceFilterElement != null) {
+                    pattern = DomHelper.firstChild(sourceFilterElement, "regex");
+                }
+            }
+        }
+        if (pattern == null) {
+            throw new IllegalArgumentException("No <pattern> or <traits><" + REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT + "><regex> found in element <" + GITHUB_SCM_NAVIGATOR_ELEMENT + "> for the github organisation job!");
+        }
+
+        String oldPattern = pattern.getTextContent();
+        String newPattern = addToPattern(oldPattern, gitRepoNames);
+        if (Objects.equals(repoOwner.getTextContent(), gitOwnerName) && Objects.equals(oldPattern, newPattern)) {
+            return false;
+        }
+        DomUtils.setElementText(repoOwner, gitOwnerName);
+        DomUtils.setElementText(pattern, newPattern);
+        return true;
+    }
+
+    protected static Element getGithubScmNavigatorElement(Document doc) {
+        Element rootElement = doc.getDocumentElement();
+        if (rootElement != null) {
+            NodeList githubNavigators = rootElement.getElementsByTagName(GITHUB_SCM_NAVIGATOR_ELEMENT);
+            for (int i = 0, size = githubNavigators.getLength(); i < size; i++) {
+                Node item = githubNavigators.item(i);
+                if (item instanceof Element) {
+                    return (Element) item;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Locates the <code>repoOwner</code> and <code>pattern</code> elements of the github navigator in the given
+     * config.xml returning null if they cannot be found
+     */
+    public static GitHubOrgJobConfig parse(String xml) {
+        if (xml == null) {
+            return null;
+        }
+        int navigatorStart = findStartTag(xml, GITHUB_SCM_NAVIGATOR_ELEMENT, 0, xml.length());
+        if (navigatorStart < 0) {
+            return null;
+        }
+        int navigatorEnd = xml.indexOf("</" + GITHUB_SCM_NAVIGATOR_ELEMENT + ">", navigatorStart);
+        if (navigatorEnd < 0) {
+            return null;
+        }
+        Insertion repoOwner = Insertion.find(xml, "repoOwner", navigatorStart, navigatorEnd);
+        Insertion pattern = Insertion.find(xml, "pattern", navigatorStart, navigatorEnd);
+        if (pattern == null) {
+            // lets check for the new plugin XML
+            int traitStart = findStartTag(xml, REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT, navigatorStart, navigatorEnd);
+            if (traitStart >= 0) {
+                int traitEnd = xml.indexOf("</" + REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT + ">", traitStart);
+                if (traitEnd >= 0 && traitEnd < navigatorEnd) {
+                    pattern = Insertion.find(xml, "regex", traitStart, traitEnd);
+                }
+            }
+        }
+        if (repoOwner == null || pattern == null) {
+            return null;
+        }
+        return new GitHubOrgJobConfig(xml, repoOwner, pattern);
+    }
+
+    /**
+     * Returns the config.xml with the given owner and the repository name combined into the current pattern
+     */
+    public String render(String gitOwnerName, String gitRepoName) {
+        return render(gitOwnerName, Collections.singletonList(gitRepoName));
+    }
+
+    /**
+     * Returns the config.xml with the given owner and the repository names combined into the current pattern or the
+     * current config.xml itself if nothing changes
+     */
+    public String render(String gitOwnerName, Collection<String> gitRepoNames) {
+        String oldPattern = pattern.getText(xml);
+        String newPattern = addToPattern(oldPattern, gitRepoNames);
+        if (newPattern.equals(oldPattern) && Objects.equals(gitOwnerName, repoOwner.getText(xml))) {
+            return xml;
+        }
+        Insertion first = repoOwner;
+        String firstValue = gitOwnerName;
+        Insertion second = pattern;
+        String secondValue = newPattern;
+        if (pattern.start < repoOwner.start) {
+            first = pattern;
+            firstValue = newPattern;
+            second = repoOwner;
+            secondValue = gitOwnerName;
+        }
+        StringBuilder builder = new StringBuilder(xml.length() + gitOwnerName.length() + newPattern.length() + 64);
+        builder.append(xml, 0, first.start);
+        first.append(builder, firstValue);
+        builder.append(xml, first.end, second.start);
+        second.append(builder, secondValue);
+        builder.append(xml, second.end, xml.length());
+        return builder.toString();
+    }
+
+    public String getPattern() {
+        return pattern.getText(xml);
+    }
+
+    public String getRepoOwner() {
+        return repoOwner.getText(xml);
+    }
+
+    /**
+     * Returns the index of the start tag of the given element between the indices or -1 if there is none
+     */
+    protected static int findStartTag(String xml, String element, int from, int to) {
+        String prefix = "<" + element;
+        int idx = xml.indexOf(prefix, from);
+        while (idx >= 0 && idx < to) {
+            int next = idx + prefix.length();
+            if (next < xml.length()) {
+                char ch = xml.charAt(next);
+                if (ch == '>' || ch == '/' || Character.isWhitespace(ch)) {
+                    return idx;
+                }
+            }
+            idx = xml.indexOf(prefix, next);
+        }
+        return -1;
+    }
+
+    protected static String escape(String text) {
+        StringBuilder builder = new StringBuilder(text.length());
+        for (int i = 0, size = text.length(); i < size; i++) {
+            char ch = text.charAt(i);
+            switch (ch) {
+                case '&':
+                    builder.append("&amp;");
+                    break;
+                case '<':
+                    builder.append("&lt;");
+                    break;
+                case '>':
+                    builder.append("&gt;");
+                    break;
+                default:
+                    builder.append(ch);
+            }
+        }
+        return builder.toString();
+    }
+
+    protected static String unescape(String text) {
+        if (text.indexOf('&') < 0) {
+            return text;
+        }
+        return text.replace("&lt;", "<").replace("&gt;", ">").replace("&quot;", "\"").replace("&apos;", "'").replace("&amp;", "&");
+    }
+
+    /**
+     * The text content of an element which is replaced when rendering; a self closing element is replaced as a whole
+     */
+    protected static class Insertion {
+        private final String element;
+        private final int start;
+        private final int end;
+        private final boolean selfClosing;
+
+        Insertion(String element, int start, int end, boolean selfClosing) {
+            this.element = element;
+            this.start = start;
+            this.end = end;
+            this.selfClosing = selfClosing;
+        }
+
+        /**
+         * Finds the first element with the given name between the indices returning null if its missing or has
+         * child elements
+         */
+        static Insertion find(String xml, String element, int from, int to) {
+            int tagStart = findStartTag(xml, element, from, to);
+            if (tagStart < 0) {
+                return null;
+            }
+            int tagEnd = xml.indexOf('>', tagStart);
+            if (tagEnd < 0 || tagEnd >= to) {
+                return null;
+            }
+            if (xml.charAt(tagEnd - 1) == '/') {
+                return new Insertion(element, tagStart, tagEnd + 1, true);
+            }
+            int closeStart = xml.indexOf("</" + element + ">", tagEnd);
+            if (closeStart < 0 || closeStart >= to || xml.indexOf('<', tagEnd + 1) != closeStart) {
+                return null;
+            }
+            return new Insertion(element, tagEnd + 1, closeStart, false);
+        }
+
+        String getText(String xml) {
+            return selfClosing ? "" : unescape(xml.substring(start, end));
+        }
+
+        void append(StringBuilder builder, String value) {
+            if (selfClosing) {
+                builder.append('<').append(element).append('>').append(escape(value)).append("</").append(element).append('>');
+            } else {
+                builder.append(escape(value));
+            }
+        }
+    }
+
+    private static class TemplateHolder {
+        private static final GitHubOrgJobConfig TEMPLATE = loadTemplate();
+
+        private static GitHubOrgJobConfig loadTemplate() {
+            try (InputStream in = GitHubOrgJobConfig.class.getResourceAsStream(TEMPLATE_NAME)) {
+                if (in == null) {
+                    throw new IllegalStateException("Could not load " + TEMPLATE_NAME + " on the classpath!");
+                }
+                GitHubOrgJobConfig answer = parse(IOHelpers.readFully(in));
+                if (answer == null) {
+                    throw new IllegalStateException("No <repoOwner> and <pattern> found in the template " + TEMPLATE_NAME);
+                }
+                return answer;
+            } catch (IOException e) {
+                throw new IllegalStateException("Failed to load template " + TEMPLATE_NAME + ". " + e, e);
+            }
+        }
+    }
+}
@@ -0,0 +1,353 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.utils.ObjectMappers;
+import io.fabric8.forge.generator.utils.WebClientHelpers;
+import io.fabric8.utils.Strings;
+import io.fabric8.utils.URLUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.ws.rs.RedirectionException;
+import javax.ws.rs.WebApplicationException;
+import javax.ws.rs.client.Client;
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.client.Invocation;
+import javax.ws.rs.client.WebTarget;
+import javax.ws.rs.core.Form;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentMap;
+
+import static io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep.closeQuietly;
+
+/**
+ * Invokes the Jenkins API of a tenant as a user.
+ * <p>
+ * Requests go straight to the URL the Jenkins URL was last redirected to, a CSRF crumb is only fetched once Jenkins
+ * rejects a POST without one and is then reused, and concurrent triggers of the same job by the same user share one
+ * trigger.
+ */
+public class JenkinsClient {
+    private static final transient Logger LOG = LoggerFactory.getLogger(JenkinsClient.class);
+    private static final String CREDENTIALS_ID = "cd-github";
+
+    private final JenkinsClients clients;
+    private final String jenkinsUrl;
+    private final String authHeader;
+
+    protected JenkinsClient(JenkinsClients clients, String jenkinsUrl, String authHeader) {
+        this.clients = clients;
+        this.jenkinsUrl = jenkinsUrl.endsWith("/") ? jenkinsUrl.substring(0, jenkinsUrl.length() - 1) : jenkinsUrl;
+        this.authHeader = authHeader;
+    }
+
+    public String getJenkinsUrl() {
+        return jenkinsUrl;
+    }
+
+    /**
+     * Invokes a GET returning the response or throwing a {@link WebApplicationException} if it failed
+     */
+    public Response get(String operation, String url, String accept) {
+        return checkStatus(url, execute(operation, url, accept, null));
+    }
+
+    /**
+     * Invokes a POST returning the response or throwing a {@link WebApplicationException} if it failed
+     */
+    public Response post(String operation, String url, String accept, Entity<?> entity) {
+        return checkStatus(url, execute(operation, url, accept, entity));
+    }
+
+    /**
+     * Returns the parsed JSON of the given URL or null if it could not be loaded
+     */
+    public JsonNode getJson(String operation, String url) {
+        Response response = null;
+        try {
+            response = execute(operation, url, MediaType.APPLICATION_JSON, null);
+            int status = response.getStatus();
+            if (status < 200 || status >= 300) {
+                LOG.info("Got response code from Jenkins: " + status + " message: " + reasonPhrase(response) + " from URL: " + url);
+                return null;
+            }
+            String json = response.readEntity(String.class);
+            if (Strings.isNotBlank(json)) {
+                return ObjectMappers.jsonReader(JsonNode.class).readValue(json);
+            }
+        } catch (IOException e) {
+            LOG.warn("Failed to parse JSON from " + url + ": " + e, e);
+        } finally {
+            closeQuietly(response);
+        }
+        return null;
+    }
+
+    /**
+     * Invokes the request following one redirect and retrying a forbidden POST once with a fresh CSRF crumb,
+     * returning the final response whatever its status
+     */
+    public Response execute(String operation, String url, String accept, Entity<?> entity) {
+        String requestUrl = resolve(url);
+        boolean redirected = false;
+        boolean crumbRefreshed = false;
+        while (true) {
+            Response response;
+            try {
+                response = send(operation, requestUrl, accept, entity);
+            } catch (RedirectionException redirect) {
+                if (redirected) {
+                    throw redirect;
+                }
+                redirected = true;
+                requestUrl = redirect(url, redirect.getLocation());
+                continue;
+            }
+            int status = response.getStatus();
+            String reasonPhrase = reasonPhrase(response);
+            LOG.info("Response from " + requestUrl + " is " + status + " " + reasonPhrase);
+            if (status == 302) {
+                URI location = response.getLocation();
+                if (redirected || location == null) {
+                    String message = "Failed to process " + requestUrl + " and got status: " + status + " " + reasonPhrase;
+                    if (location == null) {
+                        message += " but no location header!";
+                    }
+                    LOG.warn(message);
+                    throw new WebApplicationException(message, response);
+                }
+                closeQuietly(response);
+                redirected = true;
+                requestUrl = redirect(url, location);
+            } else if (status == 403 && entity != null && !crumbRefreshed) {
+                // lets retry with a new crumb in case ours is missing or has expired
+                crumbRefreshed = true;
+                if (refreshCrumb() == null) {
+                    return response;
+                }
+                closeQuietly(response);
+            } else {
+                return response;
+            }
+        }
+    }
+
+    /**
+     * Ensures the github credentials used by the organisation jobs exist in Jenkins
+     */
+    public void ensureCredentials(String gitUserName, String gitToken) {
+        String key = JenkinsClients.fingerprint(jenkinsUrl, gitUserName, gitToken);
+        if (clients.getCredentials().get(key) != null) {
+            LOG.debug("Jenkins github credentials for " + gitUserName + " already exist at " + jenkinsUrl);
+            return;
+        }
+        String getUrl = URLUtils.pathJoin(jenkinsUrl, "/credentials/store/system/domain/_/credentials/" + CREDENTIALS_ID + "/");
+        String createUrl = URLUtils.pathJoin(jenkinsUrl, "/credentials/store/system/domain/_/createCredentials");
+
+        Response response = null;
+        try {
+            response = execute("getCredentials", getUrl, MediaType.APPLICATION_JSON, null);
+            int status = response.getStatus();
+            LOG.info("Got response code from Jenkins looking up credential: " + status + " message: " + reasonPhrase(response) + " from URL: " + getUrl);
+            if (status >= 200 && status < 300) {
+                clients.getCredentials().put(key, CREDENTIALS_ID);
+                return;
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to lookup the github credentials in Jenkins at the URL " + getUrl + ". " + e, e);
+        } finally {
+            closeQuietly(response);
+        }
+
+        LOG.info("Creating Jenkins github credentials for github user name: " + gitUserName);
+        String json = "{\n" +
+                "  \"\": \"0\",\n" +
+                "  \"credentials\": {\n" +
+                "    \"scope\": \"GLOBAL\",\n" +
+                "    \"id\": \"" + CREDENTIALS_ID + "\",\n" +
+                "    \"username\": \"" + gitUserName + "\",\n" +
+                "    \"password\": \"" + gitToken + "\",\n" +
+                "    \"description\": \"fabric8 CD credentials for github\",\n" +
+                "    \"$class\": \"com.cloudbees.plugins.credentials.impl.UsernamePasswordCredentialsImpl\"\n" +
+                "  }\n" +
+                "}";
+        Form form = new Form();
+        form.param("json", json);
+
+        response = null;
+        try {
+            response = execute("createCredentials", createUrl, null, Entity.form(form));
+            int status = response.getStatus();
+            LOG.info("Got response code from Jenkins: " + status + " message: " + reasonPhrase(response) + " from URL: " + createUrl);
+            if (status < 200 || status > 302) {
+                LOG.error("Failed to create credentials " + createUrl + ". Status: " + status + " message: " + reasonPhrase(response));
+            } else {
+                clients.getCredentials().put(key, CREDENTIALS_ID);
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException("Failed to create the fabric8 credentials in Jenkins at the URL " + createUrl + ". " + e, e);
+        } finally {
+            closeQuietly(response);
+        }
+    }
+
+    /**
+     * Triggers a build of the given job unless it is already building. A caller which triggers a job while the same
+     * user is already triggering it waits for that trigger instead; other users always trigger with their own token.
+     *
+     * @param jobUrl       the URL of the job
+     * @param checkRunning whether to check the last build first; a job which was just created has no builds to check
+     */
+    public void triggerBuild(String jobUrl, boolean checkRunning) {
+        ConcurrentMap<String, CompletableFuture<Void>> triggers = clients.getTriggers();
+        String key = JenkinsClients.fingerprint(jobUrl, authHeader);
+        CompletableFuture<Void> future = new CompletableFuture<>();
+        CompletableFuture<Void> existing = triggers.putIfAbsent(key, future);
+        if (existing != null) {
+            LOG.info("Build of " + jobUrl + " is already being triggered");
+            try {
+                Deadline.join(existing, "waiting for the build of " + jobUrl + " to be triggered");
+            } catch (CompletionException e) {
+                LOG.debug("The concurrent trigger of " + jobUrl + " failed: " + e.getCause());
+            }
+            return;
+        }
+        try {
+            doTriggerBuild(jobUrl, checkRunning);
+            future.complete(null);
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+            throw e;
+        } finally {
+            triggers.remove(key, future);
+        }
+    }
+
+    protected void doTriggerBuild(String jobUrl, boolean checkRunning) {
+        if (checkRunning) {
+            JsonNode lastBuildJson = getJson("lastBuild", URLUtils.pathJoin(jobUrl, "/lastBuild/api/json?tree=building"));
+            if (lastBuildJson != null && lastBuildJson.path("building").asBoolean(false)) {
+                LOG.info("Build is already running so lets not trigger another one!");
+                return;
+            }
+        }
+        String triggerUrl = URLUtils.pathJoin(jobUrl, "/build?delay=0");
+        LOG.info("Triggering Jenkins build: " + triggerUrl);
+        Response response = null;
+        try {
+            response = execute("triggerBuild", triggerUrl, null, Entity.text(null));
+            int status = response.getStatus();
+            String message = reasonPhrase(response);
+            LOG.info("Got response code from Jenkins: " + status + " message: " + message + " from URL: " + triggerUrl);
+            if (status <= 200 || status > 302) {
+                LOG.error("Failed to trigger job " + triggerUrl + ". Status: " + status + " message: " + message);
+            }
+        } finally {
+            closeQuietly(response);
+        }
+    }
+
+    protected Response send(String operation, String url, String accept, Entity<?> entity) {
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.JENKINS);
+        WebTarget target = client.target(url);
+        Invocation.Builder request = accept != null ? target.request(accept) : target.request();
+        request.header("Authorization", authHeader);
+        if (entity == null) {
+            return Metrics.call(Metrics.JENKINS, operation, () -> request.get(Response.class), Response::getStatus);
+        }
+        String crumb = clients.getCrumbs().get(crumbKey());
+        if (crumb != null) {
+            int idx = crumb.indexOf(':');
+            request.header(crumb.substring(0, idx), crumb.substring(idx + 1));
+        }
+        return Metrics.call(Metrics.JENKINS, operation, () -> request.post(entity, Response.class), Response::getStatus);
+    }
+
+    /**
+     * Fetches and caches a new CSRF crumb returning null if Jenkins has no crumb issuer
+     */
+    protected String refreshCrumb() {
+        clients.getCrumbs().remove(crumbKey());
+        JsonNode json = getJson("crumb", URLUtils.pathJoin(jenkinsUrl, "/crumbIssuer/api/json"));
+        if (json == null) {
+            return null;
+        }
+        String field = json.path("crumbRequestField").asText(null);
+        String crumb = json.path("crumb").asText(null);
+        if (Strings.isNullOrBlank(field) || Strings.isNullOrBlank(crumb)) {
+            return null;
+        }
+        String answer = field + ":" + crumb;
+        clients.getCrumbs().put(crumbKey(), answer);
+        return answer;
+    }
+
+    /**
+     * Returns the URL to request for the given URL using the location the Jenkins URL was last redirected to
+     */
+    protected String resolve(String url) {
+        if (url.startsWith(jenkinsUrl)) {
+            String resolved = clients.getResolvedUrls().get(jenkinsUrl);
+            if (resolved != null) {
+                return resolved + url.substring(jenkinsUrl.length());
+            }
+        }
+        return url;
+    }
+
+    /**
+     * Returns the location to retry the given URL at remembering the new Jenkins URL if the location keeps the path
+     */
+    protected String redirect(String url, URI location) {
+        String answer = location.toString();
+        if (url.startsWith(jenkinsUrl)) {
+            String path = url.substring(jenkinsUrl.length());
+            if (!path.isEmpty() && answer.endsWith(path) && answer.length() > path.length()) {
+                clients.getResolvedUrls().put(jenkinsUrl, answer.substring(0, answer.length() - path.length()));
+            }
+        }
+        return answer;
+    }
+
+    protected String crumbKey() {
+        return JenkinsClients.fingerprint(jenkinsUrl, authHeader);
+    }
+
+    private Response checkStatus(String url, Response response) {
+        int status = response.getStatus();
+        if (status < 200 || status >= 300) {
+            String message = "Failed to process " + url + " and got status: " + status + " " + reasonPhrase(response);
+            LOG.warn(message);
+            throw new WebApplicationException(message, response);
+        }
+        return response;
+    }
+
+    private static String reasonPhrase(Response response) {
+        Response.StatusType statusInfo = response.getStatusInfo();
+        return statusInfo != null ? statusInfo.getReasonPhrase() : "";
+    }
+}
@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.google.common.hash.Hashing;
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import org.infinispan.Cache;
+
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Creates the {@link JenkinsClient} for a Jenkins URL and keeps the state which lets later clients for the same
+ * Jenkins skip round trips: the URL requests end up at after the OpenShift OAuth redirect, the CSRF crumb of each
+ * user, the credentials known to exist and the builds currently being triggered.
+ * <p>
+ * All clients share the pooled connections of the {@link io.fabric8.forge.generator.metrics.Metrics#JENKINS} web
+ * client family.
+ */
+@Singleton
+public class JenkinsClients {
+    private final ConcurrentMap<String, CompletableFuture<Void>> triggers = new ConcurrentHashMap<>();
+
+    @Inject
+    private CacheFacade cacheManager;
+
+    public JenkinsClients() {
+    }
+
+    public JenkinsClients(CacheFacade cacheManager) {
+        this.cacheManager = cacheManager;
+    }
+
+    /**
+     * Returns a client for the given Jenkins which authenticates with the given header
+     */
+    public JenkinsClient getClient(String jenkinsUrl, String authHeader) {
+        return new JenkinsClient(this, jenkinsUrl, authHeader);
+    }
+
+    protected Cache<String, String> getResolvedUrls() {
+        return cacheManager.getCache(CacheNames.JENKINS_RESOLVED_URLS);
+    }
+
+    protected Cache<String, String> getCrumbs() {
+        return cacheManager.getCache(CacheNames.JENKINS_CRUMBS);
+    }
+
+    protected Cache<String, String> getCredentials() {
+        return cacheManager.getCache(CacheNames.JENKINS_CREDENTIALS);
+    }
+
+    /**
+     * Returns the builds being triggered keyed by job URL and user so that concurrent triggers of the same job by the
+     * same user are coalesced
+     */
+    protected ConcurrentMap<String, CompletableFuture<Void>> getTriggers() {
+        return triggers;
+    }
+
+    protected static String fingerprint(String... values) {
+        return Hashing.sha256().hashString(String.join("\n", values), StandardCharsets.UTF_8).toString();
+    }
+}
@@ -0,0 +1,99 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.kubernetes.api.KubernetesHelper;
+import io.fabric8.kubernetes.api.ServiceNames;
+import io.fabric8.kubernetes.api.model.ObjectReference;
+import io.fabric8.kubernetes.api.model.Secret;
+import io.fabric8.kubernetes.api.model.ServiceAccount;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.utils.Strings;
+
+import java.util.List;
+import java.util.Map;
+
+import static io.fabric8.forge.generator.kubernetes.Base64Helper.base64decode;
+
+/**
+ * Looks up the Jenkins service URL and the bot service account token of a namespace caching the results per
+ * namespace and user identity so that repeat imports into the same tenant do not need to discover them again.
+ * <p>
+ * The bot tokens are secrets so they are never returned stale by the {@link CacheFacade}.
+ */
+public class JenkinsDiscovery {
+
+    /**
+     * Returns the external URL of the Jenkins service in the given namespace
+     */
+    public static String getJenkinsURL(CacheFacade cacheManager, KubernetesClient kubernetesClient, String namespace) {
+        return cacheManager.computeIfAbsent(CacheNames.JENKINS_SERVICE_URLS, cacheKey(kubernetesClient, namespace),
+                k -> KubernetesHelper.getServiceURL(kubernetesClient, ServiceNames.JENKINS, namespace, "https", true));
+    }
+
+    /**
+     * Returns the token of the given service account in the namespace or null if it has none
+     */
+    public static String getServiceAccountToken(CacheFacade cacheManager, KubernetesClient kubernetesClient, String namespace, String serviceAccountName) {
+        // lets cache a blank token too so that we don't keep looking for a missing service account
+        String token = cacheManager.computeIfAbsent(CacheNames.JENKINS_BOT_SECRETS, cacheKey(kubernetesClient, namespace) + "/" + serviceAccountName,
+                k -> {
+                    String answer = loadServiceAccountToken(kubernetesClient, namespace, serviceAccountName);
+                    return answer != null ? answer : "";
+                });
+        return Strings.isNullOrBlank(token) ? null : token;
+    }
+
+    /**
+     * Loads the token by following the secrets of the service account rather than listing all the secrets in the
+     * namespace
+     */
+    protected static String loadServiceAccountToken(KubernetesClient kubernetesClient, String namespace, String serviceAccountName) {
+        ServiceAccount serviceAccount = kubernetesClient.serviceAccounts().inNamespace(namespace).withName(serviceAccountName).get();
+        if (serviceAccount == null) {
+            return null;
+        }
+        List<ObjectReference> secrets = serviceAccount.getSecrets();
+        if (secrets != null) {
+            for (ObjectReference reference : secrets) {
+                String name = reference.getName();
+                if (name != null && name.startsWith(serviceAccountName + "-token-")) {
+                    Secret secret = kubernetesClient.secrets().inNamespace(namespace).withName(name).get();
+                    if (secret != null) {
+                        Map<String, String> data = secret.getData();
+                        if (data != null) {
+                            String token = data.get("token");
+                            if (token != null) {
+                                return base64decode(token);
+                            }
+                        }
+                    }
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the key of the namespace for the current user; using the identity of the user rather than their token
+     */
+    protected static String cacheKey(KubernetesClient kubernetesClient, String namespace) {
+        return namespace + "/" + KubernetesClientHelper.getUserCacheKey(kubernetesClient);
+    }
+}
@@ -0,0 +1,346 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableSet;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+/**
+ * The repositories matched by a github organisation job held as a sorted set of names rather than as a
+ * <code>a|b|c</code> string so that merging a repository is an idempotent <code>O(log n)</code> insert.
+ * <p>
+ * The regular expression for the job is rendered with the common prefixes of the names factored out, e.g.
+ * <code>foo-(?:api|ui)|bar</code>, so that the pattern filter does not try every alternative in turn. Alternatives
+ * of a parsed pattern which are not plain names or groups of names (such as hand written regular expressions) are
+ * kept as they are.
+ */
+public class JobPattern {
+    private static final String META_CHARACTERS = "\\.[]{}()*+?^$|";
+    private static final int MAX_EXPANSION = 100000;
+
+    private final NavigableSet<String> names = new TreeSet<>();
+    private final NavigableSet<String> patterns = new TreeSet<>();
+
+    /**
+     * Returns the job pattern for the given repository names
+     */
+    public static JobPattern of(Iterable<String> repositoryNames) {
+        JobPattern answer = new JobPattern();
+        for (String name : repositoryNames) {
+            answer.add(name);
+        }
+        return answer;
+    }
+
+    /**
+     * Parses a job pattern previously rendered by {@link #toRegex()} or created by joining repository names with
+     * <code>|</code>
+     */
+    public static JobPattern parse(String pattern) {
+        JobPattern answer = new JobPattern();
+        if (pattern == null) {
+            return answer;
+        }
+        for (String alternative : splitAlternatives(pattern.trim())) {
+            alternative = alternative.trim();
+            if (alternative.isEmpty()) {
+                continue;
+            }
+            List<String> expansion = new Parser(alternative).expand();
+            if (expansion == null) {
+                answer.patterns.add(alternative);
+            } else {
+                for (String name : expansion) {
+                    answer.add(name);
+                }
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Adds the repository name returning false if it is blank or already present
+     */
+    public boolean add(String repositoryName) {
+        if (repositoryName == null) {
+            return false;
+        }
+        String name = repositoryName.trim();
+        return !name.isEmpty() && names.add(name);
+    }
+
+    /**
+     * Adds the names and patterns of the given job pattern returning true if any were not already present
+     */
+    public boolean addAll(JobPattern that) {
+        boolean answer = names.addAll(that.names);
+        for (String pattern : that.patterns) {
+            answer |= patterns.add(pattern);
+        }
+        return answer;
+    }
+
+    public boolean contains(String repositoryName) {
+        return names.contains(repositoryName);
+    }
+
+    public boolean isEmpty() {
+        return names.isEmpty() && patterns.isEmpty();
+    }
+
+    public SortedSet<String> getRepositoryNames() {
+        return Collections.unmodifiableSortedSet(names);
+    }
+
+    public SortedSet<String> getPatterns() {
+        return Collections.unmodifiableSortedSet(patterns);
+    }
+
+    /**
+     * Returns the regular expression matching the repositories with the common prefixes factored out
+     */
+    public String toRegex() {
+        StringBuilder builder = new StringBuilder();
+        List<String> sorted = new ArrayList<>(names);
+        int from = 0;
+        int size = sorted.size();
+        while (from < size) {
+            int to = endOfGroup(sorted, from, size, 0);
+            if (builder.length() > 0) {
+                builder.append('|');
+            }
+            appendPrefixGroup(builder, sorted, from, to, 0);
+            from = to;
+        }
+        for (String pattern : patterns) {
+            if (builder.length() > 0) {
+                builder.append('|');
+            }
+            builder.append(pattern);
+        }
+        return builder.toString();
+    }
+
+    @Override
+    public String toString() {
+        return toRegex();
+    }
+
+    /**
+     * Appends the names in the range which all share the same character at the given depth
+     */
+    private static void appendPrefixGroup(StringBuilder builder, List<String> sorted, int from, int to, int depth) {
+        String first = sorted.get(from);
+        int common = commonPrefixLength(first, sorted.get(to - 1));
+        appendEscaped(builder, first, depth, common);
+        appendSuffixes(builder, sorted, from, to, common);
+    }
+
+    /**
+     * Appends the alternation of the suffixes after the common prefix of the names in the range
+     */
+    private static void appendSuffixes(StringBuilder builder, List<String> sorted, int from, int to, int depth) {
+        // the names are sorted so a name which ends at the prefix comes first
+        boolean optional = sorted.get(from).length() == depth;
+        if (optional) {
+            from++;
+        }
+        if (from == to) {
+            return;
+        }
+        int groupEnd = endOfGroup(sorted, from, to, depth);
+        boolean alternation = groupEnd < to;
+        if (optional || alternation) {
+            builder.append("(?:");
+        }
+        while (from < to) {
+            groupEnd = endOfGroup(sorted, from, to, depth);
+            appendPrefixGroup(builder, sorted, from, groupEnd, depth);
+            if (groupEnd < to) {
+                builder.append('|');
+            }
+            from = groupEnd;
+        }
+        if (optional || alternation) {
+            builder.append(')');
+        }
+        if (optional) {
+            builder.append('?');
+        }
+    }
+
+    /**
+     * Returns the end of the range of names which have the same character at the given depth as the first one
+     */
+    private static int endOfGroup(List<String> sorted, int from, int to, int depth) {
+        char ch = sorted.get(from).charAt(depth);
+        int answer = from + 1;
+        while (answer < to && sorted.get(answer).charAt(depth) == ch) {
+            answer++;
+        }
+        return answer;
+    }
+
+    private static int commonPrefixLength(String a, String b) {
+        int size = Math.min(a.length(), b.length());
+        int answer = 0;
+        while (answer < size && a.charAt(answer) == b.charAt(answer)) {
+            answer++;
+        }
+        return answer;
+    }
+
+    private static void appendEscaped(StringBuilder builder, String text, int from, int to) {
+        for (int i = from; i < to; i++) {
+            char ch = text.charAt(i);
+            if (META_CHARACTERS.indexOf(ch) >= 0) {
+                builder.append('\\');
+            }
+            builder.append(ch);
+        }
+    }
+
+    /**
+     * Splits the pattern on the <code>|</code> characters which are not escaped or inside a group or class
+     */
+    protected static List<String> splitAlternatives(String pattern) {
+        List<String> answer = new ArrayList<>();
+        int depth = 0;
+        boolean inClass = false;
+        int start = 0;
+        for (int i = 0, size = pattern.length(); i < size; i++) {
+            char ch = pattern.charAt(i);
+            if (ch == '\\') {
+                i++;
+            } else if (inClass) {
+                inClass = ch != ']';
+            } else if (ch == '[') {
+                inClass = true;
+            } else if (ch == '(') {
+                depth++;
+            } else if (ch == ')') {
+                depth--;
+            } else if (ch == '|' && depth == 0) {
+                answer.add(pattern.substring(start, i));
+                start = i + 1;
+            }
+        }
+        answer.add(pattern.substring(start));
+        return answer;
+    }
+
+    /**
+     * Expands an alternative made of literal characters and optional non capturing groups into the names it matches
+     */
+    private static class Parser {
+        private final String text;
+        private int index;
+
+        Parser(String text) {
+            this.text = text;
+        }
+
+        /**
+         * Returns the names matched or null if the text is not a finite set of names
+         */
+        List<String> expand() {
+            List<String> answer = alternation();
+            if (answer == null || index != text.length()) {
+                return null;
+            }
+            return answer;
+        }
+
+        private List<String> alternation() {
+            List<String> answer = sequence();
+            while (answer != null && index < text.length() && text.charAt(index) == '|') {
+                index++;
+                List<String> next = sequence();
+                if (next == null || answer.size() + next.size() > MAX_EXPANSION) {
+                    return null;
+                }
+                answer.addAll(next);
+            }
+            return answer;
+        }
+
+        private List<String> sequence() {
+            List<String> answer = new ArrayList<>();
+            answer.add("");
+            StringBuilder literal = new StringBuilder();
+            while (index < text.length()) {
+                char ch = text.charAt(index);
+                if (ch == '|' || ch == ')') {
+                    break;
+                }
+                if (ch == '\\') {
+                    if (index + 1 >= text.length() || Character.isLetterOrDigit(text.charAt(index + 1))) {
+                        // character classes such as \d are not names
+                        return null;
+                    }
+                    literal.append(text.charAt(index + 1));
+                    index += 2;
+                } else if (ch == '(') {
+                    if (!text.startsWith("(?:", index)) {
+                        return null;
+                    }
+                    index += 3;
+                    List<String> group = alternation();
+                    if (group == null || index >= text.length() || text.charAt(index) != ')') {
+                        return null;
+                    }
+                    index++;
+                    if (index < text.length() && text.charAt(index) == '?') {
+                        group.add(0, "");
+                        index++;
+                    }
+                    answer = concatenate(answer, literal.toString(), group);
+                    if (answer == null) {
+                        return null;
+                    }
+                    literal.setLength(0);
+                } else if (ch != '.' && META_CHARACTERS.indexOf(ch) >= 0) {
+                    // plain names may contain an unescaped '.' but no other regular expression syntax
+                    return null;
+                } else {
+                    literal.append(ch);
+                    index++;
+                }
+            }
+            List<String> tail = new ArrayList<>(1);
+            tail.add("");
+            return concatenate(answer, literal.toString(), tail);
+        }
+
+        private static List<String> concatenate(List<String> prefixes, String literal, List<String> suffixes) {
+            if ((long) prefixes.size() * suffixes.size() > MAX_EXPANSION) {
+                return null;
+            }
+            List<String> answer = new ArrayList<>(prefixes.size() * suffixes.size());
+            for (String prefix : prefixes) {
+                for (String suffix : suffixes) {
+                    answer.add(prefix + literal + suffix);
+                }
+            }
+            return answer;
+        }
+    }
+}
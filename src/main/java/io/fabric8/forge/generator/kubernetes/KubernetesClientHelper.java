@@ -30,7 +30,6 @@ import io.fabric8.kubernetes.api.spaces.Space;
 import io.fabric8.kubernetes.api.spaces.Spaces;
 import io.fabric8.kubernetes.client.Config;
 import io.fabric8.kubernetes.client.ConfigBuilder;
-import io.fabric8.kubernetes.client.DefaultKubernetesClient;
 import io.fabric8.kubernetes.client.KubernetesClient;
 import io.fabric8.openshift.api.model.Project;
 import io.fabric8.openshift.api.model.ProjectList;
@@ -47,11 +46,24 @@ import java.util.ArrayList;
 import java.util.List;
 import java.util.SortedSet;
 import java.util.TreeSet;
+import java.util.concurrent.TimeUnit;
 
 /**
  */
 public class KubernetesClientHelper {
     private static final transient Logger LOG = LoggerFactory.getLogger(KubernetesClientHelper.class);
+    private static final String CURRENT_CLUSTER_IDENTITY = "";
+    private static final KubernetesClientPool CLIENT_POOL = new KubernetesClientPool(
+            EnvironmentVariables.getIntegerValue(EnvironmentVariables.KUBERNETES_CLIENT_POOL_SIZE, 200),
+            TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue(EnvironmentVariables.KUBERNETES_CLIENT_IDLE_TIMEOUT, 600)));
+
+    /**
+     * Closes the pooled kubernetes clients when the addon shuts down
+     */
+    public static void closeClientPool() {
+        LOG.info("closing the kubernetes client pool");
+        CLIENT_POOL.close();
+    }
 
     public static KubernetesClient createKubernetesClient(UIContext context) {
         if (!Configuration.isOnPremise()) {
@@ -67,14 +79,20 @@ public class KubernetesClientHelper {
      * @return the kubernetes client for the current user
      */
     public static KubernetesClient createKubernetesClientForCurrentCluster() {
-        return new DefaultKubernetesClient();
+        return CLIENT_POOL.getClient(CURRENT_CLUSTER_IDENTITY, new ConfigBuilder().build(), null);
     }
 
     /**
      * Creates the kubernetes client for the SSO signed in user
      */
     public static KubernetesClient createKubernetesClientForSSO(UIContext context) {
-        String authHeader = TokenHelper.getMandatoryAuthHeader(context);
+        return createKubernetesClientForSSO(TokenHelper.getMandatoryAuthHeader(context));
+    }
+
+    /**
+     * Returns the pooled kubernetes client for the SSO signed in user with the given authorization header
+     */
+    public static KubernetesClient createKubernetesClientForSSO(String authHeader) {
         String openshiftToken = TokenHelper.getMandatoryTokenFor(KeycloakEndpoint.GET_OPENSHIFT_TOKEN, authHeader);
         String openShiftApiUrl = System.getenv(EnvironmentVariables.OPENSHIFT_API_URL);
         if (Strings.isNullOrBlank(openShiftApiUrl)) {
@@ -85,7 +103,9 @@ public class KubernetesClientHelper {
                 // TODO until we figure out the trust thing lets ignore warnings
                 withTrustCerts(true).
                 build();
-        return new DefaultKubernetesClient(config);
+        // lets exchange the token again if OpenShift rejects it
+        return CLIENT_POOL.getClient(TokenHelper.getUserIdentity(authHeader), config,
+                () -> TokenHelper.evictTokenFor(KeycloakEndpoint.GET_OPENSHIFT_TOKEN, authHeader));
     }
 
     /**
@@ -127,9 +147,10 @@ public class KubernetesClientHelper {
      * Returns a unique key specific to the current user request
      */
     public static String getUserCacheKey(KubernetesClient kubernetesClient) {
-        String answer = kubernetesClient.getConfiguration().getOauthToken();
-        if (Strings.isNotBlank(answer)) {
-            return answer;
+        String token = kubernetesClient.getConfiguration().getOauthToken();
+        if (Strings.isNotBlank(token)) {
+            // lets never use the token itself as a key
+            return TokenHelper.getUserIdentity(token);
         }
         LOG.warn("Could not find the OAuthToken to use as a user cache key!");
         return "TODO";
@@ -0,0 +1,315 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.metrics.MetricsInterceptor;
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.utils.HttpClientUtils;
+import io.fabric8.utils.Strings;
+import okhttp3.ConnectionPool;
+import okhttp3.Dispatcher;
+import okhttp3.Interceptor;
+import okhttp3.OkHttpClient;
+import okhttp3.Request;
+import okhttp3.Response;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A bounded pool of kubernetes clients keyed by the user identity and master URL which all share a single
+ * OkHttp connection pool and thread pool.
+ * <p>
+ * The configuration of a pooled client never changes so that it can be used by many steps at once; when a client is
+ * requested with a new OAuth token (such as after the keycloak token was refreshed) a new client replaces it in the pool.
+ * Clients which were replaced, have not been used for the idle timeout or are the least recently used when there are
+ * too many are evicted and closed once they have been idle for the idle timeout.
+ */
+public class KubernetesClientPool {
+    private static final transient Logger LOG = LoggerFactory.getLogger(KubernetesClientPool.class);
+
+    private final ConcurrentMap<PoolKey, PooledClient> clients = new ConcurrentHashMap<>();
+    private final Set<PooledClient> evicted = ConcurrentHashMap.newKeySet();
+    private final OkHttpClient transport;
+    private final int maxClients;
+    private final long idleTimeoutMillis;
+    private volatile long lastSweep = System.currentTimeMillis();
+    private volatile boolean closed;
+
+    public KubernetesClientPool(int maxClients, long idleTimeoutMillis) {
+        this.maxClients = maxClients;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.transport = new OkHttpClient.Builder().
+                connectionPool(new ConnectionPool(Math.max(5, maxClients / 4), 5, TimeUnit.MINUTES)).
+                build();
+    }
+
+    /**
+     * Returns the pooled client for the given user identity and configuration, creating it if required
+     *
+     * @param identity       the identity of the user such as the subject of their keycloak token
+     * @param config         the configuration of the client; a different OAuth token replaces the pooled client
+     * @param onUnauthorized invoked if the master rejects a request with a 401 or null
+     */
+    public KubernetesClient getClient(String identity, Config config, Runnable onUnauthorized) {
+        if (closed) {
+            throw new IllegalStateException("The kubernetes client pool has been closed");
+        }
+        long now = System.currentTimeMillis();
+        PoolKey key = new PoolKey(identity, config.getMasterUrl());
+        PooledClient answer = clients.compute(key, (k, client) -> {
+            if (client != null && client.hasToken(config.getOauthToken())) {
+                return client;
+            }
+            if (client != null) {
+                // steps may still be using the client so lets close it once they are done with it
+                retire(client);
+            }
+            return createClient(config);
+        });
+        answer.onUnauthorized = onUnauthorized;
+        answer.lastAccess = now;
+        evictClients(now);
+        return answer.client;
+    }
+
+    public int size() {
+        return clients.size();
+    }
+
+    /**
+     * Returns the number of clients which have been evicted but are not closed yet
+     */
+    public int evictedSize() {
+        return evicted.size();
+    }
+
+    /**
+     * Closes all the clients and the shared HTTP transport
+     */
+    public void close() {
+        closed = true;
+        for (PooledClient client : clients.values()) {
+            client.close();
+        }
+        for (PooledClient client : evicted) {
+            client.close();
+        }
+        clients.clear();
+        evicted.clear();
+        transport.dispatcher().executorService().shutdown();
+        transport.connectionPool().evictAll();
+    }
+
+    protected PooledClient createClient(Config config) {
+        PooledClient answer = new PooledClient(config.getOauthToken());
+        // each client has its own dispatcher so that closing it only cancels its own calls
+        Dispatcher dispatcher = new Dispatcher(transport.dispatcher().executorService());
+        dispatcher.setMaxRequestsPerHost(64);
+        OkHttpClient httpClient = HttpClientUtils.createHttpClient(config).newBuilder().
+                dispatcher(dispatcher).
+                connectionPool(transport.connectionPool()).
+                addInterceptor(new MetricsInterceptor(Metrics.OPENSHIFT)).
+                addInterceptor(answer).
+                build();
+        answer.dispatcher = dispatcher;
+        answer.client = new PooledKubernetesClient(httpClient, config, answer);
+        return answer;
+    }
+
+    /**
+     * Evicts clients which have been idle for too long and the least recently used clients if there are too many
+     * then closes the evicted clients which are now idle
+     */
+    protected void evictClients(long now) {
+        if (now - lastSweep > Math.min(idleTimeoutMillis, TimeUnit.MINUTES.toMillis(1))) {
+            lastSweep = now;
+            for (Map.Entry<PoolKey, PooledClient> entry : clients.entrySet()) {
+                if (entry.getValue().isIdle(now, idleTimeoutMillis)) {
+                    evict(entry.getKey(), entry.getValue());
+                }
+            }
+            for (PooledClient client : evicted) {
+                if (client.isIdle(now, idleTimeoutMillis) && evicted.remove(client)) {
+                    client.close();
+                }
+            }
+        }
+        while (clients.size() > maxClients) {
+            Map.Entry<PoolKey, PooledClient> oldest = null;
+            for (Map.Entry<PoolKey, PooledClient> entry : clients.entrySet()) {
+                if (oldest == null || entry.getValue().lastAccess < oldest.getValue().lastAccess) {
+                    oldest = entry;
+                }
+            }
+            if (oldest == null) {
+                break;
+            }
+            evict(oldest.getKey(), oldest.getValue());
+        }
+    }
+
+    protected void evict(PoolKey key, PooledClient client) {
+        if (clients.remove(key, client)) {
+            LOG.debug("Evicting the kubernetes client for " + key.masterUrl);
+            retire(client);
+        }
+    }
+
+    protected void retire(PooledClient client) {
+        client.retired = true;
+        evicted.add(client);
+    }
+
+    protected static final class PoolKey {
+        private final String identity;
+        private final String masterUrl;
+
+        PoolKey(String identity, String masterUrl) {
+            this.identity = identity;
+            this.masterUrl = masterUrl;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PoolKey that = (PoolKey) o;
+            return Objects.equals(identity, that.identity) && Objects.equals(masterUrl, that.masterUrl);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(identity, masterUrl);
+        }
+    }
+
+    /**
+     * A pooled client which applies its OAuth token to each request and keeps track of the requests in flight
+     */
+    protected static final class PooledClient implements Interceptor {
+        private final String oauthToken;
+        private final AtomicInteger requestsInFlight = new AtomicInteger();
+        private volatile Runnable onUnauthorized;
+        private volatile long lastAccess = System.currentTimeMillis();
+        private volatile boolean retired;
+        private volatile boolean closed;
+        private PooledKubernetesClient client;
+        private Dispatcher dispatcher;
+
+        PooledClient(String oauthToken) {
+            this.oauthToken = oauthToken;
+        }
+
+        boolean hasToken(String token) {
+            return Strings.isNullOrBlank(token) || token.equals(oauthToken);
+        }
+
+        boolean isIdle(long now, long idleTimeoutMillis) {
+            return requestsInFlight.get() == 0 && now - lastAccess > idleTimeoutMillis;
+        }
+
+        boolean isRetired() {
+            return retired;
+        }
+
+        boolean isClosed() {
+            return closed;
+        }
+
+        void beginRequest() throws IOException {
+            requestsInFlight.incrementAndGet();
+            if (closed) {
+                requestsInFlight.decrementAndGet();
+                throw new IOException("The kubernetes client has been closed");
+            }
+            lastAccess = System.currentTimeMillis();
+        }
+
+        void endRequest() {
+            lastAccess = System.currentTimeMillis();
+            requestsInFlight.decrementAndGet();
+        }
+
+        void close() {
+            if (!closed) {
+                closed = true;
+                dispatcher.cancelAll();
+            }
+        }
+
+        @Override
+        public Response intercept(Chain chain) throws IOException {
+            beginRequest();
+            try {
+                Request request = chain.request();
+                if (Strings.isNotBlank(oauthToken)) {
+                    request = request.newBuilder().header("Authorization", "Bearer " + oauthToken).build();
+                }
+                Response response = chain.proceed(request);
+                Runnable callback = onUnauthorized;
+                if (response.code() == 401 && callback != null) {
+                    callback.run();
+                }
+                return response;
+            } finally {
+                endRequest();
+            }
+        }
+    }
+
+    /**
+     * A kubernetes client whose HTTP transport is shared with the other pooled clients.
+     * <p>
+     * Closing a client which is still pooled leaves it open for the other steps of the user as the pool closes it
+     * once it has been evicted and is idle; closing an evicted client closes it straight away.
+     */
+    protected static class PooledKubernetesClient extends DefaultKubernetesClient {
+        private final PooledClient pooledClient;
+
+        public PooledKubernetesClient(OkHttpClient httpClient, Config config, PooledClient pooledClient) {
+            super(httpClient, config);
+            this.pooledClient = pooledClient;
+        }
+
+        PooledClient getPooledClient() {
+            return pooledClient;
+        }
+
+        @Override
+        public void close() {
+            if (pooledClient.isRetired()) {
+                pooledClient.close();
+            }
+        }
+    }
+}
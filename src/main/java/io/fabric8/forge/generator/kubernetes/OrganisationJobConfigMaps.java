@@ -0,0 +1,222 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.api.model.DoneableConfigMap;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.dsl.Resource;
+import io.fabric8.kubernetes.api.KubernetesNames;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.inject.Singleton;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Semaphore;
+
+/**
+ * Adds repositories to the github organisation job ConfigMap of a git owner.
+ * <p>
+ * Concurrent additions by the same user for the same ConfigMap are coalesced so that the repositories queued while a
+ * write is in progress are merged in by a single following write using the client of that user. Each write merges into
+ * the latest ConfigMap and replaces it with its <code>resourceVersion</code> locked, so a write which races with
+ * another user or replica is retried against the new version rather than dropping its repositories. Unchanged
+ * ConfigMaps are not written at all.
+ */
+@Singleton
+public class OrganisationJobConfigMaps {
+    private static final transient Logger LOG = LoggerFactory.getLogger(OrganisationJobConfigMaps.class);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int HTTP_CONFLICT = 409;
+
+    private final ConcurrentMap<String, Batch> batches = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, WriteLock> locks = new ConcurrentHashMap<>();
+
+    /**
+     * Ensures the organisation job ConfigMap for the owner exists and its pattern includes the given repository
+     * names or patterns, returning the ConfigMap once they have been written
+     */
+    public ConfigMap addRepositories(KubernetesClient kubernetes, String namespace, String gitOwnerName, Collection<String> gitRepoNames) {
+        String configMapName = KubernetesNames.convertToKubernetesName(gitOwnerName, false);
+        String key = namespace + "/" + configMapName + "/" + KubernetesClientHelper.getUserCacheKey(kubernetes);
+        Batch batch;
+        while (true) {
+            batch = batches.computeIfAbsent(key, k -> new Batch());
+            if (batch.add(gitOwnerName, gitRepoNames)) {
+                break;
+            }
+            // the batch is already being written so lets start the next one
+            batches.remove(key, batch);
+        }
+
+        WriteLock lock = locks.compute(key, (k, l) -> {
+            WriteLock answer = l != null ? l : new WriteLock();
+            answer.users++;
+            return answer;
+        });
+        try {
+            Deadline.acquire(lock.permit, "waiting to update ConfigMap " + configMapName);
+            try {
+                // another caller may have written our batch while we waited
+                if (!batch.result.isDone()) {
+                    batches.remove(key, batch);
+                    List<String> repoNames = batch.close();
+                    try {
+                        batch.result.complete(write(kubernetes, namespace, configMapName, batch.owner, repoNames));
+                    } catch (RuntimeException e) {
+                        batch.result.completeExceptionally(e);
+                    }
+                }
+            } finally {
+                lock.permit.release();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted waiting to update ConfigMap " + configMapName, e);
+        } finally {
+            // lets not keep a lock for every ConfigMap and user we have ever written
+            locks.computeIfPresent(key, (k, l) -> --l.users == 0 ? null : l);
+        }
+        try {
+            return Deadline.join(batch.result, "waiting to update ConfigMap " + configMapName);
+        } catch (CompletionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of ConfigMaps which are being written or waited for
+     */
+    protected int lockCount() {
+        return locks.size();
+    }
+
+    protected ConfigMap write(KubernetesClient kubernetes, String namespace, String configMapName, String gitOwnerName, List<String> gitRepoNames) {
+        for (int attempt = 1; ; attempt++) {
+            try {
+                ConfigMap cm = getConfigMap(kubernetes, namespace, configMapName);
+                if (cm == null) {
+                    Map<String, String> data = new HashMap<>();
+                    data.put(ConfigMapKeys.ROOT_JOB, "true");
+                    data.put(ConfigMapKeys.TRIGGER_ON_CHANGE, "true");
+                    data.put(ConfigMapKeys.CONFIG_XML, GitHubOrgJobConfig.merge(null, gitOwnerName, gitRepoNames));
+                    ConfigMap newConfigMap = new ConfigMapBuilder().withNewMetadata().withName(configMapName).
+                            addToLabels("provider", "fabric8").
+                            addToLabels("openshift.io/jenkins", "job").endMetadata().withData(data).build();
+                    return createConfigMap(kubernetes, namespace, newConfigMap);
+                }
+
+                Map<String, String> data = cm.getData() == null ? new HashMap<>() : new HashMap<>(cm.getData());
+                String currentXml = data.get(ConfigMapKeys.CONFIG_XML);
+                String configXml = GitHubOrgJobConfig.merge(currentXml, gitOwnerName, gitRepoNames);
+                if (Objects.equals(currentXml, configXml) && "true".equals(data.get(ConfigMapKeys.ROOT_JOB))
+                        && "true".equals(data.get(ConfigMapKeys.TRIGGER_ON_CHANGE))) {
+                    LOG.debug("Organisation Job ConfigMap " + namespace + "/" + configMapName + " already includes " + gitRepoNames);
+                    return cm;
+                }
+                data.put(ConfigMapKeys.ROOT_JOB, "true");
+                data.put(ConfigMapKeys.TRIGGER_ON_CHANGE, "true");
+                data.put(ConfigMapKeys.CONFIG_XML, configXml);
+                cm.setData(data);
+                return replaceConfigMap(kubernetes, namespace, cm);
+            } catch (KubernetesClientException e) {
+                if (e.getCode() == HTTP_CONFLICT && attempt < MAX_ATTEMPTS) {
+                    LOG.debug("Conflict writing the Organisation Job ConfigMap " + namespace + "/" + configMapName + " on attempt " + attempt + " so merging again");
+                    continue;
+                }
+                throw new IllegalStateException("Failed to update the Organisation Job ConfigMap " + namespace + "/" + configMapName + " due to: " + e, e);
+            }
+        }
+    }
+
+    protected ConfigMap getConfigMap(KubernetesClient kubernetes, String namespace, String configMapName) {
+        return Metrics.call(Metrics.OPENSHIFT, "getConfigMap", () -> configMapResource(kubernetes, namespace, configMapName).get());
+    }
+
+    protected ConfigMap createConfigMap(KubernetesClient kubernetes, String namespace, ConfigMap configMap) {
+        String configMapName = configMap.getMetadata().getName();
+        return Metrics.call(Metrics.OPENSHIFT, "createConfigMap", () -> configMapResource(kubernetes, namespace, configMapName).create(configMap));
+    }
+
+    /**
+     * Replaces the ConfigMap failing with a conflict if it has changed since it was read
+     */
+    protected ConfigMap replaceConfigMap(KubernetesClient kubernetes, String namespace, ConfigMap configMap) {
+        String configMapName = configMap.getMetadata().getName();
+        String resourceVersion = configMap.getMetadata().getResourceVersion();
+        return Metrics.call(Metrics.OPENSHIFT, "replaceConfigMap", () -> configMapResource(kubernetes, namespace, configMapName).
+                lockResourceVersion(resourceVersion).replace(configMap));
+    }
+
+    private static Resource<ConfigMap, DoneableConfigMap> configMapResource(KubernetesClient kubernetes, String namespace, String configMapName) {
+        return kubernetes.configMaps().inNamespace(namespace).withName(configMapName);
+    }
+
+    /**
+     * The lock of a ConfigMap and user which is removed once nobody is using it
+     */
+    protected static class WriteLock {
+        private final Semaphore permit = new Semaphore(1);
+        private int users;
+    }
+
+    /**
+     * The repositories queued for the next write of a ConfigMap
+     */
+    protected static class Batch {
+        private final Set<String> repoNames = new LinkedHashSet<>();
+        private final CompletableFuture<ConfigMap> result = new CompletableFuture<>();
+        private String owner;
+        private boolean closed;
+
+        /**
+         * Adds the repositories returning false if the batch has already been taken for writing
+         */
+        synchronized boolean add(String gitOwnerName, Collection<String> gitRepoNames) {
+            if (closed) {
+                return false;
+            }
+            owner = gitOwnerName;
+            repoNames.addAll(gitRepoNames);
+            return true;
+        }
+
+        synchronized List<String> close() {
+            closed = true;
+            return new ArrayList<>(repoNames);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Tracks the progress of the stages of provisioning the BuildConfigs, Jenkins jobs and webhooks of an import
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class ProvisioningJob {
+    public static final String PENDING = "pending";
+    public static final String RUNNING = "running";
+    public static final String SUCCEEDED = "succeeded";
+    public static final String FAILED = "failed";
+
+    private final String id;
+    private final String owner;
+    private final Map<String, String> stages = new LinkedHashMap<>();
+    private String status = PENDING;
+    private String currentStage;
+    private String message;
+    private CreateBuildConfigStatusDTO result;
+
+    public ProvisioningJob(String owner) {
+        this.id = UUID.randomUUID().toString();
+        this.owner = owner;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return "ProvisioningJob{" +
+                "id='" + id + '\'' +
+                ", status='" + status + '\'' +
+                ", stages=" + stages +
+                ", message='" + message + '\'' +
+                '}';
+    }
+
+    /**
+     * Marks the current stage as done and starts the given stage
+     */
+    public synchronized void startStage(String stage) {
+        completeStage();
+        status = RUNNING;
+        currentStage = stage;
+        stages.put(stage, RUNNING);
+    }
+
+    public synchronized void succeeded(String message, CreateBuildConfigStatusDTO result) {
+        completeStage();
+        this.status = SUCCEEDED;
+        this.message = message;
+        this.result = result;
+    }
+
+    public synchronized void failed(String message) {
+        if (currentStage != null) {
+            stages.put(currentStage, FAILED);
+            currentStage = null;
+        }
+        this.status = FAILED;
+        this.message = message;
+    }
+
+    private void completeStage() {
+        if (currentStage != null) {
+            stages.put(currentStage, SUCCEEDED);
+            currentStage = null;
+        }
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    @JsonIgnore
+    public String getOwner() {
+        return owner;
+    }
+
+    public synchronized String getStatus() {
+        return status;
+    }
+
+    /**
+     * Returns a copy of the state of each stage started so far in the order they were started
+     */
+    public synchronized Map<String, String> getStages() {
+        return new LinkedHashMap<>(stages);
+    }
+
+    public synchronized String getMessage() {
+        return message;
+    }
+
+    public synchronized CreateBuildConfigStatusDTO getResult() {
+        return result;
+    }
+}
@@ -0,0 +1,135 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.keycloak.TokenHelper;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.result.Failed;
+import org.jboss.forge.addon.ui.result.Result;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.annotation.PreDestroy;
+import javax.inject.Inject;
+import javax.inject.Singleton;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs provisioning pipelines in the background and keeps their {@link ProvisioningJob} progress in the
+ * {@link CacheNames#PROVISIONING_JOBS} cache so that it can be polled by id.
+ * <p>
+ * The jobs run on their own bounded pool rather than the shared {@link ExecutorFacade} as they fan out their calls
+ * onto the shared executor and wait for them; each job has its own {@link Deadline} so a stuck dependency cannot
+ * keep a job running forever.
+ */
+@Singleton
+public class ProvisioningJobs {
+    private static final transient Logger LOG = LoggerFactory.getLogger(ProvisioningJobs.class);
+
+    @Inject
+    private CacheFacade cacheManager;
+
+    private final ThreadPoolExecutor executorService;
+    private final long timeoutMillis;
+
+    @Inject
+    @Singleton
+    public ProvisioningJobs() {
+        this(EnvironmentVariables.getIntegerValue(EnvironmentVariables.PROVISIONING_THREADS, 4),
+                EnvironmentVariables.getIntegerValue(EnvironmentVariables.PROVISIONING_QUEUE, 32),
+                TimeUnit.SECONDS.toMillis(EnvironmentVariables.getIntegerValue(EnvironmentVariables.PROVISIONING_TIMEOUT, 10 * 60)));
+    }
+
+    public ProvisioningJobs(int threads, int queueSize, long timeoutMillis) {
+        this.executorService = new ThreadPoolExecutor(Math.max(1, threads), Math.max(1, threads), 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(Math.max(1, queueSize)), new ExecutorFacade.NamedThreadFactory("fabric8-generator-provisioning"));
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    @PreDestroy
+    public void destroy() {
+        LOG.info("stopping provisioning jobs");
+        executorService.shutdownNow();
+    }
+
+    /**
+     * Returns the owner of the jobs started by the current user; their identity rather than their token
+     */
+    public static String getOwner(UIContext context) {
+        return TokenHelper.getUserIdentity(TokenHelper.getMandatoryAuthHeader(context));
+    }
+
+    /**
+     * Registers the job and runs the pipeline in the background recording its outcome on the job
+     *
+     * @throws RejectedExecutionException if too many jobs are already waiting to run
+     */
+    public void submit(ProvisioningJob job, Callable<Result> pipeline) {
+        cacheManager.<String, ProvisioningJob>getCache(CacheNames.PROVISIONING_JOBS).put(job.getId(), job);
+        try {
+            executorService.execute(() -> runWithDeadline(job, pipeline));
+        } catch (RejectedExecutionException e) {
+            cacheManager.<String, ProvisioningJob>getCache(CacheNames.PROVISIONING_JOBS).remove(job.getId());
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the job with the given id if it was started by the given owner
+     */
+    public ProvisioningJob getJob(String id, String owner) {
+        ProvisioningJob job = cacheManager.<String, ProvisioningJob>getCache(CacheNames.PROVISIONING_JOBS).get(id);
+        if (job != null && job.getOwner().equals(owner)) {
+            return job;
+        }
+        return null;
+    }
+
+    protected void runWithDeadline(ProvisioningJob job, Callable<Result> pipeline) {
+        Deadline previous = Deadline.enter(Deadline.after(timeoutMillis));
+        try {
+            run(job, pipeline);
+        } finally {
+            Deadline.restore(previous);
+        }
+    }
+
+    protected static void run(ProvisioningJob job, Callable<Result> pipeline) {
+        try {
+            Result result = pipeline.call();
+            if (result instanceof Failed) {
+                job.failed(result.getMessage());
+            } else {
+                Object entity = result != null ? result.getEntity().orElse(null) : null;
+                job.succeeded(result != null ? result.getMessage() : null,
+                        entity instanceof CreateBuildConfigStatusDTO ? (CreateBuildConfigStatusDTO) entity : null);
+            }
+        } catch (Throwable e) {
+            LOG.error("Provisioning job " + job.getId() + " failed: " + e, e);
+            job.failed(e.toString());
+        }
+    }
+}
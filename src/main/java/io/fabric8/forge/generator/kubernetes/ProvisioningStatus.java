@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
+import org.jboss.forge.addon.ui.command.UICommand;
+import org.jboss.forge.addon.ui.context.UIBuilder;
+import org.jboss.forge.addon.ui.context.UIContext;
+import org.jboss.forge.addon.ui.context.UIExecutionContext;
+import org.jboss.forge.addon.ui.context.UIValidationContext;
+import org.jboss.forge.addon.ui.input.UIInput;
+import org.jboss.forge.addon.ui.metadata.UICommandMetadata;
+import org.jboss.forge.addon.ui.metadata.WithAttributes;
+import org.jboss.forge.addon.ui.result.Result;
+import org.jboss.forge.addon.ui.result.Results;
+import org.jboss.forge.addon.ui.util.Categories;
+import org.jboss.forge.addon.ui.util.Metadata;
+
+import javax.inject.Inject;
+
+/**
+ * A command which reports the progress of an asynchronous provisioning job started by {@link CreateBuildConfigStep}
+ */
+@Metered
+@WithDeadline
+public class ProvisioningStatus implements UICommand {
+    @Inject
+    @WithAttributes(label = "Job", required = true, description = "The id of the provisioning job")
+    private UIInput<String> jobId;
+    @Inject
+    private ProvisioningJobs provisioningJobs;
+
+    @Override
+    public UICommandMetadata getMetadata(UIContext context) {
+        return Metadata.forCommand(getClass()).name("fabric8: Provisioning Status")
+                .description("Reports the progress of an asynchronous provisioning job")
+                .category(Categories.create("Fabric8"));
+    }
+
+    @Override
+    public boolean isEnabled(UIContext context) {
+        return true;
+    }
+
+    @Override
+    public void initializeUI(UIBuilder builder) throws Exception {
+        builder.add(jobId);
+    }
+
+    @Override
+    public void validate(UIValidationContext context) {
+    }
+
+    @Override
+    public Result execute(UIExecutionContext context) throws Exception {
+        ProvisioningJob job = provisioningJobs.getJob(jobId.getValue(), ProvisioningJobs.getOwner(context.getUIContext()));
+        if (job == null) {
+            return Results.fail("No provisioning job " + jobId.getValue());
+        }
+        return Results.success("Provisioning job " + job.getId() + " is " + job.getStatus(), job);
+    }
+}
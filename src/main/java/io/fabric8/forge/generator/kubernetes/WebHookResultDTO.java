@@ -0,0 +1,71 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import io.fabric8.forge.generator.git.WebHookStatus;
+
+/**
+ * The outcome of registering the CI webhook on a single git repository
+ */
+@JsonInclude(JsonInclude.Include.NON_EMPTY)
+public class WebHookResultDTO {
+    private String gitRepoName;
+    private WebHookStatus status;
+    private String error;
+
+    public WebHookResultDTO() {
+    }
+
+    public WebHookResultDTO(String gitRepoName, WebHookStatus status) {
+        this.gitRepoName = gitRepoName;
+        this.status = status;
+    }
+
+    @Override
+    public String toString() {
+        return "WebHookResultDTO{" +
+                "gitRepoName='" + gitRepoName + '\'' +
+                ", status=" + status +
+                ", error='" + error + '\'' +
+                '}';
+    }
+
+    public String getGitRepoName() {
+        return gitRepoName;
+    }
+
+    public void setGitRepoName(String gitRepoName) {
+        this.gitRepoName = gitRepoName;
+    }
+
+    public WebHookStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(WebHookStatus status) {
+        this.status = status;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+}
@@ -0,0 +1,68 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * A lock free latency histogram with fixed buckets in seconds
+ */
+public class Histogram {
+    public static final double[] BUCKETS = {0.005, 0.01, 0.025, 0.05, 0.1, 0.25, 0.5, 1, 2.5, 5, 10, 30, 60};
+
+    private final LongAdder[] bucketCounts = new LongAdder[BUCKETS.length + 1];
+    private final LongAdder count = new LongAdder();
+    private final LongAdder sumNanos = new LongAdder();
+
+    public Histogram() {
+        for (int i = 0; i < bucketCounts.length; i++) {
+            bucketCounts[i] = new LongAdder();
+        }
+    }
+
+    public void record(long nanos) {
+        double seconds = nanos / 1e9;
+        int idx = 0;
+        while (idx < BUCKETS.length && seconds > BUCKETS[idx]) {
+            idx++;
+        }
+        bucketCounts[idx].increment();
+        count.increment();
+        sumNanos.add(nanos);
+    }
+
+    public long getCount() {
+        return count.sum();
+    }
+
+    public double getSumSeconds() {
+        return sumNanos.sum() / 1e9;
+    }
+
+    /**
+     * Returns the cumulative counts of each bucket with the last element being the +Inf bucket
+     */
+    public long[] getCumulativeCounts() {
+        long[] answer = new long[bucketCounts.length];
+        long total = 0;
+        for (int i = 0; i < bucketCounts.length; i++) {
+            total += bucketCounts[i].sum();
+            answer[i] = total;
+        }
+        return answer;
+    }
+}
@@ -0,0 +1,450 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.executor.DeadlineExceededException;
+import io.fabric8.forge.generator.executor.DependencyGuard;
+import io.fabric8.forge.generator.executor.DependencyUnavailableException;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.kohsuke.github.HttpException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.ws.rs.WebApplicationException;
+import java.io.FileNotFoundException;
+import java.io.InterruptedIOException;
+import java.lang.management.ManagementFactory;
+import java.net.SocketTimeoutException;
+import java.nio.channels.ClosedByInterruptException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.ToIntFunction;
+
+/**
+ * Records latency histograms of the wizard steps and of the calls to the services the generator depends on.
+ * <p>
+ * The metrics are exposed over JMX as <code>io.fabric8.forge.generator:type=Metrics</code> and, when the
+ * <code>GENERATOR_METRICS_PORT</code> environment variable is set, over HTTP in the Prometheus text format
+ * via {@link MetricsServer}.
+ */
+public class Metrics {
+    private static final transient Logger LOG = LoggerFactory.getLogger(Metrics.class);
+
+    public static final String STEP_METRIC = "generator_step_duration_seconds";
+    public static final String DEPENDENCY_METRIC = "generator_dependency_call_duration_seconds";
+    public static final String CIRCUIT_STATE_METRIC = "generator_dependency_circuit_state";
+    public static final String BULKHEAD_IN_FLIGHT_METRIC = "generator_dependency_bulkhead_in_flight";
+    public static final String BULKHEAD_QUEUED_METRIC = "generator_dependency_bulkhead_queued";
+
+    // dependencies
+    public static final String GITHUB = "github";
+    public static final String KEYCLOAK = "keycloak";
+    public static final String WIT = "wit";
+    public static final String OPENSHIFT = "openshift";
+    public static final String JENKINS = "jenkins";
+    public static final String GIT_CLONE = "git-clone";
+    public static final String GIT_PUSH = "git-push";
+
+    // outcomes
+    public static final String SUCCESS = "success";
+    public static final String FAILURE = "failure";
+    public static final String CLIENT_ERROR = "client_error";
+    public static final String SERVER_ERROR = "server_error";
+    public static final String REJECTED = "rejected";
+    public static final String IGNORED = "ignored";
+
+    public static final String OBJECT_NAME = "io.fabric8.forge.generator:type=Metrics";
+
+    private static final ConcurrentMap<MetricKey, Histogram> histograms = new ConcurrentHashMap<>();
+
+    static {
+        registerMBean();
+    }
+
+    /**
+     * Records the duration of a phase such as <code>initializeUI</code> or <code>execute</code> of a wizard step
+     */
+    public static void recordStep(String step, String phase, String outcome, long nanos) {
+        histogram(STEP_METRIC, "step", step, "phase", phase, "outcome", outcome).record(nanos);
+    }
+
+    /**
+     * Records the duration of a call to a dependency
+     */
+    public static void recordCall(String dependency, String operation, String outcome, long nanos) {
+        histogram(DEPENDENCY_METRIC, "dependency", dependency, "operation", operation, "outcome", outcome).record(nanos);
+    }
+
+    /**
+     * Returns the outcome of a HTTP call with the given status code
+     */
+    public static String httpOutcome(int status) {
+        if (status >= 500) {
+            return SERVER_ERROR;
+        } else if (status >= 400) {
+            return CLIENT_ERROR;
+        }
+        return SUCCESS;
+    }
+
+    /**
+     * Returns the outcome of a call which failed with the given exception; 4xx responses such as a 404 for a missing
+     * file or repository are client errors which do not count as failures of the dependency. Calls which ran out of
+     * the request's time, were cancelled or failed because another dependency was unavailable are ignored so that
+     * one user's deadline cannot open the circuit breaker for everyone.
+     */
+    public static String outcome(Throwable e) {
+        if (Thread.currentThread().isInterrupted()) {
+            return IGNORED;
+        }
+        for (Throwable t = e; t != null; t = t.getCause()) {
+            if (t instanceof FileNotFoundException) {
+                return CLIENT_ERROR;
+            }
+            if (isIgnored(t)) {
+                return IGNORED;
+            }
+            int status = 0;
+            if (t instanceof HttpException) {
+                status = ((HttpException) t).getResponseCode();
+            } else if (t instanceof KubernetesClientException) {
+                status = ((KubernetesClientException) t).getCode();
+            } else if (t instanceof WebApplicationException && ((WebApplicationException) t).getResponse() != null) {
+                status = ((WebApplicationException) t).getResponse().getStatus();
+            }
+            if (status >= 400) {
+                return status < 500 ? CLIENT_ERROR : SERVER_ERROR;
+            }
+        }
+        return FAILURE;
+    }
+
+    /**
+     * Returns true if the exception says nothing about the health of the dependency; a socket timeout only counts
+     * when it was not capped by the deadline of the current request
+     */
+    protected static boolean isIgnored(Throwable t) {
+        if (t instanceof DeadlineExceededException || t instanceof DependencyUnavailableException
+                || t instanceof InterruptedException || t instanceof CancellationException
+                || t instanceof ClosedByInterruptException) {
+            return true;
+        }
+        if (t instanceof SocketTimeoutException) {
+            Deadline deadline = Deadline.current();
+            return deadline != null && deadline.isExpired();
+        }
+        return t instanceof InterruptedIOException;
+    }
+
+    /**
+     * Invokes the given call to a dependency recording its duration and outcome
+     */
+    public static <T, E extends Exception> T call(String dependency, String operation, MeteredCall<T, E> call) throws E {
+        DependencyGuard guard = acquire(dependency, operation);
+        long start = System.nanoTime();
+        String outcome = FAILURE;
+        try {
+            T answer = call.call();
+            outcome = SUCCESS;
+            return answer;
+        } catch (Exception e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            release(guard, dependency, operation, outcome, start);
+        }
+    }
+
+    /**
+     * Invokes the given HTTP call to a dependency recording its duration and the outcome of its status code
+     */
+    public static <T, E extends Exception> T call(String dependency, String operation, MeteredCall<T, E> call,
+                                                  ToIntFunction<T> statusCode) throws E {
+        DependencyGuard guard = acquire(dependency, operation);
+        long start = System.nanoTime();
+        String outcome = FAILURE;
+        try {
+            T answer = call.call();
+            if (answer != null) {
+                outcome = httpOutcome(statusCode.applyAsInt(answer));
+            }
+            return answer;
+        } catch (Exception e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            release(guard, dependency, operation, outcome, start);
+        }
+    }
+
+    /**
+     * Invokes the given call to a dependency recording its duration and outcome
+     */
+    public static <E extends Exception> void run(String dependency, String operation, MeteredRunnable<E> block) throws E {
+        DependencyGuard guard = acquire(dependency, operation);
+        long start = System.nanoTime();
+        String outcome = FAILURE;
+        try {
+            block.run();
+            outcome = SUCCESS;
+        } catch (Exception e) {
+            outcome = outcome(e);
+            throw e;
+        } finally {
+            release(guard, dependency, operation, outcome, start);
+        }
+    }
+
+    /**
+     * Acquires the guard of a dependency before calling it recording a rejected call if its circuit breaker is open
+     * or its bulkhead is full
+     *
+     * @throws DependencyUnavailableException if the call was rejected
+     * @throws DeadlineExceededException      if the deadline of the current request has passed
+     */
+    public static DependencyGuard acquire(String dependency, String operation) {
+        Deadline.checkCurrent("before calling " + dependency + " " + operation);
+        DependencyGuard guard = DependencyGuard.get(dependency);
+        try {
+            guard.acquire();
+        } catch (DependencyUnavailableException e) {
+            recordCall(dependency, operation, REJECTED, 0);
+            throw e;
+        }
+        return guard;
+    }
+
+    /**
+     * Releases the guard of a dependency after calling it recording the duration and outcome of the call
+     */
+    public static void release(DependencyGuard guard, String dependency, String operation, String outcome, long startNanos) {
+        if (IGNORED.equals(outcome)) {
+            guard.releaseIgnored();
+        } else {
+            guard.release(FAILURE.equals(outcome) || SERVER_ERROR.equals(outcome));
+        }
+        recordCall(dependency, operation, outcome, System.nanoTime() - startNanos);
+    }
+
+    /**
+     * Returns the number of recorded calls by metric labels
+     */
+    public static Map<String, Long> getCounts(String metricName) {
+        Map<String, Long> answer = new TreeMap<>();
+        for (Map.Entry<MetricKey, Histogram> entry : histograms.entrySet()) {
+            MetricKey key = entry.getKey();
+            if (key.name.equals(metricName)) {
+                answer.put(key.labelText(), entry.getValue().getCount());
+            }
+        }
+        return answer;
+    }
+
+    /**
+     * Returns all the metrics in the Prometheus text exposition format
+     */
+    public static String toPrometheusText() {
+        Map<MetricKey, Histogram> sorted = new TreeMap<>(histograms);
+        StringBuilder builder = new StringBuilder();
+        String lastName = null;
+        for (Map.Entry<MetricKey, Histogram> entry : sorted.entrySet()) {
+            MetricKey key = entry.getKey();
+            Histogram histogram = entry.getValue();
+            if (!key.name.equals(lastName)) {
+                lastName = key.name;
+                builder.append("# TYPE ").append(key.name).append(" histogram\n");
+            }
+            String labels = key.labelText();
+            long[] counts = histogram.getCumulativeCounts();
+            for (int i = 0; i < counts.length; i++) {
+                String le = i < Histogram.BUCKETS.length ? Double.toString(Histogram.BUCKETS[i]) : "+Inf";
+                builder.append(key.name).append("_bucket{").append(labels).append(",le=\"").append(le).append("\"} ").
+                        append(counts[i]).append("\n");
+            }
+            builder.append(key.name).append("_sum{").append(labels).append("} ").append(histogram.getSumSeconds()).append("\n");
+            builder.append(key.name).append("_count{").append(labels).append("} ").append(histogram.getCount()).append("\n");
+        }
+        appendGuardGauges(builder);
+        return builder.toString();
+    }
+
+    /**
+     * Returns the circuit breaker state of each guarded dependency
+     */
+    public static Map<String, String> getCircuitBreakerStates() {
+        Map<String, String> answer = new TreeMap<>();
+        for (DependencyGuard guard : DependencyGuard.getGuards().values()) {
+            answer.put(guard.getName(), guard.getCircuitBreaker().getState().name());
+        }
+        return answer;
+    }
+
+    /**
+     * Appends the circuit breaker state (0 closed, 1 half open, 2 open) and bulkhead usage of each dependency
+     */
+    protected static void appendGuardGauges(StringBuilder builder) {
+        Map<String, DependencyGuard> guards = DependencyGuard.getGuards();
+        if (guards.isEmpty()) {
+            return;
+        }
+        builder.append("# TYPE ").append(CIRCUIT_STATE_METRIC).append(" gauge\n");
+        for (DependencyGuard guard : guards.values()) {
+            builder.append(CIRCUIT_STATE_METRIC).append("{dependency=\"").append(guard.getName()).append("\"} ").
+                    append(guard.getCircuitBreaker().getState().ordinal()).append("\n");
+        }
+        builder.append("# TYPE ").append(BULKHEAD_IN_FLIGHT_METRIC).append(" gauge\n");
+        for (DependencyGuard guard : guards.values()) {
+            builder.append(BULKHEAD_IN_FLIGHT_METRIC).append("{dependency=\"").append(guard.getName()).append("\"} ").
+                    append(guard.getBulkhead().getInFlight()).append("\n");
+        }
+        builder.append("# TYPE ").append(BULKHEAD_QUEUED_METRIC).append(" gauge\n");
+        for (DependencyGuard guard : guards.values()) {
+            builder.append(BULKHEAD_QUEUED_METRIC).append("{dependency=\"").append(guard.getName()).append("\"} ").
+                    append(guard.getBulkhead().getQueued()).append("\n");
+        }
+    }
+
+    public static void reset() {
+        histograms.clear();
+    }
+
+    protected static Histogram histogram(String name, String... labels) {
+        return histograms.computeIfAbsent(new MetricKey(name, labels), k -> new Histogram());
+    }
+
+    private static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new MetricsMBeanImpl(), objectName);
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to register the metrics MBean: " + e, e);
+        }
+    }
+
+    /**
+     * A call to a dependency
+     */
+    public interface MeteredCall<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    /**
+     * A call to a dependency which does not return a value
+     */
+    public interface MeteredRunnable<E extends Exception> {
+        void run() throws E;
+    }
+
+    /**
+     * The JMX view of the metrics
+     */
+    public interface MetricsMXBean {
+        String getPrometheusText();
+
+        Map<String, Long> getStepCounts();
+
+        Map<String, Long> getDependencyCallCounts();
+
+        Map<String, String> getCircuitBreakerStates();
+
+        void reset();
+    }
+
+    private static class MetricsMBeanImpl implements MetricsMXBean {
+        @Override
+        public String getPrometheusText() {
+            return toPrometheusText();
+        }
+
+        @Override
+        public Map<String, Long> getStepCounts() {
+            return getCounts(STEP_METRIC);
+        }
+
+        @Override
+        public Map<String, Long> getDependencyCallCounts() {
+            return getCounts(DEPENDENCY_METRIC);
+        }
+
+        @Override
+        public Map<String, String> getCircuitBreakerStates() {
+            return Metrics.getCircuitBreakerStates();
+        }
+
+        @Override
+        public void reset() {
+            Metrics.reset();
+        }
+    }
+
+    private static final class MetricKey implements Comparable<MetricKey> {
+        private final String name;
+        private final String labelText;
+
+        MetricKey(String name, String[] labels) {
+            this.name = name;
+            StringBuilder builder = new StringBuilder();
+            for (int i = 0; i + 1 < labels.length; i += 2) {
+                if (builder.length() > 0) {
+                    builder.append(",");
+                }
+                String value = labels[i + 1] != null ? labels[i + 1] : "";
+                builder.append(labels[i]).append("=\"").append(value.replace("\\", "\\\\").replace("\"", "\\\"")).append("\"");
+            }
+            this.labelText = builder.toString();
+        }
+
+        String labelText() {
+            return labelText;
+        }
+
+        @Override
+        public int compareTo(MetricKey that) {
+            int answer = name.compareTo(that.name);
+            if (answer == 0) {
+                answer = labelText.compareTo(that.labelText);
+            }
+            return answer;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof MetricKey)) {
+                return false;
+            }
+            MetricKey that = (MetricKey) o;
+            return name.equals(that.name) && labelText.equals(that.labelText);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * name.hashCode() + labelText.hashCode();
+        }
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import io.fabric8.forge.generator.executor.DeadlineExceededException;
+import io.fabric8.forge.generator.executor.DependencyGuard;
+import io.fabric8.forge.generator.executor.DependencyUnavailableException;
+import okhttp3.Interceptor;
+import okhttp3.Request;
+import okhttp3.Response;
+
+import java.io.IOException;
+
+/**
+ * Records the duration and outcome of the HTTP calls made by an OkHttp client such as the kubernetes client
+ */
+public class MetricsInterceptor implements Interceptor {
+    private final String dependency;
+
+    public MetricsInterceptor(String dependency) {
+        this.dependency = dependency;
+    }
+
+    @Override
+    public Response intercept(Chain chain) throws IOException {
+        Request request = chain.request();
+        DependencyGuard guard;
+        try {
+            guard = Metrics.acquire(dependency, request.method());
+        } catch (DependencyUnavailableException | DeadlineExceededException e) {
+            throw new IOException(e.getMessage(), e);
+        }
+        long start = System.nanoTime();
+        String outcome = Metrics.FAILURE;
+        try {
+            Response response = chain.proceed(request);
+            outcome = Metrics.httpOutcome(response.code());
+            return response;
+        } catch (IOException | RuntimeException e) {
+            outcome = Metrics.outcome(e);
+            throw e;
+        } finally {
+            Metrics.release(guard, dependency, request.method(), outcome, start);
+        }
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.forge.generator.EnvironmentVariables;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.Executors;
+
+/**
+ * Serves the {@link Metrics} in the Prometheus text format on <code>/metrics</code> when the
+ * <code>GENERATOR_METRICS_PORT</code> environment variable is set
+ */
+public class MetricsServer {
+    private static final transient Logger LOG = LoggerFactory.getLogger(MetricsServer.class);
+
+    private static HttpServer server;
+
+    public static synchronized void startIfConfigured() {
+        int port = EnvironmentVariables.getIntegerValue(EnvironmentVariables.METRICS_PORT, -1);
+        if (port <= 0 || server != null) {
+            return;
+        }
+        try {
+            server = HttpServer.create(new InetSocketAddress(port), 0);
+            server.createContext("/metrics", exchange -> {
+                byte[] data = Metrics.toPrometheusText().getBytes(StandardCharsets.UTF_8);
+                exchange.getResponseHeaders().set("Content-Type", "text/plain; version=0.0.4; charset=utf-8");
+                exchange.sendResponseHeaders(200, data.length);
+                try (OutputStream out = exchange.getResponseBody()) {
+                    out.write(data);
+                }
+            });
+            server.setExecutor(Executors.newSingleThreadExecutor(r -> {
+                Thread thread = new Thread(r, "fabric8-generator-metrics");
+                thread.setDaemon(true);
+                return thread;
+            }));
+            server.start();
+            LOG.info("Serving metrics on port " + port + " at /metrics");
+        } catch (IOException e) {
+            server = null;
+            LOG.warn("Failed to start the metrics server on port " + port + ": " + e, e);
+        }
+    }
+}
@@ -0,0 +1,63 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import org.jboss.forge.addon.ui.result.Failed;
+
+import javax.interceptor.AroundInvoke;
+import javax.interceptor.Interceptor;
+import javax.interceptor.InvocationContext;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Records the duration and outcome of the wizard phases of {@link Metered} steps
+ */
+@Metered
+@Interceptor
+public class StepMetricsInterceptor {
+    private static final Set<String> PHASES = new HashSet<>(Arrays.asList("initializeUI", "validate", "next", "execute"));
+
+    @AroundInvoke
+    public Object recordStep(InvocationContext context) throws Exception {
+        String phase = context.getMethod().getName();
+        if (!PHASES.contains(phase)) {
+            return context.proceed();
+        }
+        long start = System.nanoTime();
+        String outcome = Metrics.FAILURE;
+        try {
+            Object answer = context.proceed();
+            if (!(answer instanceof Failed)) {
+                outcome = Metrics.SUCCESS;
+            }
+            return answer;
+        } finally {
+            Metrics.recordStep(stepName(context.getTarget()), phase, outcome, System.nanoTime() - start);
+        }
+    }
+
+    protected static String stepName(Object target) {
+        Class<?> clazz = target.getClass();
+        // ignore the generated proxy subclasses
+        while (clazz.getSuperclass() != null && clazz.getSimpleName().contains("$")) {
+            clazz = clazz.getSuperclass();
+        }
+        return clazz.getSimpleName();
+    }
+}
@@ -18,6 +18,8 @@ package io.fabric8.forge.generator.pipeline;
 
 import io.fabric8.forge.addon.utils.StopWatch;
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
 import io.fabric8.utils.Files;
 import org.jboss.forge.addon.projects.Project;
 import org.jboss.forge.addon.projects.ProjectFactory;
@@ -40,6 +42,8 @@ import static io.fabric8.forge.generator.AttributeMapKeys.PROJECT_DIRECTORY_FILE
 
 /**
  */
+@Metered
+@WithDeadline
 public abstract class AbstractDevToolsCommand extends AbstractProjectCommand {
     public static final String CATEGORY = "Obsidian";
 
@@ -17,12 +17,11 @@
 package io.fabric8.forge.generator.pipeline;
 
 import io.fabric8.forge.addon.utils.StopWatch;
+import io.fabric8.forge.generator.che.ProjectCoordinates;
 import io.fabric8.utils.Files;
-import io.fabric8.utils.IOHelpers;
 import org.jboss.forge.addon.ui.context.UIContext;
 
 import java.io.File;
-import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -57,20 +56,16 @@ public abstract class AbstractProjectOverviewCommand extends AbstractDevToolsCom
                                overview.addBuilder("maven");
                                overview.addPerspective("forge");
                                // check if we have camel/funktion/and others in the maven project
-                               try {
-                                   String text = IOHelpers.readFully(file);
-                                   // just do a quick scan for dependency names as using forge project API is slower
-                                   if (text.contains("org.apache.camel")) {
-                                       overview.addPerspective("camel");
-                                   }
-                                   if (text.contains("io.fabric8.funktion")) {
-                                       overview.addPerspective("funktion");
-                                   }
-                                   if (text.contains("fabric8-profiles")) {
-                                       overview.addPerspective("fabric8-profiles");
-                                   }
-                               } catch (IOException e) {
-                                   // ignore
+                               // just extract the plugin and dependency coordinates as using forge project API is slower
+                               ProjectCoordinates coordinates = ProjectCoordinates.loadPom(file);
+                               if (coordinates.anyCoordinateContains("org.apache.camel")) {
+                                   overview.addPerspective("camel");
+                               }
+                               if (coordinates.anyCoordinateContains("io.fabric8.funktion")) {
+                                   overview.addPerspective("funktion");
+                               }
+                               if (coordinates.anyCoordinateContains("fabric8-profiles")) {
+                                   overview.addPerspective("fabric8-profiles");
                                }
                                return true;
                            }
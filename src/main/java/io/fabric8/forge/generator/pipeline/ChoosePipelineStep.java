@@ -22,6 +22,8 @@ import io.fabric8.forge.addon.utils.StopWatch;
 import io.fabric8.forge.generator.AttributeMapKeys;
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.executor.WithDeadline;
 import io.fabric8.forge.generator.git.GitClonedRepoDetails;
 import io.fabric8.forge.generator.github.AbstractGithubStep;
 import io.fabric8.forge.generator.github.GitHubFacade;
@@ -31,6 +33,7 @@ import io.fabric8.forge.generator.kubernetes.SpaceDTO;
 import io.fabric8.forge.generator.quickstart.BoosterDTO;
 import io.fabric8.forge.generator.tenant.NamespaceDTO;
 import io.fabric8.forge.generator.tenant.Tenants;
+import io.fabric8.forge.generator.utils.ObjectMappers;
 import io.fabric8.forge.generator.versions.VersionHelper;
 import io.fabric8.kubernetes.api.KubernetesHelper;
 import io.fabric8.kubernetes.client.KubernetesClient;
@@ -66,17 +69,24 @@ import javax.inject.Inject;
 import java.io.File;
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 
 import static io.fabric8.forge.generator.che.CheStackDetector.parseXmlFile;
 import static io.fabric8.forge.generator.keycloak.TokenHelper.getMandatoryAuthHeader;
 import static io.fabric8.forge.generator.utils.DomUtils.addText;
 import static io.fabric8.forge.generator.utils.DomUtils.createChild;
 import static io.fabric8.forge.generator.utils.DomUtils.getOrCreateChild;
-import static io.fabric8.kubernetes.api.KubernetesHelper.loadYaml;
 
+@WithDeadline
 public class ChoosePipelineStep extends AbstractProjectOverviewCommand implements UIWizardStep {
     public static final String JENKINSFILE = "Jenkinsfile";
     private static final transient Logger LOG = LoggerFactory.getLogger(ChoosePipelineStep.class);
+    private static final String POM_UPDATES = "pom-update";
     private static final String DEFAULT_MAVEN_FLOW = "workflows/maven/CanaryReleaseStageAndApprovePromote.groovy";
     protected Cache<String, List<NamespaceDTO>> namespacesCache;
     protected Cache<String, CachedSpaces> spacesCache;
@@ -96,6 +106,8 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
     private JenkinsPipelineLibrary jenkinsPipelineLibrary;
     @Inject
     private CacheFacade cacheManager;
+    @Inject
+    private ExecutorFacade executorFacade;
     private KubernetesClient kubernetesClient;
     private String namespace = KubernetesHelper.defaultNamespace();
 
@@ -140,7 +152,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         this.namespacesCache = cacheManager.getCache(CacheNames.USER_NAMESPACES);
         this.spacesCache = cacheManager.getCache(CacheNames.USER_SPACES);
         final String key = KubernetesClientHelper.getUserCacheKey(kubernetesClient);
-        List<NamespaceDTO> namespaces = namespacesCache.computeIfAbsent(key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(uiContext)));
+        List<NamespaceDTO> namespaces = cacheManager.computeIfAbsent(CacheNames.USER_NAMESPACES, key, k -> Tenants.loadNamespaces(getMandatoryAuthHeader(uiContext)));
 
         StopWatch watch = new StopWatch();
 
@@ -228,7 +240,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
 
     private List<SpaceDTO> loadCachedSpaces(String key) {
         String namespace = kubernetesSpace.getValue();
-        CachedSpaces cachedSpaces = spacesCache.computeIfAbsent(key, k -> new CachedSpaces(namespace, KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace)));
+        CachedSpaces cachedSpaces = cacheManager.computeIfAbsent(CacheNames.USER_SPACES, key, k -> new CachedSpaces(namespace, KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace)));
         if (!cachedSpaces.getNamespace().equals(namespace)) {
             cachedSpaces.setNamespace(namespace);
             cachedSpaces.setSpaces(KubernetesClientHelper.loadSpaces(this.kubernetesClient, namespace));
@@ -294,37 +306,101 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         if (folders.isEmpty()) {
             status.warning(LOG, "Cannot copy the pipeline to the project as no folders found!");
         }
+        // overrrideJenkinsFile is null for quickstart wizard flow
+        // the user in import wizard flow has not opt out for the override
+        boolean updateFiles = (isImportRepositoryFlow(attributeMap) && overrideJenkinsFile.getValue() == true)
+                || isQuickstartFlow(attributeMap);
+
+        String pipelineText = null;
+        if (value != null && !folders.isEmpty()) {
+            String pipelinePath = value.getValue();
+            if (Strings.isNullOrBlank(pipelinePath)) {
+                status.warning(LOG, "Cannot copy the pipeline to the project as the pipeline has no Jenkinsfile configured!");
+            } else {
+                pipelineText = getPipelineContent(pipelinePath, context.getUIContext());
+                if (Strings.isNullOrBlank(pipelineText)) {
+                    status.warning(LOG, "Cannot copy the pipeline to the project as no pipeline text could be loaded!");
+                    pipelineText = null;
+                }
+            }
+        }
+
+        StopWatch watch = new StopWatch();
+        List<StatusDTO> folderStatuses = processProjectFolders(folders, pipelineText, updateFiles, getSpaceId());
+        for (StatusDTO folderStatus : folderStatuses) {
+            status.addAll(folderStatus);
+        }
+        LOG.debug("processing " + folders.size() + " project folders took " + watch.taken());
+        return Results.success("Added Jenkinsfile to project", status);
+    }
+
+    /**
+     * Writes the Jenkinsfile and updates the pom.xml files of each folder and of its child modules concurrently.
+     * <p>
+     * Returns the status of each folder in the same order as the given folders
+     */
+    protected List<StatusDTO> processProjectFolders(List<File> folders, String pipelineText, boolean updateFiles, String spaceId) throws InterruptedException {
+        List<StatusDTO> answer = new ArrayList<>();
+        // lets update the poms in this thread if too many updates are already queued
+        Executor pomUpdates = executorFacade.executor(POM_UPDATES);
+        CompletionService<PomUpdate> completionService = new ExecutorCompletionService<>(task -> {
+            try {
+                pomUpdates.execute(task);
+            } catch (RejectedExecutionException e) {
+                task.run();
+            }
+        });
+        Map<Future<PomUpdate>, PomUpdate> pending = new HashMap<>();
+        Set<File> visitedPoms = new HashSet<>();
         for (File basedir : folders) {
+            StatusDTO folderStatus = new StatusDTO();
+            answer.add(folderStatus);
             if (basedir == null || !basedir.isDirectory()) {
-                status.warning(LOG, "Cannot copy the pipeline to the project as no basedir!");
-            } else {
-                if (value != null) {
-                    String pipelinePath = value.getValue();
-                    if (Strings.isNullOrBlank(pipelinePath)) {
-                        status.warning(LOG, "Cannot copy the pipeline to the project as the pipeline has no Jenkinsfile configured!");
-                    } else {
-                        String pipelineText = getPipelineContent(pipelinePath, context.getUIContext());
-                        if (Strings.isNullOrBlank(pipelineText)) {
-                            status.warning(LOG, "Cannot copy the pipeline to the project as no pipeline text could be loaded!");
-                        } else {
-                            if((isImportRepositoryFlow(attributeMap) && overrideJenkinsFile.getValue() == true)
-                                    || isQuickstartFlow(attributeMap)) {
-                                // overrrideJenkinsFile is null for quickstart wizard flow
-                                // the user in import wizard flow has not opt out for the override
-                                File newFile = new File(basedir, ProjectConfigs.LOCAL_FLOW_FILE_NAME);
-                                Files.writeToFile(newFile, pipelineText.getBytes());
-                                LOG.debug("Written Jenkinsfile to " + newFile);
-                            }
+                folderStatus.warning(LOG, "Cannot copy the pipeline to the project as no basedir!");
+            } else if (updateFiles) {
+                PomUpdate update = new PomUpdate(new File(basedir, "pom.xml"), folderStatus, true);
+                visitedPoms.add(update.getPom().getAbsoluteFile());
+                pending.put(completionService.submit(() -> {
+                    if (pipelineText != null) {
+                        File newFile = new File(basedir, ProjectConfigs.LOCAL_FLOW_FILE_NAME);
+                        try {
+                            Files.writeToFile(newFile, pipelineText.getBytes());
+                            LOG.debug("Written Jenkinsfile to " + newFile);
+                        } catch (IOException e) {
+                            update.getStatus().warning(LOG, "Failed to write Jenkinsfile " + newFile + ": " + e, e);
                         }
                     }
+                    return update.process(spaceId);
+                }), update);
+            }
+        }
+
+        try {
+            while (!pending.isEmpty()) {
+                Future<PomUpdate> future = completionService.take();
+                PomUpdate update = pending.remove(future);
+                try {
+                    future.get();
+                    // lets process the child modules concurrently now we know them
+                    for (File modulePom : update.getModulePoms()) {
+                        if (visitedPoms.add(modulePom.getAbsoluteFile())) {
+                            PomUpdate moduleUpdate = new PomUpdate(modulePom, update.getFolderStatus(), false);
+                            pending.put(completionService.submit(() -> moduleUpdate.process(spaceId)), moduleUpdate);
+                        }
+                    }
+                } catch (ExecutionException e) {
+                    Throwable cause = e.getCause();
+                    update.getStatus().addWarning("Failed to update " + update.getPom() + ": " + cause);
+                    LOG.warn("Failed to update " + update.getPom() + ": " + cause, cause);
                 }
-                if((isImportRepositoryFlow(attributeMap) && overrideJenkinsFile.getValue() == true)
-                        || isQuickstartFlow(attributeMap)) {
-                    updatePomVersions(uiContext, status, basedir);
-                }
+                update.getFolderStatus().addAll(update.getStatus());
+            }
+        } finally {
+            for (Future<PomUpdate> future : pending.keySet()) {
+                future.cancel(true);
             }
         }
-        return Results.success("Added Jenkinsfile to project", status);
+        return answer;
     }
 
     private List<File> getProjectFolders(UIContext uiContext) {
@@ -346,21 +422,27 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         return answer;
     }
 
-    private void updatePomVersions(UIContext uiContext, StatusDTO status, File basedir) {
-        File pom = new File(basedir, "pom.xml");
-        updatePomVersions(pom, status, getSpaceId());
+    public static void updatePomVersions(File pom, StatusDTO status, String spaceId) {
+        updatePomVersions(pom, status, spaceId, true);
     }
 
-    public static void updatePomVersions(File pom, StatusDTO status, String spaceId) {
+    /**
+     * Updates the fabric8 versions in the given pom.xml returning the pom.xml files of the child modules it declares.
+     * <p>
+     * The fabric8-maven-plugin is only added if its missing when updating a root pom
+     */
+    public static List<File> updatePomVersions(File pom, StatusDTO status, String spaceId, boolean rootPom) {
+        List<File> modulePoms = new ArrayList<>();
         if (pom.exists() && pom.isFile()) {
             Document doc;
             try {
                 doc = parseXmlFile(pom);
             } catch (Exception e) {
-                status.warning(LOG, "Cannot parse pom.xml: " + e, e);
-                return;
+                status.warning(LOG, "Cannot parse " + pom.getName() + ": " + e, e);
+                return modulePoms;
             }
             Element rootElement = doc.getDocumentElement();
+            modulePoms.addAll(findModulePoms(pom, rootElement));
             NodeList plugins = rootElement.getElementsByTagName("plugin");
             Set<String> fmpVersionProperties = new HashSet<>();
             Set<String> fmpVersionPropertiesLazyCreate = new HashSet<>();
@@ -396,7 +478,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
                 }
             }
 
-            if (!foundFmpPlugin) {
+            if (!foundFmpPlugin && rootPom) {
                 // lets add a new fmp plugin element
                 String separator = "\n";
                 Element build = getOrCreateChild(rootElement, "build", separator);
@@ -500,15 +582,41 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
                     update = true;
                 }
                 if (update) {
-                    LOG.debug("Updating properties of pom.xml");
+                    LOG.debug("Updating properties of " + pom);
                     try {
                         DomHelper.save(doc, pom);
                     } catch (Exception e) {
-                        status.warning(LOG, "failed to save pom.xml: " + e, e);
+                        status.warning(LOG, "failed to save " + pom.getName() + ": " + e, e);
+                    }
+                }
+            }
+        }
+        return modulePoms;
+    }
+
+    /**
+     * Returns the pom.xml files of the child modules declared in the given pom
+     */
+    protected static List<File> findModulePoms(File pom, Element rootElement) {
+        List<File> answer = new ArrayList<>();
+        NodeList modules = rootElement.getElementsByTagName("module");
+        for (int i = 0, size = modules.getLength(); i < size; i++) {
+            Node item = modules.item(i);
+            if (item instanceof Element && item.getParentNode() instanceof Element) {
+                Element parent = (Element) item.getParentNode();
+                String moduleName = item.getTextContent();
+                if ("modules".equals(parent.getTagName()) && Strings.isNotBlank(moduleName)) {
+                    File moduleFile = new File(pom.getParentFile(), moduleName.trim());
+                    if (moduleFile.isDirectory()) {
+                        moduleFile = new File(moduleFile, "pom.xml");
+                    }
+                    if (moduleFile.isFile() && !answer.contains(moduleFile)) {
+                        answer.add(moduleFile);
                     }
                 }
             }
         }
+        return answer;
     }
 
     /**
@@ -528,6 +636,44 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
         return builder.toString();
     }
 
+    /**
+     * The update of a single pom.xml which is processed on the executor and aggregated into its folder status
+     */
+    private static class PomUpdate {
+        private final File pom;
+        private final StatusDTO folderStatus;
+        private final boolean rootPom;
+        private final StatusDTO status = new StatusDTO();
+        private List<File> modulePoms = Collections.emptyList();
+
+        PomUpdate(File pom, StatusDTO folderStatus, boolean rootPom) {
+            this.pom = pom;
+            this.folderStatus = folderStatus;
+            this.rootPom = rootPom;
+        }
+
+        PomUpdate process(String spaceId) {
+            modulePoms = updatePomVersions(pom, status, spaceId, rootPom);
+            return this;
+        }
+
+        File getPom() {
+            return pom;
+        }
+
+        StatusDTO getFolderStatus() {
+            return folderStatus;
+        }
+
+        StatusDTO getStatus() {
+            return status;
+        }
+
+        List<File> getModulePoms() {
+            return modulePoms;
+        }
+    }
+
     protected String getSpaceId() {
         return labelSpace.getValue();
 /*
@@ -663,7 +809,7 @@ public class ChoosePipelineStep extends AbstractProjectOverviewCommand implement
                         if (Files.isFile(yamlFile)) {
                             PipelineMetadata metadata = null;
                             try {
-                                metadata = loadYaml(yamlFile, PipelineMetadata.class);
+                                metadata = ObjectMappers.yamlReader(PipelineMetadata.class).readValue(yamlFile);
                             } catch (IOException e) {
                                 LOG.warn("Failed to parse yaml file " + yamlFile + ". " + e, e);
                             }
@@ -17,6 +17,8 @@
 package io.fabric8.forge.generator.pipeline;
 
 import io.fabric8.forge.addon.utils.StopWatch;
+import io.fabric8.forge.generator.executor.Deadline;
+import io.fabric8.forge.generator.metrics.Metrics;
 import io.fabric8.project.support.GitUtils;
 import io.fabric8.project.support.UserDetails;
 import io.fabric8.utils.Files;
@@ -89,10 +91,11 @@ public class JenkinsPipelineLibrary {
         CloneCommand command = Git.cloneRepository();
         GitUtils.configureCommand(command, credentialsProvider, sshPrivateKey, sshPublicKey);
         command = command.setCredentialsProvider(credentialsProvider).
-                setCloneAllBranches(cloneAll).setURI(cloneUrl).setDirectory(projectFolder).setRemote(remote);
+                setCloneAllBranches(cloneAll).setURI(cloneUrl).setDirectory(projectFolder).setRemote(remote).
+                setTimeout(Deadline.timeoutSeconds(0, "before cloning " + cloneUrl));
 
         try {
-            Git git = command.call();
+            Git git = Metrics.call(Metrics.GIT_CLONE, "clone", command::call);
             if (tag != null) {
                 git.checkout().setName(tag).call();
             }
@@ -209,7 +212,8 @@ public class JenkinsPipelineLibrary {
             LOG.debug("Performing a pull in git repository " + projectFolder.getCanonicalPath() + " on remote URL: " + url);
             PullCommand pull = git.pull();
             GitUtils.configureCommand(pull, userDetails);
-            pull.setRebase(true).call();
+            pull.setTimeout(Deadline.timeoutSeconds(0, "before pulling " + url));
+            Metrics.call(Metrics.GIT_CLONE, "pull", pull.setRebase(true)::call);
         } catch (Throwable e) {
             LOG.error("Failed to pull from the remote git repo with credentials " + cp + " due: " + e.getMessage()
                     + ". This exception is ignored.", e);
@@ -52,4 +52,13 @@ public class StatusDTO {
         log.warn(message, e);
         addWarning(message);
     }
+
+    /**
+     * Adds the warnings of the given status, such as from a folder processed concurrently, to this status
+     */
+    public void addAll(StatusDTO status) {
+        if (status != null) {
+            warnings.addAll(status.getWarnings());
+        }
+    }
 }
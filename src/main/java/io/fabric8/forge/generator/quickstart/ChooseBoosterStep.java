@@ -8,6 +8,8 @@
 package io.fabric8.forge.generator.quickstart;
 
 import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
 import io.openshift.booster.catalog.Booster;
 import io.openshift.booster.catalog.BoosterCatalog;
 import io.openshift.booster.catalog.Mission;
@@ -41,6 +43,8 @@ import java.util.Map;
 /**
  * Provide a single list of boosters to pick from
  */
+@Metered
+@WithDeadline
 public class ChooseBoosterStep implements UIWizardStep {
     private static final transient Logger LOG = LoggerFactory.getLogger(ChooseBoosterStep.class);
 
@@ -18,6 +18,8 @@ package io.fabric8.forge.generator.quickstart;
 
 import io.fabric8.forge.addon.utils.archetype.FabricArchetypeCatalogFactory;
 import io.fabric8.forge.generator.CommonSteps;
+import io.fabric8.forge.generator.executor.WithDeadline;
+import io.fabric8.forge.generator.metrics.Metered;
 import io.openshift.launchpad.ui.input.ProjectName;
 import io.openshift.launchpad.ui.input.TopLevelPackage;
 import org.apache.maven.archetype.catalog.Archetype;
@@ -64,6 +66,8 @@ import static io.openshift.booster.Files.deleteRecursively;
 
 /**
  */
+@Metered
+@WithDeadline
 public class Fabric8NewQuickstartWizard implements UIWizard {
     /**
      * Files to be deleted after project creation (if exists)
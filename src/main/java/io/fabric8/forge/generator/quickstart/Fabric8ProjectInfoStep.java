@@ -18,10 +18,12 @@ package io.fabric8.forge.generator.quickstart;
 
 import io.fabric8.forge.generator.cache.CacheFacade;
 import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.forge.generator.executor.WithDeadline;
 import io.fabric8.forge.generator.git.GitAccount;
 import io.fabric8.forge.generator.git.GitOrganisationDTO;
 import io.fabric8.forge.generator.github.GitHubFacade;
 import io.fabric8.forge.generator.github.GitHubImportParameters;
+import io.fabric8.forge.generator.metrics.Metered;
 import io.fabric8.utils.Strings;
 import io.openshift.launchpad.ui.booster.DeploymentType;
 import io.openshift.launchpad.ui.booster.ProjectInfoStep;
@@ -56,6 +58,8 @@ import static io.fabric8.forge.generator.pipeline.AbstractDevToolsCommand.getSel
 /**
  */
 @Typed(Fabric8ProjectInfoStep.class)
+@Metered
+@WithDeadline
 public class Fabric8ProjectInfoStep extends ProjectInfoStep {
     private static final transient Logger LOG = LoggerFactory.getLogger(NewProjectWizard.class);
 
@@ -106,7 +110,7 @@ public class Fabric8ProjectInfoStep extends ProjectInfoStep {
 
         if (github != null && github.isDetailsValid()) {
             String orgKey = github.getDetails().getUserCacheKey();
-            organisations = organisationsCache.computeIfAbsent(orgKey, k -> github.loadGithubOrganisations(builder));
+            organisations = cacheManager.computeIfAbsent(organisationsCacheKey, orgKey, k -> github.loadGithubOrganisations());
         }
         gitOrganisation.setValueChoices(organisations);
         gitOrganisation.setItemLabelConverter(new Converter<GitOrganisationDTO, String>() {
@@ -17,12 +17,13 @@
 package io.fabric8.forge.generator.quickstart;
 
 import io.fabric8.forge.generator.Configuration;
+import io.fabric8.forge.generator.cache.UserContextPrefetcher;
+import io.fabric8.forge.generator.executor.WithDeadline;
 import io.fabric8.forge.generator.git.PickGitAccountForNewProjectStep;
 import io.fabric8.forge.generator.github.GitHubImportRepoStep;
 import io.fabric8.forge.generator.keycloak.ProfileSettings;
-import io.fabric8.forge.generator.keycloak.ProfileSettingsDTO;
-import io.fabric8.forge.generator.keycloak.TokenHelper;
 import io.fabric8.forge.generator.kubernetes.CreateBuildConfigStep;
+import io.fabric8.forge.generator.metrics.Metered;
 import io.fabric8.forge.generator.pipeline.ChoosePipelineStep;
 import io.openshift.launchpad.ui.booster.ChooseMissionStep;
 import io.openshift.launchpad.ui.booster.ChooseRuntimeStep;
@@ -42,14 +43,20 @@ import org.jboss.forge.addon.ui.wizard.UIWizard;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.inject.Inject;
 import java.util.Map;
 
 /**
  * Lets add extra validation to the first page so that users can hit Finish early
  */
+@Metered
+@WithDeadline
 public class NewProjectWizard implements UIWizard {
     private static final transient Logger LOG = LoggerFactory.getLogger(NewProjectWizard.class);
-    
+
+    @Inject
+    private UserContextPrefetcher prefetcher;
+
     @Override
     public UICommandMetadata getMetadata(UIContext context) {
         return Metadata.forCommand(this.getClass()).name("Fabric8: New Project").description("Generate your project from a booster").category(Categories.create(new String[]{"Openshift.io"}));
@@ -57,14 +64,13 @@ public class NewProjectWizard implements UIWizard {
 
     @Override
     public void initializeUI(UIBuilder builder) throws Exception {
-        UIContext uiContext = builder.getUIContext();
-        getProfileSettings(uiContext);
+        prefetcher.prefetch(builder.getUIContext());
     }
 
     @Override
     public NavigationResult next(UINavigationContext context) throws Exception {
         UIContext uiContext = context.getUIContext();
-        ProfileSettings.updateAttributeMap(getProfileSettings(uiContext), uiContext);
+        ProfileSettings.updateAttributeMap(prefetcher.getProfileSettings(uiContext), uiContext);
 
         // default the deployment type
         Map<Object, Object> attributeMap = uiContext.getAttributeMap();
@@ -93,18 +99,6 @@ public class NewProjectWizard implements UIWizard {
         return builder.build();
     }
 
-    private ProfileSettingsDTO getProfileSettings(UIContext uiContext) {
-        ProfileSettingsDTO answer = (ProfileSettingsDTO) uiContext.getAttributeMap().get(ProfileSettingsDTO.class);
-        if (answer == null) {
-            String authHeader = TokenHelper.getAuthHeader(uiContext);
-            answer = ProfileSettings.loadProfileSettings(authHeader);
-            if (answer != null) {
-                uiContext.getAttributeMap().put(ProfileSettingsDTO.class, answer);
-            }
-        }
-        return answer;
-    }
-
     @Override
     public Result execute(UIExecutionContext context) throws Exception {
         return Results.success();
@@ -16,6 +16,11 @@
  */
 package io.fabric8.forge.generator.tenant;
 
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.forge.generator.utils.JsonHelper;
+import io.fabric8.forge.generator.utils.ObjectMappers;
 import io.fabric8.forge.generator.utils.WebClientHelpers;
 import io.fabric8.utils.Objects;
 import io.fabric8.utils.Strings;
@@ -25,6 +30,8 @@ import org.slf4j.LoggerFactory;
 
 import javax.ws.rs.client.Client;
 import javax.ws.rs.core.MediaType;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
@@ -35,16 +42,28 @@ import static io.fabric8.forge.generator.EnvironmentVariables.getWitApiURL;
  */
 public class Tenants {
     private static final transient Logger LOG = LoggerFactory.getLogger(Tenants.class);
+    private static final ObjectReader NAMESPACES_READER = ObjectMappers.jsonReader(new TypeReference<List<NamespaceDTO>>() {
+    });
+    private static final String[] NAMESPACES_PATH = {"data", "attributes", "namespaces"};
 
     public static TenantResultsDTO loadTenant(String authHeader) {
         String witAPI = getWitApiURL();
         String tenantUrl = URLUtils.pathJoin(witAPI, "/api/user/services");
         LOG.debug("Loading user tenant information from " + tenantUrl);
-        Client client = WebClientHelpers.createClientWihtoutHostVerification();
-        TenantResultsDTO results = client.target(tenantUrl)
-                .request(MediaType.APPLICATION_JSON)
-                .header("Authorization", authHeader)
-                .get(TenantResultsDTO.class);
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.WIT);
+        TenantResultsDTO results;
+        try {
+            results = Metrics.call(Metrics.WIT, "tenant", () -> {
+                try (InputStream in = client.target(tenantUrl)
+                        .request(MediaType.APPLICATION_JSON)
+                        .header("Authorization", authHeader)
+                        .get(InputStream.class)) {
+                    return ObjectMappers.jsonReader(TenantResultsDTO.class).<TenantResultsDTO>readValue(in);
+                }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse the user tenant from " + tenantUrl + ". " + e, e);
+        }
 
         if (LOG.isDebugEnabled()) {
             LOG.debug("Loaded results: " + results);
@@ -52,19 +71,29 @@ public class Tenants {
         return results;
     }
 
+    /**
+     * Loads the namespaces of the users tenant; only binding the namespaces from the response stream
+     */
     public static List<NamespaceDTO> loadNamespaces(String authHeader) {
-        TenantResultsDTO results = loadTenant(authHeader);
-        if (results != null) {
-            TenantDataDTO data = results.getData();
-            if (data != null) {
-                TenantAttributesDTO attributes = data.getAttributes();
-                if (attributes != null) {
-                    List<NamespaceDTO> namespaces = attributes.getNamespaces();
-                    if (namespaces != null) {
-                        return namespaces;
-                    }
+        String witAPI = getWitApiURL();
+        String tenantUrl = URLUtils.pathJoin(witAPI, "/api/user/services");
+        LOG.debug("Loading user tenant namespaces from " + tenantUrl);
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification(Metrics.WIT);
+        List<NamespaceDTO> namespaces;
+        try {
+            namespaces = Metrics.call(Metrics.WIT, "tenant", () -> {
+                try (InputStream in = client.target(tenantUrl)
+                        .request(MediaType.APPLICATION_JSON)
+                        .header("Authorization", authHeader)
+                        .get(InputStream.class)) {
+                    return JsonHelper.<List<NamespaceDTO>>readValue(in, NAMESPACES_READER, NAMESPACES_PATH);
                 }
-            }
+            });
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to parse the user tenant from " + tenantUrl + ". " + e, e);
+        }
+        if (namespaces != null) {
+            return namespaces;
         }
         return new ArrayList<>();
     }
@@ -16,7 +16,13 @@
  */
 package io.fabric8.forge.generator.utils;
 
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
 
 /**
  */
@@ -35,6 +41,50 @@ public class JsonHelper {
         return node;
     }
 
+    /**
+     * Reads the value at the given path of object field names from the JSON stream using the given reader.
+     * <p>
+     * Only the value at the path is bound; the rest of the document is skipped by the streaming parser without
+     * building a tree. Returns null if the path is not present.
+     */
+    public static <T> T readValue(InputStream in, ObjectReader reader, String... paths) throws IOException {
+        try (JsonParser parser = reader.getFactory().createParser(in)) {
+            parser.nextToken();
+            if (!seek(parser, paths) || parser.getCurrentToken() == JsonToken.VALUE_NULL) {
+                return null;
+            }
+            return reader.readValue(parser);
+        }
+    }
+
+    /**
+     * Moves the parser, which must be positioned on the start of a JSON object, to the value at the given path
+     * of object field names skipping over any other values.
+     *
+     * @return true if the parser is positioned on the value at the path or false if there is no such value
+     */
+    public static boolean seek(JsonParser parser, String... paths) throws IOException {
+        for (String path : paths) {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                return false;
+            }
+            boolean found = false;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                parser.nextToken();
+                if (path.equals(name)) {
+                    found = true;
+                    break;
+                }
+                parser.skipChildren();
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     public static String textValue(JsonNode node, String name) {
         if (node != null) {
             JsonNode value = node.get(name);
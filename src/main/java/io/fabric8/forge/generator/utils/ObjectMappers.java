@@ -0,0 +1,74 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.dataformat.yaml.YAMLFactory;
+
+import java.lang.reflect.Type;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * The process wide Jackson mappers along with cached readers for each target type.
+ * <p>
+ * Mappers are thread safe and cache the (de)serializers they create so they should be shared rather than created
+ * for each parse. Both mappers ignore unknown properties.
+ */
+public class ObjectMappers {
+    private static final ObjectMapper JSON_MAPPER = configure(new ObjectMapper());
+    private static final ObjectMapper YAML_MAPPER = configure(new ObjectMapper(new YAMLFactory()));
+
+    private static final ConcurrentMap<Type, ObjectReader> jsonReaders = new ConcurrentHashMap<>();
+    private static final ConcurrentMap<Type, ObjectReader> yamlReaders = new ConcurrentHashMap<>();
+
+    public static ObjectMapper json() {
+        return JSON_MAPPER;
+    }
+
+    public static ObjectMapper yaml() {
+        return YAML_MAPPER;
+    }
+
+    /**
+     * Returns the cached reader of JSON for the given type
+     */
+    public static ObjectReader jsonReader(Class<?> type) {
+        return jsonReaders.computeIfAbsent(type, t -> JSON_MAPPER.readerFor(type));
+    }
+
+    /**
+     * Returns the cached reader of JSON for the given generic type such as a list of DTOs
+     */
+    public static ObjectReader jsonReader(TypeReference<?> type) {
+        return jsonReaders.computeIfAbsent(type.getType(), t -> JSON_MAPPER.readerFor(type));
+    }
+
+    /**
+     * Returns the cached reader of YAML for the given type
+     */
+    public static ObjectReader yamlReader(Class<?> type) {
+        return yamlReaders.computeIfAbsent(type, t -> YAML_MAPPER.readerFor(type));
+    }
+
+    private static ObjectMapper configure(ObjectMapper mapper) {
+        return mapper.configure(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES, false);
+    }
+}
@@ -16,27 +16,224 @@
  */
 package io.fabric8.forge.generator.utils;
 
+import io.fabric8.forge.generator.EnvironmentVariables;
+import io.fabric8.forge.generator.executor.Deadline;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.client.methods.HttpRequestBase;
+import org.apache.http.config.Registry;
+import org.apache.http.config.RegistryBuilder;
+import org.apache.http.conn.socket.ConnectionSocketFactory;
+import org.apache.http.conn.socket.PlainConnectionSocketFactory;
+import org.apache.http.conn.ssl.SSLConnectionSocketFactory;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.HttpClientBuilder;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
 import org.jboss.resteasy.client.jaxrs.ResteasyClientBuilder;
+import org.jboss.resteasy.client.jaxrs.engines.ApacheHttpClient4Engine;
+import org.jboss.resteasy.client.jaxrs.internal.ClientInvocation;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
 import javax.net.ssl.HostnameVerifier;
+import javax.net.ssl.SSLContext;
 import javax.net.ssl.SSLSession;
+import javax.net.ssl.TrustManager;
+import javax.net.ssl.X509TrustManager;
 import javax.ws.rs.client.Client;
+import java.lang.management.ManagementFactory;
+import java.security.GeneralSecurityException;
+import java.security.cert.X509Certificate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  */
 public class WebClientHelpers {
+    public static final String OBJECT_NAME = "io.fabric8.forge.generator:type=WebClientPools";
+    private static final transient Logger LOG = LoggerFactory.getLogger(WebClientHelpers.class);
+
+    private static final HostnameVerifier TRUST_ALL_HOSTS = new HostnameVerifier() {
+        @Override
+        public boolean verify(String s, SSLSession sslSession) {
+            return true;
+        }
+    };
+    private static final ConcurrentMap<String, PooledClient> sharedClients = new ConcurrentHashMap<>();
+    private static volatile SSLContext trustAllSslContext;
+
+    static {
+        registerMBean();
+    }
+
+    /**
+     * Returns the process wide client for the given family of endpoints (such as keycloak, wit or jenkins)
+     * which disables host verification and uses a pooled connection manager.
+     * <p>
+     * The returned client is shared so callers must not close it; they should close any {@link javax.ws.rs.core.Response}
+     * whose entity they do not read so that its connection is returned to the pool.
+     */
+    public static Client getSharedClientWithoutHostVerification(String family) {
+        return sharedClients.computeIfAbsent(family, WebClientHelpers::createPooledClient).client;
+    }
+
+    /**
+     * Returns the connection pool usage of the shared clients by endpoint family
+     */
+    public static Map<String, PoolStats> getPoolStats() {
+        Map<String, PoolStats> answer = new TreeMap<>();
+        for (Map.Entry<String, PooledClient> entry : sharedClients.entrySet()) {
+            answer.put(entry.getKey(), entry.getValue().connectionManager.getTotalStats());
+        }
+        return answer;
+    }
+
+    protected static PooledClient createPooledClient(String family) {
+        int maxConnections = EnvironmentVariables.getIntegerValue(EnvironmentVariables.WEB_CLIENT_POOL_SIZE, 50);
+        int connectTimeout = EnvironmentVariables.getIntegerValue(EnvironmentVariables.WEB_CLIENT_CONNECT_TIMEOUT, 10);
+        int readTimeout = EnvironmentVariables.getIntegerValue(EnvironmentVariables.WEB_CLIENT_READ_TIMEOUT, 60);
+
+        Registry<ConnectionSocketFactory> socketFactories = RegistryBuilder.<ConnectionSocketFactory>create().
+                register("http", PlainConnectionSocketFactory.getSocketFactory()).
+                register("https", new SSLConnectionSocketFactory(getTrustAllSslContext(), TRUST_ALL_HOSTS)).
+                build();
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager(
+                socketFactories, null, null, null, 5, TimeUnit.MINUTES);
+        connectionManager.setMaxTotal(maxConnections);
+        connectionManager.setDefaultMaxPerRoute(maxConnections);
+
+        RequestConfig requestConfig = RequestConfig.custom().
+                setConnectTimeout((int) TimeUnit.SECONDS.toMillis(connectTimeout)).
+                setConnectionRequestTimeout((int) TimeUnit.SECONDS.toMillis(connectTimeout)).
+                setSocketTimeout((int) TimeUnit.SECONDS.toMillis(readTimeout)).
+                build();
+        CloseableHttpClient httpClient = HttpClientBuilder.create().
+                setConnectionManager(connectionManager).
+                setDefaultRequestConfig(requestConfig).
+                build();
+
+        LOG.info("Creating shared " + family + " web client with " + maxConnections + " pooled connections");
+        Client client = new ResteasyClientBuilder().
+                httpEngine(new DeadlineHttpClientEngine(httpClient, requestConfig)).
+                build();
+        return new PooledClient(client, connectionManager);
+    }
+
+    /**
+     * Returns the lazily created SSL context which trusts all certificates
+     */
+    protected static SSLContext getTrustAllSslContext() {
+        if (trustAllSslContext == null) {
+            synchronized (WebClientHelpers.class) {
+                if (trustAllSslContext == null) {
+                    try {
+                        SSLContext sslContext = SSLContext.getInstance("TLS");
+                        sslContext.init(null, new TrustManager[]{new TrustAllManager()}, null);
+                        trustAllSslContext = sslContext;
+                    } catch (GeneralSecurityException e) {
+                        throw new IllegalStateException("Failed to create SSL context: " + e, e);
+                    }
+                }
+            }
+        }
+        return trustAllSslContext;
+    }
+
+    private static void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(OBJECT_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(new WebClientPoolsMBeanImpl(), objectName);
+            }
+        } catch (Exception e) {
+            LOG.warn("Failed to register the web client pools MBean: " + e, e);
+        }
+    }
+
     /**
-     * Returns a new client which disables host verification
+     * The JMX view of the connection pools of the shared clients
      */
-    public static Client createClientWihtoutHostVerification() {
-        ResteasyClientBuilder clientBuilder = new ResteasyClientBuilder();
-        clientBuilder.disableTrustManager();
-        clientBuilder.hostnameVerifier(new HostnameVerifier() {
-            @Override
-            public boolean verify(String s, SSLSession sslSession) {
-                return true;
+    public interface WebClientPoolsMXBean {
+        Map<String, String> getPoolStats();
+    }
+
+    private static class WebClientPoolsMBeanImpl implements WebClientPoolsMXBean {
+        @Override
+        public Map<String, String> getPoolStats() {
+            Map<String, String> answer = new TreeMap<>();
+            for (Map.Entry<String, PoolStats> entry : WebClientHelpers.getPoolStats().entrySet()) {
+                answer.put(entry.getKey(), entry.getValue().toString());
             }
-        });
-        return clientBuilder.build();
+            return answer;
+        }
+    }
+
+    /**
+     * Caps the timeouts of each request to the time remaining before the deadline of the current user request,
+     * keeping the rest of the configuration of the request such as whether it follows redirects
+     */
+    protected static class DeadlineHttpClientEngine extends ApacheHttpClient4Engine {
+        private final RequestConfig requestConfig;
+
+        public DeadlineHttpClientEngine(CloseableHttpClient httpClient, RequestConfig requestConfig) {
+            super(httpClient, true);
+            this.requestConfig = requestConfig;
+        }
+
+        @Override
+        protected void loadHttpMethod(ClientInvocation request, HttpRequestBase httpMethod) throws Exception {
+            super.loadHttpMethod(request, httpMethod);
+            if (Deadline.current() != null) {
+                String operation = "before calling " + request.getUri();
+                RequestConfig config = httpMethod.getConfig() != null ? httpMethod.getConfig() : requestConfig;
+                httpMethod.setConfig(RequestConfig.copy(config).
+                        setRedirectsEnabled(request.getDeclaredClient().isFollowRedirects()).
+                        setConnectTimeout(Deadline.timeoutMillis(
+                                timeout(config.getConnectTimeout(), requestConfig.getConnectTimeout()), operation)).
+                        setConnectionRequestTimeout(Deadline.timeoutMillis(
+                                timeout(config.getConnectionRequestTimeout(), requestConfig.getConnectionRequestTimeout()), operation)).
+                        setSocketTimeout(Deadline.timeoutMillis(
+                                timeout(config.getSocketTimeout(), requestConfig.getSocketTimeout()), operation)).
+                        build());
+            }
+        }
+
+        /**
+         * Returns the timeout of the request or the default timeout of the client if the request does not set one
+         */
+        protected static int timeout(int requestMillis, int defaultMillis) {
+            return requestMillis > 0 ? requestMillis : defaultMillis;
+        }
+    }
+
+    protected static final class PooledClient {
+        private final Client client;
+        private final PoolingHttpClientConnectionManager connectionManager;
+
+        PooledClient(Client client, PoolingHttpClientConnectionManager connectionManager) {
+            this.client = client;
+            this.connectionManager = connectionManager;
+        }
+    }
+
+    private static class TrustAllManager implements X509TrustManager {
+        @Override
+        public void checkClientTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public void checkServerTrusted(X509Certificate[] chain, String authType) {
+        }
+
+        @Override
+        public X509Certificate[] getAcceptedIssuers() {
+            return new X509Certificate[0];
+        }
     }
 }
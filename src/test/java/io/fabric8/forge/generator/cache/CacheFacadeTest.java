@@ -0,0 +1,64 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.executor.DependencyUnavailableException;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class CacheFacadeTest {
+    private final CacheFacade cacheFacade = new CacheFacade();
+
+    @After
+    public void destroy() {
+        cacheFacade.destroy();
+    }
+
+    @Test
+    public void testBuildConfigNamesAreNeverReturnedStale() throws Exception {
+        assertFalse(cacheFacade.isStaleFallbackAllowed(CacheNames.USER_BUILD_CONFIG_NAMES));
+
+        assertEquals("myapp", cacheFacade.computeIfAbsent(CacheNames.USER_BUILD_CONFIG_NAMES, "user/myns", k -> "myapp"));
+        cacheFacade.getCache(CacheNames.USER_BUILD_CONFIG_NAMES).clear();
+        try {
+            cacheFacade.computeIfAbsent(CacheNames.USER_BUILD_CONFIG_NAMES, "user/myns", k -> {
+                throw new DependencyUnavailableException("openshift", "The circuit breaker for openshift is open");
+            });
+            fail("Should have thrown an exception rather than return the stale names");
+        } catch (DependencyUnavailableException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testNamespacesAreReturnedStaleWhileUnavailable() throws Exception {
+        assertTrue(cacheFacade.isStaleFallbackAllowed(CacheNames.USER_NAMESPACES));
+
+        assertEquals("myns", cacheFacade.computeIfAbsent(CacheNames.USER_NAMESPACES, "user", k -> "myns"));
+        cacheFacade.getCache(CacheNames.USER_NAMESPACES).clear();
+        assertEquals("myns", cacheFacade.computeIfAbsent(CacheNames.USER_NAMESPACES, "user", k -> {
+            throw new DependencyUnavailableException("openshift", "The circuit breaker for openshift is open");
+        }));
+    }
+}
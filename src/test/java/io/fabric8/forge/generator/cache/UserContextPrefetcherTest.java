@@ -0,0 +1,151 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.cache;
+
+import io.fabric8.forge.generator.AttributeMapKeys;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.keycloak.ProfileSettingsDTO;
+import io.fabric8.forge.generator.keycloak.TokenHelper;
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class UserContextPrefetcherTest {
+    private static final String AUTH_HEADER = "Bearer alice-token";
+
+    private final CacheFacade cacheFacade = new CacheFacade();
+    private final ExecutorFacade executorFacade = new ExecutorFacade(4);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private volatile CountDownLatch release = new CountDownLatch(0);
+
+    private final UserContextPrefetcher prefetcher = new UserContextPrefetcher(cacheFacade, executorFacade) {
+        @Override
+        protected ProfileSettingsDTO fetchProfileSettings(String authHeader) {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            ProfileSettingsDTO answer = new ProfileSettingsDTO();
+            answer.setCatalogGitRepo("https://github.com/alice/booster-catalog.git");
+            return answer;
+        }
+
+        @Override
+        protected void prefetchUserContext(String authHeader) {
+        }
+
+        @Override
+        protected void prefetchGithubOrganisations(String authHeader) {
+        }
+    };
+
+    @After
+    public void destroy() {
+        executorFacade.destroy();
+        cacheFacade.destroy();
+    }
+
+    @Test
+    public void testPrefetchedProfileSettingsAreJoined() throws Exception {
+        release = new CountDownLatch(1);
+        Map<Object, Object> attributeMap = new HashMap<>();
+        prefetcher.prefetch(attributeMap, AUTH_HEADER);
+        assertTrue("the prefetch should have started", loading.await(10, TimeUnit.SECONDS));
+
+        // lets let the prefetch complete while the wizard is waiting for it
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+        ProfileSettingsDTO settings = prefetcher.getProfileSettings(attributeMap, AUTH_HEADER);
+
+        assertEquals("https://github.com/alice/booster-catalog.git", settings.getCatalogGitRepo());
+        assertSame(settings, attributeMap.get(ProfileSettingsDTO.class));
+        assertSame("the next wizard should use the cached settings", settings, prefetcher.getProfileSettings(new HashMap<>(), AUTH_HEADER));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testProfileSettingsAreCachedByIdentityAndHeader() throws Exception {
+        prefetcher.getProfileSettings(new HashMap<>(), AUTH_HEADER);
+
+        assertFalse(cacheFacade.getCache(CacheNames.USER_PROFILE_SETTINGS).containsKey(AUTH_HEADER));
+        assertTrue(cacheFacade.getCache(CacheNames.USER_PROFILE_SETTINGS).containsKey(TokenHelper.getUserCacheKey(AUTH_HEADER)));
+    }
+
+    @Test
+    public void testForgedHeaderDoesNotShareCachedProfileSettings() throws Exception {
+        // both headers carry the subject "alice" but only the first is alice's real token
+        String aliceHeader = "Bearer " + jwt("alice", "real-signature");
+        String forgedHeader = "Bearer " + jwt("alice", "forged-signature");
+        assertEquals(TokenHelper.getUserIdentity(aliceHeader), TokenHelper.getUserIdentity(forgedHeader));
+
+        ProfileSettingsDTO settings = prefetcher.getProfileSettings(new HashMap<>(), aliceHeader);
+        assertNotSame(settings, prefetcher.getProfileSettings(new HashMap<>(), forgedHeader));
+        assertEquals(2, loads.get());
+    }
+
+    private static String jwt(String subject, String signature) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        return encoder.encodeToString("{\"alg\":\"RS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(("{\"sub\":\"" + subject + "\"}").getBytes(StandardCharsets.UTF_8)) + "."
+                + encoder.encodeToString(signature.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testInvalidatedProfileSettingsAreReloaded() throws Exception {
+        prefetcher.getProfileSettings(new HashMap<>(), AUTH_HEADER);
+        prefetcher.invalidateProfileSettings(AUTH_HEADER);
+        prefetcher.getProfileSettings(new HashMap<>(), AUTH_HEADER);
+
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testChangedCatalogSettingsReloadProfileSettings() throws Exception {
+        prefetcher.getProfileSettings(new HashMap<>(), AUTH_HEADER);
+
+        Map<Object, Object> attributeMap = new HashMap<>();
+        attributeMap.put(AttributeMapKeys.CATALOG_GIT_REPOSITORY, "https://github.com/alice/other-catalog.git");
+        prefetcher.getProfileSettings(attributeMap, AUTH_HEADER);
+
+        assertEquals(2, loads.get());
+    }
+}
@@ -0,0 +1,98 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.che;
+
+import io.fabric8.utils.Files;
+import io.fabric8.utils.IOHelpers;
+import org.junit.Test;
+
+import java.io.File;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class CheStackDetectorTest {
+    private File testDir = new File(System.getProperty("basedir", "."), "target/test-data/che-stacks");
+
+    @Test
+    public void testDetectStackFromMavenPlugin() throws Exception {
+        File dir = createProject("plugin", "pom.xml", "<project>\n  <build>\n    <plugins>\n      <plugin>\n" +
+                "        <groupId>org.springframework.boot</groupId>\n        <artifactId>spring-boot-maven-plugin</artifactId>\n" +
+                "      </plugin>\n    </plugins>\n  </build>\n</project>\n");
+        assertEquals(CheStack.SpringBoot, CheStackDetector.detectCheStack(dir));
+
+        ProjectCoordinates coordinates = ProjectCoordinates.loadPom(new File(dir, "pom.xml"));
+        assertTrue("plugins " + coordinates, coordinates.getPlugins().contains("org.springframework.boot:spring-boot-maven-plugin"));
+        assertEquals(CheStack.SpringBoot, CheStackDetector.detectCheStack(coordinates));
+    }
+
+    @Test
+    public void testDetectStackFromMavenDependency() throws Exception {
+        File dir = createProject("dependency", "pom.xml", "<project>\n  <groupId>org.springframework.boot</groupId>\n  <dependencies>\n" +
+                "    <dependency>\n      <groupId>io.vertx</groupId>\n      <artifactId>vertx-core</artifactId>\n    </dependency>\n" +
+                "  </dependencies>\n</project>\n");
+        ProjectCoordinates coordinates = ProjectCoordinates.loadPom(new File(dir, "pom.xml"));
+        assertEquals("dependencies " + coordinates, 1, coordinates.getDependencies().size());
+        assertEquals(CheStack.Vertx, CheStackDetector.detectCheStack(dir));
+    }
+
+    @Test
+    public void testDetectStackFromGradleAndPackageJson() throws Exception {
+        File gradleDir = createProject("gradle", "build.gradle", "plugins {\n  id 'org.springframework.boot' version '1.5.8.RELEASE'\n}\n" +
+                "dependencies {\n  compile 'org.wildfly.swarm:jaxrs:2017.10.0'\n}\n");
+        // the explicit build plugin wins over the dependencies
+        assertEquals(CheStack.SpringBoot, CheStackDetector.detectCheStack(gradleDir));
+
+        File gradleDependencyDir = createProject("gradle-dependency", "build.gradle", "apply plugin: 'java'\n" +
+                "dependencies {\n  compile 'org.wildfly.swarm:jaxrs:2017.10.0'\n}\n");
+        assertEquals(CheStack.WildFlySwarm, CheStackDetector.detectCheStack(gradleDependencyDir));
+
+        File nodeDir = createProject("node", "package.json", "{\"name\": \"node\"}\n");
+        assertEquals(CheStack.NodeJS, CheStackDetector.detectCheStack(nodeDir));
+
+        File emptyDir = createProject("empty", "README.md", "hello\n");
+        assertEquals(CheStack.JavaCentOS, CheStackDetector.detectCheStack(emptyDir));
+    }
+
+    @Test
+    public void testRulesCanBeExtended() throws Exception {
+        CheStackRules rules = new CheStackRules();
+        rules.addRule(CheStackRules.DEPENDENCY_GROUPS, "io.thorntail", CheStack.WildFlySwarm);
+
+        ProjectCoordinates coordinates = new ProjectCoordinates();
+        coordinates.addDependency("io.thorntail", "jaxrs");
+        assertEquals(CheStack.WildFlySwarm, rules.detect(coordinates));
+    }
+
+    @Test
+    public void testPluginsTakePrecedenceOverDependencies() throws Exception {
+        ProjectCoordinates coordinates = new ProjectCoordinates();
+        coordinates.addDependency("org.wildfly.swarm", "jaxrs");
+        coordinates.addPlugin("org.springframework.boot", "spring-boot-maven-plugin");
+        assertEquals(CheStack.SpringBoot, CheStackDetector.detectCheStack(coordinates));
+    }
+
+    protected File createProject(String name, String fileName, String content) throws Exception {
+        File dir = new File(testDir, name);
+        Files.recursiveDelete(dir);
+        dir.mkdirs();
+        IOHelpers.writeFully(new File(dir, fileName), content);
+        return dir;
+    }
+}
@@ -0,0 +1,125 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class CircuitBreakerTest {
+    private long now = 1000;
+
+    private final CircuitBreaker circuitBreaker = new CircuitBreaker("github", 3, 100) {
+        @Override
+        protected long currentTimeMillis() {
+            return now;
+        }
+    };
+
+    @Test
+    public void testOpensAfterConsecutiveFailuresAndClosesAfterTrialCall() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            assertTrue(circuitBreaker.tryAcquire());
+            circuitBreaker.onFailure();
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+
+        now += 100;
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        assertTrue("trial call", circuitBreaker.tryAcquire());
+        assertFalse("only one trial call", circuitBreaker.tryAcquire());
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testFailedTrialCallReopens() throws Exception {
+        for (int i = 0; i < 3; i++) {
+            circuitBreaker.tryAcquire();
+            circuitBreaker.onFailure();
+        }
+        now += 100;
+        assertTrue(circuitBreaker.tryAcquire());
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.tryAcquire());
+    }
+
+    @Test
+    public void testSuccessResetsFailureCount() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            circuitBreaker.tryAcquire();
+            if (i % 2 == 0) {
+                circuitBreaker.onFailure();
+            } else {
+                circuitBreaker.onSuccess();
+            }
+        }
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testGuardRejectsWhileOpenAndCountsNestedCallsOnce() throws Exception {
+        DependencyGuard guard = new DependencyGuard("github", new Bulkhead("github", 1, 0, 0), circuitBreaker);
+        guard.acquire();
+        guard.acquire();
+        guard.release(true);
+        guard.release(true);
+        assertEquals(0, guard.getBulkhead().getInFlight());
+
+        guard.acquire();
+        guard.release(true);
+        guard.acquire();
+        guard.release(true);
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        try {
+            guard.acquire();
+            throw new AssertionError("should have been rejected");
+        } catch (DependencyUnavailableException e) {
+            assertEquals("github", e.getDependency());
+        }
+    }
+
+    @Test
+    public void testWaitForTheBulkheadIsCappedByTheDeadline() throws Exception {
+        DependencyGuard guard = new DependencyGuard("github", new Bulkhead("github", 1, 1, 10000), circuitBreaker);
+        // lets hold the only permit so the guard has to wait for it
+        assertTrue(guard.getBulkhead().tryAcquire());
+        Deadline.enter(Deadline.after(100));
+        long start = System.currentTimeMillis();
+        try {
+            guard.acquire();
+            throw new AssertionError("should have run out of time");
+        } catch (DeadlineExceededException e) {
+            assertTrue("waited for the bulkhead rather than the deadline", System.currentTimeMillis() - start < 5000);
+        } finally {
+            Deadline.restore(null);
+            guard.getBulkhead().release();
+        }
+        assertEquals(0, guard.getBulkhead().getInFlight());
+        assertEquals(0, guard.getBulkhead().getQueued());
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+    }
+}
@@ -0,0 +1,156 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.metrics.Metrics;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.junit.After;
+import org.junit.Test;
+import org.kohsuke.github.HttpException;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.CancellationException;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class ClientErrorOutcomeTest {
+
+    @After
+    public void clearDeadline() {
+        Deadline.restore(null);
+        Thread.interrupted();
+    }
+
+    @Test
+    public void testClientErrorsAreClassified() throws Exception {
+        assertEquals(Metrics.CLIENT_ERROR, Metrics.outcome(new FileNotFoundException("no such file")));
+        assertEquals(Metrics.CLIENT_ERROR, Metrics.outcome(new HttpException("not found", 404, "Not Found", "https://api.github.com")));
+        assertEquals(Metrics.CLIENT_ERROR, Metrics.outcome(new KubernetesClientException("conflict", 409)));
+        assertEquals(Metrics.CLIENT_ERROR, Metrics.outcome(new IllegalStateException(new KubernetesClientException("gone", 404))));
+        assertEquals(Metrics.SERVER_ERROR, Metrics.outcome(new HttpException("unavailable", 503, "Unavailable", "https://api.github.com")));
+        assertEquals(Metrics.FAILURE, Metrics.outcome(new IOException("connection reset")));
+    }
+
+    @Test
+    public void testClientErrorsDoNotTripTheBreaker() throws Exception {
+        String dependency = "client-error-test";
+        for (int i = 0; i < 10; i++) {
+            try {
+                Metrics.call(dependency, "getFileContent", () -> {
+                    throw new FileNotFoundException("no Jenkinsfile");
+                });
+            } catch (FileNotFoundException e) {
+                // expected
+            }
+            try {
+                Metrics.run(dependency, "getBuildConfig", () -> {
+                    throw new KubernetesClientException("not found", 404);
+                });
+            } catch (KubernetesClientException e) {
+                // expected
+            }
+        }
+        CircuitBreaker circuitBreaker = DependencyGuard.get(dependency).getCircuitBreaker();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+
+        for (int i = 0; i < 5; i++) {
+            try {
+                Metrics.call(dependency, "getFileContent", () -> {
+                    throw new IOException("connection reset");
+                });
+            } catch (IOException e) {
+                // expected
+            }
+        }
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+    }
+
+    @Test
+    public void testDeadlineExpiryIsIgnored() throws Exception {
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new DeadlineExceededException("out of time")));
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new IllegalStateException(new DeadlineExceededException("out of time"))));
+    }
+
+    @Test
+    public void testSocketTimeoutCappedByTheDeadlineIsIgnored() throws Exception {
+        assertEquals(Metrics.FAILURE, Metrics.outcome(new SocketTimeoutException("read timed out")));
+
+        Deadline.enter(Deadline.after(60000));
+        assertEquals("a timeout before the deadline is a real failure",
+                Metrics.FAILURE, Metrics.outcome(new IOException(new SocketTimeoutException("read timed out"))));
+
+        Deadline.enter(Deadline.after(-1));
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new IOException(new SocketTimeoutException("read timed out"))));
+    }
+
+    @Test
+    public void testInterruptsAndCancellationAreIgnored() throws Exception {
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new InterruptedIOException("interrupted")));
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new IllegalStateException(new InterruptedException())));
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new CancellationException()));
+
+        Thread.currentThread().interrupt();
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new IOException("connection reset")));
+    }
+
+    @Test
+    public void testNestedUnavailableDependencyIsIgnored() throws Exception {
+        assertEquals(Metrics.IGNORED, Metrics.outcome(new IOException(new DependencyUnavailableException("openshift", "open"))));
+    }
+
+    @Test
+    public void testIgnoredCallsDoNotTripTheBreaker() throws Exception {
+        String dependency = "ignored-outcome-test";
+        for (int i = 0; i < 10; i++) {
+            // the timeout fires once the request has run out of time
+            Deadline.enter(Deadline.after(20));
+            try {
+                Metrics.run(dependency, "clone", () -> {
+                    Thread.sleep(30);
+                    throw new IOException(new SocketTimeoutException("read timed out"));
+                });
+            } catch (Exception e) {
+                // expected
+            }
+        }
+        Deadline.restore(null);
+        for (int i = 0; i < 10; i++) {
+            try {
+                Metrics.call(dependency, "getRepository", () -> {
+                    throw new InterruptedIOException("cancelled");
+                });
+            } catch (InterruptedIOException e) {
+                // expected
+            }
+            try {
+                Metrics.call(dependency, "listHooks", () -> {
+                    throw new IllegalStateException(new DependencyUnavailableException("openshift", "open"));
+                });
+            } catch (IllegalStateException e) {
+                // expected
+            }
+        }
+        CircuitBreaker circuitBreaker = DependencyGuard.get(dependency).getCircuitBreaker();
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0, DependencyGuard.get(dependency).getBulkhead().getInFlight());
+    }
+}
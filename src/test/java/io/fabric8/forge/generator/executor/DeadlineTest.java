@@ -0,0 +1,103 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.AttributeMapKeys;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class DeadlineTest {
+    @After
+    public void clearDeadline() {
+        Deadline.restore(null);
+    }
+
+    @Test
+    public void testTimeoutsAreCappedToTheRemainingTime() throws Exception {
+        assertEquals(5000, Deadline.timeoutMillis(5000, "test"));
+        assertEquals(0, Deadline.timeoutSeconds(0, "test"));
+
+        Deadline.enter(Deadline.after(2000));
+        int millis = Deadline.timeoutMillis(5000, "test");
+        assertTrue("timeout " + millis, millis > 1000 && millis <= 2000);
+        assertEquals(100, Deadline.timeoutMillis(100, "test"));
+        millis = Deadline.timeoutMillis(0, "test");
+        assertTrue("timeout " + millis, millis > 1000 && millis <= 2000);
+        assertEquals(2, Deadline.timeoutSeconds(0, "test"));
+    }
+
+    @Test
+    public void testExpiredDeadlineFailsFast() throws Exception {
+        Deadline.enter(Deadline.after(-1));
+        try {
+            Deadline.timeoutMillis(5000, "calling github");
+            fail("should have thrown");
+        } catch (DeadlineExceededException e) {
+            assertTrue(e.getMessage(), e.getMessage().endsWith("calling github"));
+        }
+    }
+
+    @Test
+    public void testJoinGivesUpAtTheDeadline() throws Exception {
+        CompletableFuture<String> future = new CompletableFuture<>();
+        Deadline.enter(Deadline.after(50));
+        try {
+            Deadline.join(future, "waiting");
+            fail("should have thrown");
+        } catch (DeadlineExceededException e) {
+            assertTrue(DeadlineExceededException.find(new RuntimeException(e)) == e);
+        }
+        future.complete("done");
+        assertEquals("done", Deadline.join(future, "waiting"));
+    }
+
+    @Test
+    public void testPropagateRunsTaskWithCallersDeadline() throws Exception {
+        Deadline deadline = Deadline.after(60000);
+        Deadline.enter(deadline);
+        Callable<Deadline> task = Deadline.propagate(Deadline::current);
+        Deadline.restore(null);
+
+        assertSame(deadline, task.call());
+        assertNull(Deadline.current());
+    }
+
+    @Test
+    public void testDeadlineFromAttributeMap() throws Exception {
+        Map<Object, Object> attributeMap = new HashMap<>();
+        attributeMap.put(AttributeMapKeys.DEADLINE, "12345");
+        assertEquals(12345L, Deadline.fromAttributeMap(attributeMap).getExpiresAtMillis());
+
+        attributeMap.clear();
+        Deadline deadline = Deadline.fromAttributeMap(attributeMap);
+        assertTrue(deadline.remainingMillis() > 0);
+        assertSame(deadline, Deadline.fromAttributeMap(attributeMap));
+    }
+}
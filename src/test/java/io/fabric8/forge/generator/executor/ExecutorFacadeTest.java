@@ -0,0 +1,192 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.executor;
+
+import io.fabric8.forge.generator.metrics.Metrics;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class ExecutorFacadeTest {
+    private final ExecutorFacade executorFacade = new ExecutorFacade(16);
+
+    @After
+    public void destroy() {
+        executorFacade.destroy();
+    }
+
+    @Test
+    public void testInvokeAllKeepsOrderAndMapsFailures() throws Exception {
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            int index = i;
+            tasks.add(() -> {
+                if (index == 3) {
+                    throw new IllegalStateException("boom");
+                }
+                Thread.sleep(10 - index);
+                return "task-" + index;
+            });
+        }
+        List<String> results = executorFacade.invokeAll(Metrics.GITHUB, tasks, e -> "failed: " + e.getMessage());
+
+        assertEquals(Arrays.asList("task-0", "task-1", "task-2", "failed: boom", "task-4", "task-5", "task-6", "task-7",
+                "task-8", "task-9"), results);
+    }
+
+    @Test
+    public void testDependencyConcurrencyIsLimited() throws Exception {
+        int limit = executorFacade.getConcurrencyLimit(Metrics.GIT_CLONE);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        List<Callable<Integer>> tasks = new ArrayList<>();
+        for (int i = 0; i < limit * 3; i++) {
+            tasks.add(() -> {
+                int count = running.incrementAndGet();
+                maxRunning.accumulateAndGet(count, Math::max);
+                Thread.sleep(5);
+                running.decrementAndGet();
+                return count;
+            });
+        }
+        // lets run two batches at once as the limit applies across callers
+        Thread other = new Thread(() -> {
+            try {
+                executorFacade.invokeAll(Metrics.GIT_CLONE, tasks, e -> -1);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        other.start();
+        executorFacade.invokeAll(Metrics.GIT_CLONE, tasks, e -> -1);
+        other.join();
+
+        assertTrue("at most " + limit + " clones should run at once but was " + maxRunning.get(), maxRunning.get() <= limit);
+    }
+
+    @Test
+    public void testInvokeAllPassesTheIndexOfFailedTasks() throws Exception {
+        List<Callable<String>> tasks = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            int index = i;
+            tasks.add(() -> {
+                if (index % 2 == 1) {
+                    Thread.sleep(10 - index);
+                    throw new IllegalStateException("repo-" + index);
+                }
+                return "repo-" + index;
+            });
+        }
+        List<String> results = executorFacade.invokeAll(Metrics.GIT_CLONE, tasks, (index, e) -> index + ": " + e.getMessage());
+
+        assertEquals(Arrays.asList("repo-0", "1: repo-1", "repo-2", "3: repo-3", "repo-4"), results);
+    }
+
+    @Test
+    public void testBackgroundTasksAreLimitedAndRejectedWhenTheQueueIsFull() throws Exception {
+        String dependency = "background-test";
+        int limit = executorFacade.getConcurrencyLimit(dependency);
+        int queueLimit = executorFacade.getQueueLimit(dependency);
+        Executor executor = executorFacade.executor(dependency);
+        CountDownLatch release = new CountDownLatch(1);
+        CountDownLatch completed = new CountDownLatch(limit + queueLimit);
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        for (int i = 0; i < limit + queueLimit; i++) {
+            executor.execute(() -> {
+                maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                running.decrementAndGet();
+                completed.countDown();
+            });
+        }
+        try {
+            executor.execute(() -> {
+            });
+            fail("Should have rejected the task as the queue is full");
+        } catch (RejectedExecutionException e) {
+            // expected
+        }
+        release.countDown();
+
+        assertTrue("all the queued tasks should complete", completed.await(10, TimeUnit.SECONDS));
+        assertTrue("at most " + limit + " tasks should run at once but was " + maxRunning.get(), maxRunning.get() <= limit);
+    }
+
+    @Test
+    public void testTasksWaitingForAPermitDoNotHoldPoolThreads() throws Exception {
+        ExecutorFacade smallPool = new ExecutorFacade(8);
+        int limit = smallPool.getConcurrencyLimit(Metrics.GIT_CLONE);
+        CountDownLatch started = new CountDownLatch(limit);
+        CountDownLatch release = new CountDownLatch(1);
+        List<Callable<Integer>> clones = new ArrayList<>();
+        for (int i = 0; i < limit; i++) {
+            clones.add(() -> {
+                started.countDown();
+                return release.await(10, TimeUnit.SECONDS) ? 1 : 0;
+            });
+        }
+        // lets have enough batches of clones at once that they would fill the pool if they waited for permits in it
+        List<Thread> callers = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            Thread caller = new Thread(() -> {
+                try {
+                    smallPool.invokeAll(Metrics.GIT_CLONE, clones, e -> -1);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            caller.start();
+            callers.add(caller);
+        }
+        try {
+            assertTrue("the first clones should start", started.await(10, TimeUnit.SECONDS));
+            Thread.sleep(50);
+
+            Deadline.enter(Deadline.after(2000));
+            List<Callable<String>> calls = Collections.singletonList(() -> "github");
+            assertEquals(Collections.singletonList("github"), smallPool.invokeAll(Metrics.GITHUB, calls, e -> "failed"));
+        } finally {
+            Deadline.restore(null);
+            release.countDown();
+            for (Thread caller : callers) {
+                caller.join(10000);
+            }
+            smallPool.destroy();
+        }
+    }
+}
@@ -0,0 +1,111 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.git;
+
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.UserContextPrefetcher;
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.forge.generator.github.GitHubFacade;
+import io.fabric8.forge.generator.github.GithubImportPickOrganisationStep;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class PrefetchedOrganisationsTest {
+    private static final String AUTH_HEADER = "Bearer alice-token";
+
+    private final CacheFacade cacheFacade = new CacheFacade();
+    private final ExecutorFacade executorFacade = new ExecutorFacade(4);
+    private final AtomicInteger loads = new AtomicInteger();
+    private final CountDownLatch loading = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+    private final Collection<GitOrganisationDTO> organisations = Arrays.asList(
+            new GitOrganisationDTO("alice", GitHubFacade.MY_PERSONAL_GITHUB_ACCOUNT),
+            new GitOrganisationDTO("fabric8io", "fabric8io"));
+
+    private final GitHubFacade github = new GitHubFacade(new GitAccount("alice", "alice-token", null, null), null) {
+        @Override
+        public Collection<GitOrganisationDTO> loadGithubOrganisations() {
+            loads.incrementAndGet();
+            loading.countDown();
+            try {
+                release.await(10, TimeUnit.SECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            return organisations;
+        }
+    };
+
+    @After
+    public void destroy() {
+        executorFacade.destroy();
+        cacheFacade.destroy();
+    }
+
+    @Test
+    public void testStepReusesPrefetchedOrganisations() throws Exception {
+        CompletableFuture<Void> prefetch = new OrganisationsPrefetcher().prefetchInBackground(AUTH_HEADER);
+        assertTrue("the prefetch should have started", loading.await(10, TimeUnit.SECONDS));
+
+        GithubImportPickOrganisationStep step = new GithubImportPickOrganisationStep();
+        step.cacheManager = cacheFacade;
+        // lets let the prefetch complete while the step is waiting for it
+        new Thread(() -> {
+            try {
+                Thread.sleep(50);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            release.countDown();
+        }).start();
+        Collection<GitOrganisationDTO> answer = step.loadCachedOrganisations(github.getDetails().getUserCacheKey(), k -> {
+            throw new AssertionError("the step should have joined the prefetched organisations of " + k);
+        });
+        prefetch.get(10, TimeUnit.SECONDS);
+
+        assertSame(organisations, answer);
+        assertEquals(1, loads.get());
+    }
+
+    private class OrganisationsPrefetcher extends UserContextPrefetcher {
+        OrganisationsPrefetcher() {
+            super(cacheFacade, executorFacade);
+        }
+
+        @Override
+        protected GitHubFacade createGitHubFacade(String authHeader) {
+            return github;
+        }
+
+        CompletableFuture<Void> prefetchInBackground(String authHeader) {
+            return CompletableFuture.runAsync(() -> prefetchGithubOrganisations(authHeader));
+        }
+    }
+}
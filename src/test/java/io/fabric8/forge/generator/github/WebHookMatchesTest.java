@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.github;
+
+import io.fabric8.forge.generator.git.WebHookDetails;
+import org.junit.Test;
+import org.kohsuke.github.GHEvent;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class WebHookMatchesTest {
+    private static final String WEBHOOK_URL = "https://jenkins.example.com/github-webhook/";
+    private static final Collection<GHEvent> ALL_EVENTS = EnumSet.of(GHEvent.ALL);
+
+    private final WebHookDetails webhook = new WebHookDetails("alice", "foo", WEBHOOK_URL, "secret101");
+    private final WebHookDetails noSecret = new WebHookDetails("alice", "foo", WEBHOOK_URL, null);
+
+    @Test
+    public void testHookWithoutSecretMatches() throws Exception {
+        assertTrue(GitHubFacade.webHookMatches(true, ALL_EVENTS, configWithoutSecret(WEBHOOK_URL), noSecret));
+    }
+
+    @Test
+    public void testChangedSettingsDoNotMatch() throws Exception {
+        assertFalse("inactive", GitHubFacade.webHookMatches(false, ALL_EVENTS, configWithoutSecret(WEBHOOK_URL), noSecret));
+        assertFalse("push events only", GitHubFacade.webHookMatches(true, EnumSet.of(GHEvent.PUSH), configWithoutSecret(WEBHOOK_URL), noSecret));
+
+        Map<String, String> config = configWithoutSecret(WEBHOOK_URL);
+        config.put("content_type", "form");
+        assertFalse("form content", GitHubFacade.webHookMatches(true, ALL_EVENTS, config, noSecret));
+
+        config = configWithoutSecret(WEBHOOK_URL);
+        config.put("insecure_ssl", "0");
+        assertFalse("ssl verification", GitHubFacade.webHookMatches(true, ALL_EVENTS, config, noSecret));
+
+        assertFalse("unexpected secret", GitHubFacade.webHookMatches(true, ALL_EVENTS, githubConfig(WEBHOOK_URL), noSecret));
+        assertFalse("no secret", GitHubFacade.webHookMatches(true, ALL_EVENTS, configWithoutSecret(WEBHOOK_URL), webhook));
+
+        assertFalse("no config", GitHubFacade.webHookMatches(true, ALL_EVENTS, null, noSecret));
+    }
+
+    @Test
+    public void testHookWithMaskedSecretIsUpdated() throws Exception {
+        // github masks the secret so a hook with a stale secret looks just like one with the current secret
+        WebHookDetails rotated = new WebHookDetails("alice", "foo", WEBHOOK_URL, "secret102");
+
+        assertFalse(GitHubFacade.webHookMatches(true, ALL_EVENTS, githubConfig(WEBHOOK_URL), webhook));
+        assertFalse(GitHubFacade.webHookMatches(true, ALL_EVENTS, githubConfig(WEBHOOK_URL), rotated));
+    }
+
+    @Test
+    public void testSettingsDependOnTheUrl() throws Exception {
+        String settings = GitHubFacade.webHookSettings(true, ALL_EVENTS, githubConfig(WEBHOOK_URL));
+
+        assertEquals(settings, GitHubFacade.webHookSettings(true, Collections.singletonList(GHEvent.ALL), githubConfig(WEBHOOK_URL)));
+        assertFalse(settings.equals(GitHubFacade.webHookSettings(true, ALL_EVENTS, githubConfig("https://other.example.com/github-webhook/"))));
+    }
+
+    /**
+     * Returns the configuration github returns for a hook we created; it masks the secret
+     */
+    private static Map<String, String> githubConfig(String url) {
+        Map<String, String> config = new HashMap<>();
+        config.put("url", url);
+        config.put("content_type", "json");
+        config.put("insecure_ssl", "1");
+        config.put("secret", "********");
+        return config;
+    }
+
+    private static Map<String, String> configWithoutSecret(String url) {
+        Map<String, String> config = githubConfig(url);
+        config.remove("secret");
+        return config;
+    }
+}
@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.keycloak;
+
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+
+/**
+ */
+public class KeycloakTokenCacheTest {
+    private final KeycloakTokenCache cache = new KeycloakTokenCache(TimeUnit.MINUTES.toMillis(5), TimeUnit.SECONDS.toMillis(30));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    public void testTokenIsCachedPerEndpoint() throws Exception {
+        String header = authHeader("alice", "one");
+        assertEquals("token-1", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+        assertEquals("token-1", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+        assertEquals("token-2", cache.getToken(KeycloakEndpoint.GET_OPENSHIFT_TOKEN, header, this::loadToken));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testExpiredAndEvictedTokensAreReloaded() throws Exception {
+        String header = authHeader("alice", "one");
+        long soon = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, () -> new KeycloakToken("short-lived", soon));
+        assertEquals("token-1", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+
+        cache.evict(KeycloakEndpoint.GET_GITHUB_TOKEN, header);
+        assertEquals("token-2", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+    }
+
+    @Test
+    public void testDifferentHeaderForSameSubjectIsNotServedFromCache() throws Exception {
+        assertEquals("token-1", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, authHeader("alice", "one"), this::loadToken));
+        assertEquals("token-2", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, authHeader("alice", "two"), this::loadToken));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    public void testFailedAndBlankTokensAreNotCached() throws Exception {
+        String header = authHeader("alice", "one");
+        try {
+            cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, () -> {
+                throw new IllegalStateException("keycloak is down");
+            });
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, () -> new KeycloakToken("", 0));
+        assertEquals(0, cache.size());
+        assertEquals("token-1", cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+    }
+
+    @Test
+    public void testConcurrentRefreshesAreCoalesced() throws Exception {
+        String header = authHeader("alice", "one");
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            Future<String> first = executor.submit(() -> cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, () -> {
+                loading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return loadToken();
+            }));
+            loading.await(10, TimeUnit.SECONDS);
+            Future<String> second = executor.submit(() -> cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+            Future<String> third = executor.submit(() -> cache.getToken(KeycloakEndpoint.GET_GITHUB_TOKEN, header, this::loadToken));
+            release.countDown();
+
+            assertEquals("token-1", first.get(10, TimeUnit.SECONDS));
+            assertEquals("token-1", second.get(10, TimeUnit.SECONDS));
+            assertEquals("token-1", third.get(10, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private KeycloakToken loadToken() {
+        return new KeycloakToken("token-" + loads.incrementAndGet(), 0);
+    }
+
+    /**
+     * Returns an unsigned bearer JWT for the given subject; the cache only decodes it
+     */
+    private static String authHeader(String subject, String session) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String header = encoder.encodeToString("{\"alg\":\"none\"}".getBytes(StandardCharsets.UTF_8));
+        String payload = encoder.encodeToString(("{\"sub\":\"" + subject + "\",\"sid\":\"" + session + "\"}").getBytes(StandardCharsets.UTF_8));
+        return "Bearer " + header + "." + payload + ".unsigned";
+    }
+}
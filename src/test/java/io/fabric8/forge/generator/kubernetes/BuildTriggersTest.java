@@ -0,0 +1,132 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import io.fabric8.kubernetes.client.Watch;
+import io.fabric8.kubernetes.client.Watcher;
+import io.fabric8.openshift.api.model.Build;
+import io.fabric8.openshift.api.model.BuildBuilder;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class BuildTriggersTest {
+    private final ExecutorFacade executorFacade = new ExecutorFacade(4);
+    private final BuildTriggers buildTriggers = new BuildTriggers(executorFacade);
+    private final AtomicInteger attempts = new AtomicInteger();
+    private volatile boolean watchFails;
+    private volatile boolean watchClosed;
+
+    @After
+    public void destroy() {
+        executorFacade.destroy();
+    }
+
+    @Test
+    public void testWatchTriggersBuildWithoutPolling() throws Exception {
+        BuildTriggers.PendingTrigger trigger = createTrigger(10000);
+        trigger.start();
+
+        Thread.sleep(600);
+        assertEquals("an open watch should not poll", 0, attempts.get());
+        assertEquals(BuildTriggerDTO.PENDING, trigger.get().getStatus());
+
+        trigger.eventReceived(Watcher.Action.ADDED, null);
+        BuildTriggerDTO status = waitForStatus(trigger, BuildTriggerDTO.TRIGGERED);
+        assertEquals("foo-1", status.getBuildName());
+        assertEquals(1, attempts.get());
+        assertTrue(watchClosed);
+    }
+
+    @Test
+    public void testFailedWatchFallsBackToPolling() throws Exception {
+        watchFails = true;
+        BuildTriggers.PendingTrigger trigger = createTrigger(10000);
+        trigger.start();
+
+        waitForStatus(trigger, BuildTriggerDTO.TRIGGERED);
+    }
+
+    @Test
+    public void testClosedWatchFallsBackToPolling() throws Exception {
+        BuildTriggers.PendingTrigger trigger = createTrigger(10000);
+        trigger.start();
+        trigger.onClose(new KubernetesClientException("watch closed"));
+
+        waitForStatus(trigger, BuildTriggerDTO.TRIGGERED);
+    }
+
+    @Test
+    public void testStatusSnapshotsAreNotChanged() throws Exception {
+        BuildTriggers.PendingTrigger trigger = createTrigger(10000);
+        trigger.start();
+        BuildTriggerDTO pending = trigger.get();
+
+        trigger.eventReceived(Watcher.Action.ADDED, null);
+        BuildTriggerDTO triggered = waitForStatus(trigger, BuildTriggerDTO.TRIGGERED);
+
+        assertTrue(pending != triggered);
+        assertEquals(BuildTriggerDTO.PENDING, pending.getStatus());
+        assertEquals(null, pending.getBuildName());
+    }
+
+    @Test
+    public void testFailsWhenBuildConfigNeverAppears() throws Exception {
+        BuildTriggers.PendingTrigger trigger = createTrigger(200);
+        trigger.start();
+
+        BuildTriggerDTO status = waitForStatus(trigger, BuildTriggerDTO.FAILED);
+        assertTrue(status.getMessage(), status.getMessage().contains("timed out"));
+        assertEquals(0, attempts.get());
+        assertTrue(watchClosed);
+    }
+
+    private BuildTriggers.PendingTrigger createTrigger(long timeoutMillis) {
+        return buildTriggers.new PendingTrigger(null, new BuildTriggerDTO("alice", "foo"), System.currentTimeMillis() + timeoutMillis) {
+            @Override
+            protected Watch watch() throws Exception {
+                if (watchFails) {
+                    throw new KubernetesClientException("forbidden");
+                }
+                return () -> watchClosed = true;
+            }
+
+            @Override
+            protected Build instantiate() throws Exception {
+                attempts.incrementAndGet();
+                return new BuildBuilder().withNewMetadata().withName("foo-1").endMetadata().build();
+            }
+        };
+    }
+
+    private static BuildTriggerDTO waitForStatus(BuildTriggers.PendingTrigger trigger, String status) throws InterruptedException {
+        long end = System.currentTimeMillis() + 10000;
+        while (!status.equals(trigger.get().getStatus()) && System.currentTimeMillis() < end) {
+            Thread.sleep(20);
+        }
+        assertEquals(status, trigger.get().getStatus());
+        return trigger.get();
+    }
+}
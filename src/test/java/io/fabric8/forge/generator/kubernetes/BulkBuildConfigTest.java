@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.executor.ExecutorFacade;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class BulkBuildConfigTest {
+    private final ExecutorFacade executorFacade = new ExecutorFacade(4);
+
+    @After
+    public void destroy() {
+        executorFacade.destroy();
+    }
+
+    @Test
+    public void testFailureIsReportedAgainstItsRepository() throws Exception {
+        List<BuildConfigResultDTO> results = CreateBuildConfigStep.createBuildConfigs(executorFacade, "alice", Arrays.asList(
+                created("foo", "foo"),
+                new CreateBuildConfigStep.BuildConfigTask("Bar_Repo", "bar-repo", () -> {
+                    throw new IllegalStateException("forbidden");
+                }),
+                created("baz", "baz")), true);
+
+        assertEquals(3, results.size());
+        BuildConfigResultDTO failed = results.get(1);
+        assertFalse(failed.isCreated());
+        assertEquals("Bar_Repo", failed.getGitRepoName());
+        assertEquals("bar-repo", failed.getBuildConfigName());
+        assertTrue(failed.getError(), failed.getError().contains("alice/bar-repo"));
+        assertTrue(results.get(0).isCreated());
+        assertTrue(results.get(2).isCreated());
+    }
+
+    @Test
+    public void testOnlyCreatedRepositoriesGetJobsAndWebHooks() throws Exception {
+        BuildConfigResultDTO existing = new BuildConfigResultDTO("bar", "bar");
+        existing.setError("Already created BuildConfig alice/bar");
+        List<BuildConfigResultDTO> results = CreateBuildConfigStep.createBuildConfigs(executorFacade, "alice", Arrays.asList(
+                created("foo", "foo"),
+                new CreateBuildConfigStep.BuildConfigTask("bar", "bar", () -> existing),
+                created("baz", "baz")), true);
+
+        List<String> repositories = CreateBuildConfigStep.createdRepositories(results);
+        assertEquals(Arrays.asList("foo", "baz"), repositories);
+        Pattern jobPattern = Pattern.compile(JobPattern.of(repositories).toRegex());
+        assertTrue(jobPattern.matcher("foo").matches());
+        assertFalse(jobPattern.matcher("bar").matches());
+    }
+
+    private static CreateBuildConfigStep.BuildConfigTask created(String gitRepoName, String buildConfigName) {
+        return new CreateBuildConfigStep.BuildConfigTask(gitRepoName, buildConfigName, () -> {
+            BuildConfigResultDTO result = new BuildConfigResultDTO(gitRepoName, buildConfigName);
+            result.setCreated(true);
+            return result;
+        });
+    }
+}
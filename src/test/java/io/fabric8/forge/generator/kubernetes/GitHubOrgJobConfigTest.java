@@ -0,0 +1,80 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class GitHubOrgJobConfigTest {
+    private static final String NAVIGATOR = CreateBuildConfigStep.GITHUB_SCM_NAVIGATOR_ELEMENT;
+    private static final String REGEX_TRAIT = CreateBuildConfigStep.REGEX_SCM_SOURCE_FILTER_TRAIT_ELEMENT;
+
+    @Test
+    public void testRenderTemplate() throws Exception {
+        String xml = GitHubOrgJobConfig.template().render("jstrachan", "foo");
+
+        GitHubOrgJobConfig config = GitHubOrgJobConfig.parse(xml);
+        assertNotNull("should find the navigator in " + xml, config);
+        assertEquals("jstrachan", config.getRepoOwner());
+        assertEquals("foo", config.getPattern());
+        assertTrue("should keep the rest of the template", xml.contains("<scanCredentialsId>cd-github</scanCredentialsId>"));
+    }
+
+    @Test
+    public void testMergeExistingPattern() throws Exception {
+        String xml = "<jobs><" + NAVIGATOR + " plugin=\"x\"><repoOwner>old</repoOwner><pattern>bar</pattern></" + NAVIGATOR + "></jobs>";
+
+        String actual = GitHubOrgJobConfig.parse(xml).render("jstrachan", "foo");
+        assertEquals("<jobs><" + NAVIGATOR + " plugin=\"x\"><repoOwner>jstrachan</repoOwner><pattern>bar|foo</pattern></" + NAVIGATOR + "></jobs>", actual);
+    }
+
+    @Test
+    public void testMergeRegexTraitAndSelfClosingOwner() throws Exception {
+        String xml = "<jobs><" + NAVIGATOR + "><traits><" + REGEX_TRAIT + "><regex>a&amp;b</regex></" + REGEX_TRAIT + "></traits>" +
+                "<repoOwner/></" + NAVIGATOR + "></jobs>";
+
+        GitHubOrgJobConfig config = GitHubOrgJobConfig.parse(xml);
+        assertEquals("a&b", config.getPattern());
+        assertEquals("<jobs><" + NAVIGATOR + "><traits><" + REGEX_TRAIT + "><regex>a&amp;b|foo</regex></" + REGEX_TRAIT + "></traits>" +
+                "<repoOwner>jstrachan</repoOwner></" + NAVIGATOR + "></jobs>", config.render("jstrachan", "foo"));
+    }
+
+    @Test
+    public void testMergeBatchSkipsExistingRepositories() throws Exception {
+        String xml = "<jobs><" + NAVIGATOR + "><repoOwner>jstrachan</repoOwner><pattern>bar|foo</pattern></" + NAVIGATOR + "></jobs>";
+
+        assertSame(xml, GitHubOrgJobConfig.merge(xml, "jstrachan", Arrays.asList("foo", "bar|foo")));
+        assertEquals("<jobs><" + NAVIGATOR + "><repoOwner>jstrachan</repoOwner><pattern>ba(?:r|z)|cheese|foo</pattern></" + NAVIGATOR + "></jobs>",
+                GitHubOrgJobConfig.merge(xml, "jstrachan", Arrays.asList("foo", "baz", "cheese", "baz")));
+    }
+
+    @Test
+    public void testCannotSpliceUnexpectedXml() throws Exception {
+        assertNull(GitHubOrgJobConfig.parse("<jobs/>"));
+        assertNull(GitHubOrgJobConfig.parse("<jobs><" + NAVIGATOR + "><repoOwner>x</repoOwner></" + NAVIGATOR + "></jobs>"));
+        assertNull(GitHubOrgJobConfig.parse("<jobs><" + NAVIGATOR + "><repoOwner>x</repoOwner><pattern><![CDATA[a]]></pattern></" + NAVIGATOR + "></jobs>"));
+    }
+}
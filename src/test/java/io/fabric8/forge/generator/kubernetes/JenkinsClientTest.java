@@ -0,0 +1,159 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.utils.ObjectMappers;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.ws.rs.client.Entity;
+import javax.ws.rs.core.Response;
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class JenkinsClientTest {
+    private static final String JENKINS_URL = "https://jenkins.example.com";
+    private static final String JOB_URL = JENKINS_URL + "/job/fabric8io";
+    private static final String TRIGGER_URL = JOB_URL + "/build?delay=0";
+
+    private final CacheFacade cacheFacade = new CacheFacade();
+    private final JenkinsClients clients = new JenkinsClients(cacheFacade);
+    private final List<String> requests = new CopyOnWriteArrayList<>();
+    private volatile String jenkinsCrumb = "abc";
+    private volatile CountDownLatch triggering;
+    private volatile CountDownLatch releaseTrigger;
+
+    @After
+    public void destroy() {
+        cacheFacade.destroy();
+    }
+
+    @Test
+    public void testForbiddenPostFetchesCrumbAndRetries() throws Exception {
+        FakeJenkinsClient alice = new FakeJenkinsClient("Bearer alice-token");
+
+        alice.triggerBuild(JOB_URL, false);
+        assertEquals("[POST " + TRIGGER_URL + " null, GET crumb, POST " + TRIGGER_URL + " Jenkins-Crumb:abc]", requests.toString());
+
+        requests.clear();
+        alice.triggerBuild(JOB_URL, false);
+        assertEquals("the cached crumb should be reused", "[POST " + TRIGGER_URL + " Jenkins-Crumb:abc]", requests.toString());
+
+        requests.clear();
+        jenkinsCrumb = "def";
+        alice.triggerBuild(JOB_URL, false);
+        assertEquals("an expired crumb should be fetched again",
+                "[POST " + TRIGGER_URL + " Jenkins-Crumb:abc, GET crumb, POST " + TRIGGER_URL + " Jenkins-Crumb:def]", requests.toString());
+    }
+
+    @Test
+    public void testConcurrentTriggersByTheSameUserAreCoalesced() throws Exception {
+        jenkinsCrumb = null;
+        Thread first = triggerInBackground(new FakeJenkinsClient("Bearer alice-token"));
+
+        Thread second = new Thread(() -> new FakeJenkinsClient("Bearer alice-token").triggerBuild(JOB_URL, true));
+        second.start();
+        // lets wait for the second trigger to join the first one
+        for (int i = 0; i < 1000 && second.getState() != Thread.State.WAITING; i++) {
+            Thread.sleep(10);
+        }
+        releaseTrigger.countDown();
+        first.join(10000);
+        second.join(10000);
+
+        assertEquals("[GET lastBuild, POST " + TRIGGER_URL + " null]", requests.toString());
+        assertTrue(clients.getTriggers().isEmpty());
+    }
+
+    @Test
+    public void testConcurrentTriggersByDifferentUsersAreNotCoalesced() throws Exception {
+        jenkinsCrumb = null;
+        Thread first = triggerInBackground(new FakeJenkinsClient("Bearer alice-token"));
+
+        // bob triggers while alice's trigger is still in flight
+        Thread second = new Thread(() -> new FakeJenkinsClient("Bearer bob-token").triggerBuild(JOB_URL, false));
+        second.start();
+        second.join(5000);
+        assertFalse("bob should not wait for the trigger of alice", second.isAlive());
+        releaseTrigger.countDown();
+        first.join(10000);
+
+        assertEquals("[GET lastBuild, POST " + TRIGGER_URL + " null, POST " + TRIGGER_URL + " null]", requests.toString());
+        assertTrue(clients.getTriggers().isEmpty());
+    }
+
+    private Thread triggerInBackground(JenkinsClient client) throws InterruptedException {
+        triggering = new CountDownLatch(1);
+        releaseTrigger = new CountDownLatch(1);
+        Thread thread = new Thread(() -> client.triggerBuild(JOB_URL, true));
+        thread.start();
+        assertTrue("the first trigger should have started", triggering.await(10, TimeUnit.SECONDS));
+        return thread;
+    }
+
+    /**
+     * A Jenkins which requires the current crumb on POSTs when it has one
+     */
+    private class FakeJenkinsClient extends JenkinsClient {
+        FakeJenkinsClient(String authHeader) {
+            super(clients, JENKINS_URL, authHeader);
+        }
+
+        @Override
+        public JsonNode getJson(String operation, String url) {
+            requests.add("GET " + operation);
+            if (operation.equals("lastBuild")) {
+                CountDownLatch started = triggering;
+                if (started != null && started.getCount() > 0) {
+                    started.countDown();
+                    try {
+                        releaseTrigger.await(10, TimeUnit.SECONDS);
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                    }
+                }
+                return null;
+            }
+            try {
+                return ObjectMappers.json().readTree("{\"crumbRequestField\": \"Jenkins-Crumb\", \"crumb\": \"" + jenkinsCrumb + "\"}");
+            } catch (IOException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        protected Response send(String operation, String url, String accept, Entity<?> entity) {
+            String crumb = clients.getCrumbs().get(crumbKey());
+            requests.add("POST " + url + " " + crumb);
+            if (jenkinsCrumb != null && !("Jenkins-Crumb:" + jenkinsCrumb).equals(crumb)) {
+                return Response.status(403).build();
+            }
+            return Response.status(201).build();
+        }
+    }
+}
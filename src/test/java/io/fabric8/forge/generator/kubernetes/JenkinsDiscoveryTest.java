@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.cache.CacheFacade;
+import io.fabric8.forge.generator.cache.CacheNames;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class JenkinsDiscoveryTest {
+    private final CacheFacade cacheFacade = new CacheFacade();
+    private final KubernetesClient alice = createClient("alice-token");
+    private final KubernetesClient bob = createClient("bob-token");
+
+    @After
+    public void destroy() {
+        alice.close();
+        bob.close();
+        cacheFacade.destroy();
+    }
+
+    @Test
+    public void testCacheKeyUsesNamespaceAndIdentityRatherThanToken() throws Exception {
+        String key = JenkinsDiscovery.cacheKey(alice, "alice-jenkins");
+
+        assertTrue("key " + key, key.startsWith("alice-jenkins/"));
+        assertFalse("key " + key + " should not contain the token", key.contains("alice-token"));
+        try (KubernetesClient sameUser = createClient("alice-token")) {
+            assertEquals(key, JenkinsDiscovery.cacheKey(sameUser, "alice-jenkins"));
+        }
+        assertFalse(key.equals(JenkinsDiscovery.cacheKey(bob, "alice-jenkins")));
+    }
+
+    @Test
+    public void testServiceAccountTokenIsCachedPerNamespaceAndUser() throws Exception {
+        cacheFacade.getCache(CacheNames.JENKINS_BOT_SECRETS).put(JenkinsDiscovery.cacheKey(alice, "alice-jenkins") + "/jenkins", "bot-token");
+        cacheFacade.getCache(CacheNames.JENKINS_BOT_SECRETS).put(JenkinsDiscovery.cacheKey(bob, "alice-jenkins") + "/jenkins", "");
+
+        assertEquals("bot-token", JenkinsDiscovery.getServiceAccountToken(cacheFacade, alice, "alice-jenkins", "jenkins"));
+        assertEquals(null, JenkinsDiscovery.getServiceAccountToken(cacheFacade, bob, "alice-jenkins", "jenkins"));
+    }
+
+    @Test
+    public void testSecretsAreNeverReturnedStale() throws Exception {
+        assertFalse(cacheFacade.isStaleFallbackAllowed(CacheNames.JENKINS_BOT_SECRETS));
+        assertFalse(cacheFacade.isStaleFallbackAllowed(CacheNames.JENKINS_CREDENTIALS));
+        assertFalse(cacheFacade.isStaleFallbackAllowed(CacheNames.JENKINS_CRUMBS));
+        assertTrue(cacheFacade.isStaleFallbackAllowed(CacheNames.JENKINS_SERVICE_URLS));
+    }
+
+    protected static KubernetesClient createClient(String token) {
+        return new DefaultKubernetesClient(new ConfigBuilder().withMasterUrl("https://localhost:8443").withOauthToken(token).build());
+    }
+}
@@ -0,0 +1,102 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import org.junit.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.regex.Pattern;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class JobPatternTest {
+    private static final transient Logger LOG = LoggerFactory.getLogger(JobPatternTest.class);
+
+    @Test
+    public void testCombineJobPatterns() throws Exception {
+        assertJobPatternCombines("", "foo", "foo");
+        assertJobPatternCombines("   ", "foo", "foo");
+        assertJobPatternCombines("bar", "foo", "bar|foo");
+        assertJobPatternCombines("bar|whatnot", "foo", "bar|foo|whatnot");
+        assertJobPatternCombines("bar|foo", "foo", "bar|foo");
+    }
+
+    @Test
+    public void testCombineIsIdempotent() throws Exception {
+        String pattern = "whatnot|bar|foo";
+        assertSame(pattern, GitHubOrgJobConfig.addToPattern(pattern, Collections.singletonList("foo")));
+        assertSame(pattern, GitHubOrgJobConfig.addToPattern(pattern, Collections.singletonList("foo|bar")));
+    }
+
+    @Test
+    public void testCompactsCommonPrefixes() throws Exception {
+        JobPattern pattern = JobPattern.of(Arrays.asList("foo-ui", "foo", "foo-api", "foobar", "bar", "x.y"));
+        String regex = pattern.toRegex();
+        assertEquals("bar|foo(?:-(?:api|ui)|bar)?|x\\.y", regex);
+
+        Pattern compiled = Pattern.compile(regex);
+        for (String name : pattern.getRepositoryNames()) {
+            assertTrue(name, compiled.matcher(name).matches());
+        }
+        assertFalse(compiled.matcher("foo-").matches());
+        assertFalse(compiled.matcher("xzy").matches());
+        assertEquals(pattern.getRepositoryNames(), JobPattern.parse(regex).getRepositoryNames());
+    }
+
+    @Test
+    public void testKeepsHandWrittenPatterns() throws Exception {
+        JobPattern pattern = JobPattern.parse("foo-.*|bar|(cheese)|[ab]c");
+        assertEquals(Collections.singleton("bar"), pattern.getRepositoryNames());
+        assertTrue(pattern.add("baz"));
+        assertFalse(pattern.add("bar"));
+        assertEquals("ba(?:r|z)|(cheese)|[ab]c|foo-.*", pattern.toRegex());
+    }
+
+    @Test
+    public void testLargeOrganisationRoundTrips() throws Exception {
+        List<String> names = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            names.add("my-repository-" + i);
+        }
+        JobPattern pattern = JobPattern.of(names);
+        String regex = pattern.toRegex();
+        LOG.debug("compacted " + names.size() + " repositories into " + regex.length() + " characters");
+
+        Pattern compiled = Pattern.compile(regex);
+        for (String name : names) {
+            assertTrue(name, compiled.matcher(name).matches());
+        }
+        assertEquals(pattern.getRepositoryNames(), JobPattern.parse(regex).getRepositoryNames());
+    }
+
+    private void assertJobPatternCombines(String currentValue, String repoName, String expected) {
+        String actual = GitHubOrgJobConfig.addToPattern(currentValue, Collections.singletonList(repoName));
+        LOG.debug("job combine from `" + currentValue + "` with `" + repoName + "` = `" + actual + "`");
+        assertEquals("job combine from `" + currentValue + "` with `" + repoName + "`", expected, actual);
+    }
+
+}
@@ -0,0 +1,129 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.kubernetes.client.Config;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class KubernetesClientPoolTest {
+    private KubernetesClientPool pool = new KubernetesClientPool(10, 60000);
+
+    @After
+    public void destroy() {
+        pool.close();
+    }
+
+    @Test
+    public void testClientIsReusedForTheSameToken() throws Exception {
+        KubernetesClient client = pool.getClient("alice", createConfig("alice-token"), null);
+
+        assertSame(client, pool.getClient("alice", createConfig("alice-token"), null));
+        assertEquals(1, pool.size());
+    }
+
+    @Test
+    public void testNewTokenReplacesTheClientWithoutChangingIt() throws Exception {
+        KubernetesClient oldClient = pool.getClient("alice", createConfig("old-token"), null);
+        KubernetesClient newClient = pool.getClient("alice", createConfig("new-token"), null);
+
+        assertFalse(oldClient == newClient);
+        assertEquals("old-token", oldClient.getConfiguration().getOauthToken());
+        assertEquals("new-token", newClient.getConfiguration().getOauthToken());
+        assertEquals(1, pool.size());
+        assertEquals(1, pool.evictedSize());
+        assertFalse("a step may still be using the old client", pooled(oldClient).isClosed());
+    }
+
+    @Test
+    public void testEvictedClientIsClosedOnceIdle() throws Exception {
+        pool.close();
+        pool = new KubernetesClientPool(10, 50);
+        KubernetesClient oldClient = pool.getClient("alice", createConfig("old-token"), null);
+        pool.getClient("alice", createConfig("new-token"), null);
+        pooled(oldClient).beginRequest();
+
+        Thread.sleep(100);
+        pool.getClient("bob", createConfig("bob-token"), null);
+        assertFalse("a request is still in flight", pooled(oldClient).isClosed());
+
+        pooled(oldClient).endRequest();
+        Thread.sleep(100);
+        pool.getClient("bob", createConfig("bob-token"), null);
+        assertTrue(pooled(oldClient).isClosed());
+        try {
+            pooled(oldClient).beginRequest();
+            fail("a closed client should not make requests");
+        } catch (IOException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void testLeastRecentlyUsedClientIsEvicted() throws Exception {
+        pool.close();
+        pool = new KubernetesClientPool(1, 60000);
+        KubernetesClient alice = pool.getClient("alice", createConfig("alice-token"), null);
+        KubernetesClient bob = pool.getClient("bob", createConfig("bob-token"), null);
+
+        assertEquals(1, pool.size());
+        assertTrue(pooled(alice).isRetired());
+        assertFalse(pooled(alice).isClosed());
+
+        bob.close();
+        assertFalse("closing a pooled client leaves it open", pooled(bob).isClosed());
+        alice.close();
+        assertTrue("closing an evicted client closes it", pooled(alice).isClosed());
+    }
+
+    @Test
+    public void testCloseClosesAllClients() throws Exception {
+        KubernetesClient oldClient = pool.getClient("alice", createConfig("old-token"), null);
+        KubernetesClient newClient = pool.getClient("alice", createConfig("new-token"), null);
+
+        pool.close();
+
+        assertTrue(pooled(oldClient).isClosed());
+        assertTrue(pooled(newClient).isClosed());
+        try {
+            pool.getClient("alice", createConfig("new-token"), null);
+            fail("a closed pool should not create clients");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+    }
+
+    private static KubernetesClientPool.PooledClient pooled(KubernetesClient client) {
+        return ((KubernetesClientPool.PooledKubernetesClient) client).getPooledClient();
+    }
+
+    private static Config createConfig(String token) {
+        return new ConfigBuilder().withMasterUrl("https://openshift.example.com").withOauthToken(token).build();
+    }
+}
@@ -0,0 +1,208 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.kubernetes.api.model.ConfigMap;
+import io.fabric8.kubernetes.api.model.ConfigMapBuilder;
+import io.fabric8.kubernetes.client.ConfigBuilder;
+import io.fabric8.kubernetes.client.DefaultKubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClient;
+import io.fabric8.kubernetes.client.KubernetesClientException;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+/**
+ */
+public class OrganisationJobConfigMapsTest {
+    private static final String NAMESPACE = "alice";
+    private static final String OWNER = "alice";
+
+    private final KubernetesClient alice = createClient("alice-token");
+    private final KubernetesClient bob = createClient("bob-token");
+    private final FakeConfigMaps configMaps = new FakeConfigMaps();
+
+    @After
+    public void destroy() {
+        alice.close();
+        bob.close();
+    }
+
+    @Test
+    public void testConcurrentAdditionsAreCoalesced() throws Exception {
+        configMaps.blockFirstRead();
+        CompletableFuture<ConfigMap> first = addAsync(alice, "foo");
+        assertTrue(configMaps.reading.await(10, TimeUnit.SECONDS));
+
+        List<CompletableFuture<ConfigMap>> waiting = new ArrayList<>();
+        for (String repoName : new String[]{"bar", "baz", "qux"}) {
+            waiting.add(addAsync(alice, repoName));
+        }
+        // lets let the additions queue up behind the first write
+        Thread.sleep(200);
+        configMaps.release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        for (CompletableFuture<ConfigMap> future : waiting) {
+            future.get(10, TimeUnit.SECONDS);
+        }
+        assertEquals("the queued additions should be written together", 2, configMaps.writes.get());
+        String xml = configMaps.currentXml();
+        for (String repoName : new String[]{"foo", "bar", "baz", "qux"}) {
+            assertTrue(repoName + " in " + xml, xml.contains(repoName));
+        }
+        assertEquals("the locks should be removed once unused", 0, configMaps.lockCount());
+    }
+
+    @Test
+    public void testEachUserWritesWithTheirOwnClient() throws Exception {
+        configMaps.blockFirstRead();
+        CompletableFuture<ConfigMap> first = addAsync(alice, "foo");
+        assertTrue(configMaps.reading.await(10, TimeUnit.SECONDS));
+
+        // bob is not held up by alice nor written by alice's client
+        addAsync(bob, "bar").get(10, TimeUnit.SECONDS);
+        assertFalse(first.isDone());
+        assertEquals(Collections.singletonList(bob), configMaps.writers);
+
+        configMaps.release.countDown();
+        first.get(10, TimeUnit.SECONDS);
+        assertSame(alice, configMaps.writers.get(1));
+        String xml = configMaps.currentXml();
+        assertTrue(xml, xml.contains("foo") && xml.contains("bar"));
+    }
+
+    @Test
+    public void testConflictIsMergedAgain() throws Exception {
+        configMaps.createConfigMap(bob, NAMESPACE, configMap("existing"));
+        configMaps.conflictWith = "other";
+
+        configMaps.addRepositories(alice, NAMESPACE, OWNER, Collections.singletonList("foo"));
+
+        assertEquals(1, configMaps.conflicts.get());
+        String xml = configMaps.currentXml();
+        for (String repoName : new String[]{"existing", "other", "foo"}) {
+            assertTrue(repoName + " in " + xml, xml.contains(repoName));
+        }
+    }
+
+    private CompletableFuture<ConfigMap> addAsync(KubernetesClient client, String repoName) {
+        return CompletableFuture.supplyAsync(() -> configMaps.addRepositories(client, NAMESPACE, OWNER, Collections.singletonList(repoName)));
+    }
+
+    private static ConfigMap configMap(String repoName) {
+        Map<String, String> data = new HashMap<>();
+        data.put(ConfigMapKeys.ROOT_JOB, "true");
+        data.put(ConfigMapKeys.TRIGGER_ON_CHANGE, "true");
+        data.put(ConfigMapKeys.CONFIG_XML, GitHubOrgJobConfig.merge(null, OWNER, Collections.singletonList(repoName)));
+        return new ConfigMapBuilder().withNewMetadata().withName(OWNER).endMetadata().withData(data).build();
+    }
+
+    private static KubernetesClient createClient(String token) {
+        return new DefaultKubernetesClient(new ConfigBuilder().withMasterUrl("https://openshift.example.com").withOauthToken(token).build());
+    }
+
+    /**
+     * Keeps the ConfigMap in memory checking its resource version like the API server
+     */
+    private static class FakeConfigMaps extends OrganisationJobConfigMaps {
+        private final AtomicInteger writes = new AtomicInteger();
+        private final AtomicInteger conflicts = new AtomicInteger();
+        private final List<KubernetesClient> writers = Collections.synchronizedList(new ArrayList<>());
+        private final CountDownLatch reading = new CountDownLatch(1);
+        private final CountDownLatch release = new CountDownLatch(1);
+        private volatile boolean blockFirstRead;
+        private volatile String conflictWith;
+        private ConfigMap current;
+        private int version;
+
+        void blockFirstRead() {
+            blockFirstRead = true;
+        }
+
+        synchronized String currentXml() {
+            return current.getData().get(ConfigMapKeys.CONFIG_XML);
+        }
+
+        @Override
+        protected ConfigMap getConfigMap(KubernetesClient kubernetes, String namespace, String configMapName) {
+            if (blockFirstRead) {
+                blockFirstRead = false;
+                reading.countDown();
+                try {
+                    release.await(10, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            synchronized (this) {
+                return current == null ? null : new ConfigMapBuilder(current).build();
+            }
+        }
+
+        @Override
+        protected synchronized ConfigMap createConfigMap(KubernetesClient kubernetes, String namespace, ConfigMap configMap) {
+            if (current != null) {
+                throw new KubernetesClientException("already exists", 409, null);
+            }
+            return store(kubernetes, configMap);
+        }
+
+        @Override
+        protected synchronized ConfigMap replaceConfigMap(KubernetesClient kubernetes, String namespace, ConfigMap configMap) {
+            String other = conflictWith;
+            if (other != null) {
+                // another replica writes first
+                conflictWith = null;
+                conflicts.incrementAndGet();
+                Map<String, String> data = new HashMap<>(current.getData());
+                data.put(ConfigMapKeys.CONFIG_XML, GitHubOrgJobConfig.merge(data.get(ConfigMapKeys.CONFIG_XML), OWNER, Collections.singletonList(other)));
+                ConfigMap changed = new ConfigMapBuilder(current).withData(data).build();
+                store(null, changed);
+            }
+            if (!String.valueOf(version).equals(configMap.getMetadata().getResourceVersion())) {
+                throw new KubernetesClientException("conflict", 409, null);
+            }
+            return store(kubernetes, configMap);
+        }
+
+        private ConfigMap store(KubernetesClient kubernetes, ConfigMap configMap) {
+            version++;
+            configMap.getMetadata().setResourceVersion(String.valueOf(version));
+            current = new ConfigMapBuilder(configMap).build();
+            writes.incrementAndGet();
+            if (kubernetes != null) {
+                writers.add(kubernetes);
+            }
+            return configMap;
+        }
+    }
+}
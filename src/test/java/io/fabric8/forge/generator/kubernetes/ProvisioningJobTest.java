@@ -0,0 +1,100 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.kubernetes;
+
+import io.fabric8.forge.generator.executor.Deadline;
+import org.jboss.forge.addon.ui.result.Results;
+import org.junit.Test;
+
+import java.util.Map;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+/**
+ */
+public class ProvisioningJobTest {
+
+    @Test
+    public void testSucceededJobCompletesAllStages() throws Exception {
+        ProvisioningJob job = new ProvisioningJob("user");
+        CreateBuildConfigStatusDTO status = new CreateBuildConfigStatusDTO();
+        ProvisioningJobs.run(job, () -> {
+            job.startStage("build-configs");
+            assertEquals(ProvisioningJob.RUNNING, job.getStages().get("build-configs"));
+            job.startStage("webhooks");
+            return Results.success("done", status);
+        });
+
+        Map<String, String> stages = job.getStages();
+        assertEquals(ProvisioningJob.SUCCEEDED, job.getStatus());
+        assertEquals(ProvisioningJob.SUCCEEDED, stages.get("build-configs"));
+        assertEquals(ProvisioningJob.SUCCEEDED, stages.get("webhooks"));
+        assertEquals("done", job.getMessage());
+        assertSame(status, job.getResult());
+    }
+
+    @Test
+    public void testFailedResultFailsCurrentStage() throws Exception {
+        ProvisioningJob job = new ProvisioningJob("user");
+        ProvisioningJobs.run(job, () -> {
+            job.startStage("build-configs");
+            job.startStage("jenkins-job");
+            return Results.fail("no jenkins");
+        });
+
+        assertEquals(ProvisioningJob.FAILED, job.getStatus());
+        assertEquals(ProvisioningJob.SUCCEEDED, job.getStages().get("build-configs"));
+        assertEquals(ProvisioningJob.FAILED, job.getStages().get("jenkins-job"));
+        assertEquals("no jenkins", job.getMessage());
+        assertNull(job.getResult());
+    }
+
+    @Test
+    public void testExceptionFailsJob() throws Exception {
+        ProvisioningJob job = new ProvisioningJob("user");
+        ProvisioningJobs.run(job, () -> {
+            job.startStage("jenkins-discovery");
+            throw new IllegalStateException("no tenant");
+        });
+
+        assertEquals(ProvisioningJob.FAILED, job.getStatus());
+        assertEquals(ProvisioningJob.FAILED, job.getStages().get("jenkins-discovery"));
+        assertEquals("java.lang.IllegalStateException: no tenant", job.getMessage());
+    }
+
+    @Test
+    public void testJobFailsWhenItRunsOutOfTime() throws Exception {
+        ProvisioningJobs provisioningJobs = new ProvisioningJobs(1, 1, 50);
+        try {
+            ProvisioningJob job = new ProvisioningJob("user");
+            provisioningJobs.runWithDeadline(job, () -> {
+                job.startStage("webhooks");
+                Thread.sleep(100);
+                Deadline.checkCurrent("registering the webhooks");
+                return Results.success("done");
+            });
+
+            assertEquals(ProvisioningJob.FAILED, job.getStatus());
+            assertEquals(ProvisioningJob.FAILED, job.getStages().get("webhooks"));
+            assertNull("the deadline should only apply to the job", Deadline.current());
+        } finally {
+            provisioningJobs.destroy();
+        }
+    }
+}
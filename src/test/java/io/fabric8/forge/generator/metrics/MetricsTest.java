@@ -0,0 +1,72 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.metrics;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class MetricsTest {
+
+    @Before
+    public void init() {
+        Metrics.reset();
+    }
+
+    @Test
+    public void testCallOutcomesAreRecorded() throws Exception {
+        assertEquals("hello", Metrics.call(Metrics.GITHUB, "getMyself", () -> "hello"));
+        try {
+            Metrics.call(Metrics.GITHUB, "getMyself", () -> {
+                throw new IOException("boom");
+            });
+            fail("Should have thrown an exception");
+        } catch (IOException e) {
+            // expected
+        }
+        Metrics.call(Metrics.JENKINS, "triggerBuild", () -> 503, status -> status);
+
+        Map<String, Long> counts = Metrics.getCounts(Metrics.DEPENDENCY_METRIC);
+        assertEquals(Long.valueOf(1), counts.get("dependency=\"github\",operation=\"getMyself\",outcome=\"success\""));
+        assertEquals(Long.valueOf(1), counts.get("dependency=\"github\",operation=\"getMyself\",outcome=\"failure\""));
+        assertEquals(Long.valueOf(1), counts.get("dependency=\"jenkins\",operation=\"triggerBuild\",outcome=\"server_error\""));
+    }
+
+    @Test
+    public void testPrometheusText() throws Exception {
+        Metrics.recordStep("ChoosePipelineStep", "initializeUI", Metrics.SUCCESS, TimeUnit.MILLISECONDS.toNanos(30));
+        Metrics.recordStep("ChoosePipelineStep", "initializeUI", Metrics.SUCCESS, TimeUnit.SECONDS.toNanos(2));
+
+        String text = Metrics.toPrometheusText();
+        String labels = "step=\"ChoosePipelineStep\",phase=\"initializeUI\",outcome=\"success\"";
+        assertTrue(text, text.contains("# TYPE generator_step_duration_seconds histogram\n"));
+        assertTrue(text, text.contains("generator_step_duration_seconds_bucket{" + labels + ",le=\"0.025\"} 0\n"));
+        assertTrue(text, text.contains("generator_step_duration_seconds_bucket{" + labels + ",le=\"0.05\"} 1\n"));
+        assertTrue(text, text.contains("generator_step_duration_seconds_bucket{" + labels + ",le=\"2.5\"} 2\n"));
+        assertTrue(text, text.contains("generator_step_duration_seconds_bucket{" + labels + ",le=\"+Inf\"} 2\n"));
+        assertTrue(text, text.contains("generator_step_duration_seconds_count{" + labels + "} 2\n"));
+    }
+}
@@ -19,6 +19,7 @@ package io.fabric8.forge.generator.pipeline;
 import io.fabric8.forge.generator.versions.VersionHelper;
 import io.fabric8.utils.DomHelper;
 import io.fabric8.utils.Files;
+import io.fabric8.utils.IOHelpers;
 import io.fabric8.utils.Strings;
 import org.junit.Test;
 import org.slf4j.Logger;
@@ -30,6 +31,7 @@ import org.w3c.dom.NodeList;
 
 import java.io.File;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.StringTokenizer;
 
@@ -101,6 +103,39 @@ public class PomVersionChangeTest {
         }
     }
 
+    @Test
+    public void testChildModulePomsAreReturnedAndUpdated() throws Exception {
+        String basedir = System.getProperty("basedir", ".");
+        File outDir = new File(basedir, "target/test-data/pom-modules");
+        Files.recursiveDelete(outDir);
+        File childDir = new File(outDir, "child");
+        File otherDir = new File(outDir, "other");
+        childDir.mkdirs();
+        otherDir.mkdirs();
+
+        File rootPom = new File(outDir, "pom.xml");
+        IOHelpers.writeFully(rootPom, "<project>\n  <properties>\n  </properties>\n" +
+                "  <modules>\n    <module>child</module>\n    <module>other</module>\n    <module>missing</module>\n  </modules>\n</project>\n");
+        File childPom = new File(childDir, "pom.xml");
+        IOHelpers.writeFully(childPom, "<project>\n  <properties>\n  </properties>\n  <build>\n    <plugins>\n" +
+                "      <plugin>\n        <groupId>io.fabric8</groupId>\n        <artifactId>fabric8-maven-plugin</artifactId>\n      </plugin>\n" +
+                "    </plugins>\n  </build>\n</project>\n");
+        File otherPom = new File(otherDir, "pom.xml");
+        IOHelpers.writeFully(otherPom, "<project>\n  <properties>\n  </properties>\n</project>\n");
+
+        StatusDTO status = new StatusDTO();
+        List<File> modulePoms = ChoosePipelineStep.updatePomVersions(rootPom, status, "myspace", true);
+        assertEquals("module poms", Arrays.asList(childPom, otherPom), modulePoms);
+
+        for (File modulePom : modulePoms) {
+            assertEquals("nested module poms of " + modulePom, 0, ChoosePipelineStep.updatePomVersions(modulePom, status, "myspace", false).size());
+        }
+        assertPluginVersionsMatchIndices(childPom, parseXmlFile(childPom), Arrays.asList("version"));
+        // we should only add the fabric8-maven-plugin to the root pom
+        assertPluginVersionsMatchIndices(otherPom, parseXmlFile(otherPom), new ArrayList<>());
+        assertPluginVersionsMatchIndices(rootPom, parseXmlFile(rootPom), Arrays.asList("version"));
+    }
+
     protected static void assertPluginVersionsMatchIndices(File file, Document doc, List<String> expectPluginVersionList) {
         String fmpVersion = VersionHelper.fabric8MavenPluginVersion();
         NodeList plugins = doc.getElementsByTagName("plugin");
@@ -0,0 +1,77 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import io.fabric8.forge.generator.tenant.NamespaceDTO;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+/**
+ */
+public class JsonHelperTest {
+    private final ObjectMapper mapper = new ObjectMapper();
+
+    @Test
+    public void testReadValueSkipsOtherFields() throws Exception {
+        String json = "{\"data\": {\"id\": \"1\", \"links\": {\"self\": [1, {\"attributes\": 2}]}, \"attributes\": " +
+                "{\"contextInformation\": {\"recentSpaces\": [\"a\", \"b\"], \"boosterCatalog\": " +
+                "{\"gitRef\": \"master\", \"gitRepo\": \"https://github.com/foo/catalog\"}}}}}";
+
+        JsonNode catalog = JsonHelper.readValue(stream(json), mapper.readerFor(JsonNode.class),
+                "data", "attributes", "contextInformation", "boosterCatalog");
+        assertEquals("master", catalog.path("gitRef").textValue());
+        assertEquals("https://github.com/foo/catalog", catalog.path("gitRepo").textValue());
+    }
+
+    @Test
+    public void testReadValueBindsTypedList() throws Exception {
+        String json = "{\"data\": {\"attributes\": {\"email\": \"a@b.com\", \"namespaces\": [" +
+                "{\"name\": \"foo\", \"type\": \"user\", \"cluster-url\": \"https://api.example.com\"}, " +
+                "{\"name\": \"foo-jenkins\", \"type\": \"jenkins\"}]}}}";
+        ObjectReader reader = mapper.readerFor(new TypeReference<List<NamespaceDTO>>() {
+        });
+
+        List<NamespaceDTO> namespaces = JsonHelper.readValue(stream(json), reader, "data", "attributes", "namespaces");
+        assertEquals(2, namespaces.size());
+        assertEquals("foo", namespaces.get(0).getName());
+        assertEquals("jenkins", namespaces.get(1).getType());
+    }
+
+    @Test
+    public void testMissingPathsReturnNull() throws Exception {
+        ObjectReader reader = mapper.readerFor(JsonNode.class);
+        assertNull(JsonHelper.readValue(stream("{\"data\": {\"attributes\": null}}"), reader, "data", "attributes", "namespaces"));
+        assertNull(JsonHelper.readValue(stream("{\"data\": [1, 2]}"), reader, "data", "attributes"));
+        assertNull(JsonHelper.readValue(stream("{\"data\": {\"other\": {}}}"), reader, "data", "attributes"));
+        assertNull(JsonHelper.readValue(stream("{\"data\": null}"), reader, "data"));
+    }
+
+    private static InputStream stream(String json) {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
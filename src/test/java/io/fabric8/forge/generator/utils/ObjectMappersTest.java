@@ -0,0 +1,83 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.junit.Test;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+/**
+ */
+public class ObjectMappersTest {
+
+    @Test
+    public void testMappersAreShared() {
+        assertSame(ObjectMappers.json(), ObjectMappers.json());
+        assertSame(ObjectMappers.yaml(), ObjectMappers.yaml());
+        assertNotSame(ObjectMappers.json(), ObjectMappers.yaml());
+    }
+
+    @Test
+    public void testReadersAreCachedPerType() {
+        ObjectReader reader = ObjectMappers.jsonReader(Person.class);
+        assertSame(reader, ObjectMappers.jsonReader(Person.class));
+        assertNotSame(reader, ObjectMappers.yamlReader(Person.class));
+        assertSame(ObjectMappers.yamlReader(Person.class), ObjectMappers.yamlReader(Person.class));
+
+        // each TypeReference is a new instance so the readers are cached by the type it captures
+        ObjectReader listReader = ObjectMappers.jsonReader(new TypeReference<List<Person>>() {
+        });
+        assertSame(listReader, ObjectMappers.jsonReader(new TypeReference<List<Person>>() {
+        }));
+        assertNotSame(reader, listReader);
+    }
+
+    @Test
+    public void testJsonIgnoresUnknownProperties() throws Exception {
+        Person person = ObjectMappers.jsonReader(Person.class).readValue("{\"name\": \"alice\", \"age\": 42}");
+        assertEquals("alice", person.getName());
+
+        List<Person> people = ObjectMappers.jsonReader(new TypeReference<List<Person>>() {
+        }).readValue("[{\"name\": \"alice\"}, {\"name\": \"bob\", \"age\": 42}]");
+        assertEquals(2, people.size());
+        assertEquals("bob", people.get(1).getName());
+    }
+
+    @Test
+    public void testYamlIgnoresUnknownProperties() throws Exception {
+        Person person = ObjectMappers.yamlReader(Person.class).readValue("name: alice\nage: 42\n");
+        assertEquals("alice", person.getName());
+    }
+
+    public static class Person {
+        private String name;
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+    }
+}
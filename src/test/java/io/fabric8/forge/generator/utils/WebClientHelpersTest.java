@@ -0,0 +1,123 @@
+/**
+ * Licensed to the Apache Software Foundation (ASF) under one or more
+ * contributor license agreements.  See the NOTICE file distributed with
+ * this work for additional information regarding copyright ownership.
+ * The ASF licenses this file to You under the Apache License, Version 2.0
+ * (the "License"); you may not use this file except in compliance with
+ * the License.  You may obtain a copy of the License at
+ * <p>
+ * http://www.apache.org/licenses/LICENSE-2.0
+ * <p>
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.fabric8.forge.generator.utils;
+
+import com.sun.net.httpserver.HttpServer;
+import io.fabric8.forge.generator.executor.Deadline;
+import org.apache.http.pool.PoolStats;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import javax.management.ObjectName;
+import javax.ws.rs.ProcessingException;
+import javax.ws.rs.client.Client;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+/**
+ */
+public class WebClientHelpersTest {
+    private final ExecutorService executor = Executors.newCachedThreadPool();
+    private HttpServer server;
+    private String url;
+
+    @Before
+    public void start() throws Exception {
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/ok", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(body);
+            }
+        });
+        server.createContext("/slow", exchange -> {
+            try {
+                Thread.sleep(3000);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.setExecutor(executor);
+        server.start();
+        url = "http://localhost:" + server.getAddress().getPort();
+    }
+
+    @After
+    public void stop() {
+        Deadline.restore(null);
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    @Test
+    public void testClientsAreSharedPerFamily() throws Exception {
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification("test-shared");
+
+        assertSame(client, WebClientHelpers.getSharedClientWithoutHostVerification("test-shared"));
+        assertNotSame(client, WebClientHelpers.getSharedClientWithoutHostVerification("test-other"));
+        assertTrue(WebClientHelpers.getPoolStats().containsKey("test-shared"));
+        assertTrue(ManagementFactory.getPlatformMBeanServer().isRegistered(new ObjectName(WebClientHelpers.OBJECT_NAME)));
+    }
+
+    @Test
+    public void testConnectionIsReturnedToThePoolAndReused() throws Exception {
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification("test-reuse");
+
+        assertEquals("ok", client.target(url + "/ok").request().get(String.class));
+        assertEquals("ok", client.target(url + "/ok").request().get(String.class));
+
+        PoolStats stats = WebClientHelpers.getPoolStats().get("test-reuse");
+        assertEquals(0, stats.getLeased());
+        assertEquals(1, stats.getAvailable());
+    }
+
+    @Test
+    public void testDeadlineCapsTheReadTimeout() throws Exception {
+        Client client = WebClientHelpers.getSharedClientWithoutHostVerification("test-deadline");
+        Deadline.enter(Deadline.after(300));
+
+        long start = System.currentTimeMillis();
+        try {
+            client.target(url + "/slow").request().get(String.class);
+            fail("the request should have timed out at the deadline");
+        } catch (ProcessingException e) {
+            long duration = System.currentTimeMillis() - start;
+            assertTrue("the request took " + duration + " millis", duration < 2000);
+        }
+    }
+
+    @Test
+    public void testRequestTimeoutFallsBackToClientDefault() {
+        assertEquals(5000, WebClientHelpers.DeadlineHttpClientEngine.timeout(0, 5000));
+        assertEquals(5000, WebClientHelpers.DeadlineHttpClientEngine.timeout(-1, 5000));
+        assertEquals(200, WebClientHelpers.DeadlineHttpClientEngine.timeout(200, 5000));
+    }
+}